@@ -0,0 +1,120 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares metadata lookups against {@link IndexedMetadataSet} with the linear scan of a {@code HashSet<MetadataElement>} that
+ * {@link AdaptrisMessageImp} used to do.
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MetadataLookupBenchmark {
+
+  @Param({"10", "80", "150"})
+  private int metadataCount;
+
+  private Set<MetadataElement> hashSet;
+  private IndexedMetadataSet indexedSet;
+  private String lastKey;
+  private String lastKeyUpperCase;
+
+  @Setup
+  public void setup() {
+    hashSet = new HashSet<>();
+    indexedSet = new IndexedMetadataSet();
+    for (int i = 0; i < metadataCount; i++) {
+      MetadataElement e = new MetadataElement("JMSHeader_" + i, "value_" + i);
+      hashSet.add(e);
+      indexedSet.add(e);
+    }
+    lastKey = "JMSHeader_" + (metadataCount - 1);
+    lastKeyUpperCase = lastKey.toUpperCase(Locale.ROOT);
+  }
+
+  @Benchmark
+  public String hashSet_getValue() {
+    for (MetadataElement e : hashSet) {
+      if (e.getKey().equals(lastKey)) {
+        return e.getValue();
+      }
+    }
+    return null;
+  }
+
+  @Benchmark
+  public String hashSet_getValueIgnoreKeyCase() {
+    for (MetadataElement e : hashSet) {
+      if (e.getKey().equalsIgnoreCase(lastKeyUpperCase)) {
+        return e.getValue();
+      }
+    }
+    return null;
+  }
+
+  @Benchmark
+  public String indexed_getValue() {
+    return indexedSet.getValue(lastKey);
+  }
+
+  @Benchmark
+  public String indexed_getValueIgnoreKeyCase() {
+    return indexedSet.getValueIgnoreKeyCase(lastKeyUpperCase);
+  }
+
+  @Benchmark
+  public String message_getMetadataValue(MessageState state) {
+    return state.message.getMetadataValue(lastKey);
+  }
+
+  @Benchmark
+  public String message_getMetadataValueIgnoreKeyCase(MessageState state) {
+    return state.message.getMetadataValueIgnoreKeyCase(lastKeyUpperCase);
+  }
+
+  @State(Scope.Benchmark)
+  public static class MessageState {
+    private AdaptrisMessage message;
+
+    @Setup
+    public void setup(MetadataLookupBenchmark benchmark) {
+      message = DefaultMessageFactory.getDefaultInstance().newMessage();
+      message.setMetadata(benchmark.hashSet);
+    }
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.util.text.xml;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathFactory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.w3c.dom.Document;
+
+import com.adaptris.core.util.DocumentBuilderFactoryBuilder;
+import com.adaptris.core.util.XmlHelper;
+
+/**
+ * Compares evaluating an expression via {@link javax.xml.xpath.XPath#evaluate(String, Object, javax.xml.namespace.QName)} (which
+ * compiles the expression every time) with {@link XPath} which uses cached compiled expressions.
+ * <p>
+ * Both the JDK and Saxon {@link XPathFactory} implementations are measured; a new {@link XPath} instance is created for each
+ * evaluation since that is what most services do.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class XPathBenchmark {
+
+  private static final String XML = "<Envelope><Header><MessageId>abc-123</MessageId><Type>ORDER</Type></Header>"
+      + "<Body><Line qty='1'><Sku>A1</Sku></Line><Line qty='3'><Sku>B2</Sku></Line><Line qty='5'><Sku>C3</Sku></Line></Body>"
+      + "</Envelope>";
+
+  @Param({"jdk", "saxon"})
+  private String factory;
+
+  @Param({"/Envelope/Header/MessageId", "//Line[@qty > 2]/Sku", "count(/Envelope/Body/Line)",
+      "concat(/Envelope/Header/Type, '-', /Envelope/Header/MessageId)"})
+  private String expression;
+
+  private XPathFactory xpathFactory;
+  private Document document;
+
+  @Setup
+  public void setup() throws Exception {
+    xpathFactory = XPath.build("saxon".equals(factory));
+    document = XmlHelper.createDocument(XML, DocumentBuilderFactoryBuilder.newInstance());
+  }
+
+  @Benchmark
+  public Object uncompiled() throws Exception {
+    return xpathFactory.newXPath().evaluate(expression, document, XPathConstants.STRING);
+  }
+
+  @Benchmark
+  public String cached() throws Exception {
+    return new XPath(null, xpathFactory).selectSingleTextItem(document, expression);
+  }
+}
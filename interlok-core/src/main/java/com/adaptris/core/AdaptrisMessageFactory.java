@@ -22,7 +22,10 @@ import java.util.Set;
 
 import javax.validation.Valid;
 
+import org.apache.commons.lang3.BooleanUtils;
+
 import com.adaptris.annotation.AdvancedConfig;
+import com.adaptris.annotation.InputFieldDefault;
 import com.adaptris.util.GuidGenerator;
 import com.adaptris.util.IdGenerator;
 
@@ -41,6 +44,9 @@ public abstract class AdaptrisMessageFactory {
   @AdvancedConfig
   @Valid
   private IdGenerator uniqueIdGenerator;
+  @AdvancedConfig
+  @InputFieldDefault(value = "false")
+  private Boolean copyOnWriteClone;
 
   /**
    * Get the default implementationion of AdaptrisMessageFactory.
@@ -209,6 +215,11 @@ public abstract class AdaptrisMessageFactory {
    * This allows you to change the {@link IdGenerator} used both for message ids unique ids associated with
    * {@link MessageLifecycleEvent}.
    * </p>
+   * <p>
+   * If you are creating a lot of messages concurrently then consider {@link com.adaptris.util.TimeOrderedIdGenerator} which does
+   * not contend on a shared {@link java.security.SecureRandom}. Note that the unique ids for {@link MessageLifecycleEvent} and
+   * {@link MleMarker} are only generated when they are first used.
+   * </p>
    * 
    * @param s the uniqueIdGenerator to set
    */
@@ -220,4 +231,38 @@ public abstract class AdaptrisMessageFactory {
     return getUniqueIdGenerator() != null ? getUniqueIdGenerator() : DEFAULT_GENERATOR;
   }
 
+  /**
+   * @return whether or not messages created by this factory are cloned lazily.
+   * @since 3.9.3
+   */
+  public Boolean getCopyOnWriteClone() {
+    return copyOnWriteClone;
+  }
+
+  /**
+   * Specify whether {@link AdaptrisMessage} instances created by this factory use copy-on-write semantics when cloned.
+   * <p>
+   * Workflows always clone the message they receive so that the original can be used for error handling; most of the time
+   * the original is simply discarded once the message has been produced. If set to true, then {@code Object#clone()} will share
+   * the metadata, object metadata, {@link MessageLifecycleEvent} and (where the implementation allows it) the payload with the
+   * original message; each message takes its own copy of the underlying data the first time it is modified (or when a mutable
+   * view of it is requested, such as {@link AdaptrisMessage#getMetadata()} or {@link AdaptrisMessage#getObjectHeaders()}).
+   * </p>
+   * <p>
+   * {@link MetadataElement} instances that you added to the message via {@link AdaptrisMessage#addMetadata(MetadataElement)} are
+   * shared until then; so modifying them directly (rather than via the message) before the first write is visible in both
+   * messages.
+   * </p>
+   *
+   * @param b true to enable copy-on-write; default is false.
+   * @since 3.9.3
+   */
+  public void setCopyOnWriteClone(Boolean b) {
+    this.copyOnWriteClone = b;
+  }
+
+  protected boolean copyOnWriteClone() {
+    return BooleanUtils.toBooleanDefaultIfNull(getCopyOnWriteClone(), false);
+  }
+
 }
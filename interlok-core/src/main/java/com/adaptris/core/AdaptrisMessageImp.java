@@ -42,6 +42,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.adaptris.core.util.Args;
+import com.adaptris.core.util.ParsedDocumentCache;
 import com.adaptris.util.IdGenerator;
 import com.adaptris.util.stream.StreamUtil;
 
@@ -71,6 +72,23 @@ public abstract class AdaptrisMessageImp implements AdaptrisMessage, Cloneable {
   // Which is then replaced so it all works out int the end.
   private static final String RESOLVE_REGEXP = "^.*%message\\{([\\w!\\$\"#&%'\\*\\+,\\-\\.:=]+)\\}.*$";
 
+  private static final MessageEventGenerator UNKNOWN_EVENT = new MessageEventGenerator() {
+    @Override
+    public String createName() {
+      return "Unknown Event";
+    }
+
+    @Override
+    public String createQualifier() {
+      return "";
+    }
+
+    @Override
+    public boolean isTrackingEndpoint() {
+      return false;
+    }
+  };
+
   private transient Logger log = LoggerFactory.getLogger(AdaptrisMessage.class);
   private transient Pattern normalResolver = Pattern.compile(RESOLVE_REGEXP);
   private transient Pattern dotAllResolver = Pattern.compile(RESOLVE_REGEXP, Pattern.DOTALL);
@@ -78,14 +96,20 @@ public abstract class AdaptrisMessageImp implements AdaptrisMessage, Cloneable {
   private IdGenerator guidGenerator;
   // persistent fields
   private String uniqueId;
-  private Set<MetadataElement> metadata;
+  private IndexedMetadataSet metadata;
   private String contentEncoding;
 
   // in memory only e.g. lost on send or persist
   private MessageLifecycleEvent messageLifeCycle;
+  // events that have yet to be added to messageLifeCycle; never shared with a clone.
+  private transient LifecycleEventRecorder lifecycleRecorder;
   private Map<Object, Object> objectMetadata;
   private String nextServiceId;
   private AdaptrisMessageFactory factory;
+  // copy-on-write; true if the corresponding structure is shared with a clone (or the original)
+  private transient boolean metadataShared;
+  private transient boolean objectMetadataShared;
+  private transient boolean lifecycleShared;
 
   private enum Resolvers {
     UniqueId {
@@ -132,12 +156,14 @@ public abstract class AdaptrisMessageImp implements AdaptrisMessage, Cloneable {
   protected AdaptrisMessageImp(IdGenerator guid, AdaptrisMessageFactory fac) {
     this();
     factory = fac;
-    metadata = new HashSet<MetadataElement>();
+    metadata = new IndexedMetadataSet();
     objectMetadata = new HashMap<>();
     guidGenerator = guid;
     messageLifeCycle = new MessageLifecycleEvent();
     messageLifeCycle.setCreationTime(System.currentTimeMillis());
-    messageLifeCycle.setUniqueId(guidGenerator.create(messageLifeCycle));
+    // Only generated if something actually uses the lifecycle event.
+    messageLifeCycle.setUniqueIdLazily(guidGenerator);
+    lifecycleRecorder = new LifecycleEventRecorder();
     setUniqueId(guidGenerator.create(this));
     // setPayload(new byte[0]);
     nextServiceId = "";
@@ -163,7 +189,8 @@ public abstract class AdaptrisMessageImp implements AdaptrisMessage, Cloneable {
   /** @see AdaptrisMessage#headersContainsKey(String) */
   @Override
   public boolean headersContainsKey(String key) {
-    return metadata.contains(new MetadataElement(resolveKey(this, key), ""));
+    String resolved = resolveKey(this, key);
+    return pendingSequence(resolved) || metadata.containsKey(resolved);
   }
 
   @Override
@@ -180,23 +207,29 @@ public abstract class AdaptrisMessageImp implements AdaptrisMessage, Cloneable {
   @Override
   public synchronized void addMetadata(MetadataElement e) {
     e.setKey(resolveKey(this, e.getKey()));
-    if (metadata.contains(e)) {
+    if (writableMetadata().contains(e)) {
       removeMetadata(e);
     }
-    metadata.add(e);
+    writableMetadata().add(e);
+    sequenceMetadataChanged(e.getKey());
   }
 
   /** @see AdaptrisMessage#removeMetadata(MetadataElement) */
   @Override
   public void removeMetadata(MetadataElement element) {
     element.setKey(resolveKey(this, element.getKey()));
-    metadata.remove(element);
+    writableMetadata().remove(element);
+    sequenceMetadataChanged(element.getKey());
   }
 
   /** @see AdaptrisMessage#removeMessageHeader(String) */
   @Override
   public void removeMessageHeader(String key) {
-    metadata.remove(new MetadataElement(resolveKey(this, key), ""));
+    String resolved = resolveKey(this, key);
+    if (headersContainsKey(resolved)) {
+      writableMetadata().remove(metadata.getElement(resolved));
+      sequenceMetadataChanged(resolved);
+    }
   }
 
   @Override
@@ -218,7 +251,9 @@ public abstract class AdaptrisMessageImp implements AdaptrisMessage, Cloneable {
   /** @see AdaptrisMessage#clearMetadata() */
   @Override
   public synchronized void clearMetadata() {
-    metadata = new HashSet<MetadataElement>();
+    metadata = new IndexedMetadataSet();
+    metadataShared = false;
+    lifecycleRecorder.resetSequence();
   }
 
   /** @see AdaptrisMessage#getMetadataValue(String) */
@@ -247,12 +282,16 @@ public abstract class AdaptrisMessageImp implements AdaptrisMessage, Cloneable {
     for (MetadataElement kp : metadata) {
       newSet.put(kp.getKey(), kp.getValue());
     }
+    if (lifecycleRecorder.sequenceModified()) {
+      newSet.put(CoreConstants.MLE_SEQUENCE_KEY, pendingSequenceValue());
+    }
     return newSet;
   }
 
   @Override
   public Set<MetadataElement> getMetadata() { // lgtm [java/unsynchronized-getter]
-    return new HashSet<MetadataElement>(metadata);
+    // The elements themselves are mutable, so don't let shared ones escape.
+    return new HashSet<MetadataElement>(writableMetadata());
   }
 
   @Override
@@ -263,7 +302,7 @@ public abstract class AdaptrisMessageImp implements AdaptrisMessage, Cloneable {
   @Override
   public void setUniqueId(String s) {
     uniqueId = s;
-    messageLifeCycle.setMessageUniqueId(getUniqueId());
+    writableLifecycle().setMessageUniqueId(getUniqueId());
   }
 
   @Override
@@ -287,34 +326,18 @@ public abstract class AdaptrisMessageImp implements AdaptrisMessage, Cloneable {
 
   @Override
   public void addEvent(MessageEventGenerator meg, boolean wasSuccessful) {
-    if (meg == null) {
-      messageLifeCycle.addMleMarker(getNextMleMarker(new MessageEventGenerator() {
-        @Override
-        public String createName() {
-          return "Unknown Event";
-        }
-
-        @Override
-        public String createQualifier() {
-          return "";
-        }
-
-        @Override
-        public boolean isTrackingEndpoint() {
-          return false;
-        }
-
-      }, wasSuccessful));
-    }
-    else {
-      messageLifeCycle.addMleMarker(getNextMleMarker(meg, wasSuccessful));
-    }
+    // The marker (and the sequence metadata) is only created if something asks for it.
+    lifecycleRecorder.record(meg != null ? meg : UNKNOWN_EVENT, wasSuccessful, nextSequenceNumber());
   }
 
   /** @see AdaptrisMessage#getMessageLifecycleEvent() */
   @Override
   public MessageLifecycleEvent getMessageLifecycleEvent() {
-    return messageLifeCycle;
+    MessageLifecycleEvent result = writableLifecycle();
+    if (lifecycleRecorder.pending() > 0) {
+      lifecycleRecorder.drainTo(result, guidGenerator);
+    }
+    return result;
   }
 
   /** @see AdaptrisMessage#encode(AdaptrisMessageEncoder) */
@@ -339,12 +362,12 @@ public abstract class AdaptrisMessageImp implements AdaptrisMessage, Cloneable {
    */
   @Override
   public void addObjectHeader(Object key, Object object) {
-    objectMetadata.put(key, object);
+    writableObjectMetadata().put(key, object);
   }
 
   @Override
   public Map<Object, Object> getObjectHeaders() {
-    return objectMetadata;
+    return writableObjectMetadata();
   }
 
   /** @see Object#toString() */
@@ -356,9 +379,9 @@ public abstract class AdaptrisMessageImp implements AdaptrisMessage, Cloneable {
   @Override
   public String toString(boolean includePayload, boolean includeEvents) {
     ToStringBuilder builder = new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append("uniqueId", getUniqueId())
-        .append("metadata", metadata);
+        .append("metadata", readableMetadata());
     if (includeEvents) {
-      builder.append("message events", messageLifeCycle);
+      builder.append("message events", getMessageLifecycleEvent());
     }
     if (includePayload) {
       builder.append("payload", getPayloadForLogging());
@@ -421,15 +444,13 @@ public abstract class AdaptrisMessageImp implements AdaptrisMessage, Cloneable {
     return value;
   }
 
-  private MleMarker getNextMleMarker(MessageEventGenerator meg, boolean successful) {
-    long seq = nextSequenceNumber();
-    this.addMetadata(CoreConstants.MLE_SEQUENCE_KEY, String.valueOf(seq));
-    MleMarker mleMarker = new MleMarker(meg, successful, seq, guidGenerator.create(meg));
-    return mleMarker;
-  }
-
-  private long nextSequenceNumber() {
+  private int nextSequenceNumber() {
     int result = 0;
+    if (lifecycleRecorder.sequenceKnown()) {
+      result = lifecycleRecorder.nextSequence();
+      lifecycleRecorder.sequence(result);
+      return result;
+    }
     if (headersContainsKey(CoreConstants.MLE_SEQUENCE_KEY)) {
       try {
         result = Integer.parseInt(getMetadataValue(CoreConstants.MLE_SEQUENCE_KEY));
@@ -448,48 +469,162 @@ public abstract class AdaptrisMessageImp implements AdaptrisMessage, Cloneable {
     // This means that the message, at the time it is produced, is always 1
     // step out of sync, use the firstMleMarker to fix this state of affairs
     // when we read the message back.
-    if (messageLifeCycle.getMleMarkers().size() == 0) {
+    if (messageLifeCycle.getMleMarkers().size() == 0 && lifecycleRecorder.pending() == 0) {
       result++;
     }
+    lifecycleRecorder.sequence(result);
     return result;
   }
 
+  private void sequenceMetadataChanged(String key) {
+    if (CoreConstants.MLE_SEQUENCE_KEY.equals(key)) {
+      lifecycleRecorder.resetSequence();
+    }
+  }
+
   /**
    * @see com.adaptris.core.AdaptrisMessage #getMetadataValueIgnoreKeyCase(java.lang.String)
    */
   @Override
   public String getMetadataValueIgnoreKeyCase(String key) {
-    String result = getMetadataValue(key);
-    if (result == null) {
-      String resolvedKey = resolveKey(this, key);
-      for (MetadataElement e : metadata) {
-        if (e.getKey().equalsIgnoreCase(resolvedKey)) {
-          result = e.getValue();
-          break;
-        }
+    if (key != null) {
+      String resolved = resolveKey(this, key);
+      if (lifecycleRecorder.sequenceModified() && CoreConstants.MLE_SEQUENCE_KEY.equalsIgnoreCase(resolved)
+          && (pendingSequence(resolved) || !metadata.containsKey(resolved))) {
+        return pendingSequenceValue();
       }
+      return metadata.getValueIgnoreKeyCase(resolved);
     }
-    return result;
+    return null;
   }
 
   /** @see Object#clone() */
   @Override
   public Object clone() throws CloneNotSupportedException {
-    AdaptrisMessage result = (AdaptrisMessage) super.clone();
+    if (copyOnWriteClone()) {
+      // Both sides now take their own copy on first modification.
+      markShared();
+      AdaptrisMessageImp result = (AdaptrisMessageImp) super.clone();
+      result.lifecycleRecorder = lifecycleRecorder.clone();
+      result.payloadModified();
+      return result;
+    }
+    // Make sure that everything is in the lifecycle we're about to copy; cloneMetadata() takes care of the sequence number.
+    getMessageLifecycleEvent();
+    AdaptrisMessageImp result = (AdaptrisMessageImp) super.clone();
+    result.lifecycleRecorder = lifecycleRecorder.clone();
 
     result.clearMetadata();
     result.setMetadata(cloneMetadata());
 
     MessageLifecycleEvent copy = getMessageLifecycleEvent().clone();
-    ((AdaptrisMessageImp) result).messageLifeCycle = copy;
+    result.messageLifeCycle = copy;
+    result.lifecycleShared = false;
 
     Map objMdCopy = new HashMap();
     objMdCopy.putAll(getObjectHeaders());
-    ((AdaptrisMessageImp) result).objectMetadata = objMdCopy;
+    result.objectMetadata = objMdCopy;
+    result.objectMetadataShared = false;
+    // A parsed document isn't thread-safe, so the clone doesn't get to share it.
+    result.payloadModified();
+    return result;
+  }
+
+  /**
+   * Discard anything that was derived from the payload.
+   * <p>
+   * Implementations should call this whenever the payload is replaced or written to; currently it discards any document parsed
+   * via {@link com.adaptris.core.util.XmlHelper#createReadOnlyDocument(AdaptrisMessage, com.adaptris.core.util.DocumentBuilderFactoryBuilder)}.
+   * </p>
+   *
+   * @since 3.9.3
+   */
+  protected void payloadModified() {
+    if (objectMetadata != null && objectMetadata.containsKey(ParsedDocumentCache.OBJECT_METADATA_KEY)) {
+      writableObjectMetadata().remove(ParsedDocumentCache.OBJECT_METADATA_KEY);
+    }
+  }
+
+  /**
+   * Whether or not {@link #clone()} should be copy-on-write.
+   *
+   * @see AdaptrisMessageFactory#setCopyOnWriteClone(Boolean)
+   */
+  protected boolean copyOnWriteClone() {
+    return factory != null && factory.copyOnWriteClone();
+  }
+
+  private void markShared() {
+    metadataShared = true;
+    objectMetadataShared = true;
+    lifecycleShared = true;
+  }
+
+  private IndexedMetadataSet writableMetadata() {
+    if (metadataShared) {
+      IndexedMetadataSet copy = new IndexedMetadataSet();
+      try {
+        for (MetadataElement e : metadata) {
+          copy.add((MetadataElement) e.clone());
+        }
+      }
+      catch (CloneNotSupportedException e) {
+        throw new RuntimeException(e);
+      }
+      metadata = copy;
+      metadataShared = false;
+    }
+    if (lifecycleRecorder.sequenceModified()) {
+      MetadataElement seq = new MetadataElement(CoreConstants.MLE_SEQUENCE_KEY, String.valueOf(lifecycleRecorder.flushSequence()));
+      metadata.remove(seq);
+      metadata.add(seq);
+    }
+    return metadata;
+  }
+
+  // The lifecycle sequence number is only written to metadata by the next write; until then reads see it via
+  // pendingSequence(), so that adding an event doesn't force a copy of metadata shared with a copy-on-write clone.
+  private boolean pendingSequence(String key) {
+    return lifecycleRecorder.sequenceModified() && CoreConstants.MLE_SEQUENCE_KEY.equals(key);
+  }
+
+  private String pendingSequenceValue() {
+    return String.valueOf(lifecycleRecorder.sequence());
+  }
 
+  // A snapshot of the metadata including any pending sequence number, without modifying this message.
+  private IndexedMetadataSet readableMetadata() {
+    if (!lifecycleRecorder.sequenceModified()) {
+      return metadata;
+    }
+    IndexedMetadataSet result = new IndexedMetadataSet(metadata);
+    MetadataElement seq = new MetadataElement(CoreConstants.MLE_SEQUENCE_KEY, pendingSequenceValue());
+    result.remove(seq);
+    result.add(seq);
     return result;
   }
 
+  private Map<Object, Object> writableObjectMetadata() {
+    if (objectMetadataShared) {
+      objectMetadata = new HashMap<>(objectMetadata);
+      objectMetadataShared = false;
+    }
+    return objectMetadata;
+  }
+
+  private MessageLifecycleEvent writableLifecycle() {
+    if (lifecycleShared) {
+      try {
+        messageLifeCycle = messageLifeCycle.clone();
+      }
+      catch (CloneNotSupportedException e) {
+        throw new RuntimeException(e);
+      }
+      lifecycleShared = false;
+    }
+    return messageLifeCycle;
+  }
+
   private Set<MetadataElement> cloneMetadata() throws CloneNotSupportedException {
     Set<MetadataElement> metadata = getMetadata();
     Set<MetadataElement> result = new HashSet<MetadataElement>();
@@ -516,12 +651,7 @@ public abstract class AdaptrisMessageImp implements AdaptrisMessage, Cloneable {
   }
 
   private String getValue(String key) {
-    for (MetadataElement e : metadata) {
-      if (e.getKey().equals(key)) {
-        return e.getValue();
-      }
-    }
-    return null;
+    return pendingSequence(key) ? pendingSequenceValue() : metadata.getValue(key);
   }
   
   private class ContentEncodingOnClose extends OutputStreamWriter {
@@ -16,6 +16,13 @@
 
 package com.adaptris.core;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.apache.commons.io.IOUtils;
+
+import com.adaptris.core.util.ExceptionHelper;
 
 /**
  * <p>
@@ -98,6 +105,54 @@ public interface AdaptrisMessageWorker extends AdaptrisComponent, MessageEventGe
    */
   AdaptrisMessage decode(byte[] bytes) throws CoreException;
 
+  /**
+   * <p>
+   * Encodes the passed message to the supplied stream using the configured <code>AdaptrisMessageEncoder</code>. If no AME is
+   * configured then the payload is written to the stream.
+   * </p>
+   * <p>
+   * The default implementation uses {@link #encode(AdaptrisMessage)}, implementations should override this to avoid creating an
+   * intermediate byte[].
+   * </p>
+   *
+   * @param msg the <code>AdaptrisMessage</code> to encode
+   * @param out the stream to write to; which is not closed.
+   * @throws CoreException wrapping any that occur
+   * @since 3.9.3
+   */
+  default void encode(AdaptrisMessage msg, OutputStream out) throws CoreException {
+    try {
+      out.write(encode(msg));
+    }
+    catch (IOException e) {
+      throw ExceptionHelper.wrapCoreException(e);
+    }
+  }
+
+  /**
+   * <p>
+   * Decodes the contents of the passed stream using the configured <code>AdaptrisMessageEncoder</code>. If no AME is configured
+   * then the contents of the stream become the payload of a new message.
+   * </p>
+   * <p>
+   * The default implementation uses {@link #decode(byte[])}, implementations should override this to avoid creating an
+   * intermediate byte[].
+   * </p>
+   *
+   * @param in the stream to decode; which is not closed.
+   * @return an <code>AdaptrisMessage</code>
+   * @throws CoreException wrapping any that occur
+   * @since 3.9.3
+   */
+  default AdaptrisMessage decode(InputStream in) throws CoreException {
+    try {
+      return decode(IOUtils.toByteArray(in));
+    }
+    catch (IOException e) {
+      throw ExceptionHelper.wrapCoreException(e);
+    }
+  }
+
   /**
    * @return the messageFactory
    */
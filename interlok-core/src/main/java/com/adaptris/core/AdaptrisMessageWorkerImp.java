@@ -20,13 +20,22 @@ import static com.adaptris.core.AdaptrisMessageFactory.defaultIfNull;
 import static org.apache.commons.lang3.StringUtils.defaultIfEmpty;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
 import javax.validation.Valid;
 import org.apache.commons.lang3.BooleanUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.adaptris.annotation.AdvancedConfig;
 import com.adaptris.annotation.InputFieldDefault;
+import com.adaptris.core.lms.FileBackedMessage;
+import com.adaptris.core.lms.ZipFileBackedMessageFactory;
+import com.adaptris.core.util.ExceptionHelper;
 import com.adaptris.core.util.ManagedThreadFactory;
+import com.adaptris.util.stream.StreamUtil;
 
 /**
  * <p>
@@ -109,6 +118,75 @@ public abstract class AdaptrisMessageWorkerImp implements AdaptrisMessageWorker
     return defaultIfNull(getMessageFactory()).newMessage(bytes);
   }
 
+  /**
+   * {@inheritDoc}
+   * <p>
+   * If there is no encoder, and the message is a {@link FileBackedMessage} then the file backing the message is copied directly to
+   * the stream, which will avoid copying the data into memory if the stream is a {@link FileOutputStream}.
+   * </p>
+   */
+  @Override
+  public void encode(AdaptrisMessage msg, OutputStream out) throws CoreException {
+    try {
+      if (encoder != null) {
+        registerEncoderMessageFactory();
+        encoder.writeMessage(msg, out);
+      }
+      else {
+        try (InputStream in = payloadStream(msg)) {
+          StreamUtil.transfer(in, out);
+        }
+      }
+    }
+    catch (Exception e) {
+      throw ExceptionHelper.wrapCoreException(e);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * If there is no encoder, and the message factory creates {@link FileBackedMessage} instances then the stream is copied
+   * directly to the file backing the message, which will avoid copying the data into memory if the stream is a
+   * {@link FileInputStream}.
+   * </p>
+   */
+  @Override
+  public AdaptrisMessage decode(InputStream in) throws CoreException {
+    try {
+      if (encoder != null) {
+        registerEncoderMessageFactory();
+        return encoder.readMessage(in);
+      }
+      AdaptrisMessage msg = defaultIfNull(getMessageFactory()).newMessage();
+      try (OutputStream out = payloadOutputStream(msg)) {
+        StreamUtil.transfer(in, out);
+      }
+      return msg;
+    }
+    catch (Exception e) {
+      throw ExceptionHelper.wrapCoreException(e);
+    }
+  }
+
+  private static InputStream payloadStream(AdaptrisMessage msg) throws Exception {
+    File f = payloadFile(msg);
+    return f != null ? new FileInputStream(f) : msg.getInputStream();
+  }
+
+  private static OutputStream payloadOutputStream(AdaptrisMessage msg) throws Exception {
+    File f = payloadFile(msg);
+    return f != null ? new FileOutputStream(f) : msg.getOutputStream();
+  }
+
+  // The file that is the payload, if there is one; zip file backed messages are compressed, so they don't count.
+  private static File payloadFile(AdaptrisMessage msg) {
+    if (msg instanceof FileBackedMessage && !(msg.getFactory() instanceof ZipFileBackedMessageFactory)) {
+      return ((FileBackedMessage) msg).currentSource();
+    }
+    return null;
+  }
+
   // gets and sets...
 
   @Override
@@ -68,6 +68,7 @@ public class DefaultAdaptrisMessageImp extends AdaptrisMessageImp {
   /** @see AdaptrisMessage#setPayload(byte[]) */
   @Override
   public void setPayload(byte[] bytes) {
+    payloadModified();
     if (bytes == null) {
       payload = new byte[0];
     }
@@ -101,6 +102,7 @@ public class DefaultAdaptrisMessageImp extends AdaptrisMessageImp {
   /** @see AdaptrisMessage#setContent(String, String) */
   @Override
   public void setContent(String payloadString, String charEnc) {
+    payloadModified();
     if (payloadString != null) {
         Charset charset =
             Charset.forName(StringUtils.defaultIfBlank(charEnc, Charset.defaultCharset().name()));
@@ -131,6 +133,10 @@ public class DefaultAdaptrisMessageImp extends AdaptrisMessageImp {
   @Override
   public Object clone() throws CloneNotSupportedException {
     DefaultAdaptrisMessageImp result = (DefaultAdaptrisMessageImp) super.clone();
+    if (copyOnWriteClone()) {
+      // payload is never modified in place, it is always replaced, so we can just share it.
+      return result;
+    }
     // clone the payload.
     try {
       byte[] newPayload = new byte[payload.length];
@@ -158,6 +164,7 @@ public class DefaultAdaptrisMessageImp extends AdaptrisMessageImp {
    */
   @Override
   public OutputStream getOutputStream() throws IOException {
+    payloadModified();
     return new ByteFilterStream(new ByteArrayOutputStream());
   }
 
@@ -170,6 +177,7 @@ public class DefaultAdaptrisMessageImp extends AdaptrisMessageImp {
     public void close() throws IOException {
       super.close();
       payload = ((ByteArrayOutputStream) super.out).toByteArray();
+      payloadModified();
     }
   }
 
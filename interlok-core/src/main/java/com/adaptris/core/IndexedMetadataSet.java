@@ -0,0 +1,217 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core;
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A {@link java.util.Set} of {@link MetadataElement} that is indexed by metadata key.
+ * <p>
+ * {@link MetadataElement#equals(Object)} only considers the key, so a {@code HashSet<MetadataElement>} already gives us constant
+ * time {@code contains()}; but getting the <strong>value</strong> associated with a key from a plain set requires you to iterate
+ * over every element. This implementation keeps the elements in a map keyed by {@link MetadataElement#getKey()} so that
+ * {@link #getValue(String)} is a single hash lookup. A secondary (lazily built) index against the lower-cased key is maintained
+ * to support {@link #getValueIgnoreKeyCase(String)}.
+ * </p>
+ * <p>
+ * The behaviour of {@link #add(MetadataElement)} is the same as {@link java.util.HashSet}; if an element with the same key is
+ * already present, then the set is not modified and {@code false} is returned. This class is not thread-safe.
+ * </p>
+ *
+ * @since 3.9.3
+ */
+public class IndexedMetadataSet extends AbstractSet<MetadataElement> {
+
+  private Map<String, MetadataElement> elements;
+  // Built on demand, only if anyone ever asks for a case-insensitive lookup.
+  private transient Map<String, MetadataElement> caseInsensitiveIndex;
+
+  public IndexedMetadataSet() {
+    elements = new HashMap<>();
+  }
+
+  public IndexedMetadataSet(Collection<MetadataElement> c) {
+    elements = new HashMap<>(Math.max((int) (c.size() / .75f) + 1, 16));
+    addAll(c);
+  }
+
+  @Override
+  public Iterator<MetadataElement> iterator() {
+    return new IndexedIterator(elements.values().iterator());
+  }
+
+  @Override
+  public int size() {
+    return elements.size();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return elements.isEmpty();
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    if (o instanceof MetadataElement) {
+      return elements.containsKey(((MetadataElement) o).getKey());
+    }
+    return false;
+  }
+
+  @Override
+  public boolean add(MetadataElement e) {
+    if (elements.containsKey(e.getKey())) {
+      return false;
+    }
+    elements.put(e.getKey(), e);
+    if (caseInsensitiveIndex != null) {
+      caseInsensitiveIndex.putIfAbsent(lowerCase(e.getKey()), e);
+    }
+    return true;
+  }
+
+  @Override
+  public boolean remove(Object o) {
+    if (o instanceof MetadataElement) {
+      return removeKey(((MetadataElement) o).getKey());
+    }
+    return false;
+  }
+
+  @Override
+  public void clear() {
+    elements.clear();
+    caseInsensitiveIndex = null;
+  }
+
+  /**
+   * Check if there is an element that has this key.
+   *
+   * @param key the key (case-sensitive).
+   * @return true if there is an element with this key.
+   */
+  public boolean containsKey(String key) {
+    return key != null && elements.containsKey(key);
+  }
+
+  /**
+   * Get the element associated with this key.
+   *
+   * @param key the key (case-sensitive).
+   * @return the element or null if not found.
+   */
+  public MetadataElement getElement(String key) {
+    return key != null ? elements.get(key) : null;
+  }
+
+  /**
+   * Get the value associated with this key.
+   *
+   * @param key the key (case-sensitive).
+   * @return the value or null if not found.
+   */
+  public String getValue(String key) {
+    MetadataElement e = getElement(key);
+    return e != null ? e.getValue() : null;
+  }
+
+  /**
+   * Get the value associated with this key, ignoring the case of the key.
+   * <p>
+   * If there are multiple keys that only differ by case then which value is returned is undefined, which is the same behaviour
+   * as {@link AdaptrisMessage#getMetadataValueIgnoreKeyCase(String)} has always had.
+   * </p>
+   *
+   * @param key the key (case-insensitive).
+   * @return the value or null if not found.
+   */
+  public String getValueIgnoreKeyCase(String key) {
+    if (key == null) {
+      return null;
+    }
+    String result = getValue(key);
+    if (result == null) {
+      MetadataElement e = caseInsensitiveIndex().get(lowerCase(key));
+      result = e != null ? e.getValue() : null;
+    }
+    return result;
+  }
+
+  private boolean removeKey(String key) {
+    MetadataElement removed = elements.remove(key);
+    if (removed != null) {
+      invalidateCaseInsensitive(removed);
+      return true;
+    }
+    return false;
+  }
+
+  private void invalidateCaseInsensitive(MetadataElement removed) {
+    // If the removed element was the one that we indexed, then there may well be another element
+    // with a key that differs only by case; easier to throw away the index and rebuild it on demand.
+    if (caseInsensitiveIndex != null && caseInsensitiveIndex.get(lowerCase(removed.getKey())) == removed) {
+      caseInsensitiveIndex = null;
+    }
+  }
+
+  private Map<String, MetadataElement> caseInsensitiveIndex() {
+    if (caseInsensitiveIndex == null) {
+      Map<String, MetadataElement> index = new HashMap<>(Math.max((int) (elements.size() / .75f) + 1, 16));
+      for (MetadataElement e : elements.values()) {
+        index.putIfAbsent(lowerCase(e.getKey()), e);
+      }
+      caseInsensitiveIndex = index;
+    }
+    return caseInsensitiveIndex;
+  }
+
+  private static String lowerCase(String s) {
+    return s.toLowerCase(Locale.ROOT);
+  }
+
+  private class IndexedIterator implements Iterator<MetadataElement> {
+    private final Iterator<MetadataElement> wrapped;
+    private MetadataElement current;
+
+    IndexedIterator(Iterator<MetadataElement> itr) {
+      wrapped = itr;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return wrapped.hasNext();
+    }
+
+    @Override
+    public MetadataElement next() {
+      current = wrapped.next();
+      return current;
+    }
+
+    @Override
+    public void remove() {
+      wrapped.remove();
+      invalidateCaseInsensitive(current);
+      current = null;
+    }
+  }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core;
+
+import java.util.Arrays;
+
+import com.adaptris.util.IdGenerator;
+
+/**
+ * Records lifecycle events against a message without creating {@link MleMarker} instances.
+ * <p>
+ * Every service calls {@link AdaptrisMessage#addEvent(MessageEventGenerator, boolean)}, but the resulting
+ * {@link MessageLifecycleEvent} is only used if something sends or reads it. Events are recorded here as parallel arrays, and the
+ * sequence number is kept as an {@code int} rather than being parsed from (and written back to) the
+ * {@link CoreConstants#MLE_SEQUENCE_KEY} metadata each time. The owning message turns the pending events into {@link MleMarker}
+ * instances via {@link #drainTo(MessageLifecycleEvent, IdGenerator)}, and writes the sequence to metadata via
+ * {@link #flushSequence()}, only when they are needed.
+ * </p>
+ * <p>
+ * Not thread-safe; it shares the thread-safety (or otherwise) of the message that owns it.
+ * </p>
+ *
+ * @since 3.9.3
+ */
+final class LifecycleEventRecorder implements Cloneable {
+
+  private static final int INITIAL_CAPACITY = 8;
+
+  private MessageEventGenerator[] generators;
+  private String[] names;
+  private String[] qualifiers;
+  private boolean[] trackingEndpoints;
+  private long[] creationTimes;
+  private int[] sequences;
+  private boolean[] successes;
+  private int size;
+
+  private int sequence;
+  // true if sequence is in step with the metadata (or will be once flushed).
+  private boolean sequenceKnown;
+  // true if sequence needs to be written to metadata.
+  private boolean sequenceModified;
+
+  LifecycleEventRecorder() {
+    generators = new MessageEventGenerator[INITIAL_CAPACITY];
+    names = new String[INITIAL_CAPACITY];
+    qualifiers = new String[INITIAL_CAPACITY];
+    trackingEndpoints = new boolean[INITIAL_CAPACITY];
+    creationTimes = new long[INITIAL_CAPACITY];
+    sequences = new int[INITIAL_CAPACITY];
+    successes = new boolean[INITIAL_CAPACITY];
+  }
+
+  /**
+   * Record an event.
+   * <p>
+   * The name, qualifier and tracking endpoint are taken from the event generator now, since they may well change (e.g. a
+   * service's unique-id) before the event is turned into a {@link MleMarker}; the generator itself is only kept to create the
+   * marker's unique-id.
+   * </p>
+   *
+   * @param meg the event generator
+   * @param success whether it was successful.
+   * @param seq the sequence number, from {@link #nextSequence()}
+   */
+  void record(MessageEventGenerator meg, boolean success, int seq) {
+    if (size == generators.length) {
+      int capacity = size * 2;
+      generators = Arrays.copyOf(generators, capacity);
+      names = Arrays.copyOf(names, capacity);
+      qualifiers = Arrays.copyOf(qualifiers, capacity);
+      trackingEndpoints = Arrays.copyOf(trackingEndpoints, capacity);
+      creationTimes = Arrays.copyOf(creationTimes, capacity);
+      sequences = Arrays.copyOf(sequences, capacity);
+      successes = Arrays.copyOf(successes, capacity);
+    }
+    generators[size] = meg;
+    names[size] = meg.createName();
+    qualifiers[size] = meg.createQualifier();
+    trackingEndpoints[size] = meg.isTrackingEndpoint();
+    creationTimes[size] = System.currentTimeMillis();
+    sequences[size] = seq;
+    successes[size] = success;
+    size++;
+  }
+
+  /**
+   * @return the number of events that have not yet been turned into {@link MleMarker} instances.
+   */
+  int pending() {
+    return size;
+  }
+
+  /**
+   * Add any pending events to the lifecycle event as {@link MleMarker} instances.
+   *
+   * @param event the event
+   * @param idGenerator used to (lazily) create the unique id for each marker.
+   */
+  void drainTo(MessageLifecycleEvent event, IdGenerator idGenerator) {
+    for (int i = 0; i < size; i++) {
+      MleMarker marker = new MleMarker(names[i], qualifiers[i], trackingEndpoints[i], successes[i], sequences[i],
+          generators[i], idGenerator);
+      marker.setCreationTime(creationTimes[i]);
+      event.addMleMarker(marker);
+      // Don't hang onto the generators.
+      generators[i] = null;
+      names[i] = null;
+      qualifiers[i] = null;
+    }
+    size = 0;
+  }
+
+  /**
+   * @return true if the sequence number is known without looking at metadata.
+   */
+  boolean sequenceKnown() {
+    return sequenceKnown;
+  }
+
+  /**
+   * @return the last sequence number handed out; only valid if {@link #sequenceKnown()}.
+   */
+  int sequence() {
+    return sequence;
+  }
+
+  /**
+   * @return the sequence number following the last one handed out; only valid if {@link #sequenceKnown()}.
+   */
+  int nextSequence() {
+    return sequence + 1;
+  }
+
+  /**
+   * Use this as the current sequence number; it will need writing to metadata.
+   */
+  void sequence(int seq) {
+    sequence = seq;
+    sequenceKnown = true;
+    sequenceModified = true;
+  }
+
+  /**
+   * @return true if the sequence number needs to be written to metadata.
+   */
+  boolean sequenceModified() {
+    return sequenceModified;
+  }
+
+  /**
+   * Mark the sequence as written to metadata.
+   *
+   * @return the sequence number to write.
+   */
+  int flushSequence() {
+    sequenceModified = false;
+    return sequence;
+  }
+
+  /**
+   * The sequence number metadata has been changed externally, so it needs to be read again.
+   */
+  void resetSequence() {
+    sequenceKnown = false;
+    sequenceModified = false;
+  }
+
+  @Override
+  protected LifecycleEventRecorder clone() {
+    try {
+      LifecycleEventRecorder copy = (LifecycleEventRecorder) super.clone();
+      copy.generators = generators.clone();
+      copy.names = names.clone();
+      copy.qualifiers = qualifiers.clone();
+      copy.trackingEndpoints = trackingEndpoints.clone();
+      copy.creationTimes = creationTimes.clone();
+      copy.sequences = sequences.clone();
+      copy.successes = successes.clone();
+      return copy;
+    }
+    catch (CloneNotSupportedException e) {
+      throw new RuntimeException(e);
+    }
+  }
+}
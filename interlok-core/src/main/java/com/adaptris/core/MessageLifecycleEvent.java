@@ -16,6 +16,7 @@
 
 package com.adaptris.core;
 
+import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
@@ -24,6 +25,7 @@ import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
 
 import com.adaptris.core.util.Args;
+import com.adaptris.util.IdGenerator;
 import com.thoughtworks.xstream.annotations.XStreamAlias;
 import com.thoughtworks.xstream.annotations.XStreamImplicit;
 
@@ -47,6 +49,8 @@ public class MessageLifecycleEvent extends Event implements Cloneable, Serializa
   private String messageUniqueId;
   @XStreamImplicit(itemFieldName = "mle-marker")
   private List<MleMarker> mleMarkers;
+  // If set, then the unique-id hasn't been generated yet.
+  private transient IdGenerator uniqueIdGenerator;
 
   /**
    * <p>
@@ -98,6 +102,26 @@ public class MessageLifecycleEvent extends Event implements Cloneable, Serializa
     return result;
   }
 
+  /**
+   * Generate the unique-id using the supplied generator when it is first needed, rather than now.
+   *
+   * @since 3.9.3
+   */
+  void setUniqueIdLazily(IdGenerator idGenerator) {
+    uniqueIdGenerator = idGenerator;
+  }
+
+  @Override
+  public synchronized String getUniqueId() {
+    if (uniqueIdGenerator != null) {
+      if (super.getUniqueId() == null) {
+        setUniqueId(uniqueIdGenerator.create(this));
+      }
+      uniqueIdGenerator = null;
+    }
+    return super.getUniqueId();
+  }
+
   /**
    * <p>
    * Adds a <code>MleMarker</code> to the end of the ordered internal store.
@@ -196,6 +220,8 @@ public class MessageLifecycleEvent extends Event implements Cloneable, Serializa
 
   @Override
   public MessageLifecycleEvent clone() throws CloneNotSupportedException {
+    // The copy should have the same id.
+    getUniqueId();
     MessageLifecycleEvent copy = (MessageLifecycleEvent) super.clone();
     List<MleMarker> mleMarkerCopy = new ArrayList<MleMarker>();
 
@@ -205,4 +231,10 @@ public class MessageLifecycleEvent extends Event implements Cloneable, Serializa
     copy.mleMarkers = mleMarkerCopy;
     return copy;
   }
+
+  // Make sure the id exists before we are marshalled.
+  private Object writeReplace() throws ObjectStreamException {
+    getUniqueId();
+    return this;
+  }
 }
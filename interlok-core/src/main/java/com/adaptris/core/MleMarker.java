@@ -16,6 +16,7 @@
 
 package com.adaptris.core;
 
+import java.io.ObjectStreamException;
 import java.io.Serializable;
 
 import org.apache.commons.lang3.builder.EqualsBuilder;
@@ -24,6 +25,7 @@ import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
 
 import com.adaptris.core.util.Args;
+import com.adaptris.util.IdGenerator;
 import com.thoughtworks.xstream.annotations.XStreamAlias;
 
 /**
@@ -52,6 +54,10 @@ public class MleMarker implements Cloneable, Serializable {
   private boolean isConfirmation;
   private long sequenceNumber;
   private long creationTime;
+  // If set, then the unique-id hasn't been generated yet.
+  private transient IdGenerator uniqueIdGenerator;
+  // What the unique-id will be generated from, mirroring IdGenerator#create(meg) when the marker was created eagerly.
+  private transient MessageEventGenerator uniqueIdSource;
 
   /**
    * <p>
@@ -95,6 +101,31 @@ public class MleMarker implements Cloneable, Serializable {
     setUniqueId(id);
   }
 
+  /**
+   * Create a marker whose unique-id is only generated when it is first needed.
+   * <p>
+   * The unique-id is still generated from the {@link MessageEventGenerator} via {@link IdGenerator#create(Object)}, as it would
+   * have been if it was created eagerly.
+   * </p>
+   *
+   * @param name the name, as recorded from {@link MessageEventGenerator#createName()}
+   * @param qualifier the qualifier, as recorded from {@link MessageEventGenerator#createQualifier()}
+   * @param trackingEndpoint as recorded from {@link MessageEventGenerator#isTrackingEndpoint()}
+   * @param success true if successful
+   * @param seq the sequence number
+   * @param meg the event generator the unique-id is created from.
+   * @param idGenerator creates the unique-id.
+   * @since 3.9.3
+   */
+  MleMarker(String name, String qualifier, boolean trackingEndpoint, boolean success, long seq, MessageEventGenerator meg,
+            IdGenerator idGenerator) {
+    this(name, success, seq, (String) null);
+    setQualifier(qualifier);
+    setIsTrackingEndpoint(trackingEndpoint);
+    uniqueIdGenerator = idGenerator;
+    uniqueIdSource = meg;
+  }
+
   /**
    * Set the creation time for this marker.
    *
@@ -179,8 +210,10 @@ public class MleMarker implements Cloneable, Serializable {
    *
    * @param id the unique id.
    */
-  public void setUniqueId(String id) {
+  public synchronized void setUniqueId(String id) {
     uniqueId = id;
+    uniqueIdGenerator = null;
+    uniqueIdSource = null;
   }
 
   /**
@@ -188,16 +221,29 @@ public class MleMarker implements Cloneable, Serializable {
    *
    * @return the uniqueid.
    */
-  public String getUniqueId() {
+  public synchronized String getUniqueId() {
+    if (uniqueIdGenerator != null) {
+      uniqueId = uniqueIdGenerator.create(uniqueIdSource);
+      uniqueIdGenerator = null;
+      uniqueIdSource = null;
+    }
     return uniqueId;
   }
 
   /** @see java.lang.Object#clone() */
   @Override
   public Object clone() throws CloneNotSupportedException {
+    // The copy should have the same id.
+    getUniqueId();
     return super.clone();
   }
 
+  // Make sure the id exists before we are marshalled.
+  private Object writeReplace() throws ObjectStreamException {
+    getUniqueId();
+    return this;
+  }
+
   @Override
   public String toString() {
     return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append("id", getUniqueId())
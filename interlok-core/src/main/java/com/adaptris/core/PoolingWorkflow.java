@@ -28,6 +28,7 @@ import java.util.concurrent.TimeUnit;
 import javax.validation.Valid;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
+import org.apache.commons.lang3.BooleanUtils;
 import org.apache.commons.lang3.Range;
 import org.apache.commons.pool2.PooledObject;
 import org.apache.commons.pool2.PooledObjectFactory;
@@ -145,6 +146,10 @@ public class PoolingWorkflow extends WorkflowImp {
   @Max(Thread.MAX_PRIORITY)
   private Integer threadPriority;
 
+  @AdvancedConfig
+  @InputFieldDefault(value = "false")
+  private Boolean producerPerWorker;
+
   private transient ExecutorService threadPool;
   private transient GenericObjectPool<Worker> objectPool;
   private transient FifoMutexLock poolLock;
@@ -388,8 +393,13 @@ public class PoolingWorkflow extends WorkflowImp {
    * @see WorkflowImp#sendMessageLifecycleEvent(AdaptrisMessage)
    */
   @Override
-  protected synchronized void sendMessageLifecycleEvent(AdaptrisMessage msg) {
-    super.sendMessageLifecycleEvent(msg);
+  protected void sendMessageLifecycleEvent(AdaptrisMessage msg) {
+    // Don't bother contending for the lock if we aren't going to send anything.
+    if (sendEvents()) {
+      synchronized (this) {
+        super.sendMessageLifecycleEvent(msg);
+      }
+    }
   }
 
   private GenericObjectPool<Worker> createObjectPool() {
@@ -567,6 +577,39 @@ public class PoolingWorkflow extends WorkflowImp {
     return TimeInterval.toMillisecondsDefaultIfNull(getInitWaitTime(), DEFAULT_INIT_WAIT);
   }
 
+  /**
+   * @return whether each worker has its own producer.
+   * @since 3.9.3
+   */
+  public Boolean getProducerPerWorker() {
+    return producerPerWorker;
+  }
+
+  /**
+   * Specify whether each worker in the pool has its own instance of the configured producer.
+   * <p>
+   * By default, all the workers in the pool share the single producer configured on the workflow; {@link #doProduce(AdaptrisMessage)}
+   * is {@code synchronized} so message production is serialized even though the service collection is not. If set to true, then
+   * each worker gets its own copy of the producer (created in the same way as each worker gets a copy of the
+   * {@link ServiceCollection}); messages are then produced concurrently without holding the workflow lock. The copies share the
+   * channel's produce connection, but will have their own producer specific resources (e.g. JMS sessions, HTTP connections).
+   * </p>
+   * <p>
+   * The producer configured on the workflow is still initialised and started, as it is still used by things such as
+   * {@link RetryMessageErrorHandler}; it is also the producer that is referenced by any {@link MessageLifecycleEvent}.
+   * </p>
+   *
+   * @param b true to give each worker its own producer; default is false.
+   * @since 3.9.3
+   */
+  public void setProducerPerWorker(Boolean b) {
+    this.producerPerWorker = b;
+  }
+
+  boolean producerPerWorker() {
+    return BooleanUtils.toBooleanDefaultIfNull(getProducerPerWorker(), false);
+  }
+
   /**
    * Return the total number of objects in the pool. This includes active and idle objects.
    *
@@ -602,6 +645,15 @@ public class PoolingWorkflow extends WorkflowImp {
     return result;
   }
 
+  private AdaptrisMessageProducer cloneProducer(AdaptrisMessageProducer original) throws CoreException {
+    AdaptrisMessageProducer result =
+        (AdaptrisMessageProducer) serviceListMarshaller.unmarshal(serviceListMarshaller.marshal(original));
+    // Not added to the connection; otherwise it'd hang on to producers from workers that have been discarded.
+    result.registerConnection(obtainChannel().getProduceConnection());
+    LifecycleHelper.registerEventHandler(result, eventHandler);
+    return result;
+  }
+
   /**
    * Return the current number of active threads in the thread pool. This number is just a snaphot, and may change immediately upon
    * returning
@@ -725,10 +777,15 @@ public class PoolingWorkflow extends WorkflowImp {
   class Worker {
 
     private ServiceCollection sc;
+    // only if producerPerWorker()
+    private AdaptrisMessageProducer producer;
 
     Worker() throws CoreException {
       try {
         sc = cloneServiceCollection(marshalledServiceCollection);
+        if (producerPerWorker()) {
+          producer = cloneProducer(getProducer());
+        }
       }
       catch (Exception e) {
         throw new CoreException(e);
@@ -737,10 +794,20 @@ public class PoolingWorkflow extends WorkflowImp {
 
     public void start() throws CoreException {
       LifecycleHelper.initAndStart(sc, false);
+      if (producer != null) {
+        try {
+          LifecycleHelper.initAndStart(producer, false);
+        }
+        catch (CoreException e) {
+          LifecycleHelper.stopAndClose(sc, false);
+          throw e;
+        }
+      }
     }
 
     public void stop() throws CoreException {
       LifecycleHelper.stopAndClose(sc, false);
+      LifecycleHelper.stopAndClose(producer, false);
     }
 
     public boolean isValid() {
@@ -758,7 +825,7 @@ public class PoolingWorkflow extends WorkflowImp {
         wip.getMessageLifecycleEvent().setWorkflowId(obtainWorkflowId());
         wip.addEvent(getConsumer(), true);
         sc.doService(wip);
-        doProduce(wip);
+        produce(wip);
         logSuccess(wip, start);
       }
       catch (ProduceException e) {
@@ -774,6 +841,15 @@ public class PoolingWorkflow extends WorkflowImp {
       }
       return wip;
     }
+
+    private void produce(AdaptrisMessage wip) throws ServiceException, ProduceException {
+      if (producer != null) {
+        doProduce(wip, producer);
+      }
+      else {
+        doProduce(wip);
+      }
+    }
   }
 
 }
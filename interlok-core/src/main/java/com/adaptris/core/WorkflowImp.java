@@ -381,9 +381,20 @@ public abstract class WorkflowImp implements Workflow {
    */
   @Override
   public void doProduce(AdaptrisMessage msg) throws ServiceException, ProduceException {
+    doProduce(msg, producer);
+  }
+
+  /**
+   * Produce the message using the specified producer, honouring {@link CoreConstants#KEY_WORKFLOW_SKIP_PRODUCER}.
+   *
+   * @param msg the message to produce
+   * @param p the producer to use.
+   * @throws ProduceException if any occur
+   */
+  protected void doProduce(AdaptrisMessage msg, AdaptrisMessageProducer p) throws ProduceException {
     if (!Boolean.valueOf(msg.getMetadataValue(KEY_WORKFLOW_SKIP_PRODUCER)).booleanValue()) {
-      producer.produce(msg);
-      msg.addEvent(producer, true);
+      p.produce(msg);
+      msg.addEvent(p, true);
     }
     else {
       log.debug("Skipping message producer, {} set to true", KEY_WORKFLOW_SKIP_PRODUCER);
@@ -16,7 +16,7 @@
 
 package com.adaptris.core;
 
-import static com.adaptris.core.util.XmlHelper.createDocument;
+import static com.adaptris.core.util.XmlHelper.createReadOnlyDocument;
 import static com.adaptris.util.text.xml.XPath.newXPathInstance;
 import static org.apache.commons.lang3.StringUtils.isEmpty;
 import javax.validation.Valid;
@@ -102,7 +102,7 @@ public class XpathTradingRelationshipCreator implements
       NamespaceContext namespaceCtx = SimpleNamespaceContext.create(getNamespaceContext(), msg);
       DocumentBuilderFactoryBuilder builder = documentFactoryBuilder(namespaceCtx);     
       XPath xpath = newXPathInstance(builder, namespaceCtx);
-      Document doc = createDocument(msg, builder);
+      Document doc = createReadOnlyDocument(msg, builder);
       String source = resolveXpath(sourceXpath, xpath, doc);
       String destination = resolveXpath(destinationXpath, xpath, doc);
       String type = resolveXpath(typeXpath, xpath, doc);
@@ -0,0 +1,312 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core.fs;
+
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import javax.validation.constraints.NotBlank;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.ObjectUtils;
+
+import com.adaptris.annotation.AdvancedConfig;
+import com.adaptris.annotation.DisplayOrder;
+import com.adaptris.annotation.InputFieldDefault;
+import com.adaptris.core.CoreException;
+import com.adaptris.core.util.ExceptionHelper;
+import com.thoughtworks.xstream.annotations.XStreamAlias;
+
+/**
+ * {@link ProcessedItemCache} implementation that persists changes to an append-only log.
+ * <p>
+ * {@link XStreamItemCache} rewrites the entire cache every time {@link #save()} is called, which becomes expensive when a large
+ * number of files are being tracked. This implementation appends a small binary record to the log whenever an entry is added,
+ * changed or evicted, so the cost of each update is independent of the size of the cache. An entry that has been seen again
+ * without changing is only rewritten once half of the {@link #setAgeBeforeEviction(com.adaptris.util.TimeInterval)} has passed,
+ * which is enough to stop it being evicted after a restart.
+ * </p>
+ * <p>
+ * When the number of stale records in the log exceeds both {@link #setCompactionThreshold(Integer)} and the number of live entries,
+ * the log is compacted as part of {@link #save()} by writing the live entries to a new file and replacing the log. On startup the
+ * log is replayed into memory; a partially written record at the end of the log (e.g. because of a crash) is discarded.
+ * </p>
+ *
+ * @config fs-appending-log-processed-item-cache
+ * @since 3.9.3
+ */
+@XStreamAlias("fs-appending-log-processed-item-cache")
+@DisplayOrder(order = {"persistentStore", "compactionThreshold", "ageBeforeEviction"})
+public class AppendingLogItemCache extends InlineItemCache {
+
+  private static final int MAGIC = 0x50494c31;
+  private static final byte PUT = 1;
+  private static final byte REMOVE = 2;
+  private static final int DEFAULT_COMPACTION_THRESHOLD = 10000;
+
+  @NotBlank
+  private String persistentStore;
+  @AdvancedConfig
+  @InputFieldDefault(value = "10000")
+  private Integer compactionThreshold;
+
+  private transient DataOutputStream log;
+  private transient int records;
+
+  public AppendingLogItemCache() {
+    super();
+  }
+
+  public AppendingLogItemCache(String store) {
+    this();
+    setPersistentStore(store);
+  }
+
+  @Override
+  public void init() throws CoreException {
+    if (isBlank(getPersistentStore())) {
+      throw new CoreException("No persistent store configured");
+    }
+    try {
+      File store = new File(getPersistentStore());
+      cache = new HashMap<String, ProcessedItem>();
+      records = 0;
+      boolean clean = replay(store);
+      if (!clean) {
+        compact();
+      }
+      openLog(store);
+    }
+    catch (IOException e) {
+      throw ExceptionHelper.wrapCoreException(e);
+    }
+    super.init();
+  }
+
+  @Override
+  public void close() {
+    save();
+    IOUtils.closeQuietly(log);
+    log = null;
+    super.close();
+  }
+
+  @Override
+  public void update(ProcessedItem i) {
+    ProcessedItem existing = cache.get(i.getAbsolutePath());
+    // If nothing has changed, keep the entry that is already on disk, so that we know when it needs refreshing.
+    if (existing == null || existing.getLastModified() != i.getLastModified() || existing.getFilesize() != i.getFilesize()
+        || i.getLastProcessed() - existing.getLastProcessed() > ageBeforeEvictionMs() / 2) {
+      cache.put(i.getAbsolutePath(), i);
+      append(PUT, i);
+    }
+  }
+
+  @Override
+  public void clear() {
+    super.clear();
+    if (log == null) {
+      return;
+    }
+    try {
+      compact();
+    }
+    catch (IOException e) {
+      logR.warn("Failed to clear persistent store [{}]", getPersistentStore(), e);
+    }
+  }
+
+  @Override
+  public void evict() {
+    long now = System.currentTimeMillis();
+    for (Iterator<Map.Entry<String, ProcessedItem>> i = cache.entrySet().iterator(); i.hasNext();) {
+      ProcessedItem item = i.next().getValue();
+      if (now - item.getLastProcessed() > ageBeforeEvictionMs()) {
+        i.remove();
+        append(REMOVE, item);
+      }
+    }
+  }
+
+  @Override
+  public void save() {
+    super.save();
+    if (log == null) {
+      return;
+    }
+    try {
+      if (records - cache.size() > Math.max(compactionThreshold(), cache.size())) {
+        compact();
+      }
+      else {
+        log.flush();
+      }
+    }
+    catch (IOException e) {
+      logR.warn("Failed to save persistent store [{}]", getPersistentStore(), e);
+    }
+  }
+
+  private void append(byte op, ProcessedItem item) {
+    if (log == null) {
+      return;
+    }
+    try {
+      write(log, op, item);
+      records++;
+    }
+    catch (IOException e) {
+      logR.warn("Failed to write [{}] to persistent store", item.getAbsolutePath(), e);
+    }
+  }
+
+  private boolean replay(File store) throws IOException {
+    if (!store.exists()) {
+      logR.trace("[{}] does not exist, starting with an empty cache", store.getAbsolutePath());
+      return false;
+    }
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(store)))) {
+      if (in.readInt() != MAGIC) {
+        throw new IOException("[" + store.getAbsolutePath() + "] is not a processed item log");
+      }
+      while (true) {
+        int op = in.read();
+        if (op == -1) {
+          break;
+        }
+        ProcessedItem item = read(in, (byte) op);
+        if (op == PUT) {
+          cache.put(item.getAbsolutePath(), item);
+        }
+        else {
+          cache.remove(item.getAbsolutePath());
+        }
+        records++;
+      }
+    }
+    catch (EOFException e) {
+      logR.warn("[{}] was truncated, discarding incomplete record", store.getAbsolutePath());
+      return false;
+    }
+    logR.trace("Replayed {} records ({} entries) from [{}]", records, cache.size(), store.getAbsolutePath());
+    return true;
+  }
+
+  private void compact() throws IOException {
+    File store = new File(getPersistentStore());
+    boolean reopen = log != null;
+    IOUtils.closeQuietly(log);
+    log = null;
+    File parent = store.getAbsoluteFile().getParentFile();
+    parent.mkdirs();
+    File tmp = new File(parent, store.getName() + ".tmp");
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+      out.writeInt(MAGIC);
+      for (ProcessedItem item : cache.values()) {
+        write(out, PUT, item);
+      }
+    }
+    Files.move(tmp.toPath(), store.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    records = cache.size();
+    logR.trace("Compacted [{}] to {} entries", store.getAbsolutePath(), records);
+    if (reopen) {
+      openLog(store);
+    }
+  }
+
+  private void openLog(File store) throws IOException {
+    log = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(store, true)));
+  }
+
+  private static void write(DataOutputStream out, byte op, ProcessedItem item) throws IOException {
+    byte[] path = item.getAbsolutePath().getBytes(StandardCharsets.UTF_8);
+    out.writeByte(op);
+    out.writeInt(path.length);
+    out.write(path);
+    if (op == PUT) {
+      out.writeLong(item.getLastModified());
+      out.writeLong(item.getFilesize());
+      out.writeLong(item.getLastProcessed());
+    }
+  }
+
+  private static ProcessedItem read(DataInputStream in, byte op) throws IOException {
+    byte[] path = new byte[in.readInt()];
+    in.readFully(path);
+    ProcessedItem item = new ProcessedItem();
+    item.setAbsolutePath(new String(path, StandardCharsets.UTF_8));
+    if (op == PUT) {
+      item.setLastModified(in.readLong());
+      item.setFilesize(in.readLong());
+      item.setLastProcessed(in.readLong());
+    }
+    else if (op != REMOVE) {
+      throw new IOException("Unknown record type " + op);
+    }
+    return item;
+  }
+
+  /**
+   * @return the filename
+   */
+  public String getPersistentStore() {
+    return persistentStore;
+  }
+
+  /**
+   * @param filename the file where to store cached items.
+   */
+  public void setPersistentStore(String filename) {
+    persistentStore = filename;
+  }
+
+  public Integer getCompactionThreshold() {
+    return compactionThreshold;
+  }
+
+  /**
+   * Set the minimum number of stale records in the log before it is compacted.
+   * <p>
+   * The log is only compacted when the number of stale records also exceeds the number of live entries, so the log never grows
+   * beyond roughly twice its compacted size.
+   * </p>
+   *
+   * @param i the threshold, default is 10000.
+   */
+  public void setCompactionThreshold(Integer i) {
+    compactionThreshold = i;
+  }
+
+  int compactionThreshold() {
+    return ObjectUtils.defaultIfNull(getCompactionThreshold(), DEFAULT_COMPACTION_THRESHOLD);
+  }
+}
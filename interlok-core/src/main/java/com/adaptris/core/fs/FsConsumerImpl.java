@@ -25,10 +25,16 @@ import static org.apache.commons.lang3.StringUtils.isEmpty;
 import java.io.File;
 import java.io.FileFilter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import javax.management.MalformedObjectNameException;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
@@ -77,6 +83,9 @@ public abstract class FsConsumerImpl extends AdaptrisPollingConsumer {
   @AutoPopulated
   @AdvancedConfig
   private FileSorter fileSorter;
+  @AdvancedConfig
+  @InputFieldDefault(value = "no limit")
+  private Integer maxFilesPerPoll;
 
   static {
     RuntimeInfoComponentFactory.registerComponentFactory(new JmxFactory());
@@ -105,7 +114,7 @@ public abstract class FsConsumerImpl extends AdaptrisPollingConsumer {
     int filesProcessed = 0;
     try {
       File dir = verifyDirectory();
-      fileList = Arrays.asList(dir.listFiles(fileFilter));
+      fileList = listFiles(dir, fileFilter);
     }
     catch (Exception e) {
       log.warn("Exception listing files in [{}], waiting for next scheduled poll", getDestination().getDestination());
@@ -114,7 +123,6 @@ public abstract class FsConsumerImpl extends AdaptrisPollingConsumer {
       }
       return 0;
     }
-    fileList = getFileSorter().sort(fileList);
     for (File file : fileList) {
       try {
         filesProcessed += processFile(file);
@@ -132,6 +140,36 @@ public abstract class FsConsumerImpl extends AdaptrisPollingConsumer {
     return filesProcessed;
   }
 
+  /**
+   * List and sort the files in the directory.
+   * <p>
+   * If {@link #setMaxFilesPerPoll(Integer)} has been specified, then the directory is read using a {@link DirectoryStream} and only
+   * the first {@code max-files-per-poll} files (according to the configured {@link FileSorter}) are returned; otherwise all the
+   * matching files are listed and then sorted.
+   * </p>
+   *
+   * @param dir the directory
+   * @param filter the filter, which may be null.
+   * @return the sorted list of files.
+   * @since 3.9.3
+   */
+  protected List<File> listFiles(File dir, FileFilter filter) throws Exception {
+    if (getMaxFilesPerPoll() == null) {
+      File[] files = filter != null ? dir.listFiles(filter) : dir.listFiles();
+      if (files == null) {
+        throw new IOException("Failed to list files in [" + dir + "]");
+      }
+      return getFileSorter().sort(Arrays.asList(files));
+    }
+    try (DirectoryStream<Path> paths = Files.newDirectoryStream(dir.toPath())) {
+      Stream<File> files = StreamSupport.stream(paths.spliterator(), false).map(Path::toFile);
+      if (filter != null) {
+        files = files.filter(filter::accept);
+      }
+      return getFileSorter().sort(files::iterator, maxFilesPerPoll());
+    }
+  }
+
   /**
    * Does this file match the quiet period directive.
    *
@@ -230,9 +268,11 @@ public abstract class FsConsumerImpl extends AdaptrisPollingConsumer {
   protected AdaptrisMessage createAdaptrisMessage(File fileToProcess) throws CoreException {
     AdaptrisMessage msg = null;
     try {
-      msg = decode(fsWorker.get(fileToProcess));
+      try (InputStream in = fsWorker.openInputStream(fileToProcess)) {
+        msg = decode(in);
+      }
     }
-    catch (FsException e) {
+    catch (FsException | IOException e) {
       throw new CoreException(e);
     }
     return msg;
@@ -358,6 +398,30 @@ public abstract class FsConsumerImpl extends AdaptrisPollingConsumer {
     fileSorter = Args.notNull(fs, "file sorter");
   }
 
+  public Integer getMaxFilesPerPoll() {
+    return maxFilesPerPoll;
+  }
+
+  /**
+   * Set the maximum number of files that will be picked up on each poll.
+   * <p>
+   * On directories with a large number of files, listing (and sorting) every file on each poll can be expensive. If this is
+   * specified then the directory is streamed, and only the files that would be at the head of the sorted list are retained. This
+   * differs from {@link #setMaxMessagesPerPoll(Integer)} which does not limit the number of files that are listed. For
+   * {@link TraversingFsConsumer} the limit applies to each directory that is traversed.
+   * </p>
+   *
+   * @param i the max number of files, default is null (no limit).
+   * @since 3.9.3
+   */
+  public void setMaxFilesPerPoll(Integer i) {
+    maxFilesPerPoll = i;
+  }
+
+  int maxFilesPerPoll() {
+    return Math.max(1, getMaxFilesPerPoll() != null ? getMaxFilesPerPoll().intValue() : Integer.MAX_VALUE);
+  }
+
   int filesRemaining() throws Exception {
     return verifyDirectory().listFiles(FsHelper.createFilter(getDestination().getFilterExpression(), fileFilterImp())).length;
 
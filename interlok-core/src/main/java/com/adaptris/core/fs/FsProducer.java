@@ -21,6 +21,7 @@ import static com.adaptris.core.CoreConstants.PRODUCED_NAME_KEY;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URL;
 
 import javax.validation.Valid;
@@ -176,10 +177,27 @@ public class FsProducer extends ProduceOnlyProducerImp {
       log.trace("Writing to temporary file " + tmpFile.getCanonicalPath());
       fileToWriteTo = tmpFile;
     }
-    fsWorker.put(encode(msg), fileToWriteTo);
-    if (getTempDirectory() != null) {
-      log.trace("Renaming temporary file to " + destFile.getCanonicalPath());
-      fileToWriteTo.renameTo(destFile);
+    // e.g. AppendingFsWorker writes to an existing file; only ever delete a file that we created.
+    boolean existed = fileToWriteTo.exists();
+    boolean created = false;
+    try {
+      try (OutputStream out = fsWorker.openOutputStream(fileToWriteTo)) {
+        created = !existed;
+        encode(msg, out);
+      }
+      if (getTempDirectory() != null) {
+        log.trace("Renaming temporary file to " + destFile.getCanonicalPath());
+        if (!fileToWriteTo.renameTo(destFile)) {
+          throw new IOException("Failed to rename " + fileToWriteTo.getCanonicalPath() + " to " + destFile.getCanonicalPath());
+        }
+      }
+    }
+    catch (Exception e) {
+      // Don't leave a partial file for something else to pick up (or to stop a retry from working).
+      if (created && fileToWriteTo.exists() && !fileToWriteTo.delete()) {
+        log.warn("Failed to delete partially written file {}", fileToWriteTo.getCanonicalPath());
+      }
+      throw e;
     }
   }
 
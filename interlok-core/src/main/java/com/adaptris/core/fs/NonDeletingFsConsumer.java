@@ -29,6 +29,7 @@ import com.adaptris.core.ConsumeDestination;
 import com.adaptris.core.CoreConstants;
 import com.adaptris.core.CoreException;
 import com.adaptris.core.NullConnection;
+import com.adaptris.core.util.LifecycleHelper;
 import com.thoughtworks.xstream.annotations.XStreamAlias;
 
 /**
@@ -146,21 +147,25 @@ public class NonDeletingFsConsumer extends FsConsumerImpl {
   public void init() throws CoreException {
     super.init();
     filesDetected.getProcessedItems().clear();
+    LifecycleHelper.init(getProcessedItemCache());
   }
 
   @Override
   public void start() throws CoreException {
+    LifecycleHelper.start(getProcessedItemCache());
     super.start();
   }
 
   @Override
   public void close() {
     super.close();
+    LifecycleHelper.close(getProcessedItemCache());
   }
 
   @Override
   public void stop() {
     super.stop();
+    LifecycleHelper.stop(getProcessedItemCache());
   }
 
   public ProcessedItemCache getProcessedItemCache() {
@@ -19,7 +19,6 @@ package com.adaptris.core.fs;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import com.adaptris.annotation.AdapterComponent;
 import com.adaptris.annotation.ComponentProfile;
@@ -29,6 +28,7 @@ import com.adaptris.core.ConsumeDestination;
 import com.adaptris.core.CoreConstants;
 import com.adaptris.core.CoreException;
 import com.adaptris.core.NullConnection;
+import com.adaptris.core.util.ExceptionHelper;
 import com.adaptris.fs.FsException;
 import com.thoughtworks.xstream.annotations.XStreamAlias;
 
@@ -66,7 +66,7 @@ public class TraversingFsConsumer extends FsConsumer {
     int filesProcessed = 0;
     try {
       File dir = verifyDirectory();
-      fileList = Arrays.asList(dir.listFiles());
+      fileList = listFiles(dir, null);
     }
     catch (Exception e) {
       log.warn("Exception listing files in [{}], waiting for next scheduled poll", getDestination().getDestination());
@@ -75,7 +75,6 @@ public class TraversingFsConsumer extends FsConsumer {
       }
       return 0;
     }
-    fileList = getFileSorter().sort(fileList);
     for (File file : fileList) {
       try {
         filesProcessed += processFile(file);
@@ -112,8 +111,13 @@ public class TraversingFsConsumer extends FsConsumer {
   private int processDirectory(File srcDir) throws CoreException {
     int result = 0;
     logFile(srcDir, "processDirectory ");
-    List<File> fileList = Arrays.asList(srcDir.listFiles());
-    fileList = getFileSorter().sort(fileList);
+    List<File> fileList = null;
+    try {
+      fileList = listFiles(srcDir, null);
+    }
+    catch (Exception e) {
+      throw ExceptionHelper.wrapCoreException(e);
+    }
 
     for (File f : fileList) {
       result += processFile(f);
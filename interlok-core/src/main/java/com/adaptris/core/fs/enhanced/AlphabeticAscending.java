@@ -40,6 +40,15 @@ public class AlphabeticAscending implements FileSorter, Comparator<File> {
     return list;
   }
 
+  @Override
+  public List<File> sort(Iterable<File> files, int max) {
+    BoundedSort<File> sorter = new BoundedSort<>(max, this);
+    for (File f : files) {
+      sorter.offer(f);
+    }
+    return sorter.sorted();
+  }
+
   @Override
   public int compare(File o1, File o2) {
     return o1.compareTo(o2);
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core.fs.enhanced;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Keeps the first {@code max} items (according to the supplied order) out of an arbitrary number of items.
+ * <p>
+ * Backed by a heap whose head is the largest item retained, so each offer is at most {@code O(log max)} and only {@code max} items
+ * are ever held in memory.
+ * </p>
+ */
+final class BoundedSort<T> {
+
+  private final int max;
+  private final Comparator<? super T> order;
+  private final PriorityQueue<T> heap;
+
+  BoundedSort(int max, Comparator<? super T> order) {
+    this.max = max;
+    this.order = order;
+    heap = new PriorityQueue<>(Math.max(1, Math.min(max, 1024)), order.reversed());
+  }
+
+  void offer(T item) {
+    if (heap.size() < max) {
+      heap.offer(item);
+    }
+    else if (max > 0 && order.compare(item, heap.peek()) < 0) {
+      heap.poll();
+      heap.offer(item);
+    }
+  }
+
+  List<T> sorted() {
+    List<T> result = new ArrayList<>(heap);
+    result.sort(order);
+    return result;
+  }
+}
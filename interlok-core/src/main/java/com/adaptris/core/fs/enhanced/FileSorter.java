@@ -17,6 +17,7 @@
 package com.adaptris.core.fs.enhanced;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -35,4 +36,29 @@ public interface FileSorter {
    */
   List<File> sort(List<File> unsorted);
 
+  /**
+   * Select, and sort, at most {@code max} files.
+   * <p>
+   * This is used when a consumer only wants to process a limited number of files on each poll. Implementations should return the
+   * first {@code max} files from all the files, in sorted order, without holding all of the files in memory. The default
+   * implementation simply takes the first {@code max} files (in the order they are presented) and then sorts those using
+   * {@link #sort(List)}.
+   * </p>
+   *
+   * @param files the files, which may only be iterated once.
+   * @param max the maximum number of files to return.
+   * @return the sorted list, containing no more than {@code max} files.
+   * @since 3.9.3
+   */
+  default List<File> sort(Iterable<File> files, int max) {
+    List<File> result = new ArrayList<>();
+    for (File f : files) {
+      if (result.size() >= max) {
+        break;
+      }
+      result.add(f);
+    }
+    return sort(result);
+  }
+
 }
@@ -30,6 +30,22 @@ public abstract class SafeFileSorter implements FileSorter {
   }
 
 
+  /**
+   * {@inheritDoc}
+   * <p>
+   * The attributes of each file are read once, and only the {@code max} files that sort first are retained.
+   * </p>
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public List<File> sort(Iterable<File> files, int max) {
+    BoundedSort<SortEntry> sorter = new BoundedSort<>(max, (a, b) -> a.compareTo(b));
+    for (File f : files) {
+      sorter.offer(wrap(f));
+    }
+    return unwrap(sorter.sorted());
+  }
+
   private List<SortEntry> wrap(List<File> unsorted) {
     List<SortEntry> result = new ArrayList<>(unsorted.size());
     for (File f : unsorted) {
@@ -68,7 +68,7 @@ import com.thoughtworks.xstream.annotations.XStreamImplicit;
 
 })
 @DisplayOrder(order = {"url", "method", "contentType", "defaultServiceId", "authentication", "requestHeaderProvider",
-    "responseHeaderHandler", "statusMatches"})
+    "responseHeaderHandler", "statusMatches", "connectionPool"})
 public class BranchingHttpRequestService extends HttpRequestServiceImpl {
 
   @NotNull
@@ -0,0 +1,239 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core.http.client.net;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.ObjectUtils;
+import org.eclipse.jetty.client.HttpClient;
+import org.eclipse.jetty.util.HttpCookieStore;
+import org.eclipse.jetty.util.ssl.SslContextFactory;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.adaptris.annotation.AdvancedConfig;
+import com.adaptris.annotation.ComponentProfile;
+import com.adaptris.annotation.DisplayOrder;
+import com.adaptris.annotation.InputFieldDefault;
+import com.adaptris.core.ComponentLifecycle;
+import com.adaptris.core.CoreException;
+import com.adaptris.core.util.ExceptionHelper;
+import com.adaptris.util.TimeInterval;
+import com.thoughtworks.xstream.annotations.XStreamAlias;
+
+/**
+ * An explicitly configured pool of keep-alive HTTP connections for use with {@link StandardHttpProducer},
+ * {@link HttpRequestService} and {@link BranchingHttpRequestService}.
+ * <p>
+ * By default those components use {@link URL#openConnection()}, where connection reuse is controlled by JVM wide system
+ * properties such as {@code http.keepAlive} and {@code http.maxConnections}. Configuring one of these instead means that
+ * requests are made via an embedded Jetty {@code HttpClient} with its own connection pool: the number of connections per host,
+ * the number of requests that can be queued waiting for a connection, and how long idle connections are kept are all
+ * configurable. Request bodies are streamed to the server as they are written, and response bodies are streamed back as they
+ * are read.
+ * </p>
+ * <p>
+ * A standard {@link HttpURLConnection} buffers the whole request body so that it can send a {@code Content-Length} header; a
+ * pooled connection does not. When the request body is the message payload (the default) its size is known, so a
+ * {@code Content-Length} is still sent; otherwise (e.g. a different request body, or an encoder) the request body is sent
+ * using chunked transfer encoding, which the server must support.
+ * </p>
+ * <p>
+ * The connections handed out are still {@link HttpURLConnection} instances so existing request header providers, response
+ * header handlers, authenticators that add headers and encoders continue to work. Unlike a standard {@link HttpURLConnection}
+ * cookies are not stored between requests, responses are not transparently decompressed, and challenge based authentication
+ * via {@link java.net.Authenticator} is not supported. For HTTPS the default JRE truststore is used.
+ * </p>
+ * 
+ * @config http-connection-pool
+ * @since 3.9.3
+ */
+@XStreamAlias("http-connection-pool")
+@ComponentProfile(summary = "A pool of keep-alive HTTP connections", tag = "http,https", since = "3.9.3")
+@DisplayOrder(order = {"maxConnectionsPerHost", "maxQueuedRequestsPerHost", "idleTimeout", "connectTimeout"})
+public class HttpConnectionPool implements ComponentLifecycle {
+
+  private static final int DEFAULT_MAX_CONNECTIONS_PER_HOST = 64;
+  private static final int DEFAULT_MAX_QUEUED_PER_HOST = 1024;
+  private static final TimeInterval DEFAULT_IDLE_TIMEOUT = new TimeInterval(1L, TimeUnit.MINUTES);
+  private static final TimeInterval DEFAULT_CONNECT_TIMEOUT = new TimeInterval(15L, TimeUnit.SECONDS);
+
+  private transient Logger log = LoggerFactory.getLogger(this.getClass());
+
+  @InputFieldDefault(value = "64")
+  private Integer maxConnectionsPerHost;
+  @AdvancedConfig
+  @InputFieldDefault(value = "1024")
+  private Integer maxQueuedRequestsPerHost;
+  @InputFieldDefault(value = "1 minute")
+  private TimeInterval idleTimeout;
+  @AdvancedConfig
+  @InputFieldDefault(value = "15 seconds")
+  private TimeInterval connectTimeout;
+
+  private transient HttpClient httpClient;
+
+  public HttpConnectionPool() {
+
+  }
+
+  @Override
+  public void init() throws CoreException {
+    HttpClient client = new HttpClient(new SslContextFactory.Client());
+    QueuedThreadPool threads = new QueuedThreadPool();
+    threads.setName(getClass().getSimpleName());
+    threads.setDaemon(true);
+    client.setExecutor(threads);
+    client.setMaxConnectionsPerDestination(maxConnectionsPerHost());
+    client.setMaxRequestsQueuedPerDestination(maxQueuedRequestsPerHost());
+    client.setIdleTimeout(idleTimeoutMs());
+    client.setConnectTimeout(connectTimeoutMs());
+    // Behave like HttpURLConnection; no cookies and no transparent gzip.
+    client.setCookieStore(new HttpCookieStore.Empty());
+    client.getContentDecoderFactories().clear();
+    httpClient = client;
+  }
+
+  @Override
+  public void start() throws CoreException {
+    try {
+      httpClient.start();
+    }
+    catch (Exception e) {
+      throw ExceptionHelper.wrapCoreException(e);
+    }
+  }
+
+  @Override
+  public void stop() {
+    try {
+      if (httpClient != null) {
+        httpClient.stop();
+      }
+    }
+    catch (Exception e) {
+      log.trace("Failed to stop HttpClient", e);
+    }
+  }
+
+  @Override
+  public void close() {
+    httpClient = null;
+  }
+
+  /**
+   * Open a connection to the URL.
+   * 
+   * @param url the url.
+   * @return a connection that uses this pool; nothing is sent until the output stream or response is requested.
+   * @throws IOException if the pool has not been started.
+   */
+  public HttpURLConnection openConnection(URL url) throws IOException {
+    if (httpClient == null || !httpClient.isStarted()) {
+      throw new IOException("HttpConnectionPool is not started");
+    }
+    return new PooledHttpURLConnection(url, httpClient);
+  }
+
+  public Integer getMaxConnectionsPerHost() {
+    return maxConnectionsPerHost;
+  }
+
+  /**
+   * Set the maximum number of connections to each host.
+   * <p>
+   * Note that a host here is the combination of scheme, host and port.
+   * </p>
+   * 
+   * @param i the max number of connections, default 64.
+   */
+  public void setMaxConnectionsPerHost(Integer i) {
+    maxConnectionsPerHost = i;
+  }
+
+  int maxConnectionsPerHost() {
+    return ObjectUtils.defaultIfNull(getMaxConnectionsPerHost(), DEFAULT_MAX_CONNECTIONS_PER_HOST);
+  }
+
+  public HttpConnectionPool withMaxConnectionsPerHost(Integer i) {
+    setMaxConnectionsPerHost(i);
+    return this;
+  }
+
+  public Integer getMaxQueuedRequestsPerHost() {
+    return maxQueuedRequestsPerHost;
+  }
+
+  /**
+   * Set the maximum number of requests that can wait for a connection to each host.
+   * <p>
+   * Once this is exceeded, requests fail immediately.
+   * </p>
+   * 
+   * @param i the max number of queued requests, default 1024.
+   */
+  public void setMaxQueuedRequestsPerHost(Integer i) {
+    maxQueuedRequestsPerHost = i;
+  }
+
+  int maxQueuedRequestsPerHost() {
+    return ObjectUtils.defaultIfNull(getMaxQueuedRequestsPerHost(), DEFAULT_MAX_QUEUED_PER_HOST);
+  }
+
+  public TimeInterval getIdleTimeout() {
+    return idleTimeout;
+  }
+
+  /**
+   * Set how long a connection can be idle before it is closed and removed from the pool.
+   * 
+   * @param t the timeout, default 1 minute.
+   */
+  public void setIdleTimeout(TimeInterval t) {
+    idleTimeout = t;
+  }
+
+  long idleTimeoutMs() {
+    return TimeInterval.toMillisecondsDefaultIfNull(getIdleTimeout(), DEFAULT_IDLE_TIMEOUT);
+  }
+
+  public HttpConnectionPool withIdleTimeout(TimeInterval t) {
+    setIdleTimeout(t);
+    return this;
+  }
+
+  public TimeInterval getConnectTimeout() {
+    return connectTimeout;
+  }
+
+  /**
+   * Set the timeout when establishing a new connection.
+   * 
+   * @param t the timeout, default 15 seconds.
+   */
+  public void setConnectTimeout(TimeInterval t) {
+    connectTimeout = t;
+  }
+
+  long connectTimeoutMs() {
+    return TimeInterval.toMillisecondsDefaultIfNull(getConnectTimeout(), DEFAULT_CONNECT_TIMEOUT);
+  }
+}
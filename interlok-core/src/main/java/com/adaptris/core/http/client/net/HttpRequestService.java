@@ -50,7 +50,8 @@ import com.thoughtworks.xstream.annotations.XStreamAlias;
 {
     "adphttpresponse"
 })
-@DisplayOrder(order = {"url", "method", "contentType", "authenticator", "requestHeaderProvider", "responseHeaderHandler"})
+@DisplayOrder(order = {"url", "method", "contentType", "authenticator", "requestHeaderProvider", "responseHeaderHandler",
+    "connectionPool"})
 public class HttpRequestService extends HttpRequestServiceImpl implements DynamicPollingTemplate.TemplateProvider {
 
   public HttpRequestService() {
@@ -41,6 +41,7 @@ import com.adaptris.core.http.client.RequestHeaderProvider;
 import com.adaptris.core.http.client.RequestMethodProvider.RequestMethod;
 import com.adaptris.core.http.client.ResponseHeaderHandler;
 import com.adaptris.core.util.Args;
+import com.adaptris.core.util.LifecycleHelper;
 
 /**
  * Direct HTTP support as a service rather than wrapped via {@link StandaloneProducer} or {@link StandaloneRequestor}.
@@ -89,6 +90,9 @@ public abstract class HttpRequestServiceImpl extends ServiceImp {
   @NotNull
   @AutoPopulated
   private HttpAuthenticator authenticator = new NoAuthentication();
+  @Valid
+  @AdvancedConfig
+  private HttpConnectionPool connectionPool;
 
   public HttpRequestServiceImpl() {
     super();
@@ -108,11 +112,24 @@ public abstract class HttpRequestServiceImpl extends ServiceImp {
 
   @Override
   protected void initService() throws CoreException {
+    LifecycleHelper.init(getConnectionPool());
+  }
 
+  @Override
+  public void start() throws CoreException {
+    LifecycleHelper.start(getConnectionPool());
+    super.start();
+  }
+
+  @Override
+  public void stop() {
+    super.stop();
+    LifecycleHelper.stop(getConnectionPool());
   }
 
   @Override
   protected void closeService() {
+    LifecycleHelper.close(getConnectionPool());
   }
 
   protected StandardHttpProducer buildProducer(AdaptrisMessage msg) {
@@ -124,6 +141,7 @@ public abstract class HttpRequestServiceImpl extends ServiceImp {
     p.setAuthenticator(getAuthenticator());
     p.setRequestHeaderProvider(getRequestHeaderProvider());
     p.setResponseHeaderHandler(getResponseHeaderHandler());
+    p.withSharedConnectionPool(getConnectionPool());
     p.registerConnection(new NullConnection());
     return p;
   }
@@ -270,4 +288,26 @@ public abstract class HttpRequestServiceImpl extends ServiceImp {
     setAuthenticator(auth);
     return (T) this;
   }
+
+  public HttpConnectionPool getConnectionPool() {
+    return connectionPool;
+  }
+
+  /**
+   * Use an explicitly configured connection pool for requests made by this service.
+   * <p>
+   * The pool is shared by every request this service makes, and is started and stopped along with this service.
+   * </p>
+   * 
+   * @param pool the pool, default is null (use {@link java.net.URL#openConnection()}).
+   * @since 3.9.3
+   */
+  public void setConnectionPool(HttpConnectionPool pool) {
+    this.connectionPool = pool;
+  }
+
+  public <T extends HttpRequestServiceImpl> T withConnectionPool(HttpConnectionPool pool) {
+    setConnectionPool(pool);
+    return (T) this;
+  }
 }
@@ -0,0 +1,265 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core.http.client.net;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.ProtocolException;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.eclipse.jetty.client.HttpClient;
+import org.eclipse.jetty.client.api.ContentProvider;
+import org.eclipse.jetty.client.api.Request;
+import org.eclipse.jetty.client.api.Response;
+import org.eclipse.jetty.client.util.InputStreamResponseListener;
+import org.eclipse.jetty.client.util.OutputStreamContentProvider;
+import org.eclipse.jetty.http.HttpField;
+
+/**
+ * {@link HttpURLConnection} facade over a pooled Jetty {@link HttpClient}.
+ * <p>
+ * The request is sent when the output stream is first requested (so the body is streamed as it is written) or when the response
+ * is first requested; the response body is streamed via {@link InputStreamResponseListener}. Unlike {@link HttpURLConnection},
+ * the request body is not buffered in order to calculate a {@code Content-Length}; it is sent chunked unless
+ * {@link #setFixedLengthStreamingMode(long)} has been called.
+ * </p>
+ * <p>
+ * The pooled connection is only released once the response body has been completely read and closed, or the exchange is aborted
+ * via {@link #disconnect()} (in which case the connection is closed rather than reused).
+ * </p>
+ */
+class PooledHttpURLConnection extends HttpURLConnection {
+
+  private final HttpClient client;
+  private Request request;
+  private InputStreamResponseListener listener;
+  private OutputStream requestBody;
+  private boolean requestBodyClosed;
+  private Response response;
+  private InputStream responseBody;
+
+  PooledHttpURLConnection(URL url, HttpClient client) {
+    super(url);
+    this.client = client;
+  }
+
+  @Override
+  public void setRequestMethod(String m) throws ProtocolException {
+    // HttpURLConnection doesn't allow PATCH.
+    if (connected) {
+      throw new ProtocolException("Can't reset method: already connected");
+    }
+    method = m;
+  }
+
+  @Override
+  public void connect() throws IOException {
+    if (!connected) {
+      send(null);
+    }
+  }
+
+  @Override
+  public OutputStream getOutputStream() throws IOException {
+    if (!doOutput) {
+      throw new ProtocolException("cannot write to a URLConnection if doOutput=false - call setDoOutput(true)");
+    }
+    if (requestBody == null) {
+      if (connected) {
+        throw new ProtocolException("Cannot write output after reading input.");
+      }
+      long length = fixedContentLengthLong != -1 ? fixedContentLengthLong : fixedContentLength;
+      OutputStreamContentProvider content = length >= 0 ? new FixedLengthContent(length) : new OutputStreamContentProvider();
+      requestBody = content.getOutputStream();
+      send(content);
+    }
+    return requestBody;
+  }
+
+  private void send(ContentProvider content) throws IOException {
+    try {
+      Request r = client.newRequest(url.toURI()).method(method).followRedirects(getInstanceFollowRedirects());
+      for (Map.Entry<String, List<String>> e : getRequestProperties().entrySet()) {
+        for (String value : e.getValue()) {
+          r.header(e.getKey(), value);
+        }
+      }
+      if (getReadTimeout() > 0) {
+        r.idleTimeout(getReadTimeout(), TimeUnit.MILLISECONDS);
+      }
+      if (content != null) {
+        r.content(content);
+      }
+      listener = new InputStreamResponseListener();
+      r.send(listener);
+      request = r;
+      connected = true;
+    }
+    catch (Exception e) {
+      throw e instanceof IOException ? (IOException) e : new IOException(e.getMessage(), e);
+    }
+  }
+
+  private Response response() throws IOException {
+    connect();
+    if (response == null) {
+      if (requestBody != null && !requestBodyClosed) {
+        requestBodyClosed = true;
+        requestBody.close();
+      }
+      try {
+        response = listener.get(getReadTimeout() > 0 ? getReadTimeout() : Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+      }
+      catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        request.abort(e);
+        throw new InterruptedIOException("Interrupted waiting for a response from " + url);
+      }
+      catch (TimeoutException e) {
+        request.abort(e);
+        throw new SocketTimeoutException("Read timed out waiting for a response from " + url);
+      }
+      catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        throw cause instanceof IOException ? (IOException) cause : new IOException(cause.getMessage(), cause);
+      }
+    }
+    return response;
+  }
+
+  private InputStream responseBody() {
+    if (responseBody == null) {
+      responseBody = listener.getInputStream();
+    }
+    return responseBody;
+  }
+
+  @Override
+  public int getResponseCode() throws IOException {
+    return response().getStatus();
+  }
+
+  @Override
+  public String getResponseMessage() throws IOException {
+    return response().getReason();
+  }
+
+  @Override
+  public InputStream getInputStream() throws IOException {
+    int status = getResponseCode();
+    if (status >= HTTP_BAD_REQUEST) {
+      throw new IOException("Server returned HTTP response code: " + status + " for URL: " + url);
+    }
+    return responseBody();
+  }
+
+  @Override
+  public InputStream getErrorStream() {
+    if (response != null && response.getStatus() >= HTTP_BAD_REQUEST) {
+      return responseBody();
+    }
+    return null;
+  }
+
+  @Override
+  public Map<String, List<String>> getHeaderFields() {
+    Map<String, List<String>> result = new LinkedHashMap<>();
+    for (HttpField f : headers()) {
+      result.computeIfAbsent(f.getName(), k -> new ArrayList<>()).add(f.getValue());
+    }
+    return Collections.unmodifiableMap(result);
+  }
+
+  @Override
+  public String getHeaderField(String name) {
+    // Like HttpURLConnection, the last value wins.
+    String result = null;
+    for (HttpField f : headers()) {
+      if (f.getName().equalsIgnoreCase(name)) {
+        result = f.getValue();
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public String getHeaderFieldKey(int n) {
+    List<HttpField> fields = headers();
+    return n > 0 && n <= fields.size() ? fields.get(n - 1).getName() : null;
+  }
+
+  @Override
+  public String getHeaderField(int n) {
+    List<HttpField> fields = headers();
+    if (n == 0 && response != null) {
+      return response.getVersion() + " " + response.getStatus() + " " + response.getReason();
+    }
+    return n > 0 && n <= fields.size() ? fields.get(n - 1).getValue() : null;
+  }
+
+  private List<HttpField> headers() {
+    List<HttpField> result = new ArrayList<>();
+    try {
+      for (HttpField f : response().getHeaders()) {
+        result.add(f);
+      }
+    }
+    catch (IOException e) {
+      // As per HttpURLConnection, no headers available.
+    }
+    return result;
+  }
+
+  @Override
+  public void disconnect() {
+    // Has no effect if the exchange has already completed.
+    if (request != null) {
+      request.abort(new IOException("Disconnected"));
+    }
+  }
+
+  @Override
+  public boolean usingProxy() {
+    return false;
+  }
+
+  // Lets Jetty send a Content-Length rather than a chunked body.
+  private static class FixedLengthContent extends OutputStreamContentProvider {
+    private final long length;
+
+    FixedLengthContent(long length) {
+      this.length = length;
+    }
+
+    @Override
+    public long getLength() {
+      return length;
+    }
+  }
+}
@@ -37,6 +37,7 @@ import javax.net.ssl.HttpsURLConnection;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.NullOutputStream;
 import org.apache.commons.lang3.BooleanUtils;
 import com.adaptris.annotation.AdapterComponent;
 import com.adaptris.annotation.AdvancedConfig;
@@ -62,6 +63,7 @@ import com.adaptris.core.http.client.RequestMethodProvider;
 import com.adaptris.core.http.client.RequestMethodProvider.RequestMethod;
 import com.adaptris.core.util.Args;
 import com.adaptris.core.util.ExceptionHelper;
+import com.adaptris.core.util.LifecycleHelper;
 import com.adaptris.interlok.InterlokException;
 import com.adaptris.interlok.config.DataInputParameter;
 import com.adaptris.interlok.config.DataOutputParameter;
@@ -87,6 +89,11 @@ import com.thoughtworks.xstream.annotations.XStreamAlias;
  * "https://docs.oracle.com/javase/8/docs/technotes/guides/security/jsse/JSSERefGuide.html#InstallationAndCustomization">Oracles
  * JSSE documentation</a> for a full discussion of the required system properties.
  * </p>
+ * <p>
+ * Connection reuse for {@link HttpURLConnection} is governed by JVM wide system properties (e.g. {@code http.keepAlive} and
+ * {@code http.maxConnections}); if you need explicit control over the number of connections to each host and how long idle
+ * connections are kept then configure a {@link HttpConnectionPool} via {@link #setConnectionPool(HttpConnectionPool)}.
+ * </p>
  * 
  * @config standard-http-producer
  * 
@@ -106,7 +113,7 @@ import com.thoughtworks.xstream.annotations.XStreamAlias;
 @DisplayOrder(order =
 {
     "authenticator", "allowRedirect", "ignoreServerResponseCode", "alwaysSendPayload", "methodProvider",
-    "contentTypeProvider", "requestHeaderProvider", "requestBody", "responseHeaderHandler", "responseBody"})
+    "contentTypeProvider", "requestHeaderProvider", "requestBody", "responseHeaderHandler", "responseBody", "connectionPool"})
 public class StandardHttpProducer extends HttpProducer<HttpURLConnection, HttpURLConnection> {
 
   private static final String PARAM_CHARSET = "charset";
@@ -146,6 +153,12 @@ public class StandardHttpProducer extends HttpProducer<HttpURLConnection, HttpUR
   @Valid
   @AdvancedConfig(rare = true)
   private TimeInterval readTimeout;
+  @Valid
+  @AdvancedConfig
+  private HttpConnectionPool connectionPool;
+
+  // A pool whose lifecycle is managed elsewhere (e.g. by HttpRequestService)
+  private transient HttpConnectionPool sharedConnectionPool;
 
   public StandardHttpProducer() {
     super();
@@ -159,6 +172,26 @@ public class StandardHttpProducer extends HttpProducer<HttpURLConnection, HttpUR
     setDestination(d);
   }
 
+  @Override
+  public void init() throws CoreException {
+    LifecycleHelper.init(getConnectionPool());
+  }
+
+  @Override
+  public void start() throws CoreException {
+    LifecycleHelper.start(getConnectionPool());
+  }
+
+  @Override
+  public void stop() {
+    LifecycleHelper.stop(getConnectionPool());
+  }
+
+  @Override
+  public void close() {
+    LifecycleHelper.close(getConnectionPool());
+  }
+
   @Override
   public void produce(AdaptrisMessage msg, ProduceDestination dest) throws ProduceException {
     doRequest(msg, dest, defaultTimeout(), defaultIfNull(getMessageFactory()).newMessage());
@@ -171,10 +204,11 @@ public class StandardHttpProducer extends HttpProducer<HttpURLConnection, HttpUR
 
   private AdaptrisMessage doRequest(AdaptrisMessage msg, ProduceDestination destination, long timeout, AdaptrisMessage reply)
       throws ProduceException {
+    HttpURLConnection http = null;
     try {
       URL url = new URL(destination.getDestination(msg));
       authenticator.setup(url.toString(), msg, null);
-      HttpURLConnection http = configure(configureTimeouts((HttpURLConnection) url.openConnection(), timeout), msg);
+      http = configure(configureTimeouts(openConnection(url), timeout), msg);
       if (authenticator instanceof HttpURLConnectionAuthenticator) {
         ((HttpURLConnectionAuthenticator) authenticator).configureConnection(http);
       }
@@ -184,10 +218,24 @@ public class StandardHttpProducer extends HttpProducer<HttpURLConnection, HttpUR
       throw ExceptionHelper.wrapProduceException(e);
     } finally {
       authenticator.close();
+      release(http);
     }
     return reply;
   }
 
+  // A pooled connection can't be reused until its exchange is complete; if the response hasn't been fully read (because
+  // something went wrong) then this discards it.
+  private static void release(HttpURLConnection http) {
+    if (http instanceof PooledHttpURLConnection) {
+      http.disconnect();
+    }
+  }
+
+  private HttpURLConnection openConnection(URL url) throws IOException {
+    HttpConnectionPool pool = connectionPool();
+    return pool != null ? pool.openConnection(url) : (HttpURLConnection) url.openConnection();
+  }
+
   private HttpURLConnection configure(HttpURLConnection http, AdaptrisMessage msg) throws Exception {
     RequestMethod rm = getMethod(msg);
     log.trace("HTTP Request Method is : [{}]", rm);
@@ -227,6 +275,10 @@ public class StandardHttpProducer extends HttpProducer<HttpURLConnection, HttpUR
         getEncoder().writeMessage(src, dest);
       }
       else {
+        if (dest instanceof PooledHttpURLConnection && requestBody() instanceof PayloadStreamInputParameter) {
+          // We know the size, so there's no need for a chunked request.
+          dest.setFixedLengthStreamingMode(src.getSize());
+        }
         copyAndClose(requestBody().extract(src), dest.getOutputStream());
       }
     }
@@ -249,20 +301,34 @@ public class StandardHttpProducer extends HttpProducer<HttpURLConnection, HttpUR
     log.trace("Content-Length is " + http.getContentLength());
 
     if (responseCode < 200 || responseCode > 299) {
-      if (ignoreServerResponseCode()) {
-        log.trace("Ignoring HTTP Reponse code {}", responseCode);
-        responseBody().insert(new InputStreamWithEncoding(http.getErrorStream(), getContentEncoding(http)), reply);
-      } else {
-        fail(responseCode, new InputStreamWithEncoding(http.getErrorStream(), getContentEncoding(http)));
+      InputStreamWithEncoding error = new InputStreamWithEncoding(http.getErrorStream(), getContentEncoding(http));
+      try {
+        if (ignoreServerResponseCode()) {
+          log.trace("Ignoring HTTP Reponse code {}", responseCode);
+          responseBody().insert(error, reply);
+        } else {
+          fail(responseCode, error);
+        }
+      } finally {
+        discard(error.inputStream);
       }
     } else {
       if (getEncoder() != null) {
-        AdaptrisMessage decodedReply = getEncoder().readMessage(http);
-        AdaptrisMessageImp.copyPayload(decodedReply, reply);
-        reply.getObjectHeaders().putAll(decodedReply.getObjectHeaders());
-        reply.setMetadata(decodedReply.getMetadata());
+        try {
+          AdaptrisMessage decodedReply = getEncoder().readMessage(http);
+          AdaptrisMessageImp.copyPayload(decodedReply, reply);
+          reply.getObjectHeaders().putAll(decodedReply.getObjectHeaders());
+          reply.setMetadata(decodedReply.getMetadata());
+        } finally {
+          discard(http.getInputStream());
+        }
       } else {
-        responseBody().insert(new InputStreamWithEncoding(http.getInputStream(), getContentEncoding(http)), reply);
+        InputStream in = http.getInputStream();
+        try {
+          responseBody().insert(new InputStreamWithEncoding(in, getContentEncoding(http)), reply);
+        } finally {
+          discard(in);
+        }
       }
     }
     getResponseHeaderHandler().handle(http, reply);
@@ -286,6 +352,20 @@ public class StandardHttpProducer extends HttpProducer<HttpURLConnection, HttpUR
     return null;
   }
 
+  // Read anything that is left and close the stream, so that the connection can be reused.
+  private void discard(InputStream in) {
+    if (in == null) {
+      return;
+    }
+    try {
+      IOUtils.copy(in, NullOutputStream.NULL_OUTPUT_STREAM);
+    } catch (IOException e) {
+      log.trace("Failed to read remaining response data: {}", e.getMessage());
+    } finally {
+      IOUtils.closeQuietly(in);
+    }
+  }
+
   private void fail(int responseCode, InputStreamWithEncoding data) throws ProduceException {
     if (log.isTraceEnabled()) {
       try {
@@ -410,4 +490,33 @@ public class StandardHttpProducer extends HttpProducer<HttpURLConnection, HttpUR
   public void setReadTimeout(TimeInterval t) {
     this.readTimeout = t;
   }
+
+  public HttpConnectionPool getConnectionPool() {
+    return connectionPool;
+  }
+
+  /**
+   * Use an explicitly configured connection pool rather than {@link URL#openConnection()}.
+   * 
+   * @param pool the pool, default is null (use {@link URL#openConnection()}).
+   * @since 3.9.3
+   */
+  public void setConnectionPool(HttpConnectionPool pool) {
+    this.connectionPool = pool;
+  }
+
+  public StandardHttpProducer withConnectionPool(HttpConnectionPool pool) {
+    setConnectionPool(pool);
+    return this;
+  }
+
+  // The caller is responsible for the lifecycle of the pool.
+  StandardHttpProducer withSharedConnectionPool(HttpConnectionPool pool) {
+    sharedConnectionPool = pool;
+    return this;
+  }
+
+  private HttpConnectionPool connectionPool() {
+    return getConnectionPool() != null ? getConnectionPool() : sharedConnectionPool;
+  }
 }
@@ -41,6 +41,9 @@ import java.util.Timer;
 import java.util.TimerTask;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
 import javax.servlet.Servlet;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServlet;
@@ -62,6 +65,13 @@ import com.adaptris.util.TimeInterval;
 
 /**
  * This is the abstract class for all implementations that make use of Jetty to receive messages.
+ * <p>
+ * When the consumer is the entry point for a {@link com.adaptris.core.PoolingWorkflow} (or any workflow with a
+ * {@link JettyWorkflowInterceptorImpl} interceptor), the Jetty request thread normally waits until the workflow has finished. If
+ * {@link #setAsyncProcessing(Boolean)} is true, then the request is put into asynchronous mode instead, and the Jetty thread is
+ * released immediately; the request is completed when the response is written by {@link StandardResponseProducer} or
+ * {@link ShortCutJettyResponse}, when the workflow ends, or when the {@link TimeoutAction} is triggered.
+ * </p>
  * 
  * 
  * @author lchan
@@ -94,6 +104,9 @@ public abstract class BasicJettyConsumer extends AdaptrisMessageConsumerImp {
   @AdvancedConfig(rare = true)
   @InputFieldDefault(value = "20 Seconds")
   private TimeInterval sendProcessingInterval;
+  @AdvancedConfig
+  @InputFieldDefault(value = "false")
+  private Boolean asyncProcessing;
 
   static {
     List<String> methods = new ArrayList<>();
@@ -122,19 +135,50 @@ public abstract class BasicJettyConsumer extends AdaptrisMessageConsumerImp {
   public abstract AdaptrisMessage createMessage(HttpServletRequest request, HttpServletResponse response)
       throws IOException, ServletException;
 
+  /**
+   * Create an AdaptrisMessage from the incoming servlet request without blocking while the request body is read.
+   * <p>
+   * This is only called if {@link #nonBlockingRead()} is true, in which case the request has already been put into asynchronous
+   * mode. The default implementation simply calls {@link #createMessage(HttpServletRequest, HttpServletResponse)}; subclasses that
+   * support non-blocking reads should override this (and {@link #nonBlockingRead()}).
+   * </p>
+   * 
+   * @param request the HttpServletRequest
+   * @param response the HttpServletResponse
+   * @param callback notified once the message has been created (or the request body could not be read).
+   * @since 3.9.3
+   */
+  protected void readMessage(HttpServletRequest request, HttpServletResponse response, RequestBodyCallback callback)
+      throws IOException, ServletException {
+    callback.onMessage(createMessage(request, response));
+  }
+
+  /**
+   * Whether or not {@link #readMessage(HttpServletRequest, HttpServletResponse, RequestBodyCallback)} should be used.
+   * 
+   * @return false by default.
+   * @since 3.9.3
+   */
+  protected boolean nonBlockingRead() {
+    return false;
+  }
+
   private boolean submitToWorkflow(AdaptrisMessage msg) {
-    boolean waitForCompletion = false;
+    boolean waitForCompletion = waitForCompletion();
+    retrieveAdaptrisMessageListener().onAdaptrisMessage(msg);
+    return waitForCompletion;
+  }
+
+  private boolean waitForCompletion() {
     if (retrieveAdaptrisMessageListener() instanceof WorkflowImp) {
       List<WorkflowInterceptor> interceptors = ((WorkflowImp) retrieveAdaptrisMessageListener()).getInterceptors();
       for (WorkflowInterceptor i : interceptors) {
         if (JettyWorkflowInterceptorImpl.class.isAssignableFrom(i.getClass())) {
-          waitForCompletion = true;
-          break;
+          return true;
         }
       }
     }
-    retrieveAdaptrisMessageListener().onAdaptrisMessage(msg);
-    return waitForCompletion;
+    return false;
   }
 
   protected void logHeaders(HttpServletRequest req) {
@@ -164,6 +208,7 @@ public abstract class BasicJettyConsumer extends AdaptrisMessageConsumerImp {
     if (servletWrapper == null) {
       String destination = ensureIsPath(getDestination().getDestination());
       servletWrapper = new ServletWrapper(jettyServlet, destination);
+      servletWrapper.getServletHolder().setAsyncSupported(asyncProcessing() || nonBlockingRead());
     }
     return servletWrapper;
   }
@@ -301,6 +346,30 @@ public abstract class BasicJettyConsumer extends AdaptrisMessageConsumerImp {
         DEFAULT_EXPECT_INTERVAL);
   }
 
+  public Boolean getAsyncProcessing() {
+    return asyncProcessing;
+  }
+
+  /**
+   * Whether or not to release the Jetty request thread while the workflow is processing the message.
+   * <p>
+   * This setting only has an impact if the consumer is the entry point for a {@link com.adaptris.core.PoolingWorkflow} instance
+   * (or any workflow that has a {@link JettyWorkflowInterceptorImpl} interceptor). Rather than blocking a Jetty thread until the
+   * workflow has finished, the request is handled using a Servlet 3.1 {@link AsyncContext}; this means that long running
+   * request/reply workflows do not exhaust the Jetty thread pool. The configured {@link TimeoutAction} still applies.
+   * </p>
+   * 
+   * @param b true to handle requests asynchronously, default false.
+   * @since 3.9.3
+   */
+  public void setAsyncProcessing(Boolean b) {
+    this.asyncProcessing = b;
+  }
+
+  boolean asyncProcessing() {
+    return BooleanUtils.toBooleanDefaultIfNull(getAsyncProcessing(), false);
+  }
+
   /**
    * Provides the metadata key '{@value com.adaptris.core.http.jetty.JettyConstants#JETTY_URI}' that
    * contains the URI which triggered the consumer.
@@ -376,7 +445,48 @@ public abstract class BasicJettyConsumer extends AdaptrisMessageConsumerImp {
     }
 
     private void processRequest(HttpServletRequest request, HttpServletResponse response) throws IOException, ServletException {
+      if (nonBlockingRead() && request.isAsyncSupported()) {
+        JettyWrapper wrapper = createWrapper(request, response);
+        // Start listening now, since the request can time out before the body has been read.
+        AsyncRequestListener listener = startAsync(wrapper);
+        readMessage(request, response, new RequestBodyCallback() {
+          @Override
+          public void onMessage(AdaptrisMessage msg) throws IOException, ServletException {
+            if (wrapper.getResponse() == null) {
+              log.warn("Request body for message ({}) was read after the request timed out; discarding", msg.getUniqueId());
+              return;
+            }
+            processMessage(msg, wrapper, listener);
+          }
+
+          @Override
+          public void onError(Throwable t) {
+            log.warn("Failed to read HTTP request body; client disconnected?", t);
+            try {
+              if (response == wrapper.getResponse() && !response.isCommitted()) {
+                response.sendError(HttpURLConnection.HTTP_BAD_REQUEST);
+              }
+            }
+            catch (IOException e) {
+              // nothing we can do.
+            }
+            wrapper.completeAsync();
+          }
+        });
+        return;
+      }
       AdaptrisMessage msg = createMessage(request, response);
+      processMessage(msg, createWrapper(request, response), null);
+    }
+
+    private JettyWrapper createWrapper(HttpServletRequest request, HttpServletResponse response) {
+      return new JettyWrapper().withMonitor(new JettyConsumerMonitor()).withRequest(request).withResponse(response);
+    }
+
+    private void processMessage(AdaptrisMessage msg, JettyWrapper wrapper, AsyncRequestListener asyncListener)
+        throws IOException, ServletException {
+      HttpServletRequest request = wrapper.getRequest();
+      HttpServletResponse response = wrapper.getResponse();
       ProcessingTimerTask task = null;
       // If we have a Expect: 102-Processing head, then let's fork a little timer thread to write one
       //
@@ -393,16 +503,33 @@ public abstract class BasicJettyConsumer extends AdaptrisMessageConsumerImp {
       if (!isEmpty(roles)) {
         msg.addMetadata(JETTY_USER_ROLES, roles);
       }
-      JettyWrapper wrapper = new JettyWrapper().withMonitor(new JettyConsumerMonitor()).withRequest(request).withResponse(response);
       msg.addObjectHeader(JettyConstants.JETTY_WRAPPER, wrapper);
-      waitFor(submitToWorkflow(msg), wrapper.getMonitor(), response, msg.getUniqueId());
+      boolean asyncStarted = asyncListener != null;
+      if ((asyncStarted || asyncProcessing() && request.isAsyncSupported()) && waitForCompletion()) {
+        AsyncRequestListener listener = asyncStarted ? asyncListener : startAsync(wrapper);
+        listener.attach(task, msg.getUniqueId());
+        retrieveAdaptrisMessageListener().onAdaptrisMessage(msg);
+        return;
+      }
+      // If the body was read without blocking, the workflow will still write the response on this thread.
+      waitFor(submitToWorkflow(msg), wrapper, msg.getUniqueId());
       cancel(task);
+      wrapper.completeAsync();
     }
 
-    private void waitFor(boolean waitFor, JettyConsumerMonitor monitor, HttpServletResponse response, String loggingId)
-        throws IOException, ServletException {
+    private AsyncRequestListener startAsync(JettyWrapper wrapper) {
+      AsyncContext ctx = wrapper.getRequest().startAsync();
+      ctx.setTimeout(timeoutAction().maxWaitTime());
+      AsyncRequestListener listener = new AsyncRequestListener(wrapper);
+      ctx.addListener(listener);
+      wrapper.setAsyncContext(ctx);
+      return listener;
+    }
+
+    private void waitFor(boolean waitFor, JettyWrapper wrapper, String loggingId) throws IOException, ServletException {
       if (waitFor) {
         TimeoutAction timeout = timeoutAction();
+        JettyConsumerMonitor monitor = wrapper.getMonitor();
         try {
           synchronized (monitor) {
             while (!monitor.isMessageComplete()) {
@@ -414,7 +541,12 @@ public abstract class BasicJettyConsumer extends AdaptrisMessageConsumerImp {
         catch (InterruptedException e) {
         }
         catch (TimeoutException e) {
-          timeout.handleTimeout(response);
+          if (wrapper.getAsyncContext() != null) {
+            timeoutAsync(wrapper);
+          }
+          else {
+            timeout.handleTimeout(wrapper.getResponse());
+          }
         }
         if (monitor.getEndTime() - monitor.getStartTime() > warnAfter()) {
           log.warn("Message ({}) took longer than expected; {}ms", loggingId,
@@ -423,6 +555,27 @@ public abstract class BasicJettyConsumer extends AdaptrisMessageConsumerImp {
       }
     }
 
+    // Write the timeout response and complete the request, even if a response is still being written.
+    private void timeoutAsync(JettyWrapper wrapper) throws IOException {
+      try {
+        wrapper.lock();
+        try {
+          // Don't let StandardResponseProducer write to a response that has been recycled by Jetty.
+          HttpServletResponse response = wrapper.getResponse();
+          wrapper.setResponse(null);
+          if (response != null) {
+            timeoutAction().handleTimeout(response);
+          }
+        } finally {
+          wrapper.unlock();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } finally {
+        wrapper.forceCompleteAsync();
+      }
+    }
+
     private void cancel(TimerTask task) {
       if (task != null) {
         task.cancel();
@@ -453,12 +606,80 @@ public abstract class BasicJettyConsumer extends AdaptrisMessageConsumerImp {
       response.addHeader("Allow", join(handlers().keySet(), COMMA));
       return response;
     }
+
+    /**
+     * Registered as soon as the request is put into asynchronous mode, so that a timeout while the request body is still being read
+     * is handled by the {@link TimeoutAction}.
+     */
+    private class AsyncRequestListener implements AsyncListener {
+      private final JettyWrapper wrapper;
+      private TimerTask task;
+      private String loggingId;
+      private boolean completed;
+
+      AsyncRequestListener(JettyWrapper wrapper) {
+        this.wrapper = wrapper;
+      }
+
+      // Called once the message has been submitted to the workflow.
+      synchronized void attach(TimerTask task, String loggingId) {
+        this.task = task;
+        this.loggingId = loggingId;
+        if (completed) {
+          cancel(task);
+        }
+      }
+
+      @Override
+      public void onComplete(AsyncEvent event) throws IOException {
+        TimerTask task;
+        String loggingId;
+        synchronized (this) {
+          completed = true;
+          task = this.task;
+          loggingId = this.loggingId;
+        }
+        cancel(task);
+        if (loggingId != null) {
+          long elapsed = System.currentTimeMillis() - wrapper.getMonitor().getStartTime();
+          if (elapsed > warnAfter()) {
+            log.warn("Message ({}) took longer than expected; {}ms", loggingId, elapsed);
+          }
+        }
+      }
+
+      @Override
+      public void onTimeout(AsyncEvent event) throws IOException {
+        timeoutAsync(wrapper);
+      }
+
+      @Override
+      public void onError(AsyncEvent event) throws IOException {
+        wrapper.forceCompleteAsync();
+      }
+
+      @Override
+      public void onStartAsync(AsyncEvent event) throws IOException {
+      }
+    }
   }
 
   public interface HttpOperation {
     void handle(HttpServletRequest request, HttpServletResponse response) throws IOException, ServletException;
   }
 
+  /**
+   * Notified when a request body read via
+   * {@link BasicJettyConsumer#readMessage(HttpServletRequest, HttpServletResponse, RequestBodyCallback)} is complete.
+   * 
+   * @since 3.9.3
+   */
+  public interface RequestBodyCallback {
+    void onMessage(AdaptrisMessage msg) throws IOException, ServletException;
+
+    void onError(Throwable t);
+  }
+
   class ProcessingTimerTask extends TimerTask {
     private transient HttpServletResponse myResponse;
 
@@ -20,18 +20,25 @@ import static com.adaptris.core.AdaptrisMessageFactory.defaultIfNull;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ReadListener;
 import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.BooleanUtils;
 import com.adaptris.annotation.AdapterComponent;
 import com.adaptris.annotation.AdvancedConfig;
 import com.adaptris.annotation.AffectsMetadata;
 import com.adaptris.annotation.AutoPopulated;
 import com.adaptris.annotation.ComponentProfile;
 import com.adaptris.annotation.DisplayOrder;
+import com.adaptris.annotation.InputFieldDefault;
 import com.adaptris.core.AdaptrisMessage;
 import com.adaptris.core.CoreConstants;
 import com.adaptris.core.CoreException;
@@ -64,6 +71,13 @@ import com.thoughtworks.xstream.annotations.XStreamAlias;
  * Note that if you intend for this class to be consumer withing a {@link com.adaptris.core.PoolingWorkflow} then you should
  * consider configuring a {@link JettyPoolingWorkflowInterceptor} as part of that workflow.
  * </p>
+ * <p>
+ * By default the request body is copied into the message before it is submitted to the workflow, blocking the Jetty thread if
+ * the client is slow. If {@link #setNonBlockingRead(Boolean)} is true then the body is read using a Servlet 3.1
+ * {@link ReadListener} as data becomes available, and the message is only submitted once the body is complete. Where the body is
+ * stored depends on the configured message factory; use a {@link com.adaptris.core.lms.FileBackedMessageFactory} to stream large
+ * uploads to disk.
+ * </p>
  * 
  * @config jetty-message-consumer
  * 
@@ -95,6 +109,9 @@ public class JettyMessageConsumer extends BasicJettyConsumer {
   @AdvancedConfig
   @AffectsMetadata
   private HeaderHandler<HttpServletRequest> headerHandler;
+  @AdvancedConfig
+  @InputFieldDefault(value = "false")
+  private Boolean nonBlockingRead;
 
   public JettyMessageConsumer() {
     super();
@@ -124,9 +141,7 @@ public class JettyMessageConsumer extends BasicJettyConsumer {
           }
         }
       }
-      msg.setContentEncoding(request.getCharacterEncoding());
-      addParamMetadata(msg, request);
-      addHeaderMetadata(msg, request);
+      addRequestMetadata(msg, request);
     }
     catch (CoreException e) {
       throw new IOException(e.getMessage(), e);
@@ -134,6 +149,30 @@ public class JettyMessageConsumer extends BasicJettyConsumer {
     return msg;
   }
 
+  @Override
+  protected void readMessage(HttpServletRequest request, HttpServletResponse response, RequestBodyCallback callback)
+      throws IOException, ServletException {
+    if (getEncoder() != null) {
+      // Encoders read the request themselves.
+      super.readMessage(request, response, callback);
+      return;
+    }
+    logHeaders(request);
+    AdaptrisMessage msg = defaultIfNull(getMessageFactory()).newMessage();
+    ServletInputStream in = request.getInputStream();
+    RequestBodyReader reader = new RequestBodyReader(msg, request, in, callback);
+    // Stop reading if the request times out (or fails) before the body has arrived.
+    request.getAsyncContext().addListener(reader);
+    in.setReadListener(reader);
+  }
+
+  private AdaptrisMessage addRequestMetadata(AdaptrisMessage msg, HttpServletRequest request) {
+    msg.setContentEncoding(request.getCharacterEncoding());
+    addParamMetadata(msg, request);
+    addHeaderMetadata(msg, request);
+    return msg;
+  }
+
   private void addParamMetadata(AdaptrisMessage msg, HttpServletRequest request) {
     this.getParameterHandler().handleParameters(msg, request);
   }
@@ -158,8 +197,112 @@ public class JettyMessageConsumer extends BasicJettyConsumer {
     this.headerHandler = headerHandler;
   }
 
+  public Boolean getNonBlockingRead() {
+    return nonBlockingRead;
+  }
+
+  /**
+   * Whether or not to read the request body without blocking.
+   * <p>
+   * If true then the request is put into asynchronous mode, and the body is read as it arrives; the Jetty thread is not blocked by
+   * a slow client. This has no effect if an encoder is configured.
+   * </p>
+   * 
+   * @param b true to use non-blocking reads, default false.
+   * @since 3.9.3
+   */
+  public void setNonBlockingRead(Boolean b) {
+    this.nonBlockingRead = b;
+  }
+
+  @Override
+  protected boolean nonBlockingRead() {
+    return BooleanUtils.toBooleanDefaultIfNull(getNonBlockingRead(), false);
+  }
+
   @Override
   public void prepare() throws CoreException {
   }
 
+  private class RequestBodyReader implements ReadListener, AsyncListener {
+    private final AdaptrisMessage msg;
+    private final HttpServletRequest request;
+    private final ServletInputStream in;
+    private final RequestBodyCallback callback;
+    private final byte[] buffer = new byte[JettyWrapper.ASYNC_BUFFER_SIZE];
+    private final AtomicBoolean finished = new AtomicBoolean(false);
+    private volatile OutputStream out;
+
+    RequestBodyReader(AdaptrisMessage msg, HttpServletRequest request, ServletInputStream in, RequestBodyCallback callback) {
+      this.msg = msg;
+      this.request = request;
+      this.in = in;
+      this.callback = callback;
+    }
+
+    @Override
+    public void onDataAvailable() throws IOException {
+      if (finished.get()) {
+        return;
+      }
+      if (out == null) {
+        out = msg.getOutputStream();
+      }
+      int len;
+      while (in.isReady() && (len = in.read(buffer)) != -1) {
+        out.write(buffer, 0, len);
+      }
+    }
+
+    @Override
+    public void onAllDataRead() throws IOException {
+      if (!finished.compareAndSet(false, true)) {
+        return;
+      }
+      if (out != null) {
+        out.close();
+      }
+      try {
+        callback.onMessage(addRequestMetadata(msg, request));
+      }
+      catch (ServletException e) {
+        throw new IOException(e.getMessage(), e);
+      }
+    }
+
+    @Override
+    public void onError(Throwable t) {
+      if (finished.compareAndSet(false, true)) {
+        IOUtils.closeQuietly(out);
+        callback.onError(t);
+      }
+    }
+
+    // The message is never submitted, so just release whatever has been written to it.
+    private void abandon() {
+      if (finished.compareAndSet(false, true)) {
+        IOUtils.closeQuietly(out);
+      }
+    }
+
+    @Override
+    public void onComplete(AsyncEvent event) throws IOException {
+      abandon();
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) throws IOException {
+      abandon();
+    }
+
+    @Override
+    public void onError(AsyncEvent event) throws IOException {
+      abandon();
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) throws IOException {
+    }
+  }
+
 }
@@ -17,6 +17,9 @@ package com.adaptris.core.http.jetty;
 
 import static com.adaptris.core.http.jetty.JettyConstants.JETTY_WRAPPER;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.servlet.AsyncContext;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
@@ -29,9 +32,17 @@ import com.adaptris.util.FifoMutexLock;
  */
 public class JettyWrapper {
 
+  /**
+   * The buffer size used when reading the request, or writing the response, without blocking.
+   */
+  static final int ASYNC_BUFFER_SIZE = 8192;
+
   private transient JettyConsumerMonitor monitor;
   private transient HttpServletResponse response;
   private transient HttpServletRequest request;
+  private transient AsyncContext asyncContext;
+  private transient AtomicBoolean asyncCompleted = new AtomicBoolean(false);
+  private transient AtomicBoolean asyncWriteInProgress = new AtomicBoolean(false);
 
   private transient FifoMutexLock locker;
 
@@ -100,4 +111,74 @@ public class JettyWrapper {
     setRequest(b);
     return this;
   }
+
+  /**
+   * @return the {@link AsyncContext} if the request is being handled asynchronously, null otherwise.
+   * @since 3.9.3
+   */
+  public AsyncContext getAsyncContext() {
+    return asyncContext;
+  }
+
+  public void setAsyncContext(AsyncContext ctx) {
+    this.asyncContext = ctx;
+  }
+
+  public JettyWrapper withAsyncContext(AsyncContext b) {
+    setAsyncContext(b);
+    return this;
+  }
+
+  /**
+   * Complete the {@link AsyncContext} if there is one.
+   * <p>
+   * The response, the end of the workflow and the timeout may all try to complete the request; only the first attempt has any
+   * effect. If the response is still being written (see {@link #asyncWriteStarted()}) then nothing happens, the request is
+   * completed when the write finishes.
+   * </p>
+   *
+   * @return true if this call completed the request.
+   */
+  protected boolean completeAsync() {
+    if (asyncWriteInProgress.get()) {
+      return false;
+    }
+    return forceCompleteAsync();
+  }
+
+  /**
+   * Complete the {@link AsyncContext} if there is one, even if the response is still being written.
+   * <p>
+   * Used when the request has timed out, so that a write that has stalled (e.g. because the client has stopped reading) can't
+   * hold on to the request forever.
+   * </p>
+   *
+   * @return true if this call completed the request.
+   */
+  protected boolean forceCompleteAsync() {
+    if (asyncContext == null || !asyncCompleted.compareAndSet(false, true)) {
+      return false;
+    }
+    try {
+      asyncContext.complete();
+    } catch (IllegalStateException e) {
+      // Jetty has already completed (or timed out) the request.
+    }
+    return true;
+  }
+
+  /**
+   * Mark the response as being written without blocking, so that the request isn't completed underneath it.
+   */
+  protected void asyncWriteStarted() {
+    asyncWriteInProgress.set(true);
+  }
+
+  /**
+   * Mark the response as written, and complete the request.
+   */
+  protected void asyncWriteFinished() {
+    asyncWriteInProgress.set(false);
+    completeAsync();
+  }
 }
@@ -25,6 +25,10 @@ import com.thoughtworks.xstream.annotations.XStreamAlias;
  * While not strictly enforced, you should consider returning a {@code 202 ACCEPTED} rather than a {@code 200 OK} if you are going
  * to send the response before the end of the workflow. This would be the more "correct" behaviour as per the HTTP specifications.
  * </p>
+ * <p>
+ * If the consumer is handling requests asynchronously (see {@link BasicJettyConsumer#setAsyncProcessing(Boolean)}) then this
+ * completes the request.
+ * </p>
  * 
  * @config jetty-commit-response
  * @author lchan
@@ -22,11 +22,18 @@ import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
 import javax.servlet.http.HttpServletResponse;
 
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.BooleanUtils;
+
 import com.adaptris.annotation.AdapterComponent;
+import com.adaptris.annotation.AdvancedConfig;
 import com.adaptris.annotation.ComponentProfile;
 import com.adaptris.annotation.DisplayOrder;
+import com.adaptris.annotation.InputFieldDefault;
 import com.adaptris.core.AdaptrisMessage;
 import com.adaptris.core.CoreException;
 import com.adaptris.core.NullConnection;
@@ -40,6 +47,12 @@ import com.thoughtworks.xstream.annotations.XStreamAlias;
 /**
  * Implementation of {@link com.adaptris.core.AdaptrisMessageProducer} writes to the {@code HttpServletResponse} object metadata
  * provided by the Jetty engine.
+ * <p>
+ * If the consumer is handling requests asynchronously (see {@link BasicJettyConsumer#setAsyncProcessing(Boolean)}) then the
+ * request is completed as soon as the response has been written, rather than when the workflow finishes. In that case, if
+ * {@link #setNonBlockingWrite(Boolean)} is true, the payload is written using a {@link WriteListener} so that the workflow thread
+ * does not block on a slow client.
+ * </p>
  * 
  * @config jetty-standard-response-producer
  * 
@@ -49,9 +62,13 @@ import com.thoughtworks.xstream.annotations.XStreamAlias;
 @XStreamAlias("jetty-standard-response-producer")
 @AdapterComponent
 @ComponentProfile(summary = "Write and commit the HTTP Response", tag = "producer,http,https", recommended = {NullConnection.class})
-@DisplayOrder(order = {"sendPayload", "flushBuffer", "forwardConnectionException"})
+@DisplayOrder(order = {"sendPayload", "flushBuffer", "forwardConnectionException", "nonBlockingWrite"})
 public class StandardResponseProducer extends ResponseProducerImpl {
 
+  @AdvancedConfig
+  @InputFieldDefault(value = "false")
+  private Boolean nonBlockingWrite;
+
   public StandardResponseProducer() {
     super();
   }
@@ -91,8 +108,15 @@ public class StandardResponseProducer extends ResponseProducerImpl {
       String contentType = getContentTypeProvider().getContentType(msg);
       response.setContentType(contentType);
       response.setStatus(getStatus(msg).getCode());
+      if (writeAsync(wrapper, msg)) {
+        wrapper.setResponse(null);
+        new PayloadWriter(msg, wrapper, response.getOutputStream()).start();
+        return;
+      }
       commitResponse(msg, response);
       wrapper.setResponse(null);
+      // If the request is being handled asynchronously then the response is now complete.
+      wrapper.completeAsync();
     } catch (Exception e) {
       throw ExceptionHelper.wrapProduceException(e);
     } finally {
@@ -104,6 +128,10 @@ public class StandardResponseProducer extends ResponseProducerImpl {
     return wrapper.getResponse() == null;
   }
 
+  private boolean writeAsync(JettyWrapper wrapper, AdaptrisMessage msg) {
+    return nonBlockingWrite() && wrapper.getAsyncContext() != null && sendPayload() && getEncoder() == null && msg.getSize() > 0;
+  }
+
   private void commitResponse(AdaptrisMessage msg, HttpServletResponse response) throws ProduceException {
     try {
       handlePayload(msg, response);
@@ -136,4 +164,74 @@ public class StandardResponseProducer extends ResponseProducerImpl {
     }
   }
 
+  public Boolean getNonBlockingWrite() {
+    return nonBlockingWrite;
+  }
+
+  /**
+   * Whether or not to write the payload without blocking.
+   * <p>
+   * This only has an effect if the consumer is handling the request asynchronously, and there is no encoder configured; otherwise
+   * the payload is always written (and flushed) before the producer returns.
+   * </p>
+   *
+   * @param b true to use non-blocking writes, default false.
+   * @since 3.9.3
+   */
+  public void setNonBlockingWrite(Boolean b) {
+    nonBlockingWrite = b;
+  }
+
+  boolean nonBlockingWrite() {
+    return BooleanUtils.toBooleanDefaultIfNull(getNonBlockingWrite(), false);
+  }
+
+  private class PayloadWriter implements WriteListener {
+    private final AdaptrisMessage msg;
+    private final JettyWrapper wrapper;
+    private final ServletOutputStream out;
+    private final byte[] buffer = new byte[JettyWrapper.ASYNC_BUFFER_SIZE];
+    private InputStream in;
+
+    PayloadWriter(AdaptrisMessage msg, JettyWrapper wrapper, ServletOutputStream out) {
+      this.msg = msg;
+      this.wrapper = wrapper;
+      this.out = out;
+    }
+
+    void start() throws IOException {
+      in = msg.getInputStream();
+      wrapper.asyncWriteStarted();
+      try {
+        out.setWriteListener(this);
+      } catch (RuntimeException e) {
+        finish();
+        throw e;
+      }
+    }
+
+    @Override
+    public void onWritePossible() throws IOException {
+      while (out.isReady()) {
+        int len = in.read(buffer);
+        if (len == -1) {
+          finish();
+          return;
+        }
+        out.write(buffer, 0, len);
+      }
+    }
+
+    @Override
+    public void onError(Throwable t) {
+      log.trace("Failed to write response to HTTP; client disconnected?", t);
+      finish();
+    }
+
+    private void finish() {
+      IOUtils.closeQuietly(in);
+      wrapper.asyncWriteFinished();
+    }
+  }
+
 }
@@ -102,24 +102,13 @@ public class MessageMetricsInterceptorByMetadata extends MessageMetricsIntercept
   }
 
   @Override
-  public synchronized void workflowStart(AdaptrisMessage inputMsg) {
+  public void workflowStart(AdaptrisMessage inputMsg) {
   }
 
   @Override
-  public synchronized void workflowEnd(AdaptrisMessage inputMsg, AdaptrisMessage outputMsg) {
+  public void workflowEnd(AdaptrisMessage inputMsg, AdaptrisMessage outputMsg) {
     if (captureMetric(inputMsg) || captureMetric(outputMsg)) {
-      final int errors = wasSuccessful(inputMsg, outputMsg) ? 0 : 1;
-      final int msgs = 1;
-      final long size = inputMsg.getSize();
-      update(new StatisticsDelta<MessageStatistic>() {
-        @Override
-        public MessageStatistic apply(MessageStatistic currentStat) {
-          currentStat.setTotalMessageCount(currentStat.getTotalMessageCount() + msgs);
-          currentStat.setTotalMessageSize(currentStat.getTotalMessageSize() + size);
-          currentStat.setTotalMessageErrorCount(currentStat.getTotalMessageErrorCount() + errors);
-          return currentStat;
-        }
-      });
+      update(1, inputMsg.getSize(), wasSuccessful(inputMsg, outputMsg) ? 0 : 1);
     }
   }
 
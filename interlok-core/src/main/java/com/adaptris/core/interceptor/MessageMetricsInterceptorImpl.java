@@ -16,7 +16,6 @@
 
 package com.adaptris.core.interceptor;
 
-import java.util.Calendar;
 import java.util.List;
 
 import com.adaptris.core.CoreException;
@@ -25,11 +24,16 @@ import com.adaptris.core.util.LifecycleHelper;
 
 /**
  * Abstract WorkflowInterceptor implementation that exposes metrics via JMX.
+ * <p>
+ * The current timeslice is accumulated using striped counters, so concurrent workflow threads do not contend on a lock; the
+ * underlying {@link MessageStatistic} is brought up to date when the statistics are requested, or when the timeslice expires.
+ * </p>
  * 
  */
 public abstract class MessageMetricsInterceptorImpl extends MetricsInterceptorImpl<MessageStatistic> {
   
   private transient Object chubb = new Object();
+  private transient volatile MessageStatisticAccumulator current;
   
   private StatisticManager statisticManager;
 
@@ -61,46 +65,90 @@ public abstract class MessageMetricsInterceptorImpl extends MetricsInterceptorIm
   protected void clearStatistics() {
     synchronized (chubb) {
       statisticManager().clear();
+      current = null;
     }
   }
 
-
+  /**
+   * Update the current timeslice.
+   * <p>
+   * The delta is applied to an empty {@link MessageStatistic} and the resulting values are added to the current timeslice; so
+   * it should only ever increment the values it is given. Prefer {@link #update(long, long, long)} which avoids the intermediate
+   * object.
+   * </p>
+   */
   protected void update(StatisticsDelta<MessageStatistic> d) {
-    synchronized (chubb) {
-      InterceptorStatistic stat = getCurrentTimeSlice();
-      updateCurrentTimeSlice(d.apply((MessageStatistic) stat));
-    }
+    MessageStatistic delta = d.apply(new MessageStatistic());
+    update(delta.getTotalMessageCount(), delta.getTotalMessageSize(), delta.getTotalMessageErrorCount());
   }
 
-  private void updateCurrentTimeSlice(MessageStatistic currentTimeSlice) {
-    this.statisticManager().updateCurrent(currentTimeSlice);
+  /**
+   * Add to the counters for the current timeslice.
+   * <p>
+   * This does not require a lock unless the current timeslice has expired.
+   * </p>
+   *
+   * @param messageCount the number of messages
+   * @param messageSize the total size of the messages
+   * @param errorCount the number of errors.
+   * @since 3.9.3
+   */
+  protected void update(long messageCount, long messageSize, long errorCount) {
+    currentTimeSlice().add(messageCount, messageSize, errorCount);
   }
 
-  private InterceptorStatistic getCurrentTimeSlice() {
-    InterceptorStatistic timeSlice = null;
-    long timeInMillis = Calendar.getInstance().getTimeInMillis();
+  private MessageStatisticAccumulator currentTimeSlice() {
+    MessageStatisticAccumulator acc = current;
+    long timeInMillis = System.currentTimeMillis();
+    if (acc == null || acc.endMillis() <= timeInMillis) {
+      synchronized (chubb) {
+        acc = rollover(timeInMillis);
+      }
+    }
+    return acc;
+  }
 
-    if (this.statisticManager().getStats().size() == 0) {
-      timeSlice = new MessageStatistic();
-      timeSlice.setEndMillis(timeInMillis + timesliceDurationMs());
-      this.statisticManager().getStats().add(timeSlice);
+  // Must be called while holding chubb.
+  private MessageStatisticAccumulator rollover(long timeInMillis) {
+    MessageStatisticAccumulator acc = current;
+    if (acc != null && acc.endMillis() > timeInMillis) {
+      // someone else got here first.
+      return acc;
+    }
+    if (acc != null) {
+      MessageStatistic timeSlice = acc.flush();
+      updateCurrentTimeSlice(timeSlice);
+      produce(timeSlice);
     }
     else {
-      timeSlice = this.statisticManager().getLatestStat();
-      if (timeSlice.getEndMillis() <= timeInMillis) {
-        try {
-          this.statisticManager().produce(timeSlice);
-        } catch (ProduceException e) {
-          log.error("Failed to produce timeslice.", e);
-        }
-        
-        timeSlice = new MessageStatistic(timeInMillis + timesliceDurationMs());
-        this.statisticManager().getStats().add(timeSlice);
+      InterceptorStatistic latest = this.statisticManager().getLatestStat();
+      // Only if someone has been messing with the statistic manager directly.
+      if (latest instanceof MessageStatistic && latest.getEndMillis() > timeInMillis) {
+        current = new MessageStatisticAccumulator((MessageStatistic) latest, null);
+        return current;
+      }
+      if (latest != null) {
+        produce(latest);
       }
     }
-    return timeSlice;
+    MessageStatistic timeSlice = new MessageStatistic(timeInMillis + timesliceDurationMs());
+    this.statisticManager().getStats().add(timeSlice);
+    current = new MessageStatisticAccumulator(timeSlice, acc);
+    return current;
   }
-  
+
+  private void produce(InterceptorStatistic timeSlice) {
+    try {
+      this.statisticManager().produce(timeSlice);
+    } catch (ProduceException e) {
+      log.error("Failed to produce timeslice.", e);
+    }
+  }
+
+  private void updateCurrentTimeSlice(MessageStatistic currentTimeSlice) {
+    this.statisticManager().updateCurrent(currentTimeSlice);
+  }
+
   protected StatisticManager statisticManager() {
     if(this.getStatisticManager() != null)
       return this.getStatisticManager();
@@ -119,6 +167,12 @@ public abstract class MessageMetricsInterceptorImpl extends MetricsInterceptorIm
   }
 
   protected List<InterceptorStatistic> getStats() {
+    synchronized (chubb) {
+      MessageStatisticAccumulator acc = current;
+      if (acc != null) {
+        updateCurrentTimeSlice(acc.flush());
+      }
+    }
     return this.statisticManager().getStats();
   }
 
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core.interceptor;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accumulates the counts for the current {@link MessageStatistic} timeslice using striped counters.
+ * <p>
+ * Updates to the counters are lock-free; the values are only copied into the underlying {@link MessageStatistic} when
+ * {@link #flush()} is called (which the owner is expected to do while holding its own lock). Any updates that race with the
+ * rollover to the next timeslice (i.e. they are added to the previous accumulator after it was flushed for the last time) are
+ * carried over into the next timeslice, rather than being lost.
+ * </p>
+ */
+class MessageStatisticAccumulator {
+
+  private final MessageStatistic statistic;
+  private final long baseCount, baseSize, baseErrors;
+  private final LongAdder messageCount = new LongAdder();
+  private final LongAdder messageSize = new LongAdder();
+  private final LongAdder messageErrors = new LongAdder();
+
+  private long flushedCount, flushedSize, flushedErrors;
+  private MessageStatisticAccumulator previous;
+
+  MessageStatisticAccumulator(MessageStatistic stat, MessageStatisticAccumulator prev) {
+    statistic = stat;
+    baseCount = stat.getTotalMessageCount();
+    baseSize = stat.getTotalMessageSize();
+    baseErrors = stat.getTotalMessageErrorCount();
+    if (prev != null) {
+      // we only ever carry over from the timeslice immediately before us.
+      prev.previous = null;
+      previous = prev;
+    }
+  }
+
+  long endMillis() {
+    return statistic.getEndMillis();
+  }
+
+  void add(long count, long size, long errors) {
+    messageCount.add(count);
+    messageSize.add(size);
+    messageErrors.add(errors);
+  }
+
+  MessageStatistic flush() {
+    flushedCount = messageCount.sum();
+    flushedSize = messageSize.sum();
+    flushedErrors = messageErrors.sum();
+    long count = baseCount + flushedCount;
+    long size = baseSize + flushedSize;
+    long errors = baseErrors + flushedErrors;
+    if (previous != null) {
+      count += previous.messageCount.sum() - previous.flushedCount;
+      size += previous.messageSize.sum() - previous.flushedSize;
+      errors += previous.messageErrors.sum() - previous.flushedErrors;
+    }
+    statistic.setTotalMessageCount((int) count);
+    statistic.setTotalMessageSize(size);
+    statistic.setTotalMessageErrorCount((int) errors);
+    return statistic;
+  }
+}
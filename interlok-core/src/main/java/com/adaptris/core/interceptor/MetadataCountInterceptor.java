@@ -72,25 +72,15 @@ public class MetadataCountInterceptor extends MetadataMetricsInterceptorImpl {
   }
 
   @Override
-  public synchronized void workflowStart(AdaptrisMessage inputMsg) {
+  public void workflowStart(AdaptrisMessage inputMsg) {
 
   }
 
   @Override
-  public synchronized void workflowEnd(AdaptrisMessage inputMsg, final AdaptrisMessage outputMsg) {
-    update(new StatisticsDelta<MetadataStatistic>() {
-      @Override
-      public MetadataStatistic apply(MetadataStatistic currentStat) {
-        increment(outputMsg, currentStat);
-        return currentStat;
-      }
-    });
-  }
-
-  private void increment(AdaptrisMessage msg, MetadataStatistic stat) {
-    String value = msg.getMetadataValue(getMetadataKey());
+  public void workflowEnd(AdaptrisMessage inputMsg, AdaptrisMessage outputMsg) {
+    String value = outputMsg.getMetadataValue(getMetadataKey());
     if (!isEmpty(value)) {
-      stat.increment(value);
+      increment(value, 1);
     }
   }
 
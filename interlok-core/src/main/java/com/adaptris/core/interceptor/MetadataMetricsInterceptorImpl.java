@@ -16,7 +16,6 @@
 
 package com.adaptris.core.interceptor;
 
-import java.util.Calendar;
 import java.util.List;
 
 import com.adaptris.core.CoreException;
@@ -26,6 +25,7 @@ import com.adaptris.core.util.LifecycleHelper;
 public abstract class MetadataMetricsInterceptorImpl extends MetricsInterceptorImpl<MetadataStatistic> {
   
   private transient Object chubb = new Object();
+  private transient volatile MetadataStatisticAccumulator current;
   
   private StatisticManager statisticManager;
 
@@ -56,47 +56,98 @@ public abstract class MetadataMetricsInterceptorImpl extends MetricsInterceptorI
   protected void clearStatistics() {
     synchronized (chubb) {
       statisticManager().clear();
+      current = null;
     }
   }
 
+  /**
+   * Update the current timeslice.
+   * <p>
+   * The delta is applied to an empty {@link MetadataStatistic} and the resulting values are added to the current timeslice; so
+   * it should only ever increment the values it is given. Prefer {@link #increment(String, long)} which avoids the intermediate
+   * object.
+   * </p>
+   */
   protected void update(StatisticsDelta<MetadataStatistic> d) {
-    synchronized (chubb) {
-      InterceptorStatistic stat = getCurrentStat();
-      updateCurrent(d.apply((MetadataStatistic) stat));
+    MetadataStatistic delta = d.apply(new MetadataStatistic());
+    MetadataStatisticAccumulator acc = currentStat();
+    for (String key : delta.getKeys()) {
+      acc.increment(key, delta.getValue(key));
     }
   }
 
+  /**
+   * Add to the counter for the key in the current timeslice.
+   * <p>
+   * This does not require a lock unless the current timeslice has expired.
+   * </p>
+   *
+   * @param key the key
+   * @param value the amount to add (which may be 0, which simply records the key).
+   * @since 3.9.3
+   */
+  protected void increment(String key, long value) {
+    currentStat().increment(key, value);
+  }
+
   protected void updateCurrent(MetadataStatistic currentTimeSlice) {
     this.statisticManager().updateCurrent(currentTimeSlice);
   }
 
   protected List<InterceptorStatistic> getStats() {
+    synchronized (chubb) {
+      MetadataStatisticAccumulator acc = current;
+      if (acc != null) {
+        updateCurrent(acc.flush());
+      }
+    }
     return this.statisticManager().getStats();
   }
 
-  private InterceptorStatistic getCurrentStat() {
-    InterceptorStatistic timeSlice = null;
-    long timeInMillis = Calendar.getInstance().getTimeInMillis();
+  private MetadataStatisticAccumulator currentStat() {
+    MetadataStatisticAccumulator acc = current;
+    long timeInMillis = System.currentTimeMillis();
+    if (acc == null || acc.endMillis() <= timeInMillis) {
+      synchronized (chubb) {
+        acc = rollover(timeInMillis);
+      }
+    }
+    return acc;
+  }
 
-    if (this.statisticManager().getStats().size() == 0) {
-      timeSlice = new MetadataStatistic();
-      timeSlice.setEndMillis(timeInMillis + timesliceDurationMs());
-      this.statisticManager().getStats().add(timeSlice);
+  // Must be called while holding chubb.
+  private MetadataStatisticAccumulator rollover(long timeInMillis) {
+    MetadataStatisticAccumulator acc = current;
+    if (acc != null && acc.endMillis() > timeInMillis) {
+      return acc;
+    }
+    if (acc != null) {
+      MetadataStatistic timeSlice = acc.flush();
+      updateCurrent(timeSlice);
+      produce(timeSlice);
     }
     else {
-      timeSlice = this.statisticManager().getLatestStat();
-      if (timeSlice.getEndMillis() <= timeInMillis) {
-        try {
-          this.statisticManager().produce(timeSlice);
-        } catch (ProduceException e) {
-          log.error("Failed to produce timeslice.", e);
-        }
-        
-        timeSlice = new MetadataStatistic(timeInMillis + timesliceDurationMs());
-        this.statisticManager().getStats().add(timeSlice);
+      InterceptorStatistic latest = this.statisticManager().getLatestStat();
+      if (latest instanceof MetadataStatistic && latest.getEndMillis() > timeInMillis) {
+        current = new MetadataStatisticAccumulator((MetadataStatistic) latest, null);
+        return current;
+      }
+      if (latest != null) {
+        produce(latest);
       }
     }
-    return timeSlice;
+    MetadataStatistic timeSlice = new MetadataStatistic(timeInMillis + timesliceDurationMs());
+    this.statisticManager().getStats().add(timeSlice);
+    current = new MetadataStatisticAccumulator(timeSlice, acc);
+    return current;
+  }
+
+  private void produce(InterceptorStatistic timeSlice) {
+    try {
+      this.statisticManager().produce(timeSlice);
+    } catch (ProduceException e) {
+      log.error("Failed to produce timeslice.", e);
+    }
   }
 
   protected StatisticManager statisticManager() {
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core.interceptor;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accumulates the counts for the current {@link MetadataStatistic} timeslice using striped counters.
+ * <p>
+ * The metadata equivalent of {@link MessageStatisticAccumulator}; each key has its own {@link LongAdder}.
+ * </p>
+ */
+class MetadataStatisticAccumulator {
+
+  private final MetadataStatistic statistic;
+  private final Map<String, Long> base = new HashMap<>();
+  private final ConcurrentHashMap<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+  private Map<String, Long> flushed = new HashMap<>();
+  private MetadataStatisticAccumulator previous;
+
+  MetadataStatisticAccumulator(MetadataStatistic stat, MetadataStatisticAccumulator prev) {
+    statistic = stat;
+    for (String key : stat.getKeys()) {
+      base.put(key, Long.valueOf(stat.getValue(key)));
+    }
+    if (prev != null) {
+      prev.previous = null;
+      previous = prev;
+    }
+  }
+
+  long endMillis() {
+    return statistic.getEndMillis();
+  }
+
+  void increment(String key, long value) {
+    LongAdder adder = counters.get(key);
+    if (adder == null) {
+      adder = counters.computeIfAbsent(key, k -> new LongAdder());
+    }
+    adder.add(value);
+  }
+
+  MetadataStatistic flush() {
+    Map<String, Long> totals = new HashMap<>(base);
+    Map<String, Long> snapshot = new HashMap<>();
+    for (Map.Entry<String, LongAdder> e : counters.entrySet()) {
+      long value = e.getValue().sum();
+      snapshot.put(e.getKey(), value);
+      totals.merge(e.getKey(), value, Long::sum);
+    }
+    flushed = snapshot;
+    if (previous != null) {
+      for (Map.Entry<String, LongAdder> e : previous.counters.entrySet()) {
+        long carried = e.getValue().sum() - previous.flushed.getOrDefault(e.getKey(), 0L);
+        if (carried != 0) {
+          totals.merge(e.getKey(), carried, Long::sum);
+        }
+      }
+    }
+    for (Map.Entry<String, Long> e : totals.entrySet()) {
+      statistic.putValue(e.getKey(), e.getValue().intValue());
+    }
+    return statistic;
+  }
+}
@@ -77,24 +77,14 @@ public class MetadataTotalsInterceptor extends MetadataMetricsInterceptorImpl {
   }
 
   @Override
-  public synchronized void workflowStart(AdaptrisMessage inputMsg) {
+  public void workflowStart(AdaptrisMessage inputMsg) {
 
   }
 
   @Override
-  public synchronized void workflowEnd(AdaptrisMessage inputMsg, final AdaptrisMessage outputMsg) {
-    update(new StatisticsDelta<MetadataStatistic>() {
-      @Override
-      public MetadataStatistic apply(MetadataStatistic currentStat) {
-        increment(outputMsg, currentStat);
-        return currentStat;
-      }
-    });
-  }
-
-  private void increment(AdaptrisMessage msg, MetadataStatistic stat) {
+  public void workflowEnd(AdaptrisMessage inputMsg, AdaptrisMessage outputMsg) {
     for (String key : getMetadataKeys()) {
-      stat.increment(key, getValue(key, msg));
+      increment(key, getValue(key, outputMsg));
     }
   }
 
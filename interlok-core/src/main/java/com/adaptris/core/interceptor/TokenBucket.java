@@ -0,0 +1,133 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core.interceptor;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A token bucket used by {@link TokenBucketThrottlingInterceptor}.
+ * <p>
+ * This is implemented as a virtual scheduling (GCRA) bucket; the only state is the <em>theoretical arrival time</em> of the next
+ * permit, which is updated with a compare-and-set. Callers reserve a permit and are told how long they need to wait before using
+ * it; permits are handed out in the order they were reserved, so no thread can be starved by other threads barging in ahead of it.
+ * </p>
+ * <p>
+ * It extends {@link TimeSlice} so that it can be shared between interceptors via a {@link TimeSliceCacheProvider}; as a timeslice
+ * it never expires, and {@link #getTotalMessageCount()} reports the number of permits that have been reserved.
+ * </p>
+ *
+ * @since 3.9.3
+ */
+public class TokenBucket extends TimeSlice {
+
+  private final long emissionIntervalNanos;
+  private final long burstToleranceNanos;
+  private final AtomicLong theoreticalArrival;
+  private final LongAdder reserved = new LongAdder();
+
+  /**
+   * Create a bucket.
+   *
+   * @param permits the number of permits per interval.
+   * @param interval the interval.
+   * @param unit the unit of the interval.
+   * @param burstSize the number of permits that can be handed out without delay when the bucket is full.
+   */
+  public TokenBucket(int permits, long interval, TimeUnit unit, int burstSize) {
+    super();
+    if (permits < 1 || interval < 1 || burstSize < 1) {
+      throw new IllegalArgumentException("permits, interval and burstSize must all be positive");
+    }
+    emissionIntervalNanos = Math.max(1L, unit.toNanos(interval) / permits);
+    burstToleranceNanos = emissionIntervalNanos * (burstSize - 1);
+    theoreticalArrival = new AtomicLong(System.nanoTime() - burstToleranceNanos);
+  }
+
+  /**
+   * Reserve a permit.
+   *
+   * @return the number of nanoseconds the caller should wait before proceeding, 0 if the permit can be used immediately.
+   */
+  public long reserve() {
+    while (true) {
+      long now = System.nanoTime();
+      long tat = theoreticalArrival.get();
+      long start = now - tat > 0 ? now : tat;
+      if (theoreticalArrival.compareAndSet(tat, start + emissionIntervalNanos)) {
+        reserved.increment();
+        return Math.max(0L, tat - burstToleranceNanos - now);
+      }
+    }
+  }
+
+  /**
+   * Attempt to acquire a permit without waiting.
+   *
+   * @return true if a permit was acquired.
+   */
+  public boolean tryAcquire() {
+    while (true) {
+      long now = System.nanoTime();
+      long tat = theoreticalArrival.get();
+      if (tat - burstToleranceNanos - now > 0) {
+        return false;
+      }
+      long start = now - tat > 0 ? now : tat;
+      if (theoreticalArrival.compareAndSet(tat, start + emissionIntervalNanos)) {
+        reserved.increment();
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Whether or not this bucket hands out permits at the same rate, with the same burst size, as another.
+   *
+   * @param other the other bucket.
+   * @return true if the rate and burst size are the same.
+   */
+  public boolean hasSameRate(TokenBucket other) {
+    return emissionIntervalNanos == other.emissionIntervalNanos && burstToleranceNanos == other.burstToleranceNanos;
+  }
+
+  /**
+   * Always returns {@link Long#MAX_VALUE}; a bucket never expires.
+   */
+  @Override
+  public long getEndMillis() {
+    return Long.MAX_VALUE;
+  }
+
+  @Override
+  public int getTotalMessageCount() {
+    return reserved.intValue();
+  }
+
+  @Override
+  public void setTotalMessageCount(int messageCount) {
+    reserved.reset();
+    reserved.add(messageCount);
+  }
+
+  @Override
+  public String toString() {
+    return "[Reserved-" + getTotalMessageCount() + "][Interval-" + emissionIntervalNanos + "ns][Tolerance-"
+        + burstToleranceNanos + "ns]";
+  }
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core.interceptor;
+
+import static org.apache.commons.lang3.StringUtils.isEmpty;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+
+import org.apache.commons.lang3.ObjectUtils;
+
+import com.adaptris.annotation.AdapterComponent;
+import com.adaptris.annotation.AdvancedConfig;
+import com.adaptris.annotation.AutoPopulated;
+import com.adaptris.annotation.ComponentProfile;
+import com.adaptris.annotation.DisplayOrder;
+import com.adaptris.annotation.InputFieldDefault;
+import com.adaptris.core.AdaptrisMessage;
+import com.adaptris.core.CoreException;
+import com.adaptris.util.TimeInterval;
+import com.thoughtworks.xstream.annotations.XStreamAlias;
+
+/**
+ * Throttles the number of messages processed by a workflow using a token bucket.
+ * <p>
+ * Unlike {@link ThrottlingInterceptor}, which admits {@code maximum-messages} as quickly as possible and then makes every thread
+ * wait for the timeslice to finish, this interceptor spreads messages evenly across the interval; a message is admitted every
+ * {@code time-slice-interval / maximum-messages}, with up to {@code burst-size} messages admitted without delay if the workflow
+ * has been idle. Acquiring a permit does not require a lock; each thread reserves its own permit and, if required, waits for it on
+ * its own thread. Permits are handed out in the order that they were reserved, so all the threads in a
+ * {@link com.adaptris.core.PoolingWorkflow} are treated fairly.
+ * </p>
+ * <p>
+ * If a {@code cache-name} is configured, then the bucket is stored in the configured {@link TimeSliceCacheProvider} and shared with
+ * every other {@link TokenBucketThrottlingInterceptor} that has the same cache name; in that situation the first interceptor to
+ * start decides the rate and burst size, and a warning is logged if other interceptors are configured differently. If no cache
+ * name is configured then the bucket is private to this interceptor.
+ * </p>
+ * <p>
+ * The bucket state is not a simple end time and message count, so it can't be stored by cache providers that only persist those
+ * (e.g. in a database); a shared bucket requires {@link TimeSliceDefaultCacheProvider}, which means it can only be shared within
+ * the same JVM.
+ * </p>
+ *
+ * @config token-bucket-throttling-interceptor
+ * @since 3.9.3
+ */
+@XStreamAlias("token-bucket-throttling-interceptor")
+@AdapterComponent
+@ComponentProfile(summary = "Throttles message flow using a token bucket", tag = "interceptor,throttle")
+@DisplayOrder(order = {"maximumMessages", "timeSliceInterval", "burstSize", "cacheName"})
+public class TokenBucketThrottlingInterceptor extends WorkflowInterceptorImpl {
+
+  private static final TimeInterval DEFAULT_TIMESLICE_INTERVAL = new TimeInterval(1L, TimeUnit.SECONDS);
+  private static final int DEFAULT_BURST_SIZE = 1;
+  private static final Object SHARED_BUCKET_LOCK = new Object();
+
+  @InputFieldDefault(value = "2147483647")
+  private Integer maximumMessages;
+  @InputFieldDefault(value = "1 second")
+  private TimeInterval timeSliceInterval;
+  @AdvancedConfig
+  @InputFieldDefault(value = "1")
+  private Integer burstSize;
+
+  @Valid
+  @NotNull
+  @AutoPopulated
+  @AdvancedConfig
+  private TimeSliceCacheProvider cacheProvider;
+  @AdvancedConfig
+  private String cacheName;
+
+  private transient TokenBucket bucket;
+
+  public TokenBucketThrottlingInterceptor() {
+    super();
+    cacheProvider = new TimeSliceDefaultCacheProvider();
+  }
+
+  @Override
+  public void init() throws CoreException {
+    if (!isEmpty(getCacheName()) && !(getCacheProvider() instanceof TimeSliceDefaultCacheProvider)) {
+      throw new CoreException("Shared token buckets are only supported by " + TimeSliceDefaultCacheProvider.class.getSimpleName()
+          + ", not " + getCacheProvider().getClass().getSimpleName());
+    }
+    if (getCacheProvider() instanceof TimeSliceAbstractCacheProvider) {
+      ((TimeSliceAbstractCacheProvider) getCacheProvider()).setTimeSliceDurationMilliseconds(timeSliceIntervalMs());
+    }
+    getCacheProvider().init();
+  }
+
+  @Override
+  public void start() throws CoreException {
+    getCacheProvider().start();
+    bucket = isEmpty(getCacheName()) ? createBucket() : sharedBucket();
+  }
+
+  @Override
+  public void stop() {
+    getCacheProvider().stop();
+  }
+
+  @Override
+  public void close() {
+  }
+
+  @Override
+  public void workflowStart(AdaptrisMessage inputMsg) {
+    long delay = bucket.reserve();
+    if (delay > 0) {
+      log.trace("Delaying thread (Throttling) for {} ms", TimeUnit.NANOSECONDS.toMillis(delay));
+      waitFor(delay);
+    }
+  }
+
+  @Override
+  public void workflowEnd(AdaptrisMessage inputMsg, AdaptrisMessage outputMsg) {
+  }
+
+  private static void waitFor(long nanos) {
+    long deadline = System.nanoTime() + nanos;
+    long remaining = nanos;
+    while (remaining > 0 && !Thread.currentThread().isInterrupted()) {
+      LockSupport.parkNanos(remaining);
+      remaining = deadline - System.nanoTime();
+    }
+  }
+
+  private TokenBucket sharedBucket() throws CoreException {
+    synchronized (SHARED_BUCKET_LOCK) {
+      TimeSlice slice = getCacheProvider().get(getCacheName());
+      if (slice instanceof TokenBucket) {
+        TokenBucket existing = (TokenBucket) slice;
+        if (!existing.hasSameRate(createBucket())) {
+          log.warn("Cache [{}] is already in use by a bucket with a different rate {}; maximum-messages={}, burst-size={}, "
+              + "time-slice-interval={}ms are ignored", getCacheName(), existing, maximumMessages(), burstSize(),
+              timeSliceIntervalMs());
+        }
+        return existing;
+      }
+      if (slice != null && slice.getTotalMessageCount() > 0) {
+        throw new CoreException("Cache [" + getCacheName() + "] is already in use by a different type of throttle");
+      }
+      TokenBucket result = createBucket();
+      getCacheProvider().update(getCacheName(), result);
+      return result;
+    }
+  }
+
+  private TokenBucket createBucket() {
+    return new TokenBucket(maximumMessages(), timeSliceIntervalMs(), TimeUnit.MILLISECONDS, burstSize());
+  }
+
+  public Integer getMaximumMessages() {
+    return maximumMessages;
+  }
+
+  /**
+   * Set the maximum number of messages that can be processed in each interval.
+   *
+   * @param i the max number of messages, default is {@value java.lang.Integer#MAX_VALUE}
+   */
+  public void setMaximumMessages(Integer i) {
+    maximumMessages = i;
+  }
+
+  int maximumMessages() {
+    return ObjectUtils.defaultIfNull(getMaximumMessages(), Integer.MAX_VALUE);
+  }
+
+  public TimeInterval getTimeSliceInterval() {
+    return timeSliceInterval;
+  }
+
+  /**
+   * Set the interval over which {@link #setMaximumMessages(Integer)} applies.
+   *
+   * @param interval the interval, default is 1 second.
+   */
+  public void setTimeSliceInterval(TimeInterval interval) {
+    timeSliceInterval = interval;
+  }
+
+  long timeSliceIntervalMs() {
+    return TimeInterval.toMillisecondsDefaultIfNull(getTimeSliceInterval(), DEFAULT_TIMESLICE_INTERVAL);
+  }
+
+  public Integer getBurstSize() {
+    return burstSize;
+  }
+
+  /**
+   * Set the number of messages that can be processed without delay after the workflow has been idle.
+   *
+   * @param i the burst size, default is 1 (i.e. messages are evenly spaced).
+   */
+  public void setBurstSize(Integer i) {
+    burstSize = i;
+  }
+
+  int burstSize() {
+    return ObjectUtils.defaultIfNull(getBurstSize(), DEFAULT_BURST_SIZE);
+  }
+
+  public TimeSliceCacheProvider getCacheProvider() {
+    return cacheProvider;
+  }
+
+  /**
+   * Set the caching provider used to share the bucket.
+   *
+   * @param cacheProvider the caching provider; if a {@link #setCacheName(String)} is specified, then this must be a
+   *          {@link TimeSliceDefaultCacheProvider} (which is the default).
+   */
+  public void setCacheProvider(TimeSliceCacheProvider cacheProvider) {
+    this.cacheProvider = cacheProvider;
+  }
+
+  public String getCacheName() {
+    return cacheName;
+  }
+
+  /**
+   * Set the cache name for shared throttles.
+   *
+   * @param cacheName the cache name; if not specified, then the bucket is not shared.
+   */
+  public void setCacheName(String cacheName) {
+    this.cacheName = cacheName;
+  }
+}
@@ -76,7 +76,7 @@ public class JdbcXPathParameter extends NullableParameter {
     try {
       DocumentBuilderFactoryBuilder builder = documentFactoryBuilder();
       XPath xpathToUse = newXPathInstance(builder, ctx);
-      Document doc = XmlHelper.createDocument(msg, builder);
+      Document doc = XmlHelper.createReadOnlyDocument(msg, builder);
       String textItem = xpathToUse.selectSingleTextItem(doc, msg.resolve(getXpath()));
       return normalize(textItem);
     }
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core.jms;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * How often {@link OnMessageHandler} should acknowledge or commit, along with the statistics for the batches that have been
+ * acknowledged / committed.
+ * <p>
+ * A batch is acknowledged (or committed) when it contains {@link #size()} messages, or when the oldest message in the batch has been
+ * waiting for {@link #windowMs()}, whichever comes first. The window is only checked as each message is processed, so a partial
+ * batch is not acknowledged until another message has been processed (or the consumer is stopped), however long it has been
+ * waiting. A batch size of 1 is the same as acknowledging every message. This class
+ * is not marshalled or configurable; the statistics are shared by all the sessions that belong to the same consumer, so are
+ * thread-safe.
+ * </p>
+ *
+ * @since 3.9.3
+ */
+public class AcknowledgementBatch {
+
+  private final int size;
+  private final long windowMs;
+
+  private final AtomicLong batches = new AtomicLong();
+  private final AtomicLong messages = new AtomicLong();
+  private final AtomicLong commitNanos = new AtomicLong();
+  private final AtomicLong maxCommitNanos = new AtomicLong();
+  private final AtomicLong rollbacks = new AtomicLong();
+  private volatile int lastBatchSize;
+
+  /**
+   * Acknowledge every message.
+   */
+  public AcknowledgementBatch() {
+    this(1, 0);
+  }
+
+  /**
+   * @param size the maximum number of messages in a batch; values less than 1 are treated as 1.
+   * @param windowMs the maximum time the oldest message in a batch should wait; values less than 1 mean that only the size is
+   *          considered.
+   */
+  public AcknowledgementBatch(int size, long windowMs) {
+    this.size = Math.max(1, size);
+    this.windowMs = Math.max(0, windowMs);
+  }
+
+  /**
+   * @return the maximum number of messages in a batch.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return the maximum time (ms) the oldest message may wait, 0 if there is no time limit.
+   */
+  public long windowMs() {
+    return windowMs;
+  }
+
+  /**
+   * @return true if more than one message can be acknowledged at a time.
+   */
+  public boolean isBatched() {
+    return size > 1;
+  }
+
+  boolean isDue(int pending, long batchStarted, long now) {
+    return pending >= size || windowMs > 0 && now - batchStarted >= windowMs;
+  }
+
+  void committed(int batchSize, long nanos) {
+    batches.incrementAndGet();
+    messages.addAndGet(batchSize);
+    commitNanos.addAndGet(nanos);
+    maxCommitNanos.accumulateAndGet(nanos, Math::max);
+    lastBatchSize = batchSize;
+  }
+
+  void rolledBack() {
+    rollbacks.incrementAndGet();
+  }
+
+  /**
+   * @return the number of batches acknowledged or committed.
+   */
+  public long batchCount() {
+    return batches.get();
+  }
+
+  /**
+   * @return the number of messages acknowledged or committed.
+   */
+  public long messageCount() {
+    return messages.get();
+  }
+
+  /**
+   * @return the size of the last batch.
+   */
+  public int lastBatchSize() {
+    return lastBatchSize;
+  }
+
+  /**
+   * @return the average batch size.
+   */
+  public double averageBatchSize() {
+    long count = batches.get();
+    return count > 0 ? (double) messages.get() / count : 0;
+  }
+
+  /**
+   * @return the average time (ms) it took to acknowledge or commit a batch.
+   */
+  public double averageCommitLatencyMs() {
+    long count = batches.get();
+    return count > 0 ? (double) commitNanos.get() / count / TimeUnit.MILLISECONDS.toNanos(1) : 0;
+  }
+
+  /**
+   * @return the longest time (ms) it took to acknowledge or commit a batch.
+   */
+  public long maxCommitLatencyMs() {
+    return TimeUnit.NANOSECONDS.toMillis(maxCommitNanos.get());
+  }
+
+  /**
+   * @return the number of times a batch was rolled back.
+   */
+  public long rollbackCount() {
+    return rollbacks.get();
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core.jms;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Completion statistics for {@link JmsAsyncProducer}.
+ * <p>
+ * Completion latency is the time between handing the message to the JMS provider and the provider calling us back; it is recorded in
+ * a fixed set of buckets (see {@link #HISTOGRAM_BOUNDS_MS}) so that recording is cheap and lock-free.
+ * </p>
+ *
+ * @since 3.9.3
+ */
+class AsyncProducerStatistics {
+
+  /**
+   * The upper bound (inclusive, in milliseconds) of each histogram bucket; there is an additional bucket for anything greater.
+   */
+  static final long[] HISTOGRAM_BOUNDS_MS = {1, 5, 10, 50, 100, 500, 1000, 5000};
+
+  private final AtomicLong completed = new AtomicLong();
+  private final AtomicLong failed = new AtomicLong();
+  private final AtomicLong rejected = new AtomicLong();
+  private final AtomicLong totalNanos = new AtomicLong();
+  private final AtomicLong maxNanos = new AtomicLong();
+  private final AtomicLongArray histogram = new AtomicLongArray(HISTOGRAM_BOUNDS_MS.length + 1);
+
+  void completed(long nanos) {
+    completed.incrementAndGet();
+    totalNanos.addAndGet(nanos);
+    maxNanos.accumulateAndGet(nanos, Math::max);
+    histogram.incrementAndGet(bucket(TimeUnit.NANOSECONDS.toMillis(nanos)));
+  }
+
+  void failed() {
+    failed.incrementAndGet();
+  }
+
+  void rejected() {
+    rejected.incrementAndGet();
+  }
+
+  long completedCount() {
+    return completed.get();
+  }
+
+  long failedCount() {
+    return failed.get();
+  }
+
+  long rejectedCount() {
+    return rejected.get();
+  }
+
+  double averageLatencyMs() {
+    long count = completed.get();
+    return count > 0 ? (double) totalNanos.get() / count / TimeUnit.MILLISECONDS.toNanos(1) : 0;
+  }
+
+  long maxLatencyMs() {
+    return TimeUnit.NANOSECONDS.toMillis(maxNanos.get());
+  }
+
+  long[] histogram() {
+    long[] result = new long[histogram.length()];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = histogram.get(i);
+    }
+    return result;
+  }
+
+  static String[] histogramBuckets() {
+    String[] result = new String[HISTOGRAM_BOUNDS_MS.length + 1];
+    for (int i = 0; i < HISTOGRAM_BOUNDS_MS.length; i++) {
+      result[i] = "<=" + HISTOGRAM_BOUNDS_MS[i] + "ms";
+    }
+    result[HISTOGRAM_BOUNDS_MS.length] = ">" + HISTOGRAM_BOUNDS_MS[HISTOGRAM_BOUNDS_MS.length - 1] + "ms";
+    return result;
+  }
+
+  private static int bucket(long ms) {
+    for (int i = 0; i < HISTOGRAM_BOUNDS_MS.length; i++) {
+      if (ms <= HISTOGRAM_BOUNDS_MS[i]) {
+        return i;
+      }
+    }
+    return HISTOGRAM_BOUNDS_MS.length;
+  }
+}
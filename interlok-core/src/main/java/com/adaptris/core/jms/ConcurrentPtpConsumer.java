@@ -0,0 +1,262 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core.jms;
+
+import static com.adaptris.core.AdaptrisMessageFactory.defaultIfNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.MessageListener;
+import javax.jms.Session;
+
+import org.apache.commons.lang3.ObjectUtils;
+import org.slf4j.Logger;
+
+import com.adaptris.annotation.AdapterComponent;
+import com.adaptris.annotation.ComponentProfile;
+import com.adaptris.annotation.DisplayOrder;
+import com.adaptris.annotation.InputFieldDefault;
+import com.adaptris.core.AdaptrisMessageListener;
+import com.adaptris.core.ConsumeDestination;
+import com.adaptris.core.CoreException;
+import com.adaptris.core.DefaultMarshaller;
+import com.adaptris.core.util.ExceptionHelper;
+import com.adaptris.core.util.LifecycleHelper;
+import com.thoughtworks.xstream.annotations.XStreamAlias;
+
+/**
+ * JMS Queue implementation of {@link com.adaptris.core.AdaptrisMessageConsumer} that consumes using multiple sessions.
+ * <p>
+ * {@link PtpConsumer} has a single {@link javax.jms.Session}; the JMS specification requires that message delivery for a session
+ * is serialised, so messages are only ever consumed one at a time regardless of the downstream workflow. This consumer creates
+ * {@link #setSessionCount(Integer)} sessions against the same connection, each with its own {@link javax.jms.MessageConsumer}, its
+ * own copy of the configured {@link MessageTypeTranslator} and its own delivery thread, so that a queue can be drained in
+ * parallel.
+ * </p>
+ * <p>
+ * Acknowledgement is done against the session that received the message, so {@code CLIENT_ACKNOWLEDGE} only ever acknowledges
+ * messages consumed by that session; similarly when used with a {@link JmsTransactedWorkflow} each session commits or rolls back
+ * independently (if the workflow commits in batches, then each session has its own batch). Since sessions deliver messages
+ * concurrently, the workflow should be able to process messages concurrently (e.g. a {@link com.adaptris.core.PoolingWorkflow}
+ * or a {@link JmsTransactedWorkflow}); ordering across the queue is not preserved.
+ * </p>
+ *
+ * @config jms-concurrent-queue-consumer
+ * @since 3.9.3
+ */
+@XStreamAlias("jms-concurrent-queue-consumer")
+@AdapterComponent
+@ComponentProfile(summary = "Listen for JMS messages on the specified queue using multiple sessions", tag = "consumer,jms",
+    recommended = {JmsConnection.class})
+@DisplayOrder(order = {"destination", "sessionCount", "acknowledgeMode", "messageTranslator"})
+public class ConcurrentPtpConsumer extends PtpConsumer {
+
+  private static final int DEFAULT_SESSION_COUNT = 5;
+
+  @InputFieldDefault(value = "5")
+  private Integer sessionCount;
+
+  private transient List<SessionWorker> workers = new ArrayList<>();
+
+  public ConcurrentPtpConsumer() {
+    super();
+  }
+
+  ConcurrentPtpConsumer(boolean b) {
+    super(b);
+  }
+
+  public ConcurrentPtpConsumer(ConsumeDestination d) {
+    super(d);
+  }
+
+  @Override
+  public void init() throws CoreException {
+    // The first session is the one managed by our parent.
+    super.init();
+    try {
+      for (int i = 1; i < sessionCount(); i++) {
+        SessionWorker worker = new SessionWorker();
+        workers.add(worker);
+        worker.init();
+      }
+    }
+    catch (Exception e) {
+      closeWorkers();
+      throw ExceptionHelper.wrapCoreException(e);
+    }
+  }
+
+  @Override
+  public void start() throws CoreException {
+    super.start();
+    try {
+      for (SessionWorker w : workers) {
+        w.start();
+      }
+    }
+    catch (JMSException e) {
+      throw ExceptionHelper.wrapCoreException(e);
+    }
+  }
+
+  @Override
+  public void stop() {
+    for (SessionWorker w : workers) {
+      w.stop();
+    }
+    super.stop();
+  }
+
+  @Override
+  public void close() {
+    closeWorkers();
+    super.close();
+  }
+
+  private void closeWorkers() {
+    for (SessionWorker w : workers) {
+      w.close();
+    }
+    workers.clear();
+  }
+
+  /**
+   * @return the number of sessions that are currently open.
+   */
+  int openSessions() {
+    return currentSession() != null ? workers.size() + 1 : 0;
+  }
+
+  public Integer getSessionCount() {
+    return sessionCount;
+  }
+
+  /**
+   * Set the number of sessions (and therefore concurrent consumers) to create.
+   * <p>
+   * There is little point in having more sessions than the workflow can process concurrently.
+   * </p>
+   *
+   * @param i the number of sessions, default 5.
+   */
+  public void setSessionCount(Integer i) {
+    sessionCount = i;
+  }
+
+  int sessionCount() {
+    return Math.max(1, ObjectUtils.defaultIfNull(getSessionCount(), DEFAULT_SESSION_COUNT));
+  }
+
+  /**
+   * An additional session, consumer and translator; everything else is taken from the parent consumer.
+   */
+  private class SessionWorker implements MessageListener, JmsActorConfig {
+    private Session session;
+    private MessageTypeTranslator translator;
+    private MessageConsumer messageConsumer;
+    private OnMessageHandler handler;
+
+    void init() throws JMSException, CoreException {
+      session = retrieveConnection(JmsConnection.class).createSession(isTransacted(), configuredAcknowledgeMode());
+      translator = DefaultMarshaller.roundTrip(getMessageTranslator());
+      LifecycleHelper.prepare(translator);
+      translator.registerSession(session);
+      translator.registerMessageFactory(defaultIfNull(getMessageFactory()));
+      LifecycleHelper.init(translator);
+      handler = new OnMessageHandler(this);
+    }
+
+    void start() throws JMSException, CoreException {
+      messageConsumer = retrieveConnection(JmsConnection.class).configuredVendorImplementation()
+          .createQueueReceiver(getDestination(), this);
+      messageConsumer.setMessageListener(this);
+      LifecycleHelper.start(translator);
+    }
+
+    void stop() {
+      JmsUtils.closeQuietly(messageConsumer);
+      messageConsumer = null;
+      commitPending(handler);
+      LifecycleHelper.stop(translator);
+    }
+
+    void close() {
+      JmsUtils.closeQuietly(messageConsumer);
+      messageConsumer = null;
+      LifecycleHelper.close(translator);
+      JmsUtils.closeQuietly(session);
+      session = null;
+    }
+
+    @Override
+    public void onMessage(Message msg) {
+      String oldName = renameThread();
+      handler.onMessage(msg);
+      Thread.currentThread().setName(oldName);
+    }
+
+    @Override
+    public MessageTypeTranslator configuredMessageTranslator() {
+      return translator;
+    }
+
+    @Override
+    public int configuredAcknowledgeMode() {
+      return ConcurrentPtpConsumer.this.configuredAcknowledgeMode();
+    }
+
+    @Override
+    public CorrelationIdSource configuredCorrelationIdSource() {
+      return ConcurrentPtpConsumer.this.configuredCorrelationIdSource();
+    }
+
+    @Override
+    public AdaptrisMessageListener configuredMessageListener() {
+      return ConcurrentPtpConsumer.this.configuredMessageListener();
+    }
+
+    @Override
+    public Session currentSession() {
+      return session;
+    }
+
+    @Override
+    public Logger currentLogger() {
+      return ConcurrentPtpConsumer.this.currentLogger();
+    }
+
+    @Override
+    public long rollbackTimeout() {
+      return ConcurrentPtpConsumer.this.rollbackTimeout();
+    }
+
+    @Override
+    public boolean isManagedTransaction() {
+      return ConcurrentPtpConsumer.this.isManagedTransaction();
+    }
+
+    @Override
+    public AcknowledgementBatch acknowledgementBatch() {
+      return ConcurrentPtpConsumer.this.acknowledgementBatch();
+    }
+  }
+}
@@ -85,4 +85,13 @@ public interface JmsActorConfig {
    */
   boolean isManagedTransaction();
 
+  /**
+   * How often messages should be acknowledged or committed.
+   *
+   * @return the batch; the default is to acknowledge every message.
+   * @since 3.9.3
+   */
+  default AcknowledgementBatch acknowledgementBatch() {
+    return new AcknowledgementBatch();
+  }
 }
@@ -1,18 +1,42 @@
 package com.adaptris.core.jms;
 
+import static org.apache.commons.lang3.StringUtils.isEmpty;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import javax.jms.CompletionListener;
+import javax.jms.Destination;
 import javax.jms.JMSException;
 import javax.jms.Message;
+import javax.jms.MessageProducer;
+import javax.jms.Session;
+import javax.management.MalformedObjectNameException;
 import javax.validation.constraints.NotNull;
 
+import org.apache.commons.lang3.BooleanUtils;
+import org.apache.commons.lang3.ObjectUtils;
+
 import com.adaptris.annotation.AdapterComponent;
+import com.adaptris.annotation.AdvancedConfig;
 import com.adaptris.annotation.ComponentProfile;
 import com.adaptris.annotation.DisplayOrder;
+import com.adaptris.annotation.InputFieldDefault;
+import com.adaptris.core.AdaptrisComponent;
 import com.adaptris.core.AdaptrisMessage;
 import com.adaptris.core.CoreException;
+import com.adaptris.core.ProduceException;
 import com.adaptris.core.StandardProcessingExceptionHandler;
+import com.adaptris.core.runtime.ParentRuntimeInfoComponent;
+import com.adaptris.core.runtime.RuntimeInfoComponent;
+import com.adaptris.core.runtime.RuntimeInfoComponentFactory;
+import com.adaptris.core.runtime.WorkflowManager;
 import com.adaptris.core.util.Args;
 import com.adaptris.core.util.ExceptionHelper;
+import com.adaptris.util.TimeInterval;
 import com.thoughtworks.xstream.annotations.XStreamAlias;
 
 /**
@@ -42,6 +66,15 @@ import com.thoughtworks.xstream.annotations.XStreamAlias;
  * Generally this may not be an issue, however if processing a message triggers a form of transaction committing or JMS acknowledging, 
  * then the commit or ack could be completed regardless if the sent JMS message eventually succeeds or fails.
  * </p>
+ * <p>
+ * The number of messages that have been sent but not yet confirmed by the JMS provider is limited by
+ * {@link #setMaxInFlight(Integer)}. When the limit is reached, the producer either waits (up to
+ * {@link #setMaxInFlightWait(TimeInterval)}) for a send to complete, or fails immediately if {@link #setFailFast(Boolean)} is
+ * true; this stops a fast workflow from overwhelming the provider. When the producer is stopped, it waits (for the same amount of
+ * time) for any outstanding sends to complete. If {@link #setCacheDestinationProducers(Boolean)} is true then a
+ * {@link javax.jms.MessageProducer} is created (and cached) for each destination, rather than using a single anonymous producer.
+ * When used as a workflow producer, in-flight counts and completion latencies are available via JMX.
+ * </p>
  * 
  * @config jms-async-producer
  * 
@@ -49,34 +82,163 @@ import com.thoughtworks.xstream.annotations.XStreamAlias;
 @XStreamAlias("jms-async-producer")
 @AdapterComponent
 @ComponentProfile(summary = "Place message on a JMS queue or topic asynchronously", tag = "producer,jms", recommended = {JmsConnection.class})
-@DisplayOrder(order = {"destination", "asyncMessageErrorHandler", "messageTypeTranslator", "deliveryMode", "priority", "ttl", "acknowledgeMode"})
+@DisplayOrder(order = {"destination", "asyncMessageErrorHandler", "messageTypeTranslator", "deliveryMode", "priority", "ttl",
+    "acknowledgeMode", "maxInFlight", "maxInFlightWait", "failFast", "cacheDestinationProducers"})
 public class JmsAsyncProducer extends JmsProducer implements CompletionListener {
-  
+
+  private static final int DEFAULT_MAX_IN_FLIGHT = 1000;
+  private static final TimeInterval DEFAULT_MAX_IN_FLIGHT_WAIT = new TimeInterval(1L, TimeUnit.MINUTES);
+  private static final int MAX_CACHED_PRODUCERS = 64;
+
   @NotNull
   private StandardProcessingExceptionHandler asyncMessageErrorHandler;
+  @AdvancedConfig
+  @InputFieldDefault(value = "1000")
+  private Integer maxInFlight;
+  @AdvancedConfig
+  @InputFieldDefault(value = "1 minute")
+  private TimeInterval maxInFlightWait;
+  @AdvancedConfig
+  @InputFieldDefault(value = "false")
+  private Boolean failFast;
+  @AdvancedConfig
+  @InputFieldDefault(value = "false")
+  private Boolean cacheDestinationProducers;
+
+  private transient Semaphore inFlight;
+  private transient AsyncProducerStatistics statistics = new AsyncProducerStatistics();
+  private transient Session cachedProducerSession;
+  private transient Map<Destination, MessageProducer> cachedProducers = new LinkedHashMap<Destination, MessageProducer>(16,
+      0.75f, true) {
+    private static final long serialVersionUID = 2019061101L;
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Destination, MessageProducer> eldest) {
+      if (size() > MAX_CACHED_PRODUCERS) {
+        JmsUtils.closeQuietly(eldest.getValue());
+        return true;
+      }
+      return false;
+    }
+  };
+
+  static {
+    RuntimeInfoComponentFactory.registerComponentFactory(new JmxFactory());
+  }
 
+  @Override
   protected void produce(AdaptrisMessage msg, JmsDestination jmsDest) throws JMSException, CoreException {
+    InFlightSend callback = null;
     try {
       setupSession(msg);
       Message jmsMsg = translate(msg, jmsDest.getReplyToDestination());
-      if (!perMessageProperties()) {
-        producerSession.getProducer().send(jmsDest.getDestination(), jmsMsg, this);
+      MessageProducer producer = producerFor(jmsDest.getDestination());
+      callback = new InFlightSend(acquire());
+      if (producer == producerSession.getProducer()) {
+        if (!perMessageProperties()) {
+          producer.send(jmsDest.getDestination(), jmsMsg, callback);
+        } else {
+          producer.send(jmsDest.getDestination(), jmsMsg, calculateDeliveryMode(msg, jmsDest.deliveryMode()),
+              calculatePriority(msg, jmsDest.priority()), calculateTimeToLive(msg, jmsDest.timeToLive()), callback);
+        }
       } else {
-        producerSession.getProducer().send(jmsDest.getDestination(), jmsMsg,
-            calculateDeliveryMode(msg, jmsDest.deliveryMode()),
-            calculatePriority(msg, jmsDest.priority()),
-            calculateTimeToLive(msg, jmsDest.timeToLive()),
-            this);
+        if (!perMessageProperties()) {
+          producer.send(jmsMsg, callback);
+        } else {
+          producer.send(jmsMsg, calculateDeliveryMode(msg, jmsDest.deliveryMode()), calculatePriority(msg, jmsDest.priority()),
+              calculateTimeToLive(msg, jmsDest.timeToLive()), callback);
+        }
       }
       if (captureOutgoingMessageDetails()) {
         captureOutgoingMessageDetails(jmsMsg, msg);
       }
       log.info("msg produced to destination [{}]", jmsDest);
+    } catch (InFlightWindowFullException e) {
+      statistics.rejected();
+      throw e;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ProduceException("Interrupted waiting for space in the in-flight window", e);
     } catch (Throwable ex) {
+      if (callback != null) {
+        callback.abandon();
+      }
       throw new CoreException("JMS runtime exception", ex);
     }
   }
 
+  private Semaphore acquire() throws InFlightWindowFullException, InterruptedException {
+    Semaphore window = inFlightWindow();
+    boolean acquired = failFast() ? window.tryAcquire() : window.tryAcquire(maxInFlightWaitMs(), TimeUnit.MILLISECONDS);
+    if (!acquired) {
+      throw new InFlightWindowFullException("Too many messages in flight (" + maxInFlight() + "), giving up");
+    }
+    return window;
+  }
+
+  private MessageProducer producerFor(Destination dest) throws JMSException {
+    if (!cacheDestinationProducers() || dest == null) {
+      return producerSession.getProducer();
+    }
+    Session session = producerSession.getSession();
+    if (session != cachedProducerSession) {
+      closeCachedProducers();
+      cachedProducerSession = session;
+    }
+    MessageProducer result = cachedProducers.get(dest);
+    if (result == null) {
+      result = session.createProducer(dest);
+      if (!perMessageProperties()) {
+        result.setDeliveryMode(DeliveryMode.getMode(getDeliveryMode()));
+        result.setPriority(messagePriority());
+        result.setTimeToLive(timeToLive());
+      }
+      cachedProducers.put(dest, result);
+    }
+    return result;
+  }
+
+  private void closeCachedProducers() {
+    for (MessageProducer p : cachedProducers.values()) {
+      JmsUtils.closeQuietly(p);
+    }
+    cachedProducers.clear();
+    cachedProducerSession = null;
+  }
+
+  private Semaphore inFlightWindow() {
+    if (inFlight == null) {
+      inFlight = new Semaphore(maxInFlight());
+    }
+    return inFlight;
+  }
+
+  // Wait for outstanding sends, so they aren't lost when the session is closed.
+  private void drain() {
+    Semaphore window = inFlight;
+    if (window == null) {
+      return;
+    }
+    try {
+      if (window.tryAcquire(maxInFlight(), maxInFlightWaitMs(), TimeUnit.MILLISECONDS)) {
+        window.release(maxInFlight());
+      } else {
+        log.warn("{} message(s) still in flight after waiting {}ms", inFlightCount(), maxInFlightWaitMs());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  int inFlightCount() {
+    Semaphore window = inFlight;
+    return window != null ? maxInFlight() - window.availablePermits() : 0;
+  }
+
+  AsyncProducerStatistics statistics() {
+    return statistics;
+  }
+
   @Override
   public void onCompletion(Message message) {
     try {
@@ -103,13 +265,167 @@ public class JmsAsyncProducer extends JmsProducer implements CompletionListener
     this.asyncMessageErrorHandler = asyncMessageErrorHandler;
   }
 
+  public Integer getMaxInFlight() {
+    return maxInFlight;
+  }
+
+  /**
+   * Set the maximum number of messages that can be sent but not yet confirmed by the JMS provider.
+   *
+   * @param i the maximum, default 1000.
+   * @since 3.9.3
+   */
+  public void setMaxInFlight(Integer i) {
+    maxInFlight = i;
+  }
+
+  int maxInFlight() {
+    return Math.max(1, ObjectUtils.defaultIfNull(getMaxInFlight(), DEFAULT_MAX_IN_FLIGHT));
+  }
+
+  public TimeInterval getMaxInFlightWait() {
+    return maxInFlightWait;
+  }
+
+  /**
+   * Set how long to wait for an in-flight message to complete when there are already {@link #setMaxInFlight(Integer)} messages
+   * in flight.
+   *
+   * @param t the time to wait, default 1 minute; also used as the time to wait for in-flight messages when stopping.
+   * @since 3.9.3
+   */
+  public void setMaxInFlightWait(TimeInterval t) {
+    maxInFlightWait = t;
+  }
+
+  long maxInFlightWaitMs() {
+    return TimeInterval.toMillisecondsDefaultIfNull(getMaxInFlightWait(), DEFAULT_MAX_IN_FLIGHT_WAIT);
+  }
+
+  public Boolean getFailFast() {
+    return failFast;
+  }
+
+  /**
+   * Whether or not to fail immediately when there are already {@link #setMaxInFlight(Integer)} messages in flight.
+   *
+   * @param b true to fail immediately, default false (wait for up to {@link #setMaxInFlightWait(TimeInterval)}).
+   * @since 3.9.3
+   */
+  public void setFailFast(Boolean b) {
+    failFast = b;
+  }
+
+  boolean failFast() {
+    return BooleanUtils.toBooleanDefaultIfNull(getFailFast(), false);
+  }
+
+  public Boolean getCacheDestinationProducers() {
+    return cacheDestinationProducers;
+  }
+
+  /**
+   * Whether or not to create (and cache) a {@link javax.jms.MessageProducer} for each destination.
+   * <p>
+   * Some providers do additional work for each send via an anonymous producer; if you are sending to a small number of
+   * destinations then caching a producer per destination avoids that. The cache is cleared whenever the session changes.
+   * </p>
+   *
+   * @param b true to cache producers per destination, default false.
+   * @since 3.9.3
+   */
+  public void setCacheDestinationProducers(Boolean b) {
+    cacheDestinationProducers = b;
+  }
+
+  boolean cacheDestinationProducers() {
+    return BooleanUtils.toBooleanDefaultIfNull(getCacheDestinationProducers(), false);
+  }
+
   @Override
   public void init() throws CoreException {
     try {
       Args.notNull(getAsyncMessageErrorHandler(), "asyncMessageErrorHandler");
+      inFlight = new Semaphore(maxInFlight());
       super.init();
     } catch (IllegalArgumentException e) {
       throw ExceptionHelper.wrapCoreException(e);
     }
   }
+
+  @Override
+  public void stop() {
+    drain();
+    closeCachedProducers();
+    super.stop();
+  }
+
+  /**
+   * Tracks a single send, so that the in-flight window can be released exactly once.
+   */
+  private class InFlightSend implements CompletionListener {
+    private final Semaphore window;
+    private final long start = System.nanoTime();
+    private final AtomicBoolean done = new AtomicBoolean(false);
+
+    InFlightSend(Semaphore window) {
+      this.window = window;
+    }
+
+    @Override
+    public void onCompletion(Message message) {
+      if (complete()) {
+        statistics.completed(System.nanoTime() - start);
+      }
+      JmsAsyncProducer.this.onCompletion(message);
+    }
+
+    @Override
+    public void onException(Message message, Exception exception) {
+      if (complete()) {
+        statistics.failed();
+      }
+      JmsAsyncProducer.this.onException(message, exception);
+    }
+
+    // The send itself failed, so there will be no callback.
+    void abandon() {
+      if (complete()) {
+        statistics.failed();
+      }
+    }
+
+    private boolean complete() {
+      if (done.compareAndSet(false, true)) {
+        window.release();
+        return true;
+      }
+      return false;
+    }
+  }
+
+  private static class InFlightWindowFullException extends CoreException {
+    private static final long serialVersionUID = 2019061101L;
+
+    InFlightWindowFullException(String msg) {
+      super(msg);
+    }
+  }
+
+  private static class JmxFactory extends RuntimeInfoComponentFactory {
+
+    @Override
+    protected boolean isSupported(AdaptrisComponent e) {
+      if (e != null && e instanceof JmsAsyncProducer) {
+        return !isEmpty(((JmsAsyncProducer) e).getUniqueId());
+      }
+      return false;
+    }
+
+    @Override
+    protected RuntimeInfoComponent createComponent(ParentRuntimeInfoComponent parent, AdaptrisComponent e)
+        throws MalformedObjectNameException {
+      return new JmsAsyncProducerMonitor((WorkflowManager) parent, (JmsAsyncProducer) e);
+    }
+  }
 }
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core.jms;
+
+import static com.adaptris.core.runtime.AdapterComponentMBean.JMX_PRODUCER_MONITOR_TYPE;
+
+import com.adaptris.core.runtime.ChildRuntimeInfoComponentImpl;
+import com.adaptris.core.runtime.ParentRuntimeInfoComponent;
+import com.adaptris.core.runtime.WorkflowManager;
+
+/**
+ * Exposes the in-flight window and completion statistics of a {@link JmsAsyncProducer} via JMX.
+ *
+ * @since 3.9.3
+ */
+public class JmsAsyncProducerMonitor extends ChildRuntimeInfoComponentImpl implements JmsAsyncProducerMonitorMBean {
+
+  private transient WorkflowManager parent;
+  private transient JmsAsyncProducer wrappedComponent;
+
+  private JmsAsyncProducerMonitor() {
+    super();
+  }
+
+  JmsAsyncProducerMonitor(WorkflowManager owner, JmsAsyncProducer producer) {
+    this();
+    parent = owner;
+    wrappedComponent = producer;
+  }
+
+  @Override
+  protected String getType() {
+    return JMX_PRODUCER_MONITOR_TYPE;
+  }
+
+  @Override
+  protected String uniqueId() {
+    return wrappedComponent.getUniqueId();
+  }
+
+  @Override
+  public ParentRuntimeInfoComponent getParentRuntimeInfoComponent() {
+    return parent;
+  }
+
+  @Override
+  public int inFlightCount() {
+    return wrappedComponent.inFlightCount();
+  }
+
+  @Override
+  public int maxInFlight() {
+    return wrappedComponent.maxInFlight();
+  }
+
+  @Override
+  public long completedCount() {
+    return wrappedComponent.statistics().completedCount();
+  }
+
+  @Override
+  public long failedCount() {
+    return wrappedComponent.statistics().failedCount();
+  }
+
+  @Override
+  public long rejectedCount() {
+    return wrappedComponent.statistics().rejectedCount();
+  }
+
+  @Override
+  public double averageCompletionLatencyMs() {
+    return wrappedComponent.statistics().averageLatencyMs();
+  }
+
+  @Override
+  public long maxCompletionLatencyMs() {
+    return wrappedComponent.statistics().maxLatencyMs();
+  }
+
+  @Override
+  public long[] completionLatencyHistogram() {
+    return wrappedComponent.statistics().histogram();
+  }
+
+  @Override
+  public String[] completionLatencyBuckets() {
+    return AsyncProducerStatistics.histogramBuckets();
+  }
+}
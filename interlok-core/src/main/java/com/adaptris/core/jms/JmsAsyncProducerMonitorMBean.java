@@ -0,0 +1,73 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core.jms;
+
+import com.adaptris.core.runtime.ChildRuntimeInfoComponentMBean;
+
+/**
+ * Management interface for {@link JmsAsyncProducer}, exposing the in-flight window and completion statistics.
+ *
+ * @since 3.9.3
+ */
+public interface JmsAsyncProducerMonitorMBean extends ChildRuntimeInfoComponentMBean {
+
+  /**
+   * @return the number of messages that have been sent but not yet acknowledged by the provider.
+   */
+  int inFlightCount();
+
+  /**
+   * @return the maximum number of messages that can be in flight.
+   */
+  int maxInFlight();
+
+  /**
+   * @return the number of sends that have been successfully completed.
+   */
+  long completedCount();
+
+  /**
+   * @return the number of sends that have failed.
+   */
+  long failedCount();
+
+  /**
+   * @return the number of sends rejected because the in-flight window was full.
+   */
+  long rejectedCount();
+
+  /**
+   * @return the average completion latency in milliseconds.
+   */
+  double averageCompletionLatencyMs();
+
+  /**
+   * @return the longest completion latency in milliseconds.
+   */
+  long maxCompletionLatencyMs();
+
+  /**
+   * @return the number of completions in each latency bucket.
+   * @see #completionLatencyBuckets()
+   */
+  long[] completionLatencyHistogram();
+
+  /**
+   * @return a description of each latency bucket, in the same order as {@link #completionLatencyHistogram()}.
+   */
+  String[] completionLatencyBuckets();
+}
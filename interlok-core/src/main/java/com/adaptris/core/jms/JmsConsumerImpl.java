@@ -18,11 +18,13 @@ package com.adaptris.core.jms;
 
 import static com.adaptris.core.AdaptrisMessageFactory.defaultIfNull;
 import static com.adaptris.core.jms.NullCorrelationIdSource.defaultIfNull;
+import static org.apache.commons.lang3.StringUtils.isEmpty;
 import javax.jms.JMSException;
 import javax.jms.Message;
 import javax.jms.MessageConsumer;
 import javax.jms.MessageListener;
 import javax.jms.Session;
+import javax.management.MalformedObjectNameException;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Pattern;
@@ -30,11 +32,16 @@ import org.apache.commons.lang3.BooleanUtils;
 import org.slf4j.Logger;
 import com.adaptris.annotation.AdvancedConfig;
 import com.adaptris.annotation.AutoPopulated;
+import com.adaptris.core.AdaptrisComponent;
 import com.adaptris.core.AdaptrisMessageConsumerImp;
 import com.adaptris.core.AdaptrisMessageListener;
 import com.adaptris.core.ClosedState;
 import com.adaptris.core.ConsumeDestination;
 import com.adaptris.core.CoreException;
+import com.adaptris.core.runtime.ParentRuntimeInfoComponent;
+import com.adaptris.core.runtime.RuntimeInfoComponent;
+import com.adaptris.core.runtime.RuntimeInfoComponentFactory;
+import com.adaptris.core.runtime.WorkflowManager;
 import com.adaptris.core.util.Args;
 import com.adaptris.core.util.LifecycleHelper;
 
@@ -64,6 +71,11 @@ public abstract class JmsConsumerImpl extends AdaptrisMessageConsumerImp impleme
   private transient Boolean transacted;
   private transient boolean managedTransaction;
   private transient long rollbackTimeout = 30000;
+  private transient AcknowledgementBatch acknowledgementBatch = new AcknowledgementBatch();
+
+  static {
+    RuntimeInfoComponentFactory.registerComponentFactory(new JmxFactory());
+  }
 
   /**
    * <p>
@@ -128,7 +140,9 @@ public abstract class JmsConsumerImpl extends AdaptrisMessageConsumerImp impleme
 
   @Override
   public void stop() {
+    // Closing the consumer waits for onMessage() to finish, so nothing else is using the session.
     consumer = nullify(consumer);
+    commitPending(onMessageHandler);
     LifecycleHelper.stop(messageTranslator);
   }
 
@@ -144,6 +158,12 @@ public abstract class JmsConsumerImpl extends AdaptrisMessageConsumerImp impleme
     LifecycleHelper.start(messageTranslator);
   }
 
+  static void commitPending(OnMessageHandler handler) {
+    if (handler != null) {
+      handler.commitPending();
+    }
+  }
+
   @Override
   public void close() {
     LifecycleHelper.close(messageTranslator);
@@ -184,6 +204,20 @@ public abstract class JmsConsumerImpl extends AdaptrisMessageConsumerImp impleme
     return getRollbackTimeout();
   }
 
+  /**
+   * Not directly configurable, as it is done by JmsTransactedWorkflow.
+   *
+   * @param batch the acknowledgement batch.
+   */
+  void setAcknowledgementBatch(AcknowledgementBatch batch) {
+    acknowledgementBatch = Args.notNull(batch, "acknowledgementBatch");
+  }
+
+  @Override
+  public AcknowledgementBatch acknowledgementBatch() {
+    return acknowledgementBatch;
+  }
+
   /**
    * <p>
    * Sets the MessageTypeTranslator to use.
@@ -315,4 +349,20 @@ public abstract class JmsConsumerImpl extends AdaptrisMessageConsumerImp impleme
     return JmsConstants.JMS_DESTINATION;
   }
 
+  private static class JmxFactory extends RuntimeInfoComponentFactory {
+
+    @Override
+    protected boolean isSupported(AdaptrisComponent e) {
+      if (e != null && e instanceof JmsConsumerImpl) {
+        return !isEmpty(((JmsConsumerImpl) e).getUniqueId());
+      }
+      return false;
+    }
+
+    @Override
+    protected RuntimeInfoComponent createComponent(ParentRuntimeInfoComponent parent, AdaptrisComponent e)
+        throws MalformedObjectNameException {
+      return new JmsConsumerMonitor<>((WorkflowManager) parent, (JmsConsumerImpl) e);
+    }
+  }
 }
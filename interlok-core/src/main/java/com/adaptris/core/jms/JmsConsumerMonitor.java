@@ -0,0 +1,79 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core.jms;
+
+import com.adaptris.core.AdaptrisMessageConsumer;
+import com.adaptris.core.runtime.ConsumerMonitorImpl;
+import com.adaptris.core.runtime.WorkflowManager;
+
+/**
+ * Exposes the {@link AcknowledgementBatch} statistics of a JMS consumer via JMX.
+ *
+ * @since 3.9.3
+ */
+public class JmsConsumerMonitor<T extends AdaptrisMessageConsumer & JmsActorConfig> extends ConsumerMonitorImpl<T>
+    implements JmsConsumerMonitorMBean {
+
+  public JmsConsumerMonitor(WorkflowManager owner, T consumer) {
+    super(owner, consumer);
+  }
+
+  @Override
+  public int messagesRemaining() {
+    // Only the broker knows.
+    return -1;
+  }
+
+  @Override
+  public long batchCount() {
+    return batch().batchCount();
+  }
+
+  @Override
+  public long messageCount() {
+    return batch().messageCount();
+  }
+
+  @Override
+  public int lastBatchSize() {
+    return batch().lastBatchSize();
+  }
+
+  @Override
+  public double averageBatchSize() {
+    return batch().averageBatchSize();
+  }
+
+  @Override
+  public double averageCommitLatencyMs() {
+    return batch().averageCommitLatencyMs();
+  }
+
+  @Override
+  public long maxCommitLatencyMs() {
+    return batch().maxCommitLatencyMs();
+  }
+
+  @Override
+  public long rollbackCount() {
+    return batch().rollbackCount();
+  }
+
+  private AcknowledgementBatch batch() {
+    return getWrappedComponent().acknowledgementBatch();
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core.jms;
+
+import com.adaptris.core.runtime.ConsumerMonitorMBean;
+
+/**
+ * Management interface for JMS consumers, exposing the statistics for acknowledgement / commit batches.
+ *
+ * @see AcknowledgementBatch
+ * @since 3.9.3
+ */
+public interface JmsConsumerMonitorMBean extends ConsumerMonitorMBean {
+
+  /**
+   * @return the number of batches that have been acknowledged or committed.
+   */
+  long batchCount();
+
+  /**
+   * @return the number of messages that have been acknowledged or committed.
+   */
+  long messageCount();
+
+  /**
+   * @return the size of the last batch.
+   */
+  int lastBatchSize();
+
+  /**
+   * @return the average batch size.
+   */
+  double averageBatchSize();
+
+  /**
+   * @return the average time in milliseconds taken to acknowledge or commit a batch.
+   */
+  double averageCommitLatencyMs();
+
+  /**
+   * @return the longest time in milliseconds taken to acknowledge or commit a batch.
+   */
+  long maxCommitLatencyMs();
+
+  /**
+   * @return the number of times a batch has been rolled back.
+   */
+  long rollbackCount();
+}
@@ -18,6 +18,7 @@ package com.adaptris.core.jms;
 
 import java.util.concurrent.TimeUnit;
 import org.apache.commons.lang3.BooleanUtils;
+import org.apache.commons.lang3.ObjectUtils;
 import com.adaptris.annotation.AdapterComponent;
 import com.adaptris.annotation.AdvancedConfig;
 import com.adaptris.annotation.ComponentProfile;
@@ -49,6 +50,12 @@ import com.thoughtworks.xstream.annotations.XStreamAlias;
  * to rolled back correctly. In order to get behaviour similiar to {@link ProduceExceptionHandler}, you should use
  * {@link com.adaptris.core.StandaloneProducer} as part of the service collection in order to produce the payload to the required destination.
  * </p>
+ * <p>
+ * By default the session is committed after every message; if {@link #setCommitBatchSize(Integer)} is greater than 1 then the
+ * session is committed after that many messages, or once {@link #setCommitBatchWindow(TimeInterval)} has elapsed, whichever comes
+ * first. If a message fails then the whole batch is rolled back, which means that messages that were successfully processed
+ * earlier in the batch will be redelivered and processed again.
+ * </p>
  * 
  * @config jms-transacted-workflow
  * 
@@ -56,7 +63,8 @@ import com.thoughtworks.xstream.annotations.XStreamAlias;
 @XStreamAlias("jms-transacted-workflow")
 @AdapterComponent
 @ComponentProfile(summary = "JMS specific workflow that supports rollback of messages", tag = "workflow,jms")
-@DisplayOrder(order = {"strict", "waitPeriodAfterRollback", "disableDefaultMessageCount", "sendEvents", "logPayload"})
+@DisplayOrder(order = {"strict", "waitPeriodAfterRollback", "commitBatchSize", "commitBatchWindow", "disableDefaultMessageCount",
+    "sendEvents", "logPayload"})
 public final class JmsTransactedWorkflow extends StandardWorkflow {
 
   private static final ThreadLocal<Boolean> LAST_MSG_FAILED = new ThreadLocal<Boolean>() {
@@ -72,6 +80,14 @@ public final class JmsTransactedWorkflow extends StandardWorkflow {
   @AdvancedConfig
   private TimeInterval waitPeriodAfterRollback;
   private static final TimeInterval DEFAULT_WAIT_PERIOD = new TimeInterval(30L, TimeUnit.SECONDS.name());
+  @AdvancedConfig
+  @InputFieldDefault(value = "1")
+  private Integer commitBatchSize;
+  @AdvancedConfig
+  @InputFieldDefault(value = "1 second")
+  private TimeInterval commitBatchWindow;
+  private static final int DEFAULT_COMMIT_BATCH_SIZE = 1;
+  private static final TimeInterval DEFAULT_COMMIT_BATCH_WINDOW = new TimeInterval(1L, TimeUnit.SECONDS);
 
   public JmsTransactedWorkflow() {
     super();
@@ -83,10 +99,16 @@ public final class JmsTransactedWorkflow extends StandardWorkflow {
     if (amc instanceof JmsPollingConsumerImpl) {
       ((JmsPollingConsumerImpl) amc).setRollbackTimeout(waitPeriodAfterRollbackMs());
       ((JmsPollingConsumerImpl) amc).setTransacted(Boolean.TRUE);
+      if (getCommitBatchSize() != null) {
+        ((JmsPollingConsumerImpl) amc).setAcknowledgementBatch(createCommitBatch());
+      }
     }
     else if (amc instanceof JmsConsumerImpl) {
       ((JmsConsumerImpl) amc).setRollbackTimeout(waitPeriodAfterRollbackMs());
       ((JmsConsumerImpl) amc).setTransacted(Boolean.TRUE);
+      if (getCommitBatchSize() != null) {
+        ((JmsConsumerImpl) amc).setAcknowledgementBatch(createCommitBatch());
+      }
     }
     else if (!(amc instanceof NullMessageConsumer)) {
       throw new CoreException(this.getClass().getSimpleName() + " must be used with a JMSConsumer");
@@ -168,4 +190,58 @@ public final class JmsTransactedWorkflow extends StandardWorkflow {
     waitPeriodAfterRollback = interval;
   }
 
+  public Integer getCommitBatchSize() {
+    return commitBatchSize;
+  }
+
+  /**
+   * Set the maximum number of messages to process before committing the session.
+   * <p>
+   * Each commit is a round trip to the broker (and usually a disk sync for persistent messages), so committing in batches can
+   * significantly improve throughput; the trade off is that a single failure causes the whole batch to be rolled back and
+   * redelivered.
+   * </p>
+   * <p>
+   * If this is not set, then the commit batch settings on this workflow are ignored, and the consumer commits each message (or uses
+   * its own acknowledgement batch settings, if it has any).
+   * </p>
+   *
+   * @param i the batch size, default 1 (commit every message).
+   * @since 3.9.3
+   */
+  public void setCommitBatchSize(Integer i) {
+    commitBatchSize = i;
+  }
+
+  int commitBatchSize() {
+    return ObjectUtils.defaultIfNull(getCommitBatchSize(), DEFAULT_COMMIT_BATCH_SIZE);
+  }
+
+  public TimeInterval getCommitBatchWindow() {
+    return commitBatchWindow;
+  }
+
+  /**
+   * Set the maximum time to wait before committing a partial batch.
+   * <p>
+   * The window is only checked when a message has been processed (the session can only be committed safely from the thread that
+   * delivered the message), so if messages stop arriving, a partial batch is not committed until the next message has been
+   * processed or the consumer is stopped.
+   * </p>
+   *
+   * @param t the window, default 1 second; only relevant if {@link #setCommitBatchSize(Integer)} is greater than 1.
+   * @since 3.9.3
+   */
+  public void setCommitBatchWindow(TimeInterval t) {
+    commitBatchWindow = t;
+  }
+
+  long commitBatchWindowMs() {
+    return TimeInterval.toMillisecondsDefaultIfNull(getCommitBatchWindow(), DEFAULT_COMMIT_BATCH_WINDOW);
+  }
+
+  private AcknowledgementBatch createCommitBatch() {
+    return new AcknowledgementBatch(commitBatchSize(), commitBatchWindowMs());
+  }
+
 }
@@ -42,6 +42,13 @@ public class OnMessageHandler {
   private transient Logger logR = null;
 
   private transient JmsActorConfig onMsgConfig;
+  private transient AcknowledgementBatch batch;
+
+  // Messages that have been processed but not yet acknowledged / committed; guarded by lock.
+  private final transient Object lock = new Object();
+  private transient int pending;
+  private transient long batchStarted;
+  private transient Message lastPending;
 
   private enum AcknowledgeCommitOrRollBack {
 
@@ -52,8 +59,8 @@ public class OnMessageHandler {
       }
 
       @Override
-      void perform(JmsActorConfig c, Message m) throws JMSException {
-        c.currentLogger().trace("Managed transaction, not doing anything");
+      void perform(OnMessageHandler h, Message m) throws JMSException {
+        h.onMsgConfig.currentLogger().trace("Managed transaction, not doing anything");
       }
     },
     CommitPerhapsRollback {
@@ -63,12 +70,13 @@ public class OnMessageHandler {
       }
 
       @Override
-      void perform(JmsActorConfig c, Message m) throws JMSException {
+      void perform(OnMessageHandler h, Message m) throws JMSException {
+        JmsActorConfig c = h.onMsgConfig;
         AdaptrisMessageListener aml = c.configuredMessageListener();
         if (aml instanceof JmsTransactedWorkflow) {
           if (((JmsTransactedWorkflow) aml).lastMessageFailed()) {
             c.currentLogger().trace("Rolling back transaction because [{}] has failed", m.getJMSMessageID());
-            c.currentSession().rollback();
+            h.rollbackBatch();
             try {
               c.currentLogger().trace("Waiting for {}ms before continuing", c.rollbackTimeout());
               Thread.sleep(c.rollbackTimeout());
@@ -78,7 +86,7 @@ public class OnMessageHandler {
             }
           }
           else {
-            c.currentSession().commit();
+            h.addToBatch(m);
           }
         }
         else {
@@ -93,14 +101,14 @@ public class OnMessageHandler {
       }
 
       @Override
-      void perform(JmsActorConfig c, Message m) throws JMSException {
-        m.acknowledge();
+      void perform(OnMessageHandler h, Message m) throws JMSException {
+        h.addToBatch(m);
       }
 
     };
     abstract boolean maybe(JmsActorConfig c) throws JMSException;
 
-    abstract void perform(JmsActorConfig c, Message m) throws JMSException;
+    abstract void perform(OnMessageHandler h, Message m) throws JMSException;
 
   };
 
@@ -117,6 +125,7 @@ public class OnMessageHandler {
   public OnMessageHandler(JmsActorConfig cfg) throws CoreException {
     this();
     onMsgConfig = Args.notNull(cfg, "onMsgConfig");
+    batch = cfg.acknowledgementBatch();
     logR = cfg.currentLogger() != null ? cfg.currentLogger() : LoggerFactory.getLogger(this.getClass());
     verify(onMsgConfig);
   }
@@ -144,8 +153,36 @@ public class OnMessageHandler {
    * throw any <code>Throwable</code> and <code>acknowledge</code> will always
    * be called.
    * </p>
+   * <p>
+   * If {@link JmsActorConfig#acknowledgementBatch()} allows more than one message per batch then the acknowledgement (or commit) only
+   * happens when the batch is full or its window has expired; on failure of a transacted session, the whole batch is rolled back.
+   * The batch is only ever acknowledged (or committed) on the thread delivering the message, once that message has been processed;
+   * acknowledging from any other thread could include a message that the session has already delivered, but which hasn't been
+   * processed yet.
+   * </p>
    */
   public void onMessage(Message msg) {
+    synchronized (lock) {
+      handle(msg);
+    }
+  }
+
+  /**
+   * Acknowledge or commit any messages that are waiting to be acknowledged or committed.
+   * <p>
+   * Should be called once no more messages will be delivered (i.e. after the {@code MessageConsumer} has been closed, when the
+   * consumer is stopped), so that a partial batch is not left outstanding.
+   * </p>
+   *
+   * @since 3.9.3
+   */
+  public void commitPending() {
+    synchronized (lock) {
+      commitQuietly();
+    }
+  }
+
+  private void handle(Message msg) {
     AdaptrisMessage adaptrisMessage = null;
     AdaptrisMessageListener msgListener = onMsgConfig.configuredMessageListener();
     try {
@@ -190,18 +227,73 @@ public class OnMessageHandler {
   private void acknowledge(Message msg) throws JMSException {
     for (AcknowledgeCommitOrRollBack ack : AcknowledgeCommitOrRollBack.values()) {
       if (ack.maybe(onMsgConfig)) {
-        ack.perform(onMsgConfig, msg);
+        ack.perform(this, msg);
         break;
       }
     }
   }
 
+  private void addToBatch(Message msg) throws JMSException {
+    long now = System.currentTimeMillis();
+    if (pending == 0) {
+      batchStarted = now;
+    }
+    pending++;
+    lastPending = msg;
+    if (batch.isDue(pending, batchStarted, now)) {
+      commit();
+    }
+  }
+
+  private void commit() throws JMSException {
+    if (pending == 0) {
+      return;
+    }
+    long start = System.nanoTime();
+    if (onMsgConfig.currentSession().getTransacted()) {
+      onMsgConfig.currentSession().commit();
+    }
+    else {
+      // Acknowledges every message consumed by the session so far.
+      lastPending.acknowledge();
+    }
+    batch.committed(pending, System.nanoTime() - start);
+    resetBatch();
+  }
+
+  private void commitQuietly() {
+    try {
+      if (lastPending != null) {
+        commit();
+      }
+    }
+    catch (JMSException e) {
+      logR.error("Exception acknowledging/committing JMS messages", e);
+      rollback(lastPending);
+    }
+    resetBatch();
+  }
+
+  private void rollbackBatch() throws JMSException {
+    if (pending > 0) {
+      logR.trace("Rolling back {} other message(s) in the same batch", pending);
+    }
+    resetBatch();
+    batch.rolledBack();
+    onMsgConfig.currentSession().rollback();
+  }
+
+  private void resetBatch() {
+    pending = 0;
+    lastPending = null;
+  }
+
   private boolean rollback(Message msg) {
     boolean result = false;
     try {
       if (onMsgConfig.currentSession().getTransacted()) {
         logR.error("Exception processing message [{}], attempting rollback", msg.getJMSMessageID());
-        onMsgConfig.currentSession().rollback();
+        rollbackBatch();
         result = true;
       }
     }
@@ -148,9 +148,11 @@ class FileBackedMessageImpl extends AdaptrisMessageImp implements FileBackedMess
     if(outputFile == null) {
       outputFile = createTempFile();
     }
+    payloadModified();
     return streamWrapper.openOutputStream(outputFile, () -> {
       inputFile = outputFile;
       outputFile = null;
+      payloadModified();
     });
   }
 
@@ -158,6 +160,7 @@ class FileBackedMessageImpl extends AdaptrisMessageImp implements FileBackedMess
   public void initialiseFrom(File sourceFile) throws IOException {
     if (sourceFile.exists() && sourceFile.isFile() && sourceFile.canRead()) {
       inputFile = sourceFile;
+      payloadModified();
     }
     else {
       throw new IOException(sourceFile.getCanonicalPath() + " is not accessible");
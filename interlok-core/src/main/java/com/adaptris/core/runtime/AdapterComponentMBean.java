@@ -139,6 +139,13 @@ public interface AdapterComponentMBean extends BaseComponentMBean {
    */
   String JMX_CONSUMER_MONITOR_TYPE = JMX_DOMAIN_NAME + ":type=ConsumerMonitor";
 
+  /**
+   * The standard JMX Prefix for a given producer monitor exposed via JMX which resolves to {@value}
+   *
+   * @since 3.9.3
+   */
+  String JMX_PRODUCER_MONITOR_TYPE = JMX_DOMAIN_NAME + ":type=ProducerMonitor";
+
   /**
    * The standard JMX Prefix for a given RetryMessageErrorHandler monitor exposed via JMX which resolves to {@value}
    *
@@ -16,26 +16,30 @@
 
 package com.adaptris.core.runtime;
 
-import java.util.Spliterator;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.TimeUnit;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.locks.ReentrantLock;
-import java.util.function.Consumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.adaptris.annotation.AdvancedConfig;
+import com.adaptris.annotation.InputFieldDefault;
 import com.thoughtworks.xstream.annotations.XStreamAlias;
 
 /**
  * <p>
- * A {@link MessageCache} implementation that uses an {@link ArrayBlockingQueue} to hold the messages.
+ * A {@link MessageCache} implementation that holds messages in a bounded, access-ordered hash map.
  * </p>
  * <p>
- * Once the internal queue reaches it's limit, the oldest message will be removed and the newer message added.
+ * Once the cache reaches its limit, the least recently used message will be removed and the newer message added. Lookups by
+ * message id are constant time, regardless of how many messages are held.
  * </p>
  * <p>
- * You can control the limit of the internal queue by configuring "max-messages".
+ * You can control the limit of the cache by configuring "max-messages"; you can additionally limit the cache by the total size of
+ * the cached payloads by configuring "max-size-bytes". The most recently added message is always retained, even if it is larger
+ * than "max-size-bytes".
  * </p>
  * @config lru-bounded-message-cache
  * 
@@ -47,14 +51,17 @@ public class LruBoundedMessageCache implements MessageCache {
   
   protected transient Logger log = LoggerFactory.getLogger(this.getClass().getName());
 
-  private static final long DEFAULT_QUEUE_POLL = 50;
   private static final int DEFAULT_MAX_MESSAGES = 100;
 
   private int maxMessages;
+  @AdvancedConfig
+  @InputFieldDefault(value = "no limit")
+  private Long maxSizeBytes;
 
-  private transient ArrayBlockingQueue<CacheableAdaptrisMessageWrapper> boundedCache;
+  private transient LinkedHashMap<String, CacheableAdaptrisMessageWrapper> boundedCache;
+  private transient long cachedBytes;
   
-  private transient ReentrantLock lock = new ReentrantLock(true);
+  private transient ReentrantLock lock = new ReentrantLock();
 
   public LruBoundedMessageCache() {
     maxMessages = DEFAULT_MAX_MESSAGES;
@@ -64,14 +71,9 @@ public class LruBoundedMessageCache implements MessageCache {
   public void put(CacheableAdaptrisMessageWrapper message) {
     try {
       lock.lock();
-      while (!this.getBoundedCache().offer(message)) {
-        try {
-          this.getBoundedCache().poll(DEFAULT_QUEUE_POLL, TimeUnit.MILLISECONDS);
-        } catch (InterruptedException e) {
-          log.warn("Interrupted while adding message '{}' to the message cache.", message.getMessageId());
-          break;
-        }
-      }
+      CacheableAdaptrisMessageWrapper previous = boundedCache.put(message.getMessageId(), message);
+      cachedBytes += sizeOf(message) - sizeOf(previous);
+      evict();
       log.trace("Cached message: {}", message.getMessageId());
     } finally {
       lock.unlock();
@@ -82,16 +84,10 @@ public class LruBoundedMessageCache implements MessageCache {
   public CacheableAdaptrisMessageWrapper remove(final String messageId) {
     try {
       lock.lock();
-      CacheableAdaptrisMessageWrapper wrapper = new CacheableAdaptrisMessageWrapper();
-      wrapper.setMessageId(messageId);
-      
-      log.trace("Removing message: {}", wrapper.getMessageId());
-      Spliterator<CacheableAdaptrisMessageWrapper> spliterator = this.getBoundedCache().spliterator();
-      CacheMessageConsumer cacheMessageConsumer = new CacheMessageConsumer();
-      cacheMessageConsumer.setLookupWrapper(wrapper);
-      spliterator.forEachRemaining(cacheMessageConsumer);
-      
-      return cacheMessageConsumer.getReturnValue();
+      log.trace("Removing message: {}", messageId);
+      CacheableAdaptrisMessageWrapper result = boundedCache.remove(messageId);
+      cachedBytes -= sizeOf(result);
+      return result;
     } finally {
       lock.unlock();
     }
@@ -100,18 +96,33 @@ public class LruBoundedMessageCache implements MessageCache {
   @Override
   public boolean contains(String messageId) {
     try {
-      CacheableAdaptrisMessageWrapper wrapper = new CacheableAdaptrisMessageWrapper();
-      wrapper.setMessageId(messageId);
       lock.lock();
-      return this.getBoundedCache().contains(wrapper);
+      return boundedCache.containsKey(messageId);
     } finally {
       lock.unlock();
     }
   }
 
+  // Always called while holding the lock; always keeps the most recently added message.
+  private void evict() {
+    long maxBytes = maxSizeBytes();
+    Iterator<Map.Entry<String, CacheableAdaptrisMessageWrapper>> itr = boundedCache.entrySet().iterator();
+    while (boundedCache.size() > 1 && (boundedCache.size() > getMaxMessages() || cachedBytes > maxBytes)) {
+      CacheableAdaptrisMessageWrapper eldest = itr.next().getValue();
+      itr.remove();
+      cachedBytes -= sizeOf(eldest);
+      log.trace("Evicted message: {}", eldest.getMessageId());
+    }
+  }
+
+  private static long sizeOf(CacheableAdaptrisMessageWrapper wrapper) {
+    return wrapper != null && wrapper.getMessage() != null ? wrapper.getMessage().getSize() : 0;
+  }
+
   @Override
   public void init() {
-    boundedCache = new ArrayBlockingQueue<>(this.getMaxMessages(), true);
+    boundedCache = new LinkedHashMap<>(16, 0.75f, true);
+    cachedBytes = 0;
   }
 
   @Override
@@ -121,7 +132,13 @@ public class LruBoundedMessageCache implements MessageCache {
 
   @Override
   public void stop() {
-    boundedCache.clear();
+    try {
+      lock.lock();
+      boundedCache.clear();
+      cachedBytes = 0;
+    } finally {
+      lock.unlock();
+    }
   }
 
   @Override
@@ -137,40 +154,47 @@ public class LruBoundedMessageCache implements MessageCache {
     this.maxMessages = maxMessages;
   }
 
-  public ArrayBlockingQueue<CacheableAdaptrisMessageWrapper> getBoundedCache() {
-    return boundedCache;
+  public Long getMaxSizeBytes() {
+    return maxSizeBytes;
   }
 
-  public void setBoundedCache(ArrayBlockingQueue<CacheableAdaptrisMessageWrapper> boundedCache) {
-    this.boundedCache = boundedCache;
+  /**
+   * Set the maximum total size (in bytes) of the messages held in the cache.
+   * 
+   * @param l the max size; default is no limit, only {@link #setMaxMessages(int)} applies.
+   * @since 3.9.3
+   */
+  public void setMaxSizeBytes(Long l) {
+    maxSizeBytes = l;
   }
-  
-  class CacheMessageConsumer implements Consumer<CacheableAdaptrisMessageWrapper> {
-    private CacheableAdaptrisMessageWrapper lookupWrapper;
-    private CacheableAdaptrisMessageWrapper returnValue;
-    
-    @Override
-    public void accept(CacheableAdaptrisMessageWrapper cachedMessage) {
-      if(cachedMessage.getMessageId().equals(getLookupWrapper().getMessageId())) {
-        setReturnValue(cachedMessage);
-      }
-    }
 
-    public CacheableAdaptrisMessageWrapper getLookupWrapper() {
-      return lookupWrapper;
-    }
+  long maxSizeBytes() {
+    return getMaxSizeBytes() != null ? getMaxSizeBytes().longValue() : Long.MAX_VALUE;
+  }
 
-    public void setLookupWrapper(CacheableAdaptrisMessageWrapper lookupWrapper) {
-      this.lookupWrapper = lookupWrapper;
+  /**
+   * Return the number of messages currently held.
+   * 
+   */
+  public int size() {
+    try {
+      lock.lock();
+      return boundedCache.size();
+    } finally {
+      lock.unlock();
     }
+  }
 
-    public CacheableAdaptrisMessageWrapper getReturnValue() {
-      return returnValue;
+  /**
+   * Return the total size of the messages currently held.
+   * 
+   */
+  public long sizeBytes() {
+    try {
+      lock.lock();
+      return cachedBytes;
+    } finally {
+      lock.unlock();
     }
-
-    public void setReturnValue(CacheableAdaptrisMessageWrapper returnValue) {
-      this.returnValue = returnValue;
-    } 
   }
-
 }
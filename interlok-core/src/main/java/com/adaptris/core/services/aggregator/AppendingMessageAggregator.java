@@ -18,13 +18,13 @@ package com.adaptris.core.services.aggregator;
 
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.Collection;
 
 import org.apache.commons.io.IOUtils;
 
 import com.adaptris.annotation.ComponentProfile;
 import com.adaptris.annotation.DisplayOrder;
 import com.adaptris.core.AdaptrisMessage;
+import com.adaptris.core.AdaptrisMessageFactory;
 import com.adaptris.core.CoreException;
 import com.adaptris.core.util.ExceptionHelper;
 import com.thoughtworks.xstream.annotations.XStreamAlias;
@@ -36,33 +36,75 @@ import com.thoughtworks.xstream.annotations.XStreamAlias;
  * This simply iterates over each of the messages; and appends their payloads to the original message. No checking is done of the
  * payloads; it is a raw append using a stream copy.
  * </p>
+ * <p>
+ * Since 3.9.3 this is an {@link IncrementalMessageAggregator}; each payload is appended as soon as it is available.
+ * </p>
  * 
  * @config appending-message-aggregator
  */
 @XStreamAlias("appending-message-aggregator")
 @ComponentProfile(summary = "MessageAggregator that appends all payloads to the original", since = "3.9.1")
 @DisplayOrder(order = {"overwriteMetadata"})
-public class AppendingMessageAggregator extends MessageAggregatorImpl {
+public class AppendingMessageAggregator extends MessageAggregatorImpl implements IncrementalMessageAggregator {
 
   public AppendingMessageAggregator() {
 
   }
 
   @Override
-  public void joinMessage(AdaptrisMessage orig, Collection<AdaptrisMessage> toAggregate) throws CoreException {
-    Collection<AdaptrisMessage> msgs = filter(toAggregate);
-    try (OutputStream out = orig.getOutputStream()) {
-      try (InputStream in = orig.getInputStream()) {
-        IOUtils.copy(in, out);
+  public Aggregation open(AdaptrisMessage orig) throws CoreException {
+    try {
+      // Only the appended payloads; orig isn't touched until we close.
+      AdaptrisMessage scratch = AdaptrisMessageFactory.defaultIfNull(orig.getFactory()).newMessage();
+      return new Appender(orig, scratch, scratch.getOutputStream());
+    } catch (Exception e) {
+      throw ExceptionHelper.wrapCoreException(e);
+    }
+  }
+
+  private class Appender implements Aggregation {
+    private final AdaptrisMessage orig;
+    private final AdaptrisMessage scratch;
+    private final OutputStream out;
+    private final DeferredMetadata metadata = new DeferredMetadata();
+
+    Appender(AdaptrisMessage orig, AdaptrisMessage scratch, OutputStream out) {
+      this.orig = orig;
+      this.scratch = scratch;
+      this.out = out;
+    }
+
+    @Override
+    public void append(AdaptrisMessage m) throws CoreException {
+      if (!accept(m)) {
+        return;
+      }
+      try (InputStream subIn = m.getInputStream()) {
+        IOUtils.copy(subIn, out);
+      } catch (Exception e) {
+        throw ExceptionHelper.wrapCoreException(e);
       }
-      for (AdaptrisMessage m : msgs) {
-        try (InputStream subIn = m.getInputStream()) {
-          IOUtils.copy(subIn, out);
+      metadata.collect(m);
+    }
+
+    @Override
+    public void close() throws CoreException {
+      try {
+        out.close();
+        try (InputStream origIn = orig.getInputStream(); InputStream appended = scratch.getInputStream();
+            OutputStream result = orig.getOutputStream()) {
+          IOUtils.copy(origIn, result);
+          IOUtils.copy(appended, result);
         }
-        overwriteMetadata(m, orig);
+      } catch (Exception e) {
+        throw ExceptionHelper.wrapCoreException(e);
       }
-    } catch (Exception e) {
-      throw ExceptionHelper.wrapCoreException(e);
+      metadata.applyTo(orig);
+    }
+
+    @Override
+    public void abort() {
+      IOUtils.closeQuietly(out);
     }
   }
 }
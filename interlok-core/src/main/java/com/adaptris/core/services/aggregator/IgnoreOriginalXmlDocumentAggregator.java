@@ -18,14 +18,11 @@ package com.adaptris.core.services.aggregator;
 
 import static org.apache.commons.lang3.StringUtils.isEmpty;
 
-import java.util.Collection;
-
 import org.w3c.dom.Document;
 
 import com.adaptris.annotation.DisplayOrder;
 import com.adaptris.core.AdaptrisMessage;
 import com.adaptris.core.CoreException;
-import com.adaptris.core.util.ExceptionHelper;
 import com.adaptris.core.util.XmlHelper;
 import com.adaptris.util.text.xml.DocumentMerge;
 import com.thoughtworks.xstream.annotations.XStreamAlias;
@@ -67,22 +64,11 @@ public class IgnoreOriginalXmlDocumentAggregator extends XmlDocumentAggregator {
   }
 
   @Override
-  public void joinMessage(AdaptrisMessage original, Collection<AdaptrisMessage> messages) throws CoreException {
-    try {
-      if (isEmpty(getTemplate())) {
-        throw new CoreException("Template is null / empty, cannot continue");
-      }
-      Document resultDoc = XmlHelper.createDocument(getTemplate(), documentFactoryBuilder());
-      for (AdaptrisMessage m : filter(messages)) {
-        Document mergeDoc = XmlHelper.createDocument(m, documentFactoryBuilder());
-        overwriteMetadata(m, original);
-        resultDoc = getMergeImplementation().merge(resultDoc, mergeDoc);
-      }
-      XmlHelper.writeXmlDocument(resultDoc, original, getDocumentEncoding());
-    }
-    catch (Exception e) {
-      ExceptionHelper.rethrowCoreException(e);
+  protected Document createInitialDocument(AdaptrisMessage original) throws Exception {
+    if (isEmpty(getTemplate())) {
+      throw new CoreException("Template is null / empty, cannot continue");
     }
+    return XmlHelper.createDocument(getTemplate(), documentFactoryBuilder());
   }
 
   /**
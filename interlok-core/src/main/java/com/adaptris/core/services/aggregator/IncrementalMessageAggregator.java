@@ -0,0 +1,98 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core.services.aggregator;
+
+import java.util.Collection;
+
+import com.adaptris.core.AdaptrisMessage;
+import com.adaptris.core.CoreException;
+
+/**
+ * A {@link MessageAggregator} that can join messages one at a time, as they become available.
+ * <p>
+ * Rather than requiring every message to be held in memory before the join starts, an aggregation is {@link #open(AdaptrisMessage)
+ * opened} against the target message, each message is {@link Aggregation#append(AdaptrisMessage) appended} in turn, and then the
+ * aggregation is {@link Aggregation#close() closed} to complete the target message. Once a message has been appended, the
+ * aggregation no longer needs it. The target message is not modified until the aggregation is closed; if the aggregation is
+ * {@link Aggregation#abort() aborted} instead, it is left as it was.
+ * </p>
+ * <p>
+ * {@link #joinMessage(AdaptrisMessage, Collection)} is implemented in terms of the incremental operations.
+ * </p>
+ *
+ * @see com.adaptris.core.services.splitter.SplitJoinService#setIncrementalJoin(Boolean)
+ * @since 3.9.3
+ */
+public interface IncrementalMessageAggregator extends MessageAggregator {
+
+  /**
+   * Start joining messages into the target message.
+   *
+   * @param msg the message to insert all the messages into.
+   * @return the aggregation, which must be closed once all the messages have been appended.
+   * @throws CoreException wrapping any other exception
+   */
+  Aggregation open(AdaptrisMessage msg) throws CoreException;
+
+  @Override
+  default void joinMessage(AdaptrisMessage msg, Collection<AdaptrisMessage> msgs) throws CoreException {
+    Aggregation aggregation = open(msg);
+    try {
+      for (AdaptrisMessage m : msgs) {
+        aggregation.append(m);
+      }
+    }
+    catch (CoreException | RuntimeException e) {
+      aggregation.abort();
+      throw e;
+    }
+    aggregation.close();
+  }
+
+  /**
+   * An aggregation in progress.
+   * <p>
+   * Aggregations are not thread-safe; messages should be appended from a single thread.
+   * </p>
+   */
+  interface Aggregation extends AutoCloseable {
+
+    /**
+     * Join a single message into the target message.
+     *
+     * @param msg the message to join.
+     * @throws CoreException wrapping any other exception
+     */
+    void append(AdaptrisMessage msg) throws CoreException;
+
+    /**
+     * Complete the target message and release any resources.
+     *
+     * @throws CoreException wrapping any other exception
+     */
+    @Override
+    void close() throws CoreException;
+
+    /**
+     * Discard the aggregation and release any resources, leaving the target message unchanged.
+     * <p>
+     * Should not throw; an aggregation that has been aborted must not be closed.
+     * </p>
+     */
+    void abort();
+  }
+}
@@ -20,12 +20,16 @@ import com.adaptris.annotation.AdvancedConfig;
 import com.adaptris.annotation.InputFieldDefault;
 import com.adaptris.core.AdaptrisMessage;
 import com.adaptris.core.CoreException;
+import com.adaptris.core.MetadataElement;
 import com.adaptris.core.services.conditional.Condition;
 import org.apache.commons.lang3.BooleanUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.stream.Collectors;
 /**
  * Abstract implementation of {@link MessageAggregator}.
@@ -60,6 +64,17 @@ public abstract class MessageAggregatorImpl implements MessageAggregator {
     return messages;
   }
 
+  /**
+   * Whether or not a single message passes the configured filter condition (if any).
+   *
+   * @param message the message
+   * @return true if there is no filter condition, or the message passes it.
+   * @since 3.9.3
+   */
+  protected boolean accept(AdaptrisMessage message) {
+    return filterCondition == null || filter(message);
+  }
+
   protected boolean filter(AdaptrisMessage message) {
     try {
       return filterCondition.evaluate(message);
@@ -102,6 +117,36 @@ public abstract class MessageAggregatorImpl implements MessageAggregator {
     }
   }
 
+  /**
+   * Holds on to the metadata that {@link #overwriteMetadata(AdaptrisMessage, AdaptrisMessage)} would copy, so that an
+   * {@link IncrementalMessageAggregator.Aggregation} only changes the target message when it is closed.
+   *
+   * @since 3.9.3
+   */
+  protected class DeferredMetadata {
+    private final Map<String, MetadataElement> metadata = new LinkedHashMap<>();
+
+    /**
+     * Record the metadata from the message; later messages win.
+     */
+    public void collect(AdaptrisMessage src) {
+      if (overwriteMetadata()) {
+        for (MetadataElement e : src.getMetadata()) {
+          metadata.put(e.getKey(), e);
+        }
+      }
+    }
+
+    /**
+     * Copy everything that has been collected onto the target message.
+     */
+    public void applyTo(AdaptrisMessage target) {
+      if (!metadata.isEmpty()) {
+        target.setMetadata(new HashSet<>(metadata.values()));
+      }
+    }
+  }
+
   public Condition getFilterCondition() {
     return filterCondition;
   }
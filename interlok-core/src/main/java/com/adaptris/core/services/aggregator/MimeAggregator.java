@@ -23,7 +23,6 @@ import static org.apache.commons.lang3.StringUtils.isBlank;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.util.Collection;
 import javax.mail.MessagingException;
 import javax.mail.internet.InternetHeaders;
 import javax.mail.internet.MimeBodyPart;
@@ -68,6 +67,10 @@ import com.thoughtworks.xstream.annotations.XStreamAlias;
  * As a result of this join operation, the message will be marked as MIME encoded using {@link com.adaptris.core.CoreConstants#MSG_MIME_ENCODED}
  * metadata.
  * </p>
+ * <p>
+ * Since 3.9.3 this is an {@link IncrementalMessageAggregator}; each split message is encoded as a body part as soon as it is
+ * available, and can then be discarded. The multipart itself is written to the original message when the aggregation is closed.
+ * </p>
  * 
  * @config mime-aggregator
  * @see CoreConstants#MSG_MIME_ENCODED
@@ -78,7 +81,7 @@ import com.thoughtworks.xstream.annotations.XStreamAlias;
 @DisplayOrder(order = {"encoding", "mimeContentSubType", "mimeHeaderFilter", "overwriteMetadata",
     "partContentId", "partContentType", "partHeaderFilter"})
 @ComponentProfile(summary = "Aggregator implementation that creates a new mime part for each message that needs to be joined up")
-public class MimeAggregator extends MessageAggregatorImpl {
+public class MimeAggregator extends MessageAggregatorImpl implements IncrementalMessageAggregator {
 
   private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
   private static final String DEFAULT_SUB_TYPE = "mixed";
@@ -117,17 +120,9 @@ public class MimeAggregator extends MessageAggregatorImpl {
   private transient boolean contentIdWarning;
 
   @Override
-  public void joinMessage(AdaptrisMessage original, Collection<AdaptrisMessage> messages) throws CoreException {
+  public Aggregation open(AdaptrisMessage original) throws CoreException {
     try {
-      MultiPartOutput output = createInitialPart(original);
-      for (AdaptrisMessage m : filter(messages)) {
-        output.addPart(createBodyPart(m), contentId(m));
-        overwriteMetadata(m, original);
-      }
-      try (OutputStream out = original.getOutputStream()) {
-        output.writeTo(out);
-      }
-      original.addMetadata(CoreConstants.MSG_MIME_ENCODED, Boolean.TRUE.toString());
+      return new MimeAggregation(original, createInitialPart(original));
     }
     catch (Exception e) {
       throw ExceptionHelper.wrapCoreException(e);
@@ -358,4 +353,46 @@ public class MimeAggregator extends MessageAggregatorImpl {
   }
 
 
+
+  private class MimeAggregation implements Aggregation {
+    private final AdaptrisMessage original;
+    private final MultiPartOutput output;
+    private final DeferredMetadata metadata = new DeferredMetadata();
+
+    MimeAggregation(AdaptrisMessage original, MultiPartOutput output) {
+      this.original = original;
+      this.output = output;
+    }
+
+    @Override
+    public void append(AdaptrisMessage m) throws CoreException {
+      if (!accept(m)) {
+        return;
+      }
+      try {
+        output.addPart(createBodyPart(m), contentId(m));
+        metadata.collect(m);
+      }
+      catch (Exception e) {
+        throw ExceptionHelper.wrapCoreException(e);
+      }
+    }
+
+    @Override
+    public void close() throws CoreException {
+      try (OutputStream out = original.getOutputStream()) {
+        output.writeTo(out);
+      }
+      catch (Exception e) {
+        throw ExceptionHelper.wrapCoreException(e);
+      }
+      metadata.applyTo(original);
+      original.addMetadata(CoreConstants.MSG_MIME_ENCODED, Boolean.TRUE.toString());
+    }
+
+    @Override
+    public void abort() {
+      // Nothing has been written to the original yet.
+    }
+  }
 }
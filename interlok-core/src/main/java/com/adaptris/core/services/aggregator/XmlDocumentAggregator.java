@@ -16,7 +16,6 @@
 
 package com.adaptris.core.services.aggregator;
 
-import java.util.Collection;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import org.w3c.dom.Document;
@@ -42,6 +41,10 @@ import com.thoughtworks.xstream.annotations.XStreamAlias;
  * Use {@link #setDocumentEncoding(String)} to force the encoding of the resulting XML document to the required value; if not set,
  * then either the original {@link com.adaptris.core.AdaptrisMessage#getCharEncoding()} (if set) or <code>UTF-8</code> will be used in that order.
  * </p>
+ * <p>
+ * Since 3.9.3 this is an {@link IncrementalMessageAggregator}; each split document is merged as soon as it is available, and the
+ * resulting document is written to the original message when the aggregation is closed.
+ * </p>
  * 
  * @config xml-document-aggregator
  * @author lchan
@@ -49,7 +52,7 @@ import com.thoughtworks.xstream.annotations.XStreamAlias;
  */
 @XStreamAlias("xml-document-aggregator")
 @DisplayOrder(order = {"documentEncoding", "mergeImplementation", "xmlDocumentFactoryConfig"})
-public class XmlDocumentAggregator extends MessageAggregatorImpl {
+public class XmlDocumentAggregator extends MessageAggregatorImpl implements IncrementalMessageAggregator {
 
   @AdvancedConfig
   private String documentEncoding;
@@ -68,21 +71,26 @@ public class XmlDocumentAggregator extends MessageAggregatorImpl {
   }
 
   @Override
-  public void joinMessage(AdaptrisMessage original, Collection<AdaptrisMessage> messages) throws CoreException {
+  public Aggregation open(AdaptrisMessage original) throws CoreException {
     try {
-      Document resultDoc = XmlHelper.createDocument(original, documentFactoryBuilder());
-      for (AdaptrisMessage m : filter(messages)) {
-        Document mergeDoc = XmlHelper.createDocument(m, documentFactoryBuilder());
-        overwriteMetadata(m, original);
-        resultDoc = getMergeImplementation().merge(resultDoc, mergeDoc);
-      }
-      XmlHelper.writeXmlDocument(resultDoc, original, getDocumentEncoding());
+      return new XmlAggregation(original, createInitialDocument(original));
     }
     catch (Exception e) {
-      ExceptionHelper.rethrowCoreException(e);
+      throw ExceptionHelper.wrapCoreException(e);
     }
   }
 
+  /**
+   * Create the document that the split documents are merged into.
+   *
+   * @param original the original message.
+   * @return the document, by default built from the original message.
+   * @since 3.9.3
+   */
+  protected Document createInitialDocument(AdaptrisMessage original) throws Exception {
+    return XmlHelper.createDocument(original, documentFactoryBuilder());
+  }
+
   /**
    * @return the documentEncoding
    */
@@ -127,4 +135,46 @@ public class XmlDocumentAggregator extends MessageAggregatorImpl {
   DocumentBuilderFactoryBuilder documentFactoryBuilder() {
     return DocumentBuilderFactoryBuilder.newInstanceIfNull(getXmlDocumentFactoryConfig());
   }
+
+  private class XmlAggregation implements Aggregation {
+    private final AdaptrisMessage original;
+    private final DeferredMetadata metadata = new DeferredMetadata();
+    private Document resultDoc;
+
+    XmlAggregation(AdaptrisMessage original, Document doc) {
+      this.original = original;
+      resultDoc = doc;
+    }
+
+    @Override
+    public void append(AdaptrisMessage m) throws CoreException {
+      if (!accept(m)) {
+        return;
+      }
+      try {
+        Document mergeDoc = XmlHelper.createDocument(m, documentFactoryBuilder());
+        metadata.collect(m);
+        resultDoc = getMergeImplementation().merge(resultDoc, mergeDoc);
+      }
+      catch (Exception e) {
+        ExceptionHelper.rethrowCoreException(e);
+      }
+    }
+
+    @Override
+    public void close() throws CoreException {
+      try {
+        XmlHelper.writeXmlDocument(resultDoc, original, getDocumentEncoding());
+      }
+      catch (Exception e) {
+        ExceptionHelper.rethrowCoreException(e);
+      }
+      metadata.applyTo(original);
+    }
+
+    @Override
+    public void abort() {
+      resultDoc = null;
+    }
+  }
 }
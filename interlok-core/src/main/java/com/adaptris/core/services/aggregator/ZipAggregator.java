@@ -17,13 +17,17 @@
 package com.adaptris.core.services.aggregator;
 
 import java.io.IOException;
-import java.util.Collection;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
+import org.apache.commons.io.IOUtils;
+
 import com.adaptris.annotation.DisplayOrder;
 import com.adaptris.annotation.InputFieldDefault;
 import com.adaptris.core.AdaptrisMessage;
+import com.adaptris.core.AdaptrisMessageFactory;
 import com.adaptris.core.CoreException;
 import com.adaptris.core.util.ExceptionHelper;
 import com.thoughtworks.xstream.annotations.XStreamAlias;
@@ -39,13 +43,15 @@ import com.thoughtworks.xstream.annotations.XStreamAlias;
  * <p>Each message returned by the split needs to set a value of key returned by {@link #getFilenameMetadata()}, if the
  * a value is not set the message will be ignored. If the filenames are not unique an exception will be thrown.</p>
  *
+ * <p>Since 3.9.3 this is an {@link IncrementalMessageAggregator}; each zip entry is written as soon as the message is available.</p>
+ *
  * @config zip-aggregator
  * @author mwarman
  *
  */
 @XStreamAlias("zip-aggregator")
 @DisplayOrder(order = {"filenameMetadata", "overwriteMetadata" })
-public class ZipAggregator extends MessageAggregatorImpl {
+public class ZipAggregator extends MessageAggregatorImpl implements IncrementalMessageAggregator {
 
   public static final String DEFAULT_FILENAME_METADATA = "filename";
 
@@ -60,20 +66,58 @@ public class ZipAggregator extends MessageAggregatorImpl {
   }
 
   @Override
-  public void joinMessage(AdaptrisMessage msg, Collection<AdaptrisMessage> msgs) throws CoreException {
-    try (ZipOutputStream zipOutputStream = new ZipOutputStream(msg.getOutputStream())) {
-      for (AdaptrisMessage message : filter(msgs)){
-        if(message.getMessageHeaders().containsKey(filenameMetadata())) {
-          zipOutputStream.putNextEntry(new ZipEntry(message.getMetadataValue(filenameMetadata())));
-          zipOutputStream.write(message.getPayload());
-          zipOutputStream.closeEntry();
-        }
-      }
+  public Aggregation open(AdaptrisMessage msg) throws CoreException {
+    try {
+      // msg isn't touched until we close.
+      AdaptrisMessage scratch = AdaptrisMessageFactory.defaultIfNull(msg.getFactory()).newMessage();
+      return new Zipper(msg, scratch, new ZipOutputStream(scratch.getOutputStream()));
     } catch (IOException e) {
       throw ExceptionHelper.wrapCoreException(e);
     }
   }
 
+  private class Zipper implements Aggregation {
+    private final AdaptrisMessage target;
+    private final AdaptrisMessage scratch;
+    private final ZipOutputStream zipOutputStream;
+
+    Zipper(AdaptrisMessage target, AdaptrisMessage scratch, ZipOutputStream out) {
+      this.target = target;
+      this.scratch = scratch;
+      zipOutputStream = out;
+    }
+
+    @Override
+    public void append(AdaptrisMessage message) throws CoreException {
+      if (!accept(message) || !message.getMessageHeaders().containsKey(filenameMetadata())) {
+        return;
+      }
+      try (InputStream in = message.getInputStream()) {
+        zipOutputStream.putNextEntry(new ZipEntry(message.getMetadataValue(filenameMetadata())));
+        IOUtils.copy(in, zipOutputStream);
+        zipOutputStream.closeEntry();
+      } catch (IOException e) {
+        throw ExceptionHelper.wrapCoreException(e);
+      }
+    }
+
+    @Override
+    public void close() throws CoreException {
+      try {
+        zipOutputStream.close();
+        try (InputStream in = scratch.getInputStream(); OutputStream out = target.getOutputStream()) {
+          IOUtils.copy(in, out);
+        }
+      } catch (IOException e) {
+        throw ExceptionHelper.wrapCoreException(e);
+      }
+    }
+
+    @Override
+    public void abort() {
+      IOUtils.closeQuietly(zipOutputStream);
+    }
+  }
 
   public void setFilenameMetadata(String filenameMetadata) {
     this.filenameMetadata = filenameMetadata;
@@ -60,7 +60,7 @@ public class XpathCacheValueTranslator implements CacheValueTranslator<String>,
     String result = null;
     try {
       XPath xp = XPath.newXPathInstance(builder, ctx);
-      Document d = XmlHelper.createDocument(msg, builder);
+      Document d = XmlHelper.createReadOnlyDocument(msg, builder);
       result = xp.selectSingleTextItem(d, msg.resolve(getXpath()));
     }
     catch (Exception e) {
@@ -73,9 +73,8 @@ public class CheckMetadataValueService extends DuplicateMetadataValueService {
   @Override
   public void doService(AdaptrisMessage msg) throws ServiceException {
     try {
-      loadPreviouslyReceivedValues();
       String value = Args.notBlank(msg.getMetadataValue(getMetadataKey()), "required-metadata");
-      if (previousValuesStore.contains(value)) {
+      if (isDuplicate(value)) {
         log.warn("Value [{}] stored [{}] exists in list of previously stored values", value, getMetadataKey());
         msg.setNextServiceId(getNextServiceIdIfDuplicate());
       } else {
@@ -87,6 +86,14 @@ public class CheckMetadataValueService extends DuplicateMetadataValueService {
     }
   }
 
+  private boolean isDuplicate(String value) throws Exception {
+    if (getValueStore() != null) {
+      return getValueStore().contains(value);
+    }
+    loadPreviouslyReceivedValues();
+    return previousValuesStore.contains(value);
+  }
+
   /** 
    * <p>
    * This is a branching service, even though its parent(s) aren't.
@@ -21,25 +21,35 @@ import java.io.FileInputStream;
 import java.io.ObjectInputStream;
 import java.util.ArrayList;
 import java.util.List;
+import javax.validation.Valid;
 import javax.validation.constraints.NotBlank;
 import org.apache.commons.lang3.ObjectUtils;
+import com.adaptris.annotation.AdvancedConfig;
 import com.adaptris.core.CoreException;
 import com.adaptris.core.ServiceImp;
 import com.adaptris.core.fs.FsHelper;
 import com.adaptris.core.util.Args;
 import com.adaptris.core.util.ExceptionHelper;
+import com.adaptris.core.util.LifecycleHelper;
 
 /**
  * <p>
  * Abstract super-class of the two <code>Service</code>s which handle duplicate message checking.
  * </p>
+ * <p>
+ * By default, previously received values are held in memory and persisted as a single serialized list to
+ * {@link #setStoreFileUrl(String)}. If a {@link DuplicateValueStore} is configured via {@link #setValueStore(DuplicateValueStore)},
+ * then that is used instead; exactly one of {@code store-file-url} or {@code value-store} must be configured.
+ * </p>
  */
 public abstract class DuplicateMetadataValueService extends ServiceImp {
 
   @NotBlank
   private String metadataKey;
-  @NotBlank
   private String storeFileUrl;
+  @AdvancedConfig
+  @Valid
+  private DuplicateValueStore valueStore;
 
   // not marshalled
   protected transient List<String> previousValuesStore;
@@ -49,7 +59,13 @@ public abstract class DuplicateMetadataValueService extends ServiceImp {
   protected void initService() throws CoreException {
     try {
       Args.notNull(getMetadataKey(), "metadataKey");
-      Args.notNull(getStoreFileUrl(), "storeFileUrl");
+      if ((getValueStore() != null) == (getStoreFileUrl() != null)) {
+        throw new CoreException("Exactly one of store-file-url or value-store must be configured");
+      }
+      if (getValueStore() != null) {
+        LifecycleHelper.init(getValueStore());
+        return;
+      }
       store = FsHelper.toFile(getStoreFileUrl());
       Args.notNull(store, "storeFile");
       loadPreviouslyReceivedValues();
@@ -61,7 +77,19 @@ public abstract class DuplicateMetadataValueService extends ServiceImp {
   }
 
   @Override
-  protected void closeService() {}
+  public void start() throws CoreException {
+    LifecycleHelper.start(getValueStore());
+  }
+
+  @Override
+  public void stop() {
+    LifecycleHelper.stop(getValueStore());
+  }
+
+  @Override
+  protected void closeService() {
+    LifecycleHelper.close(getValueStore());
+  }
 
 
   protected void loadPreviouslyReceivedValues() throws Exception {
@@ -73,8 +101,8 @@ public abstract class DuplicateMetadataValueService extends ServiceImp {
   }
 
 
-  int storeSize() {
-    return previousValuesStore.size();
+  int storeSize() throws CoreException {
+    return getValueStore() != null ? getValueStore().size() : previousValuesStore.size();
   }
 
   // properties...
@@ -117,8 +145,8 @@ public abstract class DuplicateMetadataValueService extends ServiceImp {
   /**
    * <p>
    * Sets the persistent store for previously received values in the form of a
-   * file URL. E.g. <code>file:////Users/adaptris/store.dat</code>. May not
-   * be null or empty.
+   * file URL. E.g. <code>file:////Users/adaptris/store.dat</code>. Required
+   * unless a {@link DuplicateValueStore} is configured, in which case it must not be set.
    * </p>
    *
    * @param s the persistent store for previously received values in the form of
@@ -129,6 +157,21 @@ public abstract class DuplicateMetadataValueService extends ServiceImp {
   }
 
 
+  public DuplicateValueStore getValueStore() {
+    return valueStore;
+  }
+
+  /**
+   * Set the store for previously received values.
+   *
+   * @param store the store; if not specified then values are stored as a serialized list in {@link #setStoreFileUrl(String)}
+   *          which must not be set if a store is configured.
+   * @since 3.9.3
+   */
+  public void setValueStore(DuplicateValueStore store) {
+    valueStore = store;
+  }
+
   @Override
   public void prepare() throws CoreException {
   }
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core.services.duplicate;
+
+import com.adaptris.core.ComponentLifecycle;
+import com.adaptris.core.CoreException;
+
+/**
+ * Stores previously received values for {@link DuplicateMetadataValueService} implementations.
+ *
+ * @since 3.9.3
+ */
+public interface DuplicateValueStore extends ComponentLifecycle {
+
+  /**
+   * Check whether the value has previously been stored.
+   *
+   * @param value the value
+   * @return true if the value exists (and has not expired).
+   */
+  boolean contains(String value) throws CoreException;
+
+  /**
+   * Store the value.
+   *
+   * @param value the value.
+   */
+  void add(String value) throws CoreException;
+
+  /**
+   * Return the number of values currently stored.
+   * <p>
+   * This is primarily for diagnostics and may be expensive.
+   * </p>
+   *
+   * @return the number of values.
+   */
+  int size() throws CoreException;
+}
@@ -0,0 +1,286 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core.services.duplicate;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A fixed capacity, open addressing hash table held in a memory mapped file.
+ * <p>
+ * Each slot holds a 128 bit fingerprint of the value along with its expiry time; the values themselves are not stored. Lookups
+ * and inserts use linear probing over a bounded window of {@value #MAX_PROBE} slots, so they are constant time regardless of how
+ * many values are stored. Expired slots are re-used; if there is no free slot within the probe window, then the slot that expires
+ * soonest is overwritten.
+ * </p>
+ * <p>
+ * Instances are shared (and reference counted) by canonical file name, so that every {@link HashIndexValueStore} in the same
+ * runtime that refers to the same file sees the same data.
+ * </p>
+ */
+final class HashIndex {
+
+  static final int MAX_PROBE = 64;
+  private static final int MAGIC = 0x44555031;
+  private static final int HEADER_SIZE = 16;
+  private static final int SLOT_SIZE = 24;
+  private static final int MAX_CAPACITY = 1 << 26;
+  private static final long SEED_1 = 0x9E3779B97F4A7C15L;
+  private static final long SEED_2 = 0xC2B2AE3D27D4EB4FL;
+  private static final int BLOOM_HASHES = 7;
+  private static final int BLOOM_BITS_PER_SLOT = 5;
+
+  private static final Map<String, HashIndex> OPEN = new HashMap<>();
+
+  private static final Logger log = LoggerFactory.getLogger(HashIndex.class);
+
+  private final String key;
+  private final RandomAccessFile file;
+  private final MappedByteBuffer buffer;
+  private final int capacity;
+  private int references;
+  private long[] bloom;
+
+  private HashIndex(String key, File f, int requested) throws IOException {
+    this.key = key;
+    File parent = f.getAbsoluteFile().getParentFile();
+    if (parent != null) {
+      parent.mkdirs();
+    }
+    file = new RandomAccessFile(f, "rw");
+    try {
+      if (file.length() >= HEADER_SIZE) {
+        if (file.readInt() != MAGIC) {
+          throw new IOException("[" + f.getAbsolutePath() + "] is not a hash index");
+        }
+        capacity = file.readInt();
+        if (capacity != requested) {
+          log.warn("[{}] has an existing capacity of {}, ignoring requested capacity of {}", f, capacity, requested);
+        }
+      }
+      else {
+        capacity = requested;
+        file.setLength(0);
+        file.writeInt(MAGIC);
+        file.writeInt(capacity);
+      }
+      buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity * SLOT_SIZE);
+    }
+    catch (IOException e) {
+      file.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Open (or create) the index; callers must {@link #release()} it when finished.
+   *
+   * @param f the file.
+   * @param maxEntries the number of entries the index should hold if it is being created.
+   */
+  static HashIndex acquire(File f, int maxEntries) throws IOException {
+    String key = f.getCanonicalPath();
+    synchronized (OPEN) {
+      HashIndex index = OPEN.get(key);
+      if (index == null) {
+        index = new HashIndex(key, f, capacityFor(maxEntries));
+        OPEN.put(key, index);
+      }
+      index.references++;
+      return index;
+    }
+  }
+
+  void release() {
+    synchronized (OPEN) {
+      if (--references > 0) {
+        return;
+      }
+      OPEN.remove(key);
+      synchronized (this) {
+        buffer.force();
+        try {
+          file.close();
+        }
+        catch (IOException e) {
+          log.trace("Failed to close [{}]", key, e);
+        }
+      }
+    }
+  }
+
+  private static int capacityFor(int maxEntries) {
+    // Keep the load factor at or below 0.5
+    int entries = Math.min(Math.max(maxEntries, MAX_PROBE), MAX_CAPACITY / 2);
+    return Integer.highestOneBit(entries * 2 - 1) << 1;
+  }
+
+  int capacity() {
+    return capacity;
+  }
+
+  /**
+   * Enable a bloom filter in front of the index, populating it from the slots that are in use.
+   */
+  synchronized void enableBloomFilter() {
+    if (bloom != null) {
+      return;
+    }
+    bloom = new long[Math.max(1, capacity * BLOOM_BITS_PER_SLOT / 64)];
+    for (int i = 0; i < capacity; i++) {
+      int pos = position(i);
+      long h1 = buffer.getLong(pos);
+      long h2 = buffer.getLong(pos + 8);
+      if (h1 != 0 || h2 != 0) {
+        addToBloom(h1, h2);
+      }
+    }
+  }
+
+  synchronized boolean contains(String value, long now) {
+    long h1 = hash(value, SEED_1);
+    long h2 = hash(value, SEED_2);
+    if (bloom != null && !mightContain(h1, h2)) {
+      return false;
+    }
+    int slot = find(h1, h2);
+    return slot >= 0 && buffer.getLong(position(slot) + 16) > now;
+  }
+
+  synchronized void put(String value, long expiry, long now) {
+    long h1 = hash(value, SEED_1);
+    long h2 = hash(value, SEED_2);
+    int start = (int) (h1 & (capacity - 1));
+    int target = start;
+    long soonest = Long.MAX_VALUE;
+    for (int i = 0; i < MAX_PROBE; i++) {
+      int slot = (start + i) & (capacity - 1);
+      int pos = position(slot);
+      long s1 = buffer.getLong(pos);
+      long s2 = buffer.getLong(pos + 8);
+      long expires = buffer.getLong(pos + 16);
+      if (s1 == h1 && s2 == h2) {
+        target = slot;
+        break;
+      }
+      if (s1 == 0 && s2 == 0) {
+        // never been used, so the value can't be further along.
+        if (soonest > Long.MIN_VALUE) {
+          target = slot;
+        }
+        break;
+      }
+      if (expires <= now) {
+        if (soonest > Long.MIN_VALUE) {
+          target = slot;
+          soonest = Long.MIN_VALUE;
+        }
+      }
+      else if (expires < soonest) {
+        target = slot;
+        soonest = expires;
+      }
+    }
+    int pos = position(target);
+    buffer.putLong(pos, h1);
+    buffer.putLong(pos + 8, h2);
+    buffer.putLong(pos + 16, expiry);
+    if (bloom != null) {
+      addToBloom(h1, h2);
+    }
+  }
+
+  synchronized int size(long now) {
+    int result = 0;
+    for (int i = 0; i < capacity; i++) {
+      int pos = position(i);
+      if (buffer.getLong(pos + 16) > now) {
+        result++;
+      }
+    }
+    return result;
+  }
+
+  synchronized void force() {
+    buffer.force();
+  }
+
+  private int find(long h1, long h2) {
+    int start = (int) (h1 & (capacity - 1));
+    for (int i = 0; i < MAX_PROBE; i++) {
+      int slot = (start + i) & (capacity - 1);
+      int pos = position(slot);
+      long s1 = buffer.getLong(pos);
+      long s2 = buffer.getLong(pos + 8);
+      if (s1 == h1 && s2 == h2) {
+        return slot;
+      }
+      if (s1 == 0 && s2 == 0) {
+        break;
+      }
+    }
+    return -1;
+  }
+
+  private static int position(int slot) {
+    return HEADER_SIZE + slot * SLOT_SIZE;
+  }
+
+  private boolean mightContain(long h1, long h2) {
+    long bits = bloom.length * 64L;
+    for (int i = 0; i < BLOOM_HASHES; i++) {
+      long bit = Long.remainderUnsigned(h1 + i * h2, bits);
+      if ((bloom[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void addToBloom(long h1, long h2) {
+    long bits = bloom.length * 64L;
+    for (int i = 0; i < BLOOM_HASHES; i++) {
+      long bit = Long.remainderUnsigned(h1 + i * h2, bits);
+      bloom[(int) (bit >>> 6)] |= 1L << bit;
+    }
+  }
+
+  // FNV-1a over the UTF-8 bytes, finished with the murmur3 fmix64 mixer.
+  static long hash(String value, long seed) {
+    long h = seed;
+    for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+      h ^= b & 0xff;
+      h *= 0x100000001B3L;
+    }
+    h ^= h >>> 33;
+    h *= 0xFF51AFD7ED558CCDL;
+    h ^= h >>> 33;
+    h *= 0xC4CEB9FE1A85EC53L;
+    h ^= h >>> 33;
+    // 0 is reserved for empty slots.
+    return h == 0 ? 1 : h;
+  }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core.services.duplicate;
+
+import java.io.File;
+
+import javax.validation.constraints.NotBlank;
+
+import org.apache.commons.lang3.BooleanUtils;
+import org.apache.commons.lang3.ObjectUtils;
+
+import com.adaptris.annotation.AdvancedConfig;
+import com.adaptris.annotation.DisplayOrder;
+import com.adaptris.annotation.InputFieldDefault;
+import com.adaptris.core.CoreException;
+import com.adaptris.core.fs.FsHelper;
+import com.adaptris.core.util.Args;
+import com.adaptris.core.util.ExceptionHelper;
+import com.adaptris.util.TimeInterval;
+import com.thoughtworks.xstream.annotations.XStreamAlias;
+
+/**
+ * {@link DuplicateValueStore} implementation that uses a fixed size hash index held in a memory mapped file.
+ * <p>
+ * Checking and storing a value are constant time operations that only touch a small part of the file, regardless of how many
+ * values are being stored; nothing is loaded at startup, and changes are written back to disk by the operating system. The file is
+ * sized when it is first created to hold {@link #setMaxEntries(Integer)} values; after that, if there is no room for a new value then
+ * the value that is due to expire soonest is overwritten. Values are stored as a 128 bit fingerprint rather than verbatim.
+ * </p>
+ * <p>
+ * If {@link #setUseBloomFilter(Boolean)} is true, then an in-memory bloom filter is built when the store is initialised; values that
+ * have never been stored are then rejected without reading the file at all. This costs around 5 bits of memory per slot in the
+ * index.
+ * </p>
+ * <p>
+ * Any {@link CheckMetadataValueService} and {@link StoreMetadataValueService} in the same runtime that are configured with the same
+ * {@code store-file-url} share the same index.
+ * </p>
+ *
+ * @config duplicate-hash-index-value-store
+ * @since 3.9.3
+ */
+@XStreamAlias("duplicate-hash-index-value-store")
+@DisplayOrder(order = {"storeFileUrl", "maxEntries", "timeToLive", "useBloomFilter"})
+public class HashIndexValueStore implements DuplicateValueStore {
+
+  private static final int DEFAULT_MAX_ENTRIES = 1000000;
+
+  @NotBlank
+  private String storeFileUrl;
+  @AdvancedConfig
+  @InputFieldDefault(value = "1000000")
+  private Integer maxEntries;
+  @InputFieldDefault(value = "never expires")
+  private TimeInterval timeToLive;
+  @AdvancedConfig
+  @InputFieldDefault(value = "false")
+  private Boolean useBloomFilter;
+
+  private transient HashIndex index;
+
+  public HashIndexValueStore() {
+  }
+
+  public HashIndexValueStore(String url) {
+    this();
+    setStoreFileUrl(url);
+  }
+
+  @Override
+  public void init() throws CoreException {
+    try {
+      File store = Args.notNull(FsHelper.toFile(Args.notBlank(getStoreFileUrl(), "storeFileUrl")), "storeFile");
+      index = HashIndex.acquire(store, maxEntries());
+      if (useBloomFilter()) {
+        index.enableBloomFilter();
+      }
+    }
+    catch (Exception e) {
+      throw ExceptionHelper.wrapCoreException(e);
+    }
+  }
+
+  @Override
+  public void stop() {
+    if (index != null) {
+      index.force();
+    }
+  }
+
+  @Override
+  public void close() {
+    if (index != null) {
+      index.release();
+      index = null;
+    }
+  }
+
+  @Override
+  public boolean contains(String value) throws CoreException {
+    return index().contains(value, System.currentTimeMillis());
+  }
+
+  @Override
+  public void add(String value) throws CoreException {
+    long now = System.currentTimeMillis();
+    long ttl = timeToLiveMs();
+    index().put(value, ttl > Long.MAX_VALUE - now ? Long.MAX_VALUE : now + ttl, now);
+  }
+
+  @Override
+  public int size() throws CoreException {
+    return index().size(System.currentTimeMillis());
+  }
+
+  private HashIndex index() throws CoreException {
+    if (index == null) {
+      throw new CoreException("Store is not initialised");
+    }
+    return index;
+  }
+
+  public String getStoreFileUrl() {
+    return storeFileUrl;
+  }
+
+  /**
+   * Set the file that contains the index, in the form of a file URL, e.g. {@code file:///path/to/store.idx}.
+   *
+   * @param s the url.
+   */
+  public void setStoreFileUrl(String s) {
+    storeFileUrl = Args.notBlank(s, "storeFileUrl");
+  }
+
+  public Integer getMaxEntries() {
+    return maxEntries;
+  }
+
+  /**
+   * Set the number of values that the index should be able to hold.
+   * <p>
+   * This only has an effect when the file is created; the file will be around 48 bytes per entry.
+   * </p>
+   *
+   * @param i the number of entries, default is 1000000.
+   */
+  public void setMaxEntries(Integer i) {
+    maxEntries = i;
+  }
+
+  int maxEntries() {
+    return ObjectUtils.defaultIfNull(getMaxEntries(), DEFAULT_MAX_ENTRIES);
+  }
+
+  public TimeInterval getTimeToLive() {
+    return timeToLive;
+  }
+
+  /**
+   * Set how long a value is remembered for.
+   *
+   * @param ttl the time to live; if not specified then values never expire (but may still be overwritten if the index is full).
+   */
+  public void setTimeToLive(TimeInterval ttl) {
+    timeToLive = ttl;
+  }
+
+  long timeToLiveMs() {
+    return getTimeToLive() != null ? getTimeToLive().toMilliseconds() : Long.MAX_VALUE;
+  }
+
+  public Boolean getUseBloomFilter() {
+    return useBloomFilter;
+  }
+
+  /**
+   * Whether or not to keep a bloom filter in memory in front of the index.
+   *
+   * @param b true to use a bloom filter, default false.
+   */
+  public void setUseBloomFilter(Boolean b) {
+    useBloomFilter = b;
+  }
+
+  boolean useBloomFilter() {
+    return BooleanUtils.toBooleanDefaultIfNull(getUseBloomFilter(), false);
+  }
+}
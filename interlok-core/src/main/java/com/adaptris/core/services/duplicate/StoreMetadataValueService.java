@@ -38,7 +38,8 @@ import com.thoughtworks.xstream.annotations.XStreamAlias;
  * the oldest value is removed. The store is then persisted.
  * </p>
  * <p>
- * Storage will be spun off into a separate interface and imps if required.
+ * If a {@link DuplicateValueStore} is configured, then the value is simply added to it, and
+ * {@link #setNumberOfPreviousValuesToStore(int)} has no effect.
  * </p>
  * 
  * @config store-metadata-value-service
@@ -68,6 +69,10 @@ public class StoreMetadataValueService extends DuplicateMetadataValueService {
     try {
       String value = msg.getMetadataValue(getMetadataKey());
       Args.notBlank(value, "metadataKey");
+      if (getValueStore() != null) {
+        getValueStore().add(value);
+        return;
+      }
       previousValuesStore.add(value);
       while (previousValuesStore.size() > getNumberOfPreviousValuesToStore()) {
         previousValuesStore.remove(0);
@@ -17,6 +17,9 @@
 package com.adaptris.core.services.dynamic;
 
 import static com.adaptris.core.util.LoggingHelper.friendlyName;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import org.apache.commons.lang3.BooleanUtils;
@@ -55,6 +58,12 @@ import com.thoughtworks.xstream.annotations.XStreamAlias;
  * that is unmarshalled; any exceptions thrown by unmarshalled service are simply rethrown back to
  * the workflow for standard message error handling.
  * </p>
+ * <p>
+ * By default the service is unmarshalled, initialised, started, stopped and closed for every message. If a
+ * {@link ServiceInstanceCache} is configured then started instances are cached (keyed by a hash of the service definition) and
+ * re-used by subsequent messages that have the same definition; this avoids (for instance) connecting and disconnecting for every
+ * message.
+ * </p>
  * 
  * @config dynamic-service-executor
  * 
@@ -63,7 +72,7 @@ import com.thoughtworks.xstream.annotations.XStreamAlias;
 @XStreamAlias("dynamic-service-executor")
 @AdapterComponent
 @ComponentProfile(summary = "Lookup and execute a dynamic service", tag = "service,dynamic")
-@DisplayOrder(order = {"serviceExtractor", "marshaller", "treatNotFoundAsError"})
+@DisplayOrder(order = {"serviceExtractor", "marshaller", "treatNotFoundAsError", "serviceCache"})
 public class DynamicServiceExecutor extends ServiceImp implements EventHandlerAware {
 
   private transient EventHandler eventHandler;
@@ -78,6 +87,9 @@ public class DynamicServiceExecutor extends ServiceImp implements EventHandlerAw
 
   @InputFieldDefault(value = "true")
   private Boolean treatNotFoundAsError;
+  @Valid
+  @AdvancedConfig
+  private ServiceInstanceCache serviceCache;
 
   public DynamicServiceExecutor() {
     this(new DefaultServiceExtractor());
@@ -90,18 +102,63 @@ public class DynamicServiceExecutor extends ServiceImp implements EventHandlerAw
   @Override
   public void doService(AdaptrisMessage msg) throws ServiceException {
     try {
-      Service service = createService(msg);
-      log.trace("Created service [{}]", friendlyName(service));
-      LifecycleHelper.registerEventHandler(service, eventHandler);
-      LifecycleHelper.initAndStart(service, false);
-      service.doService(msg);
-      LifecycleHelper.stopAndClose(service, false);
+      if (getServiceCache() != null) {
+        doCachedService(msg);
+      } else {
+        execute(createService(msg), msg);
+      }
     }
     catch (Exception e) {
       throw ExceptionHelper.wrapServiceException(e);
     }
   }
 
+  private void execute(Service service, AdaptrisMessage msg) throws Exception {
+    log.trace("Created service [{}]", friendlyName(service));
+    LifecycleHelper.registerEventHandler(service, eventHandler);
+    LifecycleHelper.initAndStart(service, false);
+    service.doService(msg);
+    LifecycleHelper.stopAndClose(service, false);
+  }
+
+  private void doCachedService(AdaptrisMessage msg) throws Exception {
+    Service extracted;
+    try {
+      extracted = getServiceExtractor().getService(msg, currentMarshaller());
+    } catch (Exception e) {
+      execute(onException(e), msg);
+      return;
+    }
+    String key = cacheKey(extracted);
+    Service service = getServiceCache().borrow(key);
+    if (service == null) {
+      service = extracted;
+      log.trace("Created service [{}] for [{}]", friendlyName(service), key);
+      LifecycleHelper.registerEventHandler(service, eventHandler);
+      // If it fails to start, then it is closed, and was never in the cache, so there's nothing else to do.
+      LifecycleHelper.initAndStart(service, false);
+    }
+    boolean success = false;
+    try {
+      service.doService(msg);
+      success = true;
+    } finally {
+      if (success) {
+        getServiceCache().release(key, service);
+      } else {
+        // It may have been left in a broken state, so don't hand it to the next message.
+        getServiceCache().discard(service);
+      }
+    }
+  }
+
+  // The cache is keyed on the service definition, so marshal the extracted service again rather than rely on how the
+  // extractor got hold of it.
+  String cacheKey(Service service) throws Exception {
+    byte[] definition = currentMarshaller().marshal(service).getBytes(StandardCharsets.UTF_8);
+    return Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-256").digest(definition));
+  }
+
   private Service createService(AdaptrisMessage msg) throws Exception {
     try {
       return getServiceExtractor().getService(msg, currentMarshaller());
@@ -131,14 +188,22 @@ public class DynamicServiceExecutor extends ServiceImp implements EventHandlerAw
 
   @Override
   public void stop() {
+    clearCache();
     LifecycleHelper.stop(getServiceExtractor());
   }
 
   @Override
   protected void closeService() {
+    clearCache();
     LifecycleHelper.close(getServiceExtractor());
   }
 
+  private void clearCache() {
+    if (getServiceCache() != null) {
+      getServiceCache().clear();
+    }
+  }
+
   @Override
   public void prepare() throws CoreException {
     LifecycleHelper.prepare(getServiceExtractor());
@@ -199,4 +264,18 @@ public class DynamicServiceExecutor extends ServiceImp implements EventHandlerAw
   private boolean treatNotFoundAsError() {
     return BooleanUtils.toBooleanDefaultIfNull(getTreatNotFoundAsError(), true);
   }
+
+  public ServiceInstanceCache getServiceCache() {
+    return serviceCache;
+  }
+
+  /**
+   * Cache started service instances rather than creating, initialising and closing the service for every message.
+   *
+   * @param cache the cache; if not specified, then a new service instance is created for every message.
+   * @since 3.9.3
+   */
+  public void setServiceCache(ServiceInstanceCache cache) {
+    serviceCache = cache;
+  }
 }
@@ -0,0 +1,260 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core.services.dynamic;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.commons.lang3.ObjectUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.adaptris.annotation.DisplayOrder;
+import com.adaptris.annotation.InputFieldDefault;
+import com.adaptris.core.Service;
+import com.adaptris.core.util.LifecycleHelper;
+import com.adaptris.util.TimeInterval;
+import com.thoughtworks.xstream.annotations.XStreamAlias;
+
+/**
+ * Caches started service instances for {@link DynamicServiceExecutor}.
+ * <p>
+ * Services are keyed by a hash of their marshalled definition; each key has its own pool of idle instances, so that concurrent
+ * threads (e.g. in a {@link com.adaptris.core.PoolingWorkflow}) never share an instance. An instance is only stopped and closed
+ * when it is evicted; this happens when the number of distinct definitions exceeds {@link #setMaxEntries(Integer)} (least recently
+ * used first), when a definition has not been used for {@link #setTimeToLive(TimeInterval)}, when there are already
+ * {@link #setMaxIdlePerEntry(Integer)} idle instances for the definition, or when the owning service is closed.
+ * </p>
+ *
+ * @config dynamic-service-instance-cache
+ * @since 3.9.3
+ */
+@XStreamAlias("dynamic-service-instance-cache")
+@DisplayOrder(order = {"maxEntries", "timeToLive", "maxIdlePerEntry"})
+public class ServiceInstanceCache {
+
+  private static final int DEFAULT_MAX_ENTRIES = 16;
+  private static final int DEFAULT_MAX_IDLE = 10;
+  private static final TimeInterval DEFAULT_TTL = new TimeInterval(1L, TimeUnit.HOURS);
+
+  private transient Logger log = LoggerFactory.getLogger(this.getClass());
+
+  @InputFieldDefault(value = "16")
+  private Integer maxEntries;
+  @InputFieldDefault(value = "1 hour")
+  private TimeInterval timeToLive;
+  @InputFieldDefault(value = "10")
+  private Integer maxIdlePerEntry;
+
+  private transient LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private transient ReentrantLock lock = new ReentrantLock();
+
+  public ServiceInstanceCache() {
+  }
+
+  /**
+   * Get an idle instance for the definition.
+   *
+   * @param key the key for the service definition.
+   * @return an idle (started) service, or null if there isn't one; the caller should create the service and
+   *         {@link #release(String, Service)} it when finished.
+   */
+  Service borrow(String key) {
+    List<Service> evicted = new ArrayList<>();
+    Service result = null;
+    try {
+      lock.lock();
+      long now = System.currentTimeMillis();
+      expire(now, evicted);
+      Entry entry = entries.get(key);
+      if (entry == null) {
+        entry = new Entry();
+        entries.put(key, entry);
+        evictEldest(evicted);
+      }
+      entry.lastUsed = now;
+      result = entry.idle.pollFirst();
+    } finally {
+      lock.unlock();
+    }
+    closeQuietly(evicted);
+    return result;
+  }
+
+  /**
+   * Return an instance to the cache.
+   * <p>
+   * If the definition has since been evicted, or there are too many idle instances, then the service is stopped and closed.
+   * </p>
+   */
+  void release(String key, Service service) {
+    boolean cached = false;
+    try {
+      lock.lock();
+      Entry entry = entries.get(key);
+      if (entry != null && entry.idle.size() < maxIdlePerEntry()) {
+        entry.idle.offerFirst(service);
+        cached = true;
+      }
+    } finally {
+      lock.unlock();
+    }
+    if (!cached) {
+      closeQuietly(service);
+    }
+  }
+
+  /**
+   * Discard an instance, e.g. because it may no longer be usable.
+   */
+  void discard(Service service) {
+    closeQuietly(service);
+  }
+
+  /**
+   * Stop and close all the idle instances; instances that are currently in use are closed when they are released.
+   */
+  void clear() {
+    List<Service> evicted = new ArrayList<>();
+    try {
+      lock.lock();
+      for (Entry e : entries.values()) {
+        evicted.addAll(e.idle);
+      }
+      entries.clear();
+    } finally {
+      lock.unlock();
+    }
+    closeQuietly(evicted);
+  }
+
+  int size() {
+    try {
+      lock.lock();
+      return entries.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  int idleCount(String key) {
+    try {
+      lock.lock();
+      Entry e = entries.get(key);
+      return e != null ? e.idle.size() : 0;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  // Always called while holding the lock; the eldest entry is the least recently used.
+  private void expire(long now, List<Service> evicted) {
+    long ttl = timeToLiveMs();
+    for (Iterator<Map.Entry<String, Entry>> itr = entries.entrySet().iterator(); itr.hasNext();) {
+      Map.Entry<String, Entry> e = itr.next();
+      if (now - e.getValue().lastUsed <= ttl) {
+        break;
+      }
+      log.trace("Expiring cached services for [{}]", e.getKey());
+      evicted.addAll(e.getValue().idle);
+      itr.remove();
+    }
+  }
+
+  // Always called while holding the lock
+  private void evictEldest(List<Service> evicted) {
+    Iterator<Map.Entry<String, Entry>> itr = entries.entrySet().iterator();
+    while (entries.size() > maxEntries()) {
+      Map.Entry<String, Entry> e = itr.next();
+      log.trace("Evicting cached services for [{}]", e.getKey());
+      evicted.addAll(e.getValue().idle);
+      itr.remove();
+    }
+  }
+
+  private static void closeQuietly(List<Service> services) {
+    for (Service s : services) {
+      closeQuietly(s);
+    }
+  }
+
+  private static void closeQuietly(Service s) {
+    LifecycleHelper.stopAndClose(s, false);
+  }
+
+  public Integer getMaxEntries() {
+    return maxEntries;
+  }
+
+  /**
+   * Set the maximum number of distinct service definitions to cache.
+   *
+   * @param i the max number of entries, default 16.
+   */
+  public void setMaxEntries(Integer i) {
+    maxEntries = i;
+  }
+
+  int maxEntries() {
+    return Math.max(1, ObjectUtils.defaultIfNull(getMaxEntries(), DEFAULT_MAX_ENTRIES));
+  }
+
+  public TimeInterval getTimeToLive() {
+    return timeToLive;
+  }
+
+  /**
+   * Set how long a service definition can go unused before its instances are closed.
+   *
+   * @param ttl the time to live, default 1 hour.
+   */
+  public void setTimeToLive(TimeInterval ttl) {
+    timeToLive = ttl;
+  }
+
+  long timeToLiveMs() {
+    return TimeInterval.toMillisecondsDefaultIfNull(getTimeToLive(), DEFAULT_TTL);
+  }
+
+  public Integer getMaxIdlePerEntry() {
+    return maxIdlePerEntry;
+  }
+
+  /**
+   * Set the maximum number of idle instances to keep for each service definition.
+   *
+   * @param i the max number of idle instances, default 10.
+   */
+  public void setMaxIdlePerEntry(Integer i) {
+    maxIdlePerEntry = i;
+  }
+
+  int maxIdlePerEntry() {
+    return ObjectUtils.defaultIfNull(getMaxIdlePerEntry(), DEFAULT_MAX_IDLE);
+  }
+
+  private static class Entry {
+    private final ArrayDeque<Service> idle = new ArrayDeque<>();
+    private long lastUsed;
+  }
+}
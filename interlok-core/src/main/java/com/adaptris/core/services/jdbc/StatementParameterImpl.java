@@ -198,7 +198,7 @@ public abstract class StatementParameterImpl extends NamedStatementParameter {
         .get(JdbcDataQueryService.KEY_DOCBUILDER_FAC);
     NamespaceContext ctx = (NamespaceContext) msg.getObjectHeaders().get(JdbcDataQueryService.KEY_NAMESPACE_CTX);
     try {
-      Node node = XPath.newXPathInstance(builder, ctx).selectSingleNode(XmlHelper.createDocument(msg, builder), queryString);
+      Node node = XPath.newXPathInstance(builder, ctx).selectSingleNode(XmlHelper.createReadOnlyDocument(msg, builder), queryString);
       return node != null ? node.getTextContent() : null;
     } catch (Exception e) {
       throw new IllegalArgumentException(queryString + " didn't work as an xpath");
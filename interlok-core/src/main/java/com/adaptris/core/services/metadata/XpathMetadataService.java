@@ -105,7 +105,7 @@ public class XpathMetadataService extends MetadataServiceImpl {
         builder.setNamespaceAware(true);
       }
       XPath xpathToUse = XPath.newXPathInstance(builder, namespaceCtx);
-      Document doc = XmlHelper.createDocument(msg, builder);
+      Document doc = XmlHelper.createReadOnlyDocument(msg, builder);
       for (XpathQuery query : queriesToExecute) {
         metadataElements.add(query.resolveXpath(doc, xpathToUse, query.createXpathQuery(msg)));
       }
@@ -16,8 +16,6 @@
 
 package com.adaptris.core.services.splitter;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import org.apache.commons.lang3.BooleanUtils;
@@ -104,17 +102,8 @@ public class PoolingSplitJoinService extends SplitJoinService {
   }
 
   @Override
-  protected List<Callable<AdaptrisMessage>> buildTasks(ServiceExceptionHandler handler, List<AdaptrisMessage> msgs)
-      throws Exception {
-    int count = 0;
-    List<Callable<AdaptrisMessage>> result = new ArrayList<>();
-    for (AdaptrisMessage splitMsg : msgs) {
-      count++;
-      splitMsg.addMetadata(MessageSplitterServiceImp.KEY_CURRENT_SPLIT_MESSAGE_COUNT, Long.toString(count));
-      Callable<AdaptrisMessage> job = new MyServiceExecutor(handler, splitMsg);
-      result.add(job);
-    }
-    return result;
+  protected Callable<AdaptrisMessage> createTask(ServiceExceptionHandler handler, AdaptrisMessage splitMsg) {
+    return new MyServiceExecutor(handler, splitMsg);
   }
 
   @Override
@@ -17,18 +17,26 @@
 package com.adaptris.core.services.splitter;
 
 import static com.adaptris.core.util.ServiceUtil.discardNulls;
-import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import org.apache.commons.lang3.BooleanUtils;
+import org.apache.commons.lang3.ObjectUtils;
 import com.adaptris.annotation.AdapterComponent;
 import com.adaptris.annotation.AdvancedConfig;
 import com.adaptris.annotation.ComponentProfile;
@@ -43,8 +51,10 @@ import com.adaptris.core.Service;
 import com.adaptris.core.ServiceException;
 import com.adaptris.core.ServiceImp;
 import com.adaptris.core.ServiceWrapper;
+import com.adaptris.core.services.aggregator.IncrementalMessageAggregator;
 import com.adaptris.core.services.aggregator.MessageAggregator;
 import com.adaptris.core.util.Args;
+import com.adaptris.core.util.CloseableIterable;
 import com.adaptris.core.util.ExceptionHelper;
 import com.adaptris.core.util.LifecycleHelper;
 import com.adaptris.core.util.ManagedThreadFactory;
@@ -62,7 +72,19 @@ import com.thoughtworks.xstream.annotations.XStreamAlias;
  * <p>
  * A new (cloned) instance of the underlying {@link com.adaptris.core.Service} is created for every split message, and executed in
  * its own thread; this means that where there is a high cost of initialisation for the service, then you may get better performance
- * aggregating the messages in a different way.
+ * aggregating the messages in a different way, or by using {@link PoolingSplitJoinService} which re-uses a pool of initialised
+ * services.
+ * </p>
+ * <p>
+ * Each split message is submitted for execution as soon as the splitter produces it, so processing overlaps with splitting; the
+ * timeout applies from the start of the split.
+ * </p>
+ * <p>
+ * If {@link #setIncrementalJoin(Boolean)} is true and the aggregator is an {@link IncrementalMessageAggregator}, then each result
+ * is appended to the original message as soon as it is available (in split order, unless {@link #setPreserveOrder(Boolean)} is
+ * false) and the split message is not retained; no more than {@link #setMaxInFlight(Integer)} split messages are outstanding at any
+ * one time, so memory usage is bounded by that rather than by the number of split messages. Note that in this mode the configured
+ * {@link PoolingFutureExceptionStrategy} is only consulted once all the results have been aggregated.
  * </p>
  * 
  * @config split-join-service
@@ -72,11 +94,12 @@ import com.thoughtworks.xstream.annotations.XStreamAlias;
 @ComponentProfile(summary = "Split a message and then execute the associated services on the split items, aggregating the split messages afterwards", tag = "service,splitjoin")
 @DisplayOrder(order =
 {
-    "splitter", "service", "aggregator", "maxThreads", "timeout"
+    "splitter", "service", "aggregator", "maxThreads", "timeout", "incrementalJoin", "preserveOrder", "maxInFlight"
 })
 public class SplitJoinService extends ServiceImp implements EventHandlerAware, ServiceWrapper {
 
   private static TimeInterval DEFAULT_TTL = new TimeInterval(600L, TimeUnit.SECONDS);
+  private static final int DEFAULT_MAX_IN_FLIGHT = 100;
 
   @NotNull
   @Valid
@@ -91,9 +114,19 @@ public class SplitJoinService extends ServiceImp implements EventHandlerAware, S
   private TimeInterval timeout;
   @InputFieldDefault(value = "false")
   private Boolean sendEvents;
+  @AdvancedConfig
+  @InputFieldDefault(value = "false")
+  private Boolean incrementalJoin;
+  @AdvancedConfig
+  @InputFieldDefault(value = "true")
+  private Boolean preserveOrder;
+  @AdvancedConfig
+  @InputFieldDefault(value = "100")
+  private Integer maxInFlight;
 
   private transient ExecutorService executors;
   private transient EventHandler eventHandler;
+  private transient String serviceTemplate;
 
   @AdvancedConfig
   @Valid
@@ -105,55 +138,215 @@ public class SplitJoinService extends ServiceImp implements EventHandlerAware, S
 
   @Override
   public void doService(AdaptrisMessage msg) throws ServiceException {
+    if (incrementalJoin() && getAggregator() instanceof IncrementalMessageAggregator) {
+      doIncrementalJoin(msg, (IncrementalMessageAggregator) getAggregator());
+      return;
+    }
+    List<AdaptrisMessage> splitMessages = new ArrayList<>();
+    List<Future<AdaptrisMessage>> results = new ArrayList<>();
     try {
-      List<AdaptrisMessage> splitMessages = toList(getSplitter().splitMessage(msg));
+      long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs());
+      ServiceExceptionHandler handler = new ServiceExceptionHandler();
+      // Submit each split message as it is produced, rather than waiting for the splitter to finish.
+      try (CloseableIterable<AdaptrisMessage> messages = CloseableIterable.ensureCloseable(getSplitter().splitMessage(msg))) {
+        for (AdaptrisMessage splitMsg : messages) {
+          splitMessages.add(splitMsg);
+          splitMsg.addMetadata(MessageSplitterServiceImp.KEY_CURRENT_SPLIT_MESSAGE_COUNT,
+              Long.toString(splitMessages.size()));
+          results.add(executors.submit(createTask(handler, splitMsg)));
+        }
+      }
       if (splitMessages.isEmpty()) {
         log.debug("No output from splitter; nothing to do");
         return;
       }
-      ServiceExceptionHandler handler = new ServiceExceptionHandler();
-      Collection<Callable<AdaptrisMessage>> jobs = buildTasks(handler, splitMessages);
-      submitAndWait(handler, jobs);
-      msg.addMetadata(MessageSplitterServiceImp.KEY_SPLIT_MESSAGE_COUNT, Long.toString(jobs.size()));
+      waitFor(results, deadline);
+      exceptionStrategy.handle(handler, results);
+      msg.addMetadata(MessageSplitterServiceImp.KEY_SPLIT_MESSAGE_COUNT, Long.toString(results.size()));
       getAggregator().joinMessage(msg, splitMessages);
     } catch (Exception e) {
+      cancel(results);
       throw ExceptionHelper.wrapServiceException(e);
     }
   }
 
-  protected List<Callable<AdaptrisMessage>> buildTasks(ServiceExceptionHandler handler, List<AdaptrisMessage> msgs)
-      throws Exception {
-    int count = 0;
-    List<Callable<AdaptrisMessage>> result = new ArrayList<>();
-    for (AdaptrisMessage splitMsg : msgs) {
-      count++;
-      splitMsg.addMetadata(MessageSplitterServiceImp.KEY_CURRENT_SPLIT_MESSAGE_COUNT, Long.toString(count));
-      Callable<AdaptrisMessage> job = new MyServiceExecutor(handler, cloneService(service), splitMsg);
-      result.add(job);
+  // Append each result to the aggregation as it completes; only up to maxInFlight() split messages are ever outstanding.
+  private void doIncrementalJoin(AdaptrisMessage msg, IncrementalMessageAggregator joiner) throws ServiceException {
+    List<Future<AdaptrisMessage>> results = new ArrayList<>();
+    IncrementalMessageAggregator.Aggregation aggregation = null;
+    try {
+      long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs());
+      ServiceExceptionHandler handler = new ServiceExceptionHandler();
+      PendingResults pending = preserveOrder() ? new InOrder() : new AsCompleted();
+      try (CloseableIterable<AdaptrisMessage> messages = CloseableIterable.ensureCloseable(getSplitter().splitMessage(msg))) {
+        for (AdaptrisMessage splitMsg : messages) {
+          if (aggregation == null) {
+            aggregation = joiner.open(msg);
+          }
+          splitMsg.addMetadata(MessageSplitterServiceImp.KEY_CURRENT_SPLIT_MESSAGE_COUNT,
+              Long.toString(results.size() + 1));
+          results.add(pending.submit(createTask(handler, splitMsg)));
+          while (pending.size() >= maxInFlight()) {
+            append(aggregation, pending.next(deadline));
+          }
+        }
+      }
+      if (aggregation == null) {
+        log.debug("No output from splitter; nothing to do");
+        return;
+      }
+      while (pending.size() > 0) {
+        append(aggregation, pending.next(deadline));
+      }
+      // Only change the original message once we know the results are acceptable.
+      exceptionStrategy.handle(handler, results);
+      IncrementalMessageAggregator.Aggregation completed = aggregation;
+      aggregation = null;
+      completed.close();
+      msg.addMetadata(MessageSplitterServiceImp.KEY_SPLIT_MESSAGE_COUNT, Long.toString(results.size()));
+    } catch (Exception e) {
+      cancel(results);
+      abort(aggregation);
+      throw ExceptionHelper.wrapServiceException(e);
     }
-    return result;
   }
 
-  private List<Future<AdaptrisMessage>> submitAndWait(ServiceExceptionHandler handler, Collection<Callable<AdaptrisMessage>> jobs)
+  private static void append(IncrementalMessageAggregator.Aggregation aggregation, AdaptrisMessage result)
+      throws CoreException {
+    if (result == null) {
+      return;
+    }
+    aggregation.append(result);
+    // The exception strategy may still want the metadata, but the payload has been aggregated.
+    result.setPayload(new byte[0]);
+  }
+
+  private void abort(IncrementalMessageAggregator.Aggregation aggregation) {
+    try {
+      if (aggregation != null) {
+        aggregation.abort();
+      }
+    } catch (Exception e) {
+      log.trace("Ignoring exception aborting aggregation", e);
+    }
+  }
+
+  /**
+   * Create the task that executes the service against a single split message.
+   *
+   * @param handler the exception handler for this batch of split messages.
+   * @param splitMsg the split message.
+   * @return a task that will be submitted to the executor.
+   */
+  protected Callable<AdaptrisMessage> createTask(ServiceExceptionHandler handler, AdaptrisMessage splitMsg)
       throws Exception {
-    List<Future<AdaptrisMessage>> results = executors.invokeAll(jobs, timeoutMs(), TimeUnit.MILLISECONDS);
-    exceptionStrategy.handle(handler, results);
+    return new MyServiceExecutor(handler, cloneService(), splitMsg);
+  }
+
+  private void waitFor(List<Future<AdaptrisMessage>> results, long deadline) throws InterruptedException {
+    for (Future<AdaptrisMessage> f : results) {
+      long remaining = deadline - System.nanoTime();
+      try {
+        if (remaining <= 0) {
+          f.cancel(true);
+          continue;
+        }
+        f.get(remaining, TimeUnit.NANOSECONDS);
+      } catch (TimeoutException e) {
+        f.cancel(true);
+      } catch (ExecutionException | CancellationException e) {
+        // The exception handler will have recorded anything interesting.
+      }
+    }
     log.trace("Finished waiting for operations...");
-    return results;
   }
 
-  private List<AdaptrisMessage> toList(Iterable<AdaptrisMessage> iter) throws IOException, CoreException {
-    if (iter instanceof List) {
-      return (List<AdaptrisMessage>) iter;
+  private static void cancel(Collection<Future<AdaptrisMessage>> results) {
+    for (Future<AdaptrisMessage> f : results) {
+      f.cancel(true);
+    }
+  }
+
+  private abstract class PendingResults {
+    abstract Future<AdaptrisMessage> submit(Callable<AdaptrisMessage> task);
+
+    abstract int size();
+
+    /**
+     * @return the next result, or null if it failed to complete in time.
+     */
+    abstract AdaptrisMessage next(long deadline) throws InterruptedException;
+  }
+
+  // Results are returned in the order that the split messages were submitted.
+  private class InOrder extends PendingResults {
+    private final ArrayDeque<Future<AdaptrisMessage>> queue = new ArrayDeque<>();
+
+    @Override
+    Future<AdaptrisMessage> submit(Callable<AdaptrisMessage> task) {
+      Future<AdaptrisMessage> f = executors.submit(task);
+      queue.add(f);
+      return f;
+    }
+
+    @Override
+    int size() {
+      return queue.size();
     }
-    List<AdaptrisMessage> result = new ArrayList<AdaptrisMessage>();
-    try (com.adaptris.core.util.CloseableIterable<AdaptrisMessage> messages = com.adaptris.core.util.CloseableIterable
-        .ensureCloseable(iter)) {
-      for (AdaptrisMessage msg : messages) {
-        result.add(msg);
+
+    @Override
+    AdaptrisMessage next(long deadline) throws InterruptedException {
+      Future<AdaptrisMessage> f = queue.poll();
+      long remaining = deadline - System.nanoTime();
+      try {
+        if (remaining > 0) {
+          return f.get(remaining, TimeUnit.NANOSECONDS);
+        }
+      } catch (TimeoutException e) {
+        // Cancelled below
+      } catch (ExecutionException | CancellationException e) {
+        // The exception handler will have recorded anything interesting.
+        return null;
+      }
+      f.cancel(true);
+      return null;
+    }
+  }
+
+  // Results are returned as soon as they complete.
+  private class AsCompleted extends PendingResults {
+    private final CompletionService<AdaptrisMessage> completion = new ExecutorCompletionService<>(executors);
+    private final Set<Future<AdaptrisMessage>> outstanding = new HashSet<>();
+
+    @Override
+    Future<AdaptrisMessage> submit(Callable<AdaptrisMessage> task) {
+      Future<AdaptrisMessage> f = completion.submit(task);
+      outstanding.add(f);
+      return f;
+    }
+
+    @Override
+    int size() {
+      return outstanding.size();
+    }
+
+    @Override
+    AdaptrisMessage next(long deadline) throws InterruptedException {
+      long remaining = deadline - System.nanoTime();
+      Future<AdaptrisMessage> f = remaining > 0 ? completion.poll(remaining, TimeUnit.NANOSECONDS) : null;
+      if (f == null) {
+        // Nothing finished in time, so nothing still outstanding ever will.
+        cancel(outstanding);
+        outstanding.clear();
+        return null;
+      }
+      outstanding.remove(f);
+      try {
+        return f.get();
+      } catch (ExecutionException | CancellationException e) {
+        return null;
       }
     }
-    return result;
   }
 
   protected ExecutorService createExecutor() {
@@ -168,6 +361,8 @@ public class SplitJoinService extends ServiceImp implements EventHandlerAware, S
       Args.notNull(getService(), "service");
       if (exceptionStrategy == null)
         exceptionStrategy = new DefaultPoolingFutureExceptionStrategy();
+      // Only marshal the service once, each split message just needs to unmarshal it.
+      serviceTemplate = DefaultMarshaller.getDefaultMarshaller().marshal(getService());
       executors = createExecutor();
     } catch (Exception e) {
       throw ExceptionHelper.wrapCoreException(e);
@@ -184,8 +379,8 @@ public class SplitJoinService extends ServiceImp implements EventHandlerAware, S
     LifecycleHelper.prepare(getService());
   }
 
-  private Service cloneService(Service original) throws CoreException {
-    Service result = DefaultMarshaller.roundTrip(original);
+  private Service cloneService() throws CoreException {
+    Service result = (Service) DefaultMarshaller.getDefaultMarshaller().unmarshal(serviceTemplate);
     LifecycleHelper.registerEventHandler(result, eventHandler);
     return result;
   }
@@ -341,4 +536,69 @@ public class SplitJoinService extends ServiceImp implements EventHandlerAware, S
     return msg;
   }
 
+  public Boolean getIncrementalJoin() {
+    return incrementalJoin;
+  }
+
+  /**
+   * Whether or not to join each result as soon as it is available.
+   * <p>
+   * This only has an effect if the configured aggregator is an {@link IncrementalMessageAggregator}; otherwise all the results are
+   * always joined at the end.
+   * </p>
+   *
+   * @param b true to join incrementally, default false.
+   * @since 3.9.3
+   */
+  public void setIncrementalJoin(Boolean b) {
+    incrementalJoin = b;
+  }
+
+  boolean incrementalJoin() {
+    return BooleanUtils.toBooleanDefaultIfNull(getIncrementalJoin(), false);
+  }
+
+  public Boolean getPreserveOrder() {
+    return preserveOrder;
+  }
+
+  /**
+   * When joining incrementally, whether or not results are joined in the order that the split messages were produced.
+   * <p>
+   * If false, then results are joined in the order that they complete, which means that a single slow split message does not hold
+   * up the rest.
+   * </p>
+   *
+   * @param b true to preserve the split order, default true.
+   * @since 3.9.3
+   */
+  public void setPreserveOrder(Boolean b) {
+    preserveOrder = b;
+  }
+
+  boolean preserveOrder() {
+    return BooleanUtils.toBooleanDefaultIfNull(getPreserveOrder(), true);
+  }
+
+  public Integer getMaxInFlight() {
+    return maxInFlight;
+  }
+
+  /**
+   * When joining incrementally, the maximum number of split messages that can be waiting to be joined.
+   * <p>
+   * Once this limit is reached, splitting pauses until the next result has been joined.
+   * </p>
+   *
+   * @param i the max number of outstanding split messages, default 100.
+   * @since 3.9.3
+   */
+  public void setMaxInFlight(Integer i) {
+    maxInFlight = i;
+  }
+
+  int maxInFlight() {
+    return Math.max(1, ObjectUtils.defaultIfNull(getMaxInFlight(), DEFAULT_MAX_IN_FLIGHT));
+  }
+
 }
@@ -0,0 +1,347 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core.services.splitter;
+
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.validation.constraints.NotBlank;
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.Namespace;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+
+import org.apache.commons.io.IOUtils;
+
+import com.adaptris.annotation.AdvancedConfig;
+import com.adaptris.annotation.ComponentProfile;
+import com.adaptris.annotation.DisplayOrder;
+import com.adaptris.core.AdaptrisMessage;
+import com.adaptris.core.CoreException;
+import com.adaptris.core.util.Args;
+import com.adaptris.core.util.ExceptionHelper;
+import com.adaptris.core.util.XmlHelper;
+import com.adaptris.util.KeyValuePairSet;
+import com.adaptris.util.text.xml.SimpleNamespaceContext;
+import com.thoughtworks.xstream.annotations.XStreamAlias;
+
+/**
+ * {@link MessageSplitter} implementation that splits an XML document using StAX, without ever building a DOM.
+ * <p>
+ * Unlike {@link XpathMessageSplitter} the document is read as a stream, and each matching element is written directly into a new
+ * message as soon as it is found; only the current element path is held in memory. Combined with a
+ * {@link com.adaptris.core.lms.FileBackedMessageFactory} for both the original message and the split messages this means that
+ * arbitrarily large documents can be split in constant memory.
+ * </p>
+ * <p>
+ * Rather than a full XPath, the path is restricted to a list of element names separated by {@code /}, e.g.
+ * {@code /envelope/document}. Paths beginning with {@code //} match at any depth (so {@code //document} matches every
+ * {@code document} element, wherever it is). Each step may be {@code *} to match any element. Steps without a prefix match on the
+ * element's local name regardless of its namespace; if a step has a prefix (e.g. {@code /svrl:schematron-output/svrl:failed-assert})
+ * then the prefix is resolved against the configured {@link #setNamespaceContext(KeyValuePairSet)} and the namespace must also
+ * match. If matching elements are nested within each other, then only the outermost is emitted (containing the inner matches).
+ * </p>
+ * <p>
+ * Namespace declarations from ancestors of the matching element are copied onto the root element of each split document, so that
+ * each split document is well-formed in its own right. DTDs and external entities are not processed.
+ * </p>
+ *
+ * @config stax-path-splitter
+ * @since 3.9.3
+ */
+@XStreamAlias("stax-path-splitter")
+@ComponentProfile(summary = "Split a (large) XML document using StAX and a simple element path", tag = "splitter,xml")
+@DisplayOrder(order = {"path", "encoding", "copyMetadata", "copyObjectMetadata", "namespaceContext"})
+public class StaxPathSplitter extends MessageSplitterImp {
+
+  private static final String ANY_DEPTH = "//";
+  private static final String WILDCARD = "*";
+
+  @NotBlank
+  private String path;
+  @AdvancedConfig
+  private String encoding;
+  @AdvancedConfig(rare = true)
+  private KeyValuePairSet namespaceContext;
+
+  public StaxPathSplitter() {
+  }
+
+  public StaxPathSplitter(String path) {
+    this();
+    setPath(path);
+  }
+
+  @Override
+  public com.adaptris.core.util.CloseableIterable<AdaptrisMessage> splitMessage(AdaptrisMessage msg) throws CoreException {
+    InputStream in = null;
+    try {
+      ElementPath elementPath = new ElementPath(Args.notBlank(getPath(), "path"),
+          SimpleNamespaceContext.create(getNamespaceContext(), msg));
+      in = msg.getInputStream();
+      return new StaxSplitGenerator(msg, in, createInputFactory().createXMLEventReader(in), elementPath);
+    }
+    catch (Exception e) {
+      IOUtils.closeQuietly(in);
+      throw ExceptionHelper.wrapCoreException(e);
+    }
+  }
+
+  public String getPath() {
+    return path;
+  }
+
+  /**
+   * Set the path to the elements that should become split messages.
+   *
+   * @param s the path, e.g. {@code /envelope/document} or {@code //document}.
+   */
+  public void setPath(String s) {
+    path = s;
+  }
+
+  public String getEncoding() {
+    return encoding;
+  }
+
+  /**
+   * Set the encoding for the split messages.
+   *
+   * @param s the encoding; if not specified then the original message's content encoding or UTF-8 is used (in that order).
+   */
+  public void setEncoding(String s) {
+    encoding = s;
+  }
+
+  public KeyValuePairSet getNamespaceContext() {
+    return namespaceContext;
+  }
+
+  /**
+   * Set the namespace context for resolving prefixes in the path.
+   * <ul>
+   * <li>The key is the namespace prefix</li>
+   * <li>The value is the namespace uri</li>
+   * </ul>
+   *
+   * @param kvps the namespace context
+   * @see SimpleNamespaceContext#create(KeyValuePairSet)
+   */
+  public void setNamespaceContext(KeyValuePairSet kvps) {
+    namespaceContext = kvps;
+  }
+
+  private static XMLInputFactory createInputFactory() {
+    XMLInputFactory factory = XMLInputFactory.newFactory();
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+    return factory;
+  }
+
+  /**
+   * The parsed form of the configured path.
+   */
+  private static class ElementPath {
+    private final List<QName> steps = new ArrayList<>();
+    private final boolean anyDepth;
+
+    ElementPath(String path, NamespaceContext ctx) throws CoreException {
+      String p = path.trim();
+      anyDepth = p.startsWith(ANY_DEPTH);
+      if (!p.startsWith("/")) {
+        throw new CoreException("[" + path + "] must start with / or //");
+      }
+      for (String step : p.substring(anyDepth ? 2 : 1).split("/")) {
+        if (isBlank(step)) {
+          throw new CoreException("[" + path + "] is not a supported path");
+        }
+        steps.add(toQName(path, step.trim(), ctx));
+      }
+    }
+
+    private static QName toQName(String path, String step, NamespaceContext ctx) throws CoreException {
+      int colon = step.indexOf(':');
+      if (colon < 0) {
+        return new QName(null, step);
+      }
+      String prefix = step.substring(0, colon);
+      String uri = ctx != null ? ctx.getNamespaceURI(prefix) : null;
+      if (isBlank(uri)) {
+        throw new CoreException("No namespace configured for prefix [" + prefix + "] in [" + path + "]");
+      }
+      return new QName(uri, step.substring(colon + 1), prefix);
+    }
+
+    /**
+     * @param ancestors the names of the currently open elements, outermost first.
+     * @param name the name of the element that has just started.
+     */
+    boolean matches(List<QName> ancestors, QName name) {
+      int depth = ancestors.size() + 1;
+      if (anyDepth ? depth < steps.size() : depth != steps.size()) {
+        return false;
+      }
+      int last = steps.size() - 1;
+      if (!matches(steps.get(last), name)) {
+        return false;
+      }
+      for (int i = last - 1, a = ancestors.size() - 1; i >= 0; i--, a--) {
+        if (!matches(steps.get(i), ancestors.get(a))) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private static boolean matches(QName step, QName name) {
+      if (WILDCARD.equals(step.getLocalPart())) {
+        return true;
+      }
+      return step.getLocalPart().equals(name.getLocalPart())
+          && (isBlank(step.getNamespaceURI()) || step.getNamespaceURI().equals(name.getNamespaceURI()));
+    }
+  }
+
+  private class StaxSplitGenerator extends SplitMessageIterator {
+    private final InputStream input;
+    private final XMLEventReader reader;
+    private final ElementPath elementPath;
+    private final String outputEncoding;
+    private final XMLOutputFactory outputFactory = XMLOutputFactory.newFactory();
+    private final XMLEventFactory eventFactory = XMLEventFactory.newFactory();
+    // The currently open elements, and the namespaces that each one declares.
+    private final List<QName> ancestors = new ArrayList<>();
+    private final List<List<Namespace>> declared = new ArrayList<>();
+    private int numberOfMessages;
+
+    StaxSplitGenerator(AdaptrisMessage msg, InputStream input, XMLEventReader reader, ElementPath path) {
+      super(msg, selectFactory(msg));
+      this.input = input;
+      this.reader = reader;
+      elementPath = path;
+      outputEncoding = XmlHelper.getXmlEncoding(msg, getEncoding());
+    }
+
+    @Override
+    protected AdaptrisMessage constructAdaptrisMessage() throws Exception {
+      while (reader.hasNext()) {
+        XMLEvent event = reader.nextEvent();
+        if (event.isStartElement()) {
+          StartElement start = event.asStartElement();
+          if (elementPath.matches(ancestors, start.getName())) {
+            return split(start);
+          }
+          ancestors.add(start.getName());
+          declared.add(namespaces(start));
+        }
+        else if (event.isEndElement() && !ancestors.isEmpty()) {
+          ancestors.remove(ancestors.size() - 1);
+          declared.remove(declared.size() - 1);
+        }
+      }
+      return null;
+    }
+
+    // Copy everything up to (and including) the matching end element into a new message.
+    private AdaptrisMessage split(StartElement start) throws IOException, XMLStreamException {
+      AdaptrisMessage splitMsg = factory.newMessage();
+      try (OutputStream out = splitMsg.getOutputStream()) {
+        XMLEventWriter writer = outputFactory.createXMLEventWriter(out, outputEncoding);
+        try {
+          writer.add(eventFactory.createStartDocument(outputEncoding, "1.0"));
+          writer.add(withInheritedNamespaces(start));
+          int depth = 1;
+          while (depth > 0) {
+            XMLEvent event = reader.nextEvent();
+            if (event.isStartElement()) {
+              depth++;
+            }
+            else if (event.isEndElement()) {
+              depth--;
+            }
+            writer.add(event);
+          }
+          writer.add(eventFactory.createEndDocument());
+          writer.flush();
+        }
+        finally {
+          writer.close();
+        }
+      }
+      splitMsg.setContentEncoding(outputEncoding);
+      copyMetadata(msg, splitMsg);
+      numberOfMessages++;
+      return splitMsg;
+    }
+
+    private StartElement withInheritedNamespaces(StartElement start) {
+      Map<String, Namespace> inScope = new LinkedHashMap<>();
+      for (List<Namespace> list : declared) {
+        for (Namespace ns : list) {
+          inScope.put(ns.getPrefix(), ns);
+        }
+      }
+      for (Namespace ns : namespaces(start)) {
+        inScope.put(ns.getPrefix(), ns);
+      }
+      QName name = start.getName();
+      return eventFactory.createStartElement(name.getPrefix(), name.getNamespaceURI(), name.getLocalPart(),
+          start.getAttributes(), inScope.values().iterator());
+    }
+
+    @Override
+    public void close() throws IOException {
+      logR.trace("Split gave {} messages", numberOfMessages);
+      try {
+        reader.close();
+      }
+      catch (XMLStreamException e) {
+        logR.trace("Ignoring exception closing reader", e);
+      }
+      input.close();
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<Namespace> namespaces(StartElement start) {
+    Iterator<Namespace> itr = start.getNamespaces();
+    if (!itr.hasNext()) {
+      return Collections.emptyList();
+    }
+    List<Namespace> result = new ArrayList<>();
+    while (itr.hasNext()) {
+      result.add(itr.next());
+    }
+    return result;
+  }
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core.transform;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.xml.transform.Templates;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
+
+import org.apache.commons.io.IOUtils;
+
+import com.adaptris.util.text.xml.XmlTransformerFactory;
+
+/**
+ * Cache of compiled stylesheets for {@link XmlTransformService}.
+ * <p>
+ * A {@link Templates} instance is thread-safe, a {@link Transformer} is not; so each stylesheet is compiled once, and each thread
+ * that uses it gets its own {@link Transformer}. The cache is bounded, the least recently used stylesheet is discarded when it is
+ * full. Stylesheets can optionally be checked for modification (via {@link URLConnection#getLastModified()}) and recompiled if
+ * they have changed; this check is done no more often than the configured interval.
+ * </p>
+ * <p>
+ * This class is not marshalled or configurable; it is available via {@link XmlTransformService#templatesCache()} so that the
+ * statistics for the cache can be monitored.
+ * </p>
+ *
+ * @since 3.9.3
+ */
+public class TemplatesCache {
+
+  private final int maxEntries;
+  private final long checkIntervalMs;
+  private final Map<String, CachedTemplates> cache;
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+  private final AtomicLong refreshes = new AtomicLong();
+
+  /**
+   * @param maxEntries the maximum number of stylesheets to cache.
+   * @param checkIntervalMs the minimum time (ms) between checks for modification.
+   */
+  TemplatesCache(int maxEntries, long checkIntervalMs) {
+    this.maxEntries = Math.max(1, maxEntries);
+    this.checkIntervalMs = checkIntervalMs;
+    cache = new LinkedHashMap<String, CachedTemplates>(16, 0.75f, true) {
+      private static final long serialVersionUID = 2019101801L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, CachedTemplates> eldest) {
+        if (size() > TemplatesCache.this.maxEntries) {
+          evictions.incrementAndGet();
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  /**
+   * Get a transformer for the current thread.
+   *
+   * @param url the url of the stylesheet.
+   * @param factory the factory used to compile the stylesheet if it isn't already cached.
+   * @param checkForChanges whether or not to check if the stylesheet has been modified since it was compiled.
+   * @return a transformer that is only ever used by the current thread.
+   */
+  Transformer transformer(String url, XmlTransformerFactory factory, boolean checkForChanges) throws Exception {
+    CachedTemplates entry = get(url);
+    if (entry != null && checkForChanges && entry.hasChanged()) {
+      refreshes.incrementAndGet();
+      remove(url, entry);
+      entry = null;
+    }
+    if (entry == null) {
+      misses.incrementAndGet();
+      // Compile outside the lock; if another thread gets there first, then we just use theirs.
+      entry = putIfAbsent(url, new CachedTemplates(url, factory.createTemplates(url), checkForChanges ? lastModified(url) : 0));
+    }
+    else {
+      hits.incrementAndGet();
+    }
+    return entry.transformer();
+  }
+
+  void clear() {
+    synchronized (cache) {
+      cache.clear();
+    }
+  }
+
+  /**
+   * @return the number of stylesheets currently cached.
+   */
+  public int size() {
+    synchronized (cache) {
+      return cache.size();
+    }
+  }
+
+  /**
+   * @return the number of times a cached stylesheet was used.
+   */
+  public long hits() {
+    return hits.get();
+  }
+
+  /**
+   * @return the number of times a stylesheet had to be compiled.
+   */
+  public long misses() {
+    return misses.get();
+  }
+
+  /**
+   * @return the number of stylesheets discarded because the cache was full.
+   */
+  public long evictions() {
+    return evictions.get();
+  }
+
+  /**
+   * @return the number of stylesheets discarded because they had been modified.
+   */
+  public long refreshes() {
+    return refreshes.get();
+  }
+
+  @Override
+  public String toString() {
+    return String.format("size=%d, hits=%d, misses=%d, evictions=%d, refreshes=%d", size(), hits(), misses(), evictions(),
+        refreshes());
+  }
+
+  private CachedTemplates get(String url) {
+    synchronized (cache) {
+      return cache.get(url);
+    }
+  }
+
+  private CachedTemplates putIfAbsent(String url, CachedTemplates entry) {
+    synchronized (cache) {
+      CachedTemplates existing = cache.get(url);
+      if (existing != null) {
+        return existing;
+      }
+      cache.put(url, entry);
+      return entry;
+    }
+  }
+
+  private void remove(String url, CachedTemplates entry) {
+    synchronized (cache) {
+      cache.remove(url, entry);
+    }
+  }
+
+  private static long lastModified(String url) {
+    try {
+      URLConnection conn = new URL(url).openConnection();
+      try {
+        if (conn instanceof HttpURLConnection) {
+          ((HttpURLConnection) conn).setRequestMethod("HEAD");
+        }
+        return conn.getLastModified();
+      }
+      finally {
+        release(conn);
+      }
+    }
+    catch (Exception e) {
+      // Not something we can check, so it never changes.
+      return 0;
+    }
+  }
+
+  private static void release(URLConnection conn) {
+    if (conn instanceof HttpURLConnection) {
+      ((HttpURLConnection) conn).disconnect();
+      return;
+    }
+    // file: and jar: connections hold the resource open once connected.
+    try {
+      IOUtils.closeQuietly(conn.getInputStream());
+    }
+    catch (IOException e) {
+      // ignored
+    }
+  }
+
+  private class CachedTemplates {
+    private final String url;
+    private final Templates templates;
+    private final long lastModified;
+    private final ThreadLocal<Transformer> transformers = new ThreadLocal<>();
+    private volatile long lastChecked;
+
+    CachedTemplates(String url, Templates templates, long lastModified) {
+      this.url = url;
+      this.templates = templates;
+      this.lastModified = lastModified;
+      lastChecked = System.currentTimeMillis();
+    }
+
+    Transformer transformer() throws TransformerConfigurationException {
+      Transformer t = transformers.get();
+      if (t == null) {
+        t = templates.newTransformer();
+        transformers.set(t);
+      }
+      return t;
+    }
+
+    boolean hasChanged() {
+      long now = System.currentTimeMillis();
+      if (lastModified <= 0 || now - lastChecked < checkIntervalMs) {
+        return false;
+      }
+      lastChecked = now;
+      long current = lastModified(url);
+      return current > 0 && current != lastModified;
+    }
+  }
+}
@@ -51,7 +51,7 @@ public class XmlBasicValidator extends MessageValidatorImpl {
   @Override
   public void validate(AdaptrisMessage msg) throws CoreException {
     try {
-      XmlHelper.createDocument(msg, documentFactoryBuilder());
+      XmlHelper.createReadOnlyDocument(msg, documentFactoryBuilder());
     }
     catch (Exception e) {
       ExceptionHelper.rethrowCoreException(e);
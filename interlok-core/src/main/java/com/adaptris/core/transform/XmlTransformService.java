@@ -20,14 +20,15 @@ import static org.apache.commons.lang3.StringUtils.isEmpty;
 
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import javax.xml.transform.Transformer;
 
 import org.apache.commons.lang3.BooleanUtils;
+import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.StringUtils;
 
 import com.adaptris.annotation.AdapterComponent;
@@ -41,6 +42,7 @@ import com.adaptris.core.CoreConstants;
 import com.adaptris.core.CoreException;
 import com.adaptris.core.ServiceException;
 import com.adaptris.core.ServiceImp;
+import com.adaptris.util.TimeInterval;
 import com.adaptris.util.text.xml.XmlTransformer;
 import com.adaptris.util.text.xml.XmlTransformerFactory;
 import com.adaptris.util.text.xml.XsltTransformerFactory;
@@ -57,6 +59,13 @@ import com.thoughtworks.xstream.annotations.XStreamAlias;
  * <p>
  * Configuration including allow over-ride behaviour matches previous implementation.
  * </p>
+ * <p>
+ * When caching is enabled, each stylesheet is compiled once into a {@link javax.xml.transform.Templates} which is shared across
+ * threads; each thread then has its own {@link Transformer}, so it is safe to use this service with a
+ * {@link com.adaptris.core.PoolingWorkflow}. The number of stylesheets that are cached is bounded (see
+ * {@link #setMaxCachedTransforms(Integer)}); if a URL can be overridden by metadata then the cached stylesheet is recompiled when it
+ * changes (see {@link #setCacheCheckInterval(TimeInterval)}).
+ * </p>
  * 
  * @config xml-transform-service
  * 
@@ -64,10 +73,13 @@ import com.thoughtworks.xstream.annotations.XStreamAlias;
 @XStreamAlias("xml-transform-service")
 @AdapterComponent
 @ComponentProfile(summary = "Execute an XSLT transform", tag = "service,transform,xml")
-@DisplayOrder(order = {"url", "outputMessageEncoding", "cacheTransforms", "allowOverride", "metadataKey", "transformParameter",
-    "xmlTransformerFactory"})
+@DisplayOrder(order = {"url", "outputMessageEncoding", "cacheTransforms", "maxCachedTransforms", "cacheCheckInterval",
+    "allowOverride", "metadataKey", "transformParameter", "xmlTransformerFactory"})
 public class XmlTransformService extends ServiceImp {
 
+  private static final int DEFAULT_MAX_CACHED_TRANSFORMS = 64;
+  private static final TimeInterval DEFAULT_CACHE_CHECK_INTERVAL = new TimeInterval(1L, TimeUnit.MINUTES);
+
   // marshalled
   private String url;
   @AdvancedConfig
@@ -77,6 +89,13 @@ public class XmlTransformService extends ServiceImp {
   @InputFieldDefault(value = "true")
   private Boolean cacheTransforms;
   @AdvancedConfig
+  @InputFieldDefault(value = "64")
+  private Integer maxCachedTransforms;
+  @AdvancedConfig
+  @InputFieldDefault(value = "1 minute")
+  @Valid
+  private TimeInterval cacheCheckInterval;
+  @AdvancedConfig
   @InputFieldDefault(value = "false")
   private Boolean allowOverride;
 
@@ -89,7 +108,7 @@ public class XmlTransformService extends ServiceImp {
   @Valid
   private XmlTransformParameter transformParameter;
 
-  private transient HashMap<String, Transformer> transforms = null;
+  private transient TemplatesCache transforms = null;
   // This is the override value which is set to true if url is null
   private transient Boolean overrideAllowOverride;
 
@@ -102,7 +121,6 @@ public class XmlTransformService extends ServiceImp {
   public XmlTransformService() {
     setMetadataKey(CoreConstants.TRANSFORM_OVERRIDE);
     xmlTransformerFactory = new XsltTransformerFactory();
-    transforms = new HashMap<String, Transformer>();
   }
 
   @Override
@@ -113,10 +131,15 @@ public class XmlTransformService extends ServiceImp {
     if (isEmpty(getUrl()) && isEmpty(getMetadataKey())) {
       throw new CoreException("metadata-key & url are both empty, cannot initialise");
     }
+    transforms = new TemplatesCache(maxCachedTransforms(), cacheCheckIntervalMs());
   }
 
   @Override
   protected void closeService() {
+    if (transforms != null) {
+      log.trace("Transform cache statistics : {}", transforms);
+      transforms.clear();
+    }
   }
 
   /**
@@ -168,7 +191,7 @@ public class XmlTransformService extends ServiceImp {
     try {
 
       if (cacheTransforms()) {
-        transformer = this.cacheAndGetTransformer(urlToUse, this.getXmlTransformerFactory());
+        transformer = transforms.transformer(urlToUse, getXmlTransformerFactory(), allowOverride());
       }
       else {
         transformer = this.getXmlTransformerFactory().createTransformer(urlToUse);
@@ -191,15 +214,6 @@ public class XmlTransformService extends ServiceImp {
     }
   }
 
-  private Transformer cacheAndGetTransformer(String urlToUse, XmlTransformerFactory xmlTransformerFactory) throws Exception {
-    if (this.transforms.containsKey(urlToUse)) return this.transforms.get(urlToUse);
-    else {
-      Transformer transformer = xmlTransformerFactory.createTransformer(urlToUse);
-      this.transforms.put(urlToUse, transformer);
-      return transformer;
-    }
-  }
-
   // properties...
 
   /**
@@ -282,6 +296,71 @@ public class XmlTransformService extends ServiceImp {
     return BooleanUtils.toBooleanDefaultIfNull(getCacheTransforms(), true);
   }
 
+  /**
+   * @return the maximum number of compiled stylesheets to cache.
+   * @since 3.9.3
+   */
+  public Integer getMaxCachedTransforms() {
+    return maxCachedTransforms;
+  }
+
+  /**
+   * Set the maximum number of compiled stylesheets to cache.
+   * <p>
+   * Only relevant if {@link #setCacheTransforms(Boolean)} is true; when the cache is full, the least recently used stylesheet is
+   * discarded.
+   * </p>
+   *
+   * @param i the maximum number of stylesheets, defaults to 64.
+   * @since 3.9.3
+   */
+  public void setMaxCachedTransforms(Integer i) {
+    maxCachedTransforms = i;
+  }
+
+  int maxCachedTransforms() {
+    return ObjectUtils.defaultIfNull(getMaxCachedTransforms(), DEFAULT_MAX_CACHED_TRANSFORMS);
+  }
+
+  /**
+   * @return how often a cached stylesheet is checked for modification.
+   * @since 3.9.3
+   */
+  public TimeInterval getCacheCheckInterval() {
+    return cacheCheckInterval;
+  }
+
+  /**
+   * Set how often a cached stylesheet should be checked for modification.
+   * <p>
+   * Only relevant if the URL can be overridden by metadata (i.e. {@link #setAllowOverride(Boolean)} is true, or there is no
+   * configured URL). When a stylesheet is used, and it hasn't been checked within this interval, then its last modified time is
+   * compared against the time when it was compiled; if it has changed it is recompiled. Stylesheets whose modification time is not
+   * available are never recompiled.
+   * </p>
+   *
+   * @param t the interval, defaults to 1 minute.
+   * @since 3.9.3
+   */
+  public void setCacheCheckInterval(TimeInterval t) {
+    cacheCheckInterval = t;
+  }
+
+  long cacheCheckIntervalMs() {
+    return TimeInterval.toMillisecondsDefaultIfNull(getCacheCheckInterval(), DEFAULT_CACHE_CHECK_INTERVAL);
+  }
+
+  /**
+   * Get the cache of compiled stylesheets, e.g. to monitor how effective it is.
+   *
+   * @return the cache, or null if this service has not been initialised; the statistics are reset each time the service is
+   *         initialised.
+   * @since 3.9.3
+   */
+  public TemplatesCache templatesCache() {
+    return transforms;
+  }
+
   /**
    * <p>
    * Returns true if a configured XSLT URL may be over-ridden by one stored against a metadata key.
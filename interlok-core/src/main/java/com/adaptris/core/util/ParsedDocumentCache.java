@@ -0,0 +1,101 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core.util;
+
+import static org.apache.commons.lang3.BooleanUtils.toBooleanDefaultIfNull;
+import static org.apache.commons.lang3.BooleanUtils.toBooleanObject;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.w3c.dom.Document;
+import org.xml.sax.SAXException;
+
+import com.adaptris.core.AdaptrisMessage;
+
+/**
+ * Holds the parsed payload of a message as object metadata so that consecutive read-only XML services do not need to parse the
+ * same payload again.
+ * <p>
+ * The document is stored against {@link #OBJECT_METADATA_KEY} along with the {@link DocumentBuilderFactoryBuilder} settings that
+ * were used to parse it, and the message that it was parsed from; it is only reused if the settings are the same and it is being
+ * asked for by the same message. Object metadata is often copied to other messages (e.g. by a splitter with
+ * {@code copy-object-metadata=true}), which will have a different payload; those messages ignore (and replace) the copied entry.
+ * {@link com.adaptris.core.AdaptrisMessageImp} discards it whenever the payload is written to, and it is never carried over to a
+ * cloned message. Since the same {@link Document} is returned to each caller, it must not be modified.
+ * </p>
+ *
+ * @see XmlHelper#createReadOnlyDocument(AdaptrisMessage, DocumentBuilderFactoryBuilder)
+ * @since 3.9.3
+ */
+public final class ParsedDocumentCache {
+
+  /**
+   * {@value #SYSPROP_SHARE_PARSED_DOCUMENT} controls whether read-only XML services share a parsed payload (defaults to true).
+   */
+  public static final String SYSPROP_SHARE_PARSED_DOCUMENT = "interlok.xml.shareParsedDocument";
+
+  /**
+   * The object metadata key against which the parsed document is stored.
+   */
+  public static final String OBJECT_METADATA_KEY = ParsedDocumentCache.class.getCanonicalName();
+
+  private static final boolean enabled = toBooleanDefaultIfNull(
+      toBooleanObject(System.getProperty(SYSPROP_SHARE_PARSED_DOCUMENT, "true")), true);
+
+  private final List<Object> settings;
+  private final Document document;
+  // Weak, so that a copy held by some other message doesn't keep the owner alive.
+  private final WeakReference<AdaptrisMessage> owner;
+
+  private ParsedDocumentCache(AdaptrisMessage msg, List<Object> settings, Document doc) {
+    this.settings = settings;
+    document = doc;
+    owner = new WeakReference<>(msg);
+  }
+
+  private boolean matches(AdaptrisMessage msg, List<Object> settings) {
+    return owner.get() == msg && this.settings.equals(settings);
+  }
+
+  static Document get(AdaptrisMessage msg, DocumentBuilderFactoryBuilder builder)
+      throws ParserConfigurationException, IOException, SAXException {
+    if (!enabled) {
+      return XmlHelper.createDocument(msg, builder);
+    }
+    List<Object> settings = settings(DocumentBuilderFactoryBuilder.newInstanceIfNull(builder));
+    Object cached = msg.getObjectHeaders().get(OBJECT_METADATA_KEY);
+    if (cached instanceof ParsedDocumentCache && ((ParsedDocumentCache) cached).matches(msg, settings)) {
+      return ((ParsedDocumentCache) cached).document;
+    }
+    Document doc = XmlHelper.createDocument(msg, builder);
+    msg.addObjectHeader(OBJECT_METADATA_KEY, new ParsedDocumentCache(msg, settings, doc));
+    return doc;
+  }
+
+  // Everything that could make the same payload parse differently.
+  private static List<Object> settings(DocumentBuilderFactoryBuilder b) {
+    return Arrays.asList(b.getFeatures() != null ? new HashSet<>(b.getFeatures()) : null, b.getValidating(),
+        b.getNamespaceAware(), b.getIgnoreWhitespace(), b.getExpandEntityReferences(), b.getIgnoreComments(), b.getCoalescing(),
+        b.getXincludeAware(), b.getEntityResolver());
+  }
+}
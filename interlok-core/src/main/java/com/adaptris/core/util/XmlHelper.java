@@ -177,6 +177,25 @@ public class XmlHelper {
     return createDocument(msg.getInputStream(), builder, false);
   }
 
+  /**
+   * Get a document from an AdaptrisMessage that is shared with other read-only users of the same message.
+   * <p>
+   * If the payload has already been parsed with the same settings (and has not been written to since), then that document is
+   * returned, otherwise the payload is parsed and the result is stored as object metadata for the next caller. The document must not
+   * be modified; use {@link #createDocument(AdaptrisMessage, DocumentBuilderFactoryBuilder)} if you need to change it.
+   * </p>
+   *
+   * @param msg the AdaptrisMessage
+   * @param builder configuration for the underlying {@link DocumentBuilderFactory} instance.
+   * @return the Document element
+   * @see ParsedDocumentCache
+   * @since 3.9.3
+   */
+  public static Document createReadOnlyDocument(AdaptrisMessage msg, DocumentBuilderFactoryBuilder builder)
+      throws ParserConfigurationException, IOException, SAXException {
+    return ParsedDocumentCache.get(msg, builder);
+  }
+
   /**
    * Create a document from an AdaptrisMessage.
    * @param msg the AdaptrisMessage
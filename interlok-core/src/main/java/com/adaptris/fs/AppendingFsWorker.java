@@ -40,4 +40,14 @@ public class AppendingFsWorker extends StandardWorker {
       throw wrapException(e);
     }
   }
+
+  @Override
+  public OutputStream openOutputStream(File file) throws FsException {
+    try {
+      return new FileOutputStream(file, true);
+    }
+    catch (Exception e) {
+      throw wrapException(e);
+    }
+  }
 }
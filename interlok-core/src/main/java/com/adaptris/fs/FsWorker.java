@@ -16,10 +16,18 @@
 
 package com.adaptris.fs;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileFilter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 
 import com.adaptris.core.util.Args;
+import com.adaptris.util.stream.StreamUtil;
 
 /**
  * <p>
@@ -87,6 +95,105 @@ public interface FsWorker {
    */
   void put(byte[] data, File file) throws FsException;
 
+  /**
+   * <p>
+   * Opens a stream to read the contents of the specified <code>File</code>. If the file doesn't exist or other I/O problems are
+   * encountered a <code>FsException</code> will be thrown.
+   * </p>
+   * <p>
+   * The default implementation simply wraps {@link #get(File)}; implementations should override this so that the contents of the
+   * file are not read into memory.
+   * </p>
+   *
+   * @param file the <code>File</code> to read
+   * @return an input stream, which the caller is responsible for closing.
+   * @throws FsException wrapping any underlying Exception that may occur
+   * @since 3.9.3
+   */
+  default InputStream openInputStream(File file) throws FsException {
+    return new ByteArrayInputStream(get(file));
+  }
+
+  /**
+   * <p>
+   * Opens a stream to write to the specified <code>file</code>, with the same semantics as {@link #put(byte[], File)}.
+   * </p>
+   * <p>
+   * The default implementation buffers the data in memory, and calls {@link #put(byte[], File)} when the stream is closed;
+   * implementations should override this so that the data is written directly to the file.
+   * </p>
+   *
+   * @param file the file to write to
+   * @return an output stream, which the caller is responsible for closing.
+   * @throws FsException wrapping any underlying Exception that may occur
+   * @since 3.9.3
+   */
+  default OutputStream openOutputStream(final File file) throws FsException {
+    return new ByteArrayOutputStream() {
+      private boolean closed = false;
+
+      @Override
+      public void close() throws IOException {
+        if (!closed) {
+          closed = true;
+          try {
+            put(toByteArray(), file);
+          }
+          catch (FsException e) {
+            throw new IOException(e);
+          }
+        }
+      }
+    };
+  }
+
+  /**
+   * <p>
+   * Writes the contents of <code>source</code> to the specified <code>file</code>, with the same semantics as
+   * {@link #put(byte[], File)}.
+   * </p>
+   * <p>
+   * If {@link #openOutputStream(File)} returns a file based stream, then the data is transferred using
+   * {@link java.nio.channels.FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}.
+   * </p>
+   *
+   * @param source the file containing the data to write
+   * @param file the file to write to
+   * @throws FsException wrapping any underlying Exception that may occur
+   * @since 3.9.3
+   */
+  default void put(File source, File file) throws FsException {
+    try (InputStream in = new FileInputStream(checkReadable(source)); OutputStream out = openOutputStream(file)) {
+      StreamUtil.transfer(in, out);
+    }
+    catch (IOException e) {
+      throw new FsException(e);
+    }
+  }
+
+  /**
+   * <p>
+   * Copies the contents of <code>file</code> into <code>target</code>, overwriting <code>target</code>.
+   * </p>
+   * <p>
+   * If {@link #openInputStream(File)} returns a file based stream, then the data is transferred using
+   * {@link java.nio.channels.FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}.
+   * </p>
+   *
+   * @param file the file to read.
+   * @param target the file to write the data to.
+   * @throws FsException wrapping any underlying Exception that may occur
+   * @since 3.9.3
+   */
+  default void get(File file, File target) throws FsException {
+    try (InputStream in = openInputStream(file); OutputStream out = new FileOutputStream(target)) {
+      StreamUtil.transfer(in, out);
+    }
+    catch (IOException e) {
+      throw new FsException(e);
+    }
+  }
+
   /**
    * <p>
    * Renames <code>oldfile</code> to <code>newName</code>. If <code>oldFile</code> does not exist or is a directory, or if
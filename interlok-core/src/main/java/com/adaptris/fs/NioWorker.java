@@ -20,6 +20,11 @@ import static com.adaptris.fs.FsWorker.checkNonExistent;
 import static com.adaptris.fs.FsWorker.checkWriteable;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
@@ -72,4 +77,91 @@ public class NioWorker extends StandardWorker {
     return buffer.array();
   }
 
+  /**
+   * Open a stream to read the file.
+   * <p>
+   * The stream holds a shared lock on the file until it is closed.
+   * </p>
+   */
+  @Override
+  public InputStream openInputStream(File file) throws FsException {
+    try {
+      return new LockedFileInputStream(checkWriteable(file));
+    }
+    catch (Exception e) {
+      throw wrapException(e);
+    }
+  }
+
+  /**
+   * Open a stream to write to the file.
+   * <p>
+   * The stream holds an exclusive lock on the file until it is closed.
+   * </p>
+   */
+  @Override
+  public OutputStream openOutputStream(File file) throws FsException {
+    try {
+      return new LockedFileOutputStream(checkNonExistent(file));
+    }
+    catch (Exception e) {
+      throw wrapException(e);
+    }
+  }
+
+  // Still a FileInputStream, so that StreamUtil#transfer() can use the channel.
+  private static class LockedFileInputStream extends FileInputStream {
+    private final FileLock lock;
+
+    LockedFileInputStream(File file) throws IOException {
+      super(file);
+      try {
+        lock = getChannel().lock(0L, Long.MAX_VALUE, true);
+      }
+      catch (IOException | RuntimeException e) {
+        super.close();
+        throw e;
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        if (lock.isValid()) {
+          lock.release();
+        }
+      }
+      finally {
+        super.close();
+      }
+    }
+  }
+
+  private static class LockedFileOutputStream extends FileOutputStream {
+    private final FileLock lock;
+
+    LockedFileOutputStream(File file) throws IOException {
+      super(file);
+      try {
+        lock = getChannel().lock();
+      }
+      catch (IOException | RuntimeException e) {
+        super.close();
+        throw e;
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        if (lock.isValid()) {
+          lock.release();
+        }
+      }
+      finally {
+        super.close();
+      }
+    }
+  }
+
 }
@@ -17,6 +17,7 @@
 package com.adaptris.fs;
 
 import java.io.File;
+import java.io.OutputStream;
 
 import com.adaptris.core.util.Args;
 import com.thoughtworks.xstream.annotations.XStreamAlias;
@@ -31,10 +32,19 @@ public class OverwriteIfExistsWorker extends NioWorker {
 
   @Override
   public void put(byte[] data, File file) throws FsException {
+    super.put(data, deleteIfExists(file));
+  }
+
+  @Override
+  public OutputStream openOutputStream(File file) throws FsException {
+    return super.openOutputStream(deleteIfExists(file));
+  }
+
+  private static File deleteIfExists(File file) throws FsException {
     Args.notNull(file,  "file");
     if (file.exists() && !file.delete()) {
       throw new FsException("Could not delete [" + file + "]");
     }
-    super.put(data, file);
+    return file;
   }
 }
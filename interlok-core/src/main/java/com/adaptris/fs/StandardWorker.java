@@ -20,6 +20,10 @@ import static com.adaptris.fs.FsWorker.checkNonExistent;
 import static com.adaptris.fs.FsWorker.checkWriteable;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.RandomAccessFile;
 
 import org.slf4j.Logger;
@@ -56,6 +60,26 @@ public class StandardWorker implements FsWorker {
     }
   }
 
+  @Override
+  public InputStream openInputStream(File file) throws FsException {
+    try {
+      return new FileInputStream(checkWriteable(file));
+    }
+    catch (Exception e) {
+      throw wrapException(e);
+    }
+  }
+
+  @Override
+  public OutputStream openOutputStream(File file) throws FsException {
+    try {
+      return new FileOutputStream(checkNonExistent(file));
+    }
+    catch (Exception e) {
+      throw wrapException(e);
+    }
+  }
+
   protected FsException wrapException(Exception e) {
     if (e instanceof FsException) {
       return (FsException) e;
@@ -22,11 +22,13 @@ import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Writer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 
 import org.apache.commons.io.IOUtils;
@@ -157,4 +159,40 @@ public abstract class StreamUtil {
       IOUtils.copy(autoCloseIn, autoCloseOut);
     }
   }
+
+  /**
+   * Copy from an InputStream to an OutputStream, using {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}
+   * if both streams are file streams.
+   * <p>
+   * If both streams are file based, then the operating system may be able to copy the data without it ever being copied into the
+   * heap; otherwise this is the same as {@link IOUtils#copyLarge(InputStream, OutputStream)}. Neither stream is closed.
+   * </p>
+   *
+   * @param input the input stream to read from
+   * @param output the output stream to write to
+   * @return the number of bytes copied.
+   * @throws IOException if there was an IO error
+   * @since 3.9.3
+   */
+  public static long transfer(InputStream input, OutputStream output) throws IOException {
+    if (input instanceof FileInputStream && output instanceof FileOutputStream) {
+      FileChannel src = ((FileInputStream) input).getChannel();
+      FileChannel dest = ((FileOutputStream) output).getChannel();
+      long start = src.position();
+      long size = src.size();
+      long position = start;
+      // transferTo() may transfer fewer bytes than requested (e.g. NFS), so keep going; and if it makes no progress
+      // at all, then just copy whatever is left the old fashioned way.
+      while (position < size) {
+        long count = src.transferTo(position, size - position, dest);
+        if (count <= 0) {
+          break;
+        }
+        position += count;
+      }
+      src.position(position);
+      return position - start + IOUtils.copyLarge(input, output);
+    }
+    return IOUtils.copyLarge(input, output);
+  }
 }
@@ -20,12 +20,15 @@ import static org.apache.commons.lang3.BooleanUtils.toBooleanDefaultIfNull;
 import static org.apache.commons.lang3.BooleanUtils.toBooleanObject;
 
 import javax.xml.namespace.NamespaceContext;
+import javax.xml.namespace.QName;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpression;
 import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFactory;
 
 import org.apache.commons.lang3.BooleanUtils;
+import org.apache.commons.lang3.math.NumberUtils;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
@@ -34,6 +37,11 @@ import com.adaptris.core.util.DocumentBuilderFactoryBuilder;
 
 /**
  * Wrapper around {@link javax.xml.xpath.XPath}/
+ * <p>
+ * Compiled expressions are cached and shared by all instances of this class (keyed by the expression, the
+ * {@link NamespaceContext} and the type of {@link XPathFactory}), so that services which create a new instance per message do not
+ * need to recompile the same expression each time; see {@link #SYSPROP_XPATH_CACHE_SIZE}.
+ * </p>
  * 
  * @author Stuart Ellidge
  * 
@@ -63,6 +71,21 @@ public class XPath {
   private static final boolean useSaxonXpath = toBooleanDefaultIfNull(
       toBooleanObject(System.getProperty(SYSPROP_USE_SAXON_XPATH, "true")), true);
 
+  /**
+   * {@value #SYSPROP_XPATH_CACHE_SIZE} controls the maximum number of distinct compiled expressions that are cached (defaults to
+   * 1024); set it to 0 to disable the cache.
+   * 
+   * @since 3.9.3
+   */
+  public static final String SYSPROP_XPATH_CACHE_SIZE = "interlok.xpath.cacheSize";
+
+  private static final int DEFAULT_XPATH_CACHE_SIZE = 1024;
+
+  private static final int xpathCacheSize = NumberUtils
+      .toInt(System.getProperty(SYSPROP_XPATH_CACHE_SIZE, String.valueOf(DEFAULT_XPATH_CACHE_SIZE)), DEFAULT_XPATH_CACHE_SIZE);
+
+  private static final XPathExpressionCache expressionCache = new XPathExpressionCache(xpathCacheSize);
+
   private static final String[] SAXON_XPATH_FACTORIES =
   {
       // Narrow down in terms of license... enterpise, then pro, then HE.
@@ -108,7 +131,7 @@ public class XPath {
    */
   public String selectSingleTextItem(Node context, String xpath)
       throws XPathExpressionException {
-    return (String) createXpath().evaluate(xpath, context, XPathConstants.STRING);
+    return (String) evaluate(xpath, context, XPathConstants.STRING);
   }
 
   /**
@@ -156,7 +179,7 @@ public class XPath {
    */
   public NodeList selectNodeList(Node context, String xpath)
       throws XPathExpressionException {
-    return (NodeList) createXpath().evaluate(xpath, context, XPathConstants.NODESET);
+    return (NodeList) evaluate(xpath, context, XPathConstants.NODESET);
   }
 
   /**
@@ -169,7 +192,27 @@ public class XPath {
    */
   public Node selectSingleNode(Node context, String xpath)
       throws XPathExpressionException {
-    return (Node) createXpath().evaluate(xpath, context, XPathConstants.NODE);
+    return (Node) evaluate(xpath, context, XPathConstants.NODE);
+  }
+
+  private Object evaluate(String expression, Node node, QName returnType) throws XPathExpressionException {
+    javax.xml.xpath.XPath xpath = createXpath();
+    // Custom resolvers (set on the factory) could resolve differently for the same expression, so they never use the cache.
+    if (xpathCacheSize <= 0 || xpath.getXPathFunctionResolver() != null || xpath.getXPathVariableResolver() != null) {
+      return xpath.evaluate(expression, node, returnType);
+    }
+    XPathExpressionCache.Key key = new XPathExpressionCache.Key(expression, context, xpathFactory.getClass());
+    XPathExpression compiled = expressionCache.borrow(key, xpath);
+    try {
+      return compiled.evaluate(node, returnType);
+    }
+    finally {
+      expressionCache.release(key, compiled);
+    }
+  }
+
+  static XPathExpressionCache expressionCache() {
+    return expressionCache;
   }
 
   /**
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.util.text.xml;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
+
+/**
+ * Bounded cache of compiled {@link XPathExpression} instances used by {@link XPath}.
+ * <p>
+ * The JAXP specification states that an {@link XPathExpression} is neither thread-safe nor reentrant; so rather than sharing a
+ * single compiled expression, each key holds a small pool of idle expressions. An expression is borrowed for the duration of an
+ * evaluation and then returned; if there is no idle expression then a new one is compiled. The number of keys is bounded and the
+ * least recently used key is discarded when it is full.
+ * </p>
+ *
+ * @since 3.9.3
+ */
+final class XPathExpressionCache {
+
+  private static final int MAX_IDLE_PER_KEY = 16;
+
+  private final int maxEntries;
+  private final Map<Key, BlockingQueue<XPathExpression>> cache;
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+
+  XPathExpressionCache(int maxEntries) {
+    this.maxEntries = Math.max(1, maxEntries);
+    cache = new LinkedHashMap<Key, BlockingQueue<XPathExpression>>(16, 0.75f, true) {
+      private static final long serialVersionUID = 2019101801L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Key, BlockingQueue<XPathExpression>> eldest) {
+        if (size() > XPathExpressionCache.this.maxEntries) {
+          evictions.incrementAndGet();
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  /**
+   * Borrow a compiled expression, compiling it if there isn't one available.
+   *
+   * @param key the key.
+   * @param xpath the xpath used to compile the expression; it should be configured with the key's namespace context.
+   * @return a compiled expression that must be given back via {@link #release(Key, XPathExpression)}.
+   */
+  XPathExpression borrow(Key key, javax.xml.xpath.XPath xpath) throws XPathExpressionException {
+    XPathExpression result = idle(key).poll();
+    if (result == null) {
+      misses.incrementAndGet();
+      result = xpath.compile(key.expression);
+    }
+    else {
+      hits.incrementAndGet();
+    }
+    return result;
+  }
+
+  void release(Key key, XPathExpression expr) {
+    BlockingQueue<XPathExpression> idle;
+    synchronized (cache) {
+      idle = cache.get(key);
+    }
+    // If the key has since been evicted, or there are already enough idle, then just discard it.
+    if (idle != null) {
+      idle.offer(expr);
+    }
+  }
+
+  private BlockingQueue<XPathExpression> idle(Key key) {
+    synchronized (cache) {
+      BlockingQueue<XPathExpression> result = cache.get(key);
+      if (result == null) {
+        result = new ArrayBlockingQueue<>(MAX_IDLE_PER_KEY);
+        cache.put(key, result);
+      }
+      return result;
+    }
+  }
+
+  void clear() {
+    synchronized (cache) {
+      cache.clear();
+    }
+  }
+
+  int size() {
+    synchronized (cache) {
+      return cache.size();
+    }
+  }
+
+  long hits() {
+    return hits.get();
+  }
+
+  long misses() {
+    return misses.get();
+  }
+
+  long evictions() {
+    return evictions.get();
+  }
+
+  /**
+   * The expression is only the same if the namespace context and the type of {@link javax.xml.xpath.XPathFactory} are the same.
+   */
+  static final class Key {
+    private final String expression;
+    private final NamespaceContext namespaceContext;
+    private final Class<?> factoryType;
+    private final int hashCode;
+
+    Key(String expression, NamespaceContext ctx, Class<?> factoryType) {
+      this.expression = expression;
+      this.namespaceContext = ctx;
+      this.factoryType = factoryType;
+      hashCode = Objects.hash(expression, ctx, factoryType);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (o == this) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) o;
+      return expression.equals(other.expression) && factoryType == other.factoryType
+          && Objects.equals(namespaceContext, other.namespaceContext);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+}
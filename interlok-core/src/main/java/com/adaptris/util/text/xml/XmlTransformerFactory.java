@@ -16,7 +16,11 @@
 
 package com.adaptris.util.text.xml;
 
+import java.util.Properties;
+
+import javax.xml.transform.Templates;
 import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
 
 import org.xml.sax.EntityResolver;
 
@@ -27,4 +31,42 @@ public interface XmlTransformerFactory {
   Transformer createTransformer(String transformUrl, EntityResolver entityResolver) throws Exception;
   
   XmlTransformer configure(XmlTransformer xmlTransformer) throws Exception;
+
+  /**
+   * Create a compiled, thread-safe representation of the transform.
+   * <p>
+   * The default implementation does not compile anything; each call to {@link Templates#newTransformer()} simply delegates to
+   * {@link #createTransformer(String)}. Implementations that can compile the stylesheet once should override this.
+   * </p>
+   *
+   * @param transformUrl the url of the transform.
+   * @return a {@link Templates} instance that can be shared between threads.
+   * @since 3.9.3
+   */
+  default Templates createTemplates(String transformUrl) throws Exception {
+    return new Templates() {
+      @Override
+      public Transformer newTransformer() throws TransformerConfigurationException {
+        try {
+          return createTransformer(transformUrl);
+        }
+        catch (TransformerConfigurationException e) {
+          throw e;
+        }
+        catch (Exception e) {
+          throw new TransformerConfigurationException(e);
+        }
+      }
+
+      @Override
+      public Properties getOutputProperties() {
+        try {
+          return newTransformer().getOutputProperties();
+        }
+        catch (TransformerConfigurationException e) {
+          return new Properties();
+        }
+      }
+    };
+  }
 }
@@ -38,6 +38,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -342,6 +343,83 @@ public abstract class AdaptrisMessageCase {
     assertEquals("1", msg1.getMetadataValue(CoreConstants.MLE_SEQUENCE_KEY));
   }
 
+  @Test
+  public void testAddMessageEvent_SequenceNumber() throws Exception {
+    AdaptrisMessage msg1 = createMessage();
+    msg1.addEvent(new StandaloneProducer(), true);
+    msg1.addEvent(new StandaloneProducer(), false);
+    assertEquals("2", msg1.getMetadataValue(CoreConstants.MLE_SEQUENCE_KEY));
+    msg1.addEvent(new StandaloneProducer(), true);
+    assertEquals("3", msg1.getMetadataValue(CoreConstants.MLE_SEQUENCE_KEY));
+    List<MleMarker> markers = msg1.getMessageLifecycleEvent().getMleMarkers();
+    assertEquals(3, markers.size());
+    for (int i = 0; i < markers.size(); i++) {
+      assertEquals(i + 1, markers.get(i).getSequenceNumber());
+    }
+    assertFalse(markers.get(1).getWasSuccessful());
+    msg1.removeMessageHeader(CoreConstants.MLE_SEQUENCE_KEY);
+    msg1.addEvent(new StandaloneProducer(), true);
+    assertEquals("0", msg1.getMetadataValue(CoreConstants.MLE_SEQUENCE_KEY));
+    msg1.addMetadata(CoreConstants.MLE_SEQUENCE_KEY, "10");
+    msg1.addEvent(new StandaloneProducer(), true);
+    assertEquals(11, msg1.getMessageLifecycleEvent().getMleMarkers().get(4).getSequenceNumber());
+    assertEquals("11", msg1.getMetadataValue(CoreConstants.MLE_SEQUENCE_KEY));
+  }
+
+  @Test
+  public void testAddMessageEvent_ExistingSequenceNumber() throws Exception {
+    AdaptrisMessage msg1 = createMessage();
+    msg1.addMetadata(CoreConstants.MLE_SEQUENCE_KEY, "5");
+    msg1.addEvent(new StandaloneProducer(), true);
+    msg1.addEvent(new StandaloneProducer(), true);
+    assertEquals("8", msg1.getMessageHeaders().get(CoreConstants.MLE_SEQUENCE_KEY));
+    assertEquals(7, msg1.getMessageLifecycleEvent().getMleMarkers().get(0).getSequenceNumber());
+  }
+
+  @Test
+  public void testAddMessageEvent_Lazy() throws Exception {
+    AdaptrisMessage msg1 = createMessage();
+    CountingEventGenerator meg = new CountingEventGenerator();
+    meg.qualifier = "first";
+    msg1.addEvent(meg, true);
+    meg.qualifier = "second";
+    msg1.addEvent(meg, true);
+    meg.qualifier = "third";
+    // The name + qualifier are recorded when the event is added, not when the marker is eventually created.
+    assertEquals(2, meg.count);
+    MessageLifecycleEvent event = msg1.getMessageLifecycleEvent();
+    assertEquals(2, meg.count);
+    assertEquals(2, event.getMleMarkers().size());
+    assertEquals(CountingEventGenerator.class.getName(), event.getMleMarkers().get(0).getName());
+    assertEquals("first", event.getMleMarkers().get(0).getQualifier());
+    assertEquals("second", event.getMleMarkers().get(1).getQualifier());
+    assertEquals(2, msg1.getMessageLifecycleEvent().getMleMarkers().size());
+    assertEquals(2, meg.count);
+  }
+
+  @Test
+  public void testAddMessageEvent_NullGenerator() throws Exception {
+    AdaptrisMessage msg1 = createMessage();
+    msg1.addEvent(null, true);
+    assertEquals("Unknown Event", msg1.getMessageLifecycleEvent().getMleMarkers().get(0).getName());
+  }
+
+  @Test
+  public void testCloneMessage_PendingEvents() throws Exception {
+    AdaptrisMessage msg1 = createMessage();
+    msg1.addEvent(new StandaloneProducer(), true);
+    msg1.addEvent(new StandaloneProducer(), true);
+    AdaptrisMessage msg2 = (AdaptrisMessage) msg1.clone();
+    msg2.addEvent(new StandaloneProducer(), true);
+    assertEquals(2, msg1.getMessageLifecycleEvent().getMleMarkers().size());
+    assertEquals("2", msg1.getMetadataValue(CoreConstants.MLE_SEQUENCE_KEY));
+    assertEquals(3, msg2.getMessageLifecycleEvent().getMleMarkers().size());
+    assertEquals("3", msg2.getMetadataValue(CoreConstants.MLE_SEQUENCE_KEY));
+    msg1.addEvent(new StandaloneProducer(), true);
+    assertEquals(3, msg1.getMessageLifecycleEvent().getMleMarkers().size());
+    assertEquals(3, msg2.getMessageLifecycleEvent().getMleMarkers().size());
+  }
+
   @Test
   public void testObjectMetadata() throws Exception {
     AdaptrisMessage msg1 = createMessage();
@@ -638,4 +716,25 @@ public abstract class AdaptrisMessageCase {
     msg.setMessageHeaders(hdrs);
     assertEquals(3, msg.getMessageHeaders().size());
   }
+
+  private static class CountingEventGenerator implements MessageEventGenerator {
+    private int count;
+    private String qualifier = "";
+
+    @Override
+    public String createName() {
+      count++;
+      return getClass().getName();
+    }
+
+    @Override
+    public String createQualifier() {
+      return qualifier;
+    }
+
+    @Override
+    public boolean isTrackingEndpoint() {
+      return false;
+    }
+  }
 }
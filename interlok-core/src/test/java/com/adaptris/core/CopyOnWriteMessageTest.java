@@ -0,0 +1,136 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Field;
+
+import org.junit.Test;
+
+public class CopyOnWriteMessageTest extends AdaptrisMessageCase {
+
+  private DefaultMessageFactory msgFactory;
+
+  public CopyOnWriteMessageTest() {
+    msgFactory = new DefaultMessageFactory();
+    msgFactory.setCopyOnWriteClone(true);
+  }
+
+  @Override
+  protected AdaptrisMessageFactory getMessageFactory() {
+    return msgFactory;
+  }
+
+  @Test
+  public void testClone_ModifyMetadata() throws Exception {
+    AdaptrisMessage msg1 = msgFactory.newMessage(PAYLOAD);
+    msg1.addMetadata(KEY1, VAL1);
+    AdaptrisMessage msg2 = (AdaptrisMessage) msg1.clone();
+    assertEquals(VAL1, msg2.getMetadataValue(KEY1));
+
+    msg2.addMetadata(KEY1, VAL2);
+    msg2.addMetadata(KEY2, VAL2);
+    assertEquals(VAL1, msg1.getMetadataValue(KEY1));
+    assertFalse(msg1.headersContainsKey(KEY2));
+
+    msg1.removeMessageHeader(KEY1);
+    assertEquals(VAL2, msg2.getMetadataValue(KEY1));
+    msg1.clearMetadata();
+    assertEquals(2, msg2.getMetadata().size());
+  }
+
+  @Test
+  public void testClone_ModifyObjectHeaders() throws Exception {
+    AdaptrisMessage msg1 = msgFactory.newMessage(PAYLOAD);
+    msg1.addObjectHeader(KEY1, VAL1);
+    AdaptrisMessage msg2 = (AdaptrisMessage) msg1.clone();
+    assertEquals(VAL1, msg2.getObjectHeaders().get(KEY1));
+    msg2.getObjectHeaders().put(KEY2, VAL2);
+    msg2.addObjectHeader(KEY1, VAL2);
+    assertEquals(VAL1, msg1.getObjectHeaders().get(KEY1));
+    assertNull(msg1.getObjectHeaders().get(KEY2));
+  }
+
+  @Test
+  public void testClone_ModifyLifecycle() throws Exception {
+    AdaptrisMessage msg1 = msgFactory.newMessage(PAYLOAD);
+    msg1.addEvent(new StandaloneProducer(), true);
+    AdaptrisMessage msg2 = (AdaptrisMessage) msg1.clone();
+    msg2.addEvent(new StandaloneProducer(), true);
+    assertEquals(1, msg1.getMessageLifecycleEvent().getMleMarkers().size());
+    assertEquals(2, msg2.getMessageLifecycleEvent().getMleMarkers().size());
+    assertNotSame(msg1.getMessageLifecycleEvent(), msg2.getMessageLifecycleEvent());
+  }
+
+  @Test
+  public void testClone_AddEvent_MetadataStillShared() throws Exception {
+    AdaptrisMessage msg1 = msgFactory.newMessage(PAYLOAD);
+    msg1.addMetadata(KEY1, VAL1);
+    AdaptrisMessage msg2 = (AdaptrisMessage) msg1.clone();
+    msg2.addEvent(new StandaloneProducer(), true);
+    msg2.addEvent(new StandaloneProducer(), true);
+    assertEquals("2", msg2.getMetadataValue(CoreConstants.MLE_SEQUENCE_KEY));
+    assertEquals("2", msg2.getMetadataValueIgnoreKeyCase(CoreConstants.MLE_SEQUENCE_KEY.toUpperCase()));
+    assertEquals("2", msg2.getMessageHeaders().get(CoreConstants.MLE_SEQUENCE_KEY));
+    assertTrue(msg2.headersContainsKey(CoreConstants.MLE_SEQUENCE_KEY));
+    assertFalse(msg1.headersContainsKey(CoreConstants.MLE_SEQUENCE_KEY));
+    // Reading the sequence number shouldn't have taken a private copy of the metadata.
+    assertSame(metadata(msg1), metadata(msg2));
+
+    msg2.addMetadata(KEY2, VAL2);
+    assertNotSame(metadata(msg1), metadata(msg2));
+    assertEquals("2", msg2.getMetadataValue(CoreConstants.MLE_SEQUENCE_KEY));
+    assertFalse(msg1.headersContainsKey(CoreConstants.MLE_SEQUENCE_KEY));
+    assertFalse(msg1.headersContainsKey(KEY2));
+  }
+
+  @Test
+  public void testClone_ModifyPayload() throws Exception {
+    AdaptrisMessage msg1 = msgFactory.newMessage(PAYLOAD);
+    AdaptrisMessage msg2 = (AdaptrisMessage) msg1.clone();
+    msg2.setContent(PAYLOAD2, null);
+    assertEquals(PAYLOAD, msg1.getContent());
+    assertEquals(PAYLOAD2, msg2.getContent());
+    msg1.setPayload(new byte[0]);
+    assertEquals(PAYLOAD2, msg2.getContent());
+  }
+
+  @Test
+  public void testClone_MetadataElementsNotShared() throws Exception {
+    AdaptrisMessage msg1 = msgFactory.newMessage(PAYLOAD);
+    msg1.addMetadata(KEY1, VAL1);
+    AdaptrisMessage msg2 = (AdaptrisMessage) msg1.clone();
+    for (MetadataElement e : msg2.getMetadata()) {
+      e.setValue(VAL2);
+    }
+    assertEquals(VAL2, msg2.getMetadataValue(KEY1));
+    assertEquals(VAL1, msg1.getMetadataValue(KEY1));
+    assertTrue(msg1.headersContainsKey(KEY1));
+  }
+
+  private static Object metadata(AdaptrisMessage msg) throws Exception {
+    Field f = AdaptrisMessageImp.class.getDeclaredField("metadata");
+    f.setAccessible(true);
+    return f.get(msg);
+  }
+}
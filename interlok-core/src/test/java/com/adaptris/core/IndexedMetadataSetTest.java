@@ -0,0 +1,127 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+import org.junit.Test;
+
+public class IndexedMetadataSetTest {
+
+  @Test
+  public void testAdd() {
+    IndexedMetadataSet set = new IndexedMetadataSet();
+    assertTrue(set.add(new MetadataElement("key", "value")));
+    assertFalse(set.add(new MetadataElement("key", "anotherValue")));
+    assertEquals(1, set.size());
+    assertEquals("value", set.getValue("key"));
+  }
+
+  @Test
+  public void testConstructor_Collection() {
+    IndexedMetadataSet set = new IndexedMetadataSet(
+        Arrays.asList(new MetadataElement("key1", "value1"), new MetadataElement("key2", "value2")));
+    assertEquals(2, set.size());
+    assertTrue(set.containsKey("key1"));
+    assertTrue(set.contains(new MetadataElement("key2", "")));
+  }
+
+  @Test
+  public void testContains() {
+    IndexedMetadataSet set = new IndexedMetadataSet();
+    set.add(new MetadataElement("key", "value"));
+    assertTrue(set.contains(new MetadataElement("key", "")));
+    assertFalse(set.contains("key"));
+    assertFalse(set.contains(null));
+    assertTrue(set.containsKey("key"));
+    assertFalse(set.containsKey("KEY"));
+    assertFalse(set.containsKey(null));
+  }
+
+  @Test
+  public void testGetValue() {
+    IndexedMetadataSet set = new IndexedMetadataSet();
+    set.add(new MetadataElement("key", "value"));
+    assertEquals("value", set.getValue("key"));
+    assertNull(set.getValue("KEY"));
+    assertNull(set.getValue(null));
+  }
+
+  @Test
+  public void testGetValueIgnoreKeyCase() {
+    IndexedMetadataSet set = new IndexedMetadataSet();
+    set.add(new MetadataElement("key", "value"));
+    assertEquals("value", set.getValueIgnoreKeyCase("KEY"));
+    // Added after the index was built.
+    set.add(new MetadataElement("AnotherKey", "anotherValue"));
+    assertEquals("anotherValue", set.getValueIgnoreKeyCase("anotherkey"));
+    assertNull(set.getValueIgnoreKeyCase("blah"));
+    assertNull(set.getValueIgnoreKeyCase(null));
+  }
+
+  @Test
+  public void testGetValueIgnoreKeyCase_AfterRemove() {
+    IndexedMetadataSet set = new IndexedMetadataSet();
+    set.add(new MetadataElement("key", "value"));
+    assertEquals("value", set.getValueIgnoreKeyCase("KEY"));
+    set.add(new MetadataElement("KEY", "VALUE"));
+    assertTrue(set.remove(new MetadataElement("key", "")));
+    assertEquals("VALUE", set.getValueIgnoreKeyCase("Key"));
+    assertTrue(set.remove(new MetadataElement("KEY", "")));
+    assertNull(set.getValueIgnoreKeyCase("Key"));
+  }
+
+  @Test
+  public void testIterator_Remove() {
+    IndexedMetadataSet set = new IndexedMetadataSet();
+    set.add(new MetadataElement("key", "value"));
+    assertEquals("value", set.getValueIgnoreKeyCase("KEY"));
+    for (Iterator<MetadataElement> i = set.iterator(); i.hasNext();) {
+      i.next();
+      i.remove();
+    }
+    assertTrue(set.isEmpty());
+    assertNull(set.getValue("key"));
+    assertNull(set.getValueIgnoreKeyCase("KEY"));
+  }
+
+  @Test
+  public void testClear() {
+    IndexedMetadataSet set = new IndexedMetadataSet();
+    set.add(new MetadataElement("key", "value"));
+    assertEquals("value", set.getValueIgnoreKeyCase("KEY"));
+    set.clear();
+    assertEquals(0, set.size());
+    assertNull(set.getValueIgnoreKeyCase("KEY"));
+  }
+
+  @Test
+  public void testSetValue_IsVisible() {
+    IndexedMetadataSet set = new IndexedMetadataSet();
+    MetadataElement e = new MetadataElement("key", "value");
+    set.add(e);
+    e.setValue("newValue");
+    assertEquals("newValue", set.getValue("key"));
+    assertEquals("newValue", set.getValueIgnoreKeyCase("KEY"));
+  }
+}
@@ -18,16 +18,21 @@ package com.adaptris.core;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Test;
 
 import com.adaptris.util.GuidGenerator;
+import com.adaptris.util.IdGenerator;
+import com.adaptris.util.TimeOrderedIdGenerator;
 
 public class MessageLifecycleEventTest {
 
@@ -206,4 +211,74 @@ public class MessageLifecycleEventTest {
     assertTrue(m1.equals(new MleMarker(MLEMARKER_NAME, true, 0, new GuidGenerator().create(new Object()))));
     assertEquals(m1.hashCode(), new MleMarker(MLEMARKER_NAME, true, 0, new GuidGenerator().create(new Object())).hashCode());
   }
+
+  @Test
+  public void testLazyUniqueId() throws Exception {
+    CountingIdGenerator idGenerator = new CountingIdGenerator();
+    AdaptrisMessageFactory factory = new DefaultMessageFactory();
+    factory.setUniqueIdGenerator(idGenerator);
+    AdaptrisMessage msg = factory.newMessage();
+    // Only the message id.
+    assertEquals(1, idGenerator.count.get());
+    msg.addEvent(new NullService(), true);
+    assertEquals(1, idGenerator.count.get());
+    MessageLifecycleEvent mle = msg.getMessageLifecycleEvent();
+    String id = mle.getUniqueId();
+    assertNotNull(id);
+    assertEquals(id, mle.getUniqueId());
+    assertEquals(2, idGenerator.count.get());
+    String markerId = mle.getMleMarkers().get(0).getUniqueId();
+    assertNotNull(markerId);
+    assertEquals(markerId, mle.getMleMarkers().get(0).getUniqueId());
+    assertEquals(3, idGenerator.count.get());
+  }
+
+  @Test
+  public void testLazyUniqueId_CreatedFromEventGenerator() throws Exception {
+    CountingIdGenerator idGenerator = new CountingIdGenerator();
+    AdaptrisMessageFactory factory = new DefaultMessageFactory();
+    factory.setUniqueIdGenerator(idGenerator);
+    AdaptrisMessage msg = factory.newMessage();
+    NullService service = new NullService();
+    msg.addEvent(service, true);
+    msg.getMessageLifecycleEvent().getMleMarkers().get(0).getUniqueId();
+    assertSame(service, idGenerator.lastSource);
+  }
+
+  @Test
+  public void testLazyUniqueId_Clone() throws Exception {
+    AdaptrisMessageFactory factory = new DefaultMessageFactory();
+    factory.setUniqueIdGenerator(new TimeOrderedIdGenerator());
+    AdaptrisMessage msg = factory.newMessage();
+    msg.addEvent(new NullService(), true);
+    AdaptrisMessage cloned = (AdaptrisMessage) msg.clone();
+    MessageLifecycleEvent mle = msg.getMessageLifecycleEvent();
+    MessageLifecycleEvent clonedMle = cloned.getMessageLifecycleEvent();
+    assertNotNull(mle.getUniqueId());
+    assertEquals(mle.getUniqueId(), clonedMle.getUniqueId());
+    assertEquals(mle.getMleMarkers().get(0).getUniqueId(), clonedMle.getMleMarkers().get(0).getUniqueId());
+  }
+
+  @Test
+  public void testLazyUniqueId_Marshal() throws Exception {
+    MessageLifecycleEvent mle = new MessageLifecycleEvent();
+    mle.setUniqueIdLazily(new TimeOrderedIdGenerator());
+    mle.addMleMarker(new MleMarker(new NullService(), true, 0, new TimeOrderedIdGenerator()));
+    MessageLifecycleEvent roundTrip = DefaultMarshaller.roundTrip(mle);
+    assertNotNull(roundTrip.getUniqueId());
+    assertEquals(mle.getUniqueId(), roundTrip.getUniqueId());
+    assertNotNull(roundTrip.getMleMarkers().get(0).getUniqueId());
+    assertEquals(mle.getMleMarkers().get(0).getUniqueId(), roundTrip.getMleMarkers().get(0).getUniqueId());
+  }
+
+  private static class CountingIdGenerator implements IdGenerator {
+    private final AtomicInteger count = new AtomicInteger();
+    private Object lastSource;
+
+    @Override
+    public String create(Object msg) {
+      lastSource = msg;
+      return "id-" + count.incrementAndGet();
+    }
+  }
 }
@@ -342,6 +342,44 @@ public class PoolingWorkflowTest extends ExampleWorkflowCase {
     }
   }
 
+  public void testSetProducerPerWorker() throws Exception {
+    PoolingWorkflow workflow = new PoolingWorkflow();
+    assertNull(workflow.getProducerPerWorker());
+    assertFalse(workflow.producerPerWorker());
+    workflow.setProducerPerWorker(Boolean.TRUE);
+    assertEquals(Boolean.TRUE, workflow.getProducerPerWorker());
+    assertTrue(workflow.producerPerWorker());
+    workflow.setProducerPerWorker(null);
+    assertFalse(workflow.producerPerWorker());
+  }
+
+  public void testProducerPerWorker() throws Exception {
+    MockChannel channel = new MockChannel();
+    PoolingWorkflow wf = new PoolingWorkflow();
+    StaticMockMessageProducer prod = new StaticMockMessageProducer();
+    prod.getMessages().clear();
+    wf.getServiceCollection().addAll(Arrays.asList(new Service[]
+    {
+        createService(), createService()
+    }));
+    wf.setConsumer(new MockMessageConsumer());
+    wf.setProducer(prod);
+    wf.setProducerPerWorker(true);
+    channel.getWorkflowList().add(wf);
+    channel.prepare();
+    int count = wf.poolSize() * 2;
+    try {
+      start(channel);
+      submitMessages(wf, count);
+      waitForMessages(prod, count);
+      assertEquals(count, prod.messageCount());
+    }
+    finally {
+      stop(channel);
+      prod.getMessages().clear();
+    }
+  }
+
   public void testHandleServiceException() throws Exception {
     MockChannel channel = createChannel();
     PoolingWorkflow wf = (PoolingWorkflow) channel.getWorkflowList().get(0);
@@ -170,6 +170,37 @@ public class FsMessageConsumerTest extends FsConsumerCase {
     }
   }
 
+  public void testConsumeWithMaxFilesPerPoll() throws Exception {
+    String subDir = new GuidGenerator().safeUUID();
+    MockMessageListener stub = new MockMessageListener(10);
+    FsConsumer fs = createConsumer(subDir);
+    fs.setFileSorter(new AlphabeticAscending());
+    fs.setMaxFilesPerPoll(3);
+    fs.setPoller(new FixedIntervalPoller(new TimeInterval(300L, TimeUnit.MILLISECONDS)));
+    StandaloneConsumer sc = new StandaloneConsumer(fs);
+    sc.registerAdaptrisMessageListener(stub);
+    int count = 10;
+    File parentDir = FsHelper.createFileReference(FsHelper.createUrlFromString(PROPERTIES.getProperty(BASE_KEY), true));
+    try {
+      File baseDir = new File(parentDir, subDir);
+      LifecycleHelper.init(sc);
+      createFiles(baseDir, ".xml", count);
+      LifecycleHelper.start(sc);
+      waitForMessages(stub, count);
+      assertMessages(stub.getMessages(), count, baseDir.listFiles((FilenameFilter) new Perl5FilenameFilter(".*\\.xml")));
+      // Each poll takes the 3 files that sort first, so overall the files are still processed in order.
+      for (int i = 1; i < count; i++) {
+        String previous = stub.getMessages().get(i - 1).getMetadataValue(CoreConstants.ORIGINAL_NAME_KEY);
+        String current = stub.getMessages().get(i).getMetadataValue(CoreConstants.ORIGINAL_NAME_KEY);
+        assertTrue(previous.compareTo(current) < 0);
+      }
+    }
+    finally {
+      stop(sc);
+      FileUtils.deleteQuietly(new File(parentDir, subDir));
+    }
+  }
+
   public void testConsumeWithLastModifiedSort() throws Exception {
     String subDir = new GuidGenerator().safeUUID();
     MockMessageListener stub = new MockMessageListener(10);
@@ -30,10 +30,14 @@ import com.adaptris.core.EmptyFileNameCreator;
 import com.adaptris.core.FileNameCreator;
 import com.adaptris.core.FormattedFilenameCreator;
 import com.adaptris.core.MetadataFileNameCreator;
+import com.adaptris.core.MimeEncoder;
 import com.adaptris.core.ProduceDestination;
 import com.adaptris.core.ProduceException;
 import com.adaptris.core.ServiceCase;
 import com.adaptris.core.StandaloneProducer;
+import com.adaptris.core.lms.FileBackedMessageFactory;
+import com.adaptris.core.stubs.DefectiveMessageFactory;
+import com.adaptris.core.stubs.DefectiveMessageFactory.WhenToBreak;
 import com.adaptris.fs.AppendingFsWorker;
 import com.adaptris.fs.FsWorker;
 import com.adaptris.fs.NioWorker;
@@ -260,6 +264,44 @@ public class FsMessageProducerTest extends FsProducerExample {
     }
   }
 
+  public void testProduce_FileBackedMessage() throws Exception {
+    String subdir = new GuidGenerator().safeUUID();
+    File parentDir = FsHelper.createFileReference(FsHelper.createUrlFromString(PROPERTIES.getProperty(BASE_KEY), true));
+    try {
+      File dir = new File(parentDir, subdir);
+      StandaloneProducer sp = new StandaloneProducer(createProducer(subdir));
+      AdaptrisMessage msg = new FileBackedMessageFactory().newMessage(TEXT);
+      ServiceCase.execute(sp, msg);
+      assertEquals(1, dir.listFiles().length);
+      assertEquals(TEXT, FileUtils.readFileToString(dir.listFiles()[0]));
+    }
+    finally {
+      FileUtils.deleteQuietly(new File(parentDir, subdir));
+    }
+  }
+
+  public void testProduce_WithEncoder() throws Exception {
+    String subdir = new GuidGenerator().safeUUID();
+    File parentDir = FsHelper.createFileReference(FsHelper.createUrlFromString(PROPERTIES.getProperty(BASE_KEY), true));
+    try {
+      File dir = new File(parentDir, subdir);
+      FsProducer producer = createProducer(subdir);
+      producer.setEncoder(new MimeEncoder());
+      StandaloneProducer sp = new StandaloneProducer(producer);
+      AdaptrisMessage msg = new DefaultMessageFactory().newMessage(TEXT);
+      ServiceCase.execute(sp, msg);
+      assertEquals(1, dir.listFiles().length);
+      MimeEncoder decoder = new MimeEncoder();
+      decoder.registerMessageFactory(new DefaultMessageFactory());
+      AdaptrisMessage decoded = decoder.decode(FileUtils.readFileToByteArray(dir.listFiles()[0]));
+      assertEquals(TEXT, decoded.getContent());
+      assertEquals(msg.getUniqueId(), decoded.getUniqueId());
+    }
+    finally {
+      FileUtils.deleteQuietly(new File(parentDir, subdir));
+    }
+  }
+
   public void testProduceWithNoCreateDir() throws Exception {
     String subdir = new GuidGenerator().safeUUID();
     FsProducer fs = createProducer(subdir);
@@ -445,6 +487,97 @@ public class FsMessageProducerTest extends FsProducerExample {
     }
   }
 
+  public void testProduce_FailsWhileWriting() throws Exception {
+    String subdir = new GuidGenerator().safeUUID();
+    FsProducer fs = createProducer(subdir);
+    fs.setCreateDirs(true);
+    File parentDir = FsHelper.createFileReference(FsHelper.createUrlFromString(PROPERTIES.getProperty(BASE_KEY), true));
+    try {
+      File dir = new File(parentDir, subdir);
+      start(fs);
+      AdaptrisMessage msg = new DefectiveMessageFactory(WhenToBreak.INPUT).newMessage(TEXT);
+      try {
+        fs.produce(msg);
+        fail();
+      }
+      catch (ProduceException expected) {
+
+      }
+      // No partially written file.
+      assertEquals(0, dir.listFiles().length);
+      // and a retry isn't stopped by the partial file.
+      fs.produce(new DefaultMessageFactory().newMessage(TEXT));
+      assertEquals(1, dir.listFiles().length);
+    }
+    finally {
+      stop(fs);
+      FileUtils.deleteQuietly(new File(parentDir, subdir));
+    }
+  }
+
+  public void testProduceFileAlreadyExists_NotDeleted() throws Exception {
+    String subdir = new GuidGenerator().safeUUID();
+    FsProducer fs = createProducer(subdir);
+    fs.setCreateDirs(true);
+    fs.setFsWorker(new StandardWorker());
+    fs.setFilenameCreator(new MetadataFileNameCreator("targetFilename"));
+    File parentDir = FsHelper.createFileReference(FsHelper.createUrlFromString(PROPERTIES.getProperty(BASE_KEY), true));
+    try {
+      File dir = new File(parentDir, subdir);
+      start(fs);
+      AdaptrisMessage msg = new DefaultMessageFactory().newMessage(TEXT);
+      msg.addMetadata("targetFilename", new GuidGenerator().safeUUID());
+      dir.mkdirs();
+      File targetFile = new File(dir, msg.getMetadataValue("targetFilename"));
+      targetFile.createNewFile();
+      try {
+        fs.produce(msg);
+        fail();
+      }
+      catch (ProduceException expected) {
+
+      }
+      assertTrue(targetFile.exists());
+    }
+    finally {
+      stop(fs);
+      FileUtils.deleteQuietly(new File(parentDir, subdir));
+    }
+  }
+
+  public void testProduce_Appending_FailsWhileWriting() throws Exception {
+    String subdir = new GuidGenerator().safeUUID();
+    FsProducer fs = createProducer(subdir);
+    fs.setCreateDirs(true);
+    fs.setFsWorker(new AppendingFsWorker());
+    fs.setFilenameCreator(new MetadataFileNameCreator("targetFilename"));
+    File parentDir = FsHelper.createFileReference(FsHelper.createUrlFromString(PROPERTIES.getProperty(BASE_KEY), true));
+    try {
+      File dir = new File(parentDir, subdir);
+      start(fs);
+      String filename = new GuidGenerator().safeUUID();
+      dir.mkdirs();
+      File targetFile = new File(dir, filename);
+      FileUtils.write(targetFile, TEXT, "UTF-8");
+      AdaptrisMessage msg = new DefectiveMessageFactory(WhenToBreak.INPUT).newMessage(TEXT);
+      msg.addMetadata("targetFilename", filename);
+      try {
+        fs.produce(msg);
+        fail();
+      }
+      catch (ProduceException expected) {
+
+      }
+      // The file we were appending to is still there.
+      assertTrue(targetFile.exists());
+      assertEquals(TEXT, FileUtils.readFileToString(targetFile, "UTF-8"));
+    }
+    finally {
+      stop(fs);
+      FileUtils.deleteQuietly(new File(parentDir, subdir));
+    }
+  }
+
   public void testProduceWithTempDir() throws Exception {
     String subdir = new GuidGenerator().safeUUID();
     String tmpDir = new GuidGenerator().safeUUID();
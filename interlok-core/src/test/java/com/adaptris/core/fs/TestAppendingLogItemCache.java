@@ -0,0 +1,192 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core.fs;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+
+import com.adaptris.core.CoreException;
+import com.adaptris.util.TimeInterval;
+
+public class TestAppendingLogItemCache extends ExpiringCacheCase {
+
+  public TestAppendingLogItemCache(String name) {
+    super(name);
+  }
+
+  protected File persistentStore;
+
+  @Override
+  protected AppendingLogItemCache createCache() throws Exception {
+    return new AppendingLogItemCache(persistentStore.getCanonicalPath());
+  }
+
+  @Override
+  public void setUp() throws Exception {
+    persistentStore = File.createTempFile(this.getClass().getSimpleName(), "");
+    persistentStore.delete();
+    super.setUp();
+  }
+
+  @Override
+  public void tearDown() throws Exception {
+    FileUtils.deleteQuietly(persistentStore);
+    super.tearDown();
+  }
+
+  public void testNoPersistentStore() throws Exception {
+    AppendingLogItemCache cache = new AppendingLogItemCache();
+    try {
+      cache.init();
+      fail();
+    }
+    catch (CoreException expected) {
+
+    }
+  }
+
+  public void testPersistence() throws Exception {
+    AppendingLogItemCache cache = createCache();
+    try {
+      start(cache);
+      int count = 100;
+      cache.update(createCacheEntries(count));
+      stop(cache);
+      start(cache);
+      assertEquals(count, cache.size());
+      assertCache(cache, count);
+    }
+    finally {
+      stop(cache);
+    }
+  }
+
+  public void testPersistence_Evicted() throws Exception {
+    AppendingLogItemCache cache = createCache();
+    try {
+      cache.setAgeBeforeEviction(new TimeInterval(100L, TimeUnit.MILLISECONDS));
+      start(cache);
+      cache.update(createCacheEntries(100));
+      cache.save();
+      Thread.sleep(200);
+      cache.evict();
+      cache.update(new ProcessedItem(CACHE_PREFIX + "new", 0, 0));
+      stop(cache);
+      start(cache);
+      assertEquals(1, cache.size());
+      assertTrue(cache.contains(CACHE_PREFIX + "new"));
+    }
+    finally {
+      stop(cache);
+    }
+  }
+
+  public void testPersistence_Unchanged() throws Exception {
+    AppendingLogItemCache cache = createCache();
+    try {
+      start(cache);
+      cache.update(new ProcessedItem(CACHE_PREFIX + 0, 1, 1));
+      cache.save();
+      long size = persistentStore.length();
+      // Seen again, but not changed, so nothing new should be written.
+      cache.update(new ProcessedItem(CACHE_PREFIX + 0, 1, 1));
+      cache.save();
+      assertEquals(size, persistentStore.length());
+      cache.update(new ProcessedItem(CACHE_PREFIX + 0, 2, 1));
+      cache.save();
+      assertTrue(persistentStore.length() > size);
+      stop(cache);
+      start(cache);
+      assertEquals(2, cache.get(CACHE_PREFIX + 0).getLastModified());
+    }
+    finally {
+      stop(cache);
+    }
+  }
+
+  public void testCompaction() throws Exception {
+    AppendingLogItemCache cache = createCache();
+    cache.setCompactionThreshold(10);
+    try {
+      start(cache);
+      cache.update(createCacheEntries(10));
+      cache.save();
+      long size = persistentStore.length();
+      for (int i = 0; i < 5; i++) {
+        cache.update(createCacheEntries(10));
+      }
+      cache.save();
+      assertEquals(size, persistentStore.length());
+      stop(cache);
+      start(cache);
+      assertEquals(10, cache.size());
+    }
+    finally {
+      stop(cache);
+    }
+  }
+
+  public void testClear() throws Exception {
+    AppendingLogItemCache cache = createCache();
+    try {
+      start(cache);
+      cache.update(createCacheEntries(100));
+      cache.clear();
+      stop(cache);
+      start(cache);
+      assertEquals(0, cache.size());
+    }
+    finally {
+      stop(cache);
+    }
+  }
+
+  public void testTruncatedStore() throws Exception {
+    AppendingLogItemCache cache = createCache();
+    try {
+      start(cache);
+      cache.update(createCacheEntries(10));
+      stop(cache);
+      try (RandomAccessFile raf = new RandomAccessFile(persistentStore, "rw")) {
+        raf.setLength(raf.length() - 1);
+      }
+      start(cache);
+      assertEquals(9, cache.size());
+    }
+    finally {
+      stop(cache);
+    }
+  }
+
+  public void testBadPersistentStore() throws Exception {
+    FileUtils.write(persistentStore, "<processed-item-list/>", "UTF-8");
+    AppendingLogItemCache cache = createCache();
+    try {
+      cache.init();
+      fail();
+    }
+    catch (CoreException expected) {
+
+    }
+    finally {
+      cache.close();
+    }
+  }
+}
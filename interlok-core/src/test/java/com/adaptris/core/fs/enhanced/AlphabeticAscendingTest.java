@@ -37,4 +37,15 @@ public class AlphabeticAscendingTest extends FileSorterCase {
     assertEquals(firstFilename, firstFile.getName());
     assertEquals(lastFilename, lastFile.getName());
   }
+
+  public void testSort_Bounded() throws Exception {
+    AlphabeticAscending sorter = new AlphabeticAscending();
+    List<File> files = sorter.sort((Iterable<File>) createFiles(10), 3);
+    log("Sorted", files);
+    assertEquals(3, files.size());
+    for (int i = 0; i < 3; i++) {
+      assertEquals(String.format("%1$s-%2$03d%3$s", AlphabeticAscendingTest.class.getSimpleName(), i + 1, ".xml"),
+          files.get(i).getName());
+    }
+  }
 }
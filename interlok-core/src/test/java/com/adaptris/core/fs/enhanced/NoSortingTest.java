@@ -34,4 +34,11 @@ public class NoSortingTest extends FileSorterCase {
     log("Sorted", files);
     assertEquals(unsorted, files);
   }
+
+  public void testSort_Bounded() throws Exception {
+    NoSorting sorter = new NoSorting();
+    List<File> files = createFiles(10);
+    List<File> sorted = sorter.sort((Iterable<File>) files, 3);
+    assertEquals(files.subList(0, 3), sorted);
+  }
 }
@@ -36,4 +36,14 @@ public class SizeAscendingTest extends FileSorterCase {
 
     assertTrue(lastFile.length() > firstFile.length());
   }
+
+  public void testSort_Bounded() throws Exception {
+    SizeAscending sorter = new SizeAscending();
+    List<File> files = sorter.sort((Iterable<File>) createFiles(10), 3);
+    log("Sorted", files);
+    assertEquals(3, files.size());
+    assertEquals(512, files.get(0).length());
+    assertEquals(1024, files.get(1).length());
+    assertEquals(1536, files.get(2).length());
+  }
 }
@@ -35,4 +35,14 @@ public class SizeDescendingTest extends FileSorterCase {
     File lastFile = files.get(9);
     assertTrue(firstFile.length() > lastFile.length());
   }
+
+  public void testSort_Bounded() throws Exception {
+    SizeDescending sorter = new SizeDescending();
+    List<File> files = sorter.sort((Iterable<File>) createFiles(10), 3);
+    log("Sorted", files);
+    assertEquals(3, files.size());
+    assertEquals(5120, files.get(0).length());
+    assertEquals(4608, files.get(1).length());
+    assertEquals(4096, files.get(2).length());
+  }
 }
@@ -200,6 +200,34 @@ public class HttpRequestServiceTest extends HttpServiceExample {
     assertEquals(TEXT, msg.getContent());
   }
 
+  public void testRequest_ConnectionPool() throws Exception {
+    MockMessageProducer mock = new MockMessageProducer();
+    HttpConnection jc = HttpHelper.createConnection();
+    JettyMessageConsumer mc = createConsumer(HttpHelper.URL_TO_POST_TO);
+    Channel c = createChannel(jc, createWorkflow(mc, mock, new ServiceList(new Service[]
+        {
+            new PayloadFromMetadataService(TEXT), new StandaloneProducer(new StandardResponseProducer(HttpStatus.OK_200))
+        })));
+
+    HttpRequestService service = new HttpRequestService(HttpHelper.createProduceDestination(c).getDestination())
+        .withMethod("POST").withConnectionPool(new HttpConnectionPool());
+    try {
+      start(c);
+      start(service);
+      for (int i = 0; i < 3; i++) {
+        AdaptrisMessage msg = new DefaultMessageFactory().newMessage();
+        service.doService(msg);
+        assertEquals(TEXT, msg.getContent());
+      }
+      waitForMessages(mock, 3);
+    }
+    finally {
+      stop(service);
+      HttpHelper.stopChannelAndRelease(c);
+    }
+    assertEquals(3, mock.messageCount());
+  }
+
   public void testRequest_EmptyReply() throws Exception {
     MockMessageProducer mock = new MockMessageProducer();
     HttpConnection jc = HttpHelper.createConnection();
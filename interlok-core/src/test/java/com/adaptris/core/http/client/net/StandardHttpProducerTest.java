@@ -455,6 +455,120 @@ public class StandardHttpProducerTest extends HttpProducerExample {
     assertNotNull(msg.getMetadata("HTTP_Server"));
   }
 
+  public void testRequest_ConnectionPool() throws Exception {
+    MockMessageProducer mock = new MockMessageProducer();
+    HttpConnection jc = HttpHelper.createConnection();
+    JettyMessageConsumer mc = createConsumer(HttpHelper.URL_TO_POST_TO);
+    ServiceList services = new ServiceList();
+    services.add(new PayloadFromMetadataService(TEXT));
+    services.add(new StandaloneProducer(new StandardResponseProducer(HttpStatus.OK_200)));
+    Channel c = createChannel(jc, createWorkflow(mc, mock, services));
+    StandardHttpProducer stdHttp = new StandardHttpProducer(HttpHelper.createProduceDestination(c))
+        .withConnectionPool(new HttpConnectionPool().withMaxConnectionsPerHost(2));
+    stdHttp.setRequestHeaderProvider(new MetadataRequestHeaders(new RegexMetadataFilter()));
+    stdHttp.setResponseHeaderHandler(new ResponseHeadersAsMetadata("HTTP_"));
+    StandaloneRequestor producer = new StandaloneRequestor(stdHttp);
+    try {
+      start(c);
+      start(producer);
+      for (int i = 0; i < 5; i++) {
+        AdaptrisMessage msg = new DefaultMessageFactory().newMessage(ALT_TEXT);
+        msg.addMetadata(getName(), getName());
+        producer.doService(msg);
+        assertEquals(TEXT, msg.getContent());
+        assertEquals("200", msg.getMetadataValue(CoreConstants.HTTP_PRODUCER_RESPONSE_CODE));
+        assertNotNull(msg.getMetadata("HTTP_Server"));
+      }
+      waitForMessages(mock, 5);
+    }
+    finally {
+      stop(c);
+      stop(producer);
+    }
+    assertEquals(5, mock.messageCount());
+    AdaptrisMessage m2 = mock.getMessages().get(0);
+    assertEquals("POST", m2.getMetadataValue(CoreConstants.HTTP_METHOD));
+    assertEquals(ALT_TEXT, m2.getContent());
+    assertEquals(getName(), m2.getMetadataValue(getName()));
+  }
+
+  public void testRequest_ConnectionPool_WithErrorResponse() throws Exception {
+    MockMessageProducer mock = new MockMessageProducer();
+    HttpConnection jc = HttpHelper.createConnection();
+    JettyMessageConsumer mc = createConsumer(HttpHelper.URL_TO_POST_TO);
+    ServiceList services = new ServiceList();
+    services.add(new PayloadFromMetadataService(TEXT));
+    services.add(new StandaloneProducer(new StandardResponseProducer(HttpStatus.UNAUTHORIZED_401)));
+    Channel c = createChannel(jc, createWorkflow(mc, mock, services));
+    StandardHttpProducer stdHttp = new StandardHttpProducer(HttpHelper.createProduceDestination(c))
+        .withConnectionPool(new HttpConnectionPool());
+    stdHttp.setMethodProvider(new ConfiguredRequestMethodProvider(RequestMethodProvider.RequestMethod.GET));
+    stdHttp.setIgnoreServerResponseCode(true);
+    StandaloneRequestor producer = new StandaloneRequestor(stdHttp);
+    AdaptrisMessage msg = new DefaultMessageFactory().newMessage(ALT_TEXT);
+    try {
+      start(c);
+      start(producer);
+      producer.doService(msg);
+      waitForMessages(mock, 1);
+    }
+    finally {
+      stop(c);
+      stop(producer);
+    }
+    assertEquals(TEXT, msg.getContent());
+    assertEquals("401", msg.getMetadataValue(CoreConstants.HTTP_PRODUCER_RESPONSE_CODE));
+  }
+
+  public void testRequest_ConnectionPool_ErrorResponsesReleaseConnections() throws Exception {
+    MockMessageProducer mock = new MockMessageProducer();
+    HttpConnection jc = HttpHelper.createConnection();
+    JettyMessageConsumer mc = createConsumer(HttpHelper.URL_TO_POST_TO);
+    ServiceList services = new ServiceList();
+    services.add(new PayloadFromMetadataService(TEXT));
+    services.add(new StandaloneProducer(new StandardResponseProducer(HttpStatus.UNAUTHORIZED_401)));
+    Channel c = createChannel(jc, createWorkflow(mc, mock, services));
+    // Only one connection, so an unread error body would leave every subsequent request queued.
+    StandardHttpProducer stdHttp = new StandardHttpProducer(HttpHelper.createProduceDestination(c))
+        .withConnectionPool(new HttpConnectionPool().withMaxConnectionsPerHost(1));
+    stdHttp.setReadTimeout(new TimeInterval(5L, TimeUnit.SECONDS));
+    StandaloneRequestor producer = new StandaloneRequestor(stdHttp);
+    try {
+      start(c);
+      start(producer);
+      for (int i = 0; i < 3; i++) {
+        try {
+          producer.doService(new DefaultMessageFactory().newMessage(ALT_TEXT));
+          fail();
+        }
+        catch (ServiceException expected) {
+
+        }
+      }
+      waitForMessages(mock, 3);
+    }
+    finally {
+      stop(c);
+      stop(producer);
+    }
+    assertEquals(3, mock.getMessages().size());
+  }
+
+  public void testConnectionPool_NotStarted() throws Exception {
+    HttpConnectionPool pool = new HttpConnectionPool();
+    try {
+      pool.openConnection(new java.net.URL("http://localhost/"));
+      fail();
+    }
+    catch (IOException expected) {
+
+    }
+    assertEquals(64, pool.maxConnectionsPerHost());
+    assertEquals(1024, pool.maxQueuedRequestsPerHost());
+    assertEquals(TimeUnit.MINUTES.toMillis(1), pool.idleTimeoutMs());
+    assertEquals(TimeUnit.SECONDS.toMillis(15), pool.connectTimeoutMs());
+  }
+
   private HttpAuthenticator getAuthenticator(String username, String password) {
     return new ConfiguredUsernamePassword(username, password);
   }
@@ -16,9 +16,15 @@
 
 package com.adaptris.core.http.jetty;
 
+import java.io.BufferedReader;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.net.HttpURLConnection;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -126,6 +132,15 @@ public class HttpConsumerTest extends HttpConsumerExample {
     assertEquals(HttpStatus.OK_200.getStatusCode(), consumer.timeoutAction().status());
   }
 
+  public void testSetAsyncProcessing() throws Exception {
+    JettyMessageConsumer consumer = JettyHelper.createConsumer(URL_TO_POST_TO);
+    assertNull(consumer.getAsyncProcessing());
+    assertEquals(false, consumer.asyncProcessing());
+    consumer.setAsyncProcessing(Boolean.TRUE);
+    assertEquals(Boolean.TRUE, consumer.getAsyncProcessing());
+    assertEquals(true, consumer.asyncProcessing());
+  }
+
   public void testConnection_NonDefaults() throws Exception {
     HttpConnection connection = createConnection(null);
     connection.getServerConnectorProperties().addKeyValuePair(new KeyValuePair(ServerConnectorProperty.AcceptQueueSize.name(), "10"));
@@ -236,6 +251,115 @@ public class HttpConsumerTest extends HttpConsumerExample {
     }
   }
 
+  public void testPoolingWorkflow_WithInterceptor_AsyncProcessing() throws Exception {
+    HttpConnection connection = createConnection(null);
+    MockMessageProducer mockProducer = new StaticMockMessageProducer();
+    mockProducer.getMessages().clear();
+    JettyMessageConsumer consumer = JettyHelper.createConsumer(URL_TO_POST_TO);
+    consumer.setAsyncProcessing(true);
+    consumer.setWarnAfter(new TimeInterval(10L, TimeUnit.MILLISECONDS));
+    PoolingWorkflow workflow = new PoolingWorkflow();
+    StandardResponseProducer responder = new StandardResponseProducer(HttpStatus.OK_200);
+    workflow.setConsumer(consumer);
+    workflow.getServiceCollection().add(new WaitService(new TimeInterval(1L, TimeUnit.SECONDS)));
+    workflow.getServiceCollection().add(new StandaloneProducer(mockProducer));
+    workflow.getServiceCollection().add(new StandaloneProducer(responder));
+    workflow.addInterceptor(new JettyPoolingWorkflowInterceptor());
+    Channel channel = JettyHelper.createChannel(connection, workflow);
+    try {
+      channel.requestStart();
+
+      AdaptrisMessage msg = AdaptrisMessageFactory.getDefaultInstance().newMessage(XML_PAYLOAD);
+      msg.addMetadata(CONTENT_TYPE_METADATA_KEY, "text/xml");
+      start(httpProducer);
+      AdaptrisMessage reply = httpProducer.request(msg, createProduceDestination(connection.getPort()));
+      assertEquals("Reply Payloads", XML_PAYLOAD, reply.getContent());
+      doAssertions(mockProducer);
+    }
+    finally {
+      stop(httpProducer);
+      channel.requestClose();
+    }
+  }
+
+  public void testPoolingWorkflow_WithInterceptor_NonBlockingRead() throws Exception {
+    HttpConnection connection = createConnection(null);
+    MockMessageProducer mockProducer = new StaticMockMessageProducer();
+    mockProducer.getMessages().clear();
+    JettyMessageConsumer consumer = JettyHelper.createConsumer(URL_TO_POST_TO);
+    consumer.setNonBlockingRead(true);
+    PoolingWorkflow workflow = new PoolingWorkflow();
+    StandardResponseProducer responder = new StandardResponseProducer(HttpStatus.OK_200);
+    responder.setNonBlockingWrite(true);
+    workflow.setConsumer(consumer);
+    workflow.getServiceCollection().add(new StandaloneProducer(mockProducer));
+    workflow.getServiceCollection().add(new StandaloneProducer(responder));
+    workflow.addInterceptor(new JettyPoolingWorkflowInterceptor());
+    Channel channel = JettyHelper.createChannel(connection, workflow);
+    try {
+      channel.requestStart();
+
+      AdaptrisMessage msg = AdaptrisMessageFactory.getDefaultInstance().newMessage(XML_PAYLOAD);
+      msg.addMetadata(CONTENT_TYPE_METADATA_KEY, "text/xml");
+      start(httpProducer);
+      AdaptrisMessage reply = httpProducer.request(msg, createProduceDestination(connection.getPort()));
+      assertEquals("Reply Payloads", XML_PAYLOAD, reply.getContent());
+      doAssertions(mockProducer);
+    }
+    finally {
+      stop(httpProducer);
+      channel.requestClose();
+    }
+  }
+
+  public void testBasicConsumeWorkflow_NonBlockingRead_TimeoutWhileReading() throws Exception {
+    HttpConnection connection = createConnection(null);
+    MockMessageProducer mockProducer = new MockMessageProducer();
+    JettyMessageConsumer consumer = JettyHelper.createConsumer(URL_TO_POST_TO);
+    consumer.setNonBlockingRead(true);
+    consumer.setTimeoutAction(new TimeoutAction(new TimeInterval(1L, TimeUnit.SECONDS), HttpStatus.REQUEST_TIMEOUT_408));
+    Channel channel = JettyHelper.createChannel(connection, consumer, mockProducer);
+    try (Socket socket = new Socket("localhost", connection.getPort())) {
+      channel.requestStart();
+      socket.setSoTimeout(10000);
+      // Promise a body that never arrives.
+      Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII);
+      out.write("POST " + URL_TO_POST_TO + " HTTP/1.1\r\nHost: localhost\r\nContent-Type: text/plain\r\n"
+          + "Content-Length: 1000\r\n\r\nonly part of the body");
+      out.flush();
+      BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+      assertTrue(in.readLine().contains("408"));
+      assertEquals(0, mockProducer.getMessages().size());
+    }
+    finally {
+      channel.requestClose();
+      PortManager.release(connection.getPort());
+    }
+  }
+
+  public void testBasicConsumeWorkflow_NonBlockingRead() throws Exception {
+    HttpConnection connection = createConnection(null);
+    MockMessageProducer mockProducer = new MockMessageProducer();
+    JettyMessageConsumer consumer = JettyHelper.createConsumer(URL_TO_POST_TO);
+    assertNull(consumer.getNonBlockingRead());
+    assertFalse(consumer.nonBlockingRead());
+    consumer.setNonBlockingRead(true);
+    Channel channel = JettyHelper.createChannel(connection, consumer, mockProducer);
+    try {
+      channel.requestStart();
+      AdaptrisMessage msg = AdaptrisMessageFactory.getDefaultInstance().newMessage(XML_PAYLOAD);
+      msg.addMetadata(CONTENT_TYPE_METADATA_KEY, "text/xml");
+      start(httpProducer);
+      httpProducer.request(msg, createProduceDestination(connection.getPort()));
+      doAssertions(mockProducer);
+    }
+    finally {
+      stop(httpProducer);
+      channel.requestClose();
+      PortManager.release(connection.getPort());
+    }
+  }
+
   public void testPoolingWorkflow_WithoutInterceptor() throws Exception {
     HttpConnection connection = createConnection(null);
     MockMessageProducer mockProducer = new StaticMockMessageProducer();
@@ -296,6 +420,37 @@ public class HttpConsumerTest extends HttpConsumerExample {
     }
   }
 
+  public void testPoolingWorkflow_AsyncProcessing_TimeoutExceeded() throws Exception {
+    HttpConnection connection = createConnection(null);
+    MockMessageProducer mockProducer = new StaticMockMessageProducer();
+    mockProducer.getMessages().clear();
+    JettyMessageConsumer consumer = JettyHelper.createConsumer(URL_TO_POST_TO);
+    consumer.setAsyncProcessing(true);
+    consumer.setTimeoutAction(new TimeoutAction(new TimeInterval(100L, TimeUnit.MILLISECONDS)));
+    PoolingWorkflow workflow = new PoolingWorkflow();
+    workflow.setShutdownWaitTime(new TimeInterval(100L, TimeUnit.MILLISECONDS));
+    StandardResponseProducer responder = new StandardResponseProducer(HttpStatus.OK_200);
+    workflow.setConsumer(consumer);
+    workflow.getServiceCollection().add(new WaitService(new TimeInterval(5L, TimeUnit.SECONDS)));
+    workflow.getServiceCollection().add(new StandaloneProducer(mockProducer));
+    workflow.getServiceCollection().add(new StandaloneProducer(responder));
+    workflow.addInterceptor(new JettyPoolingWorkflowInterceptor());
+    Channel channel = JettyHelper.createChannel(connection, workflow);
+    try {
+      channel.requestStart();
+      AdaptrisMessage msg = AdaptrisMessageFactory.getDefaultInstance().newMessage(XML_PAYLOAD);
+      msg.addMetadata(CONTENT_TYPE_METADATA_KEY, "text/xml");
+      start(httpProducer);
+      AdaptrisMessage reply = httpProducer.request(msg, createProduceDestination(connection.getPort()));
+      assertEquals(Integer.valueOf(HttpStatus.ACCEPTED_202.getStatusCode()),
+          Integer.valueOf(reply.getMetadataValue(CoreConstants.HTTP_PRODUCER_RESPONSE_CODE)));
+    }
+    finally {
+      stop(httpProducer);
+      channel.requestClose();
+    }
+  }
+
   public void testConsumeWorkflow_NoPreserveHeaders() throws Exception {
     HttpConnection connection = createConnection(null);
     MockMessageProducer mockProducer = new MockMessageProducer();
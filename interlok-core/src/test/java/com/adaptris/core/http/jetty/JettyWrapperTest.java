@@ -16,14 +16,21 @@
 package com.adaptris.core.http.jetty;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 
+import javax.servlet.AsyncContext;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
@@ -76,6 +83,49 @@ public class JettyWrapperTest {
     assertNotNull(wrapper.withRequest(createDummyRequest()).getRequest());
   }
 
+  @Test
+  public void testCompleteAsync() {
+    JettyWrapper wrapper = new JettyWrapper();
+    assertNull(wrapper.getAsyncContext());
+    assertFalse(wrapper.completeAsync());
+    AsyncContext ctx = mock(AsyncContext.class);
+    assertNotNull(wrapper.withAsyncContext(ctx).getAsyncContext());
+    assertTrue(wrapper.completeAsync());
+    assertFalse(wrapper.completeAsync());
+    verify(ctx, times(1)).complete();
+  }
+
+  @Test
+  public void testCompleteAsync_WriteInProgress() {
+    AsyncContext ctx = mock(AsyncContext.class);
+    JettyWrapper wrapper = new JettyWrapper().withAsyncContext(ctx);
+    wrapper.asyncWriteStarted();
+    assertFalse(wrapper.completeAsync());
+    verify(ctx, times(0)).complete();
+    wrapper.asyncWriteFinished();
+    verify(ctx, times(1)).complete();
+    assertFalse(wrapper.completeAsync());
+  }
+
+  @Test
+  public void testForceCompleteAsync_WriteInProgress() {
+    AsyncContext ctx = mock(AsyncContext.class);
+    JettyWrapper wrapper = new JettyWrapper().withAsyncContext(ctx);
+    wrapper.asyncWriteStarted();
+    assertTrue(wrapper.forceCompleteAsync());
+    verify(ctx, times(1)).complete();
+    wrapper.asyncWriteFinished();
+    assertFalse(wrapper.forceCompleteAsync());
+    verify(ctx, times(1)).complete();
+  }
+
+  @Test
+  public void testCompleteAsync_AlreadyCompleted() {
+    AsyncContext ctx = mock(AsyncContext.class);
+    doThrow(new IllegalStateException()).when(ctx).complete();
+    JettyWrapper wrapper = new JettyWrapper().withAsyncContext(ctx);
+    assertTrue(wrapper.completeAsync());
+  }
 
   // cos you know, reflection is awesome.
   private HttpServletResponse createDummyResponse() {
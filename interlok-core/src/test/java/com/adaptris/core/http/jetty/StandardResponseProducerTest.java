@@ -110,6 +110,29 @@ public class StandardResponseProducerTest extends HttpProducerExample {
     }
   }
 
+  public void testDoService_NonBlocking() throws Exception {
+    StandardResponseProducer responder = new StandardResponseProducer(HttpStatus.OK_200);
+    assertNull(responder.getNonBlockingWrite());
+    assertFalse(responder.nonBlockingWrite());
+    responder.setNonBlockingWrite(Boolean.TRUE);
+    JettyMessageConsumer consumer = createConsumer(URL_TO_POST_TO);
+    consumer.setNonBlockingRead(Boolean.TRUE);
+    HttpConnection httpConnection = createConnection();
+    Channel c = createChannel(httpConnection, createWorkflow(consumer, new MockMessageProducer(), responder));
+    StandaloneRequestor requestor = createRequestor(httpConnection.getPort());
+    AdaptrisMessage msg = createMessage();
+    try {
+      c.requestStart();
+      start(requestor);
+      requestor.doService(msg);
+      assertEquals(TEXT, msg.getContent());
+    } finally {
+      c.requestClose();
+      stop(requestor);
+      PortManager.release(httpConnection.getPort());
+    }
+  }
+
   public void testDoService_NoFlush() throws Exception {
     StandardResponseProducer responder = new StandardResponseProducer(HttpStatus.OK_200);
     responder.setFlushBuffer(Boolean.FALSE);
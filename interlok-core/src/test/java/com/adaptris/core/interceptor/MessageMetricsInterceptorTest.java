@@ -234,6 +234,23 @@ public class MessageMetricsInterceptorTest extends TestCase {
     assertEquals(130, ((MessageStatistic) metricsInterceptor.getStats().get(0)).getTotalMessageCount());
   }
 
+  public void testConcurrentUpdates() throws Exception {
+    LifecycleHelper.init(metricsInterceptor);
+    LifecycleHelper.start(metricsInterceptor);
+    MetricsInserterThread[] threads = new MetricsInserterThread[8];
+    for (int i = 0; i < threads.length; i++) {
+      threads[i] = new MetricsInserterThread(250);
+    }
+    for (MetricsInserterThread t : threads) {
+      t.start();
+    }
+    for (MetricsInserterThread t : threads) {
+      t.join();
+    }
+    assertEquals(1, metricsInterceptor.getStats().size());
+    assertEquals(2000, ((MessageStatistic) metricsInterceptor.getStats().get(0)).getTotalMessageCount());
+  }
+
   private void waitFor(int seconds) throws Exception {
     Thread.sleep(seconds * 1000);
   }
@@ -212,6 +212,24 @@ public class MetadataCountInterceptorTest extends TestCase {
     assertEquals(40, ((MetadataStatistic) metricsInterceptor.getStats().get(0)).getValue(COUNTER_2));
   }
 
+  public void testConcurrentUpdates() throws Exception {
+    LifecycleHelper.init(metricsInterceptor);
+    LifecycleHelper.start(metricsInterceptor);
+    MetricsInserterThread[] threads = new MetricsInserterThread[8];
+    for (int i = 0; i < threads.length; i++) {
+      threads[i] = new MetricsInserterThread(100, i % 2 == 0 ? COUNTER_1 : COUNTER_2);
+    }
+    for (MetricsInserterThread t : threads) {
+      t.start();
+    }
+    for (MetricsInserterThread t : threads) {
+      t.join();
+    }
+    MetadataStatistic stat = (MetadataStatistic) metricsInterceptor.getStats().get(0);
+    assertEquals(400, stat.getValue(COUNTER_1));
+    assertEquals(400, stat.getValue(COUNTER_2));
+  }
+
   private void waitFor(int seconds) {
     try {
       Thread.sleep(seconds * 1000);
@@ -0,0 +1,251 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core.interceptor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.adaptris.core.AdaptrisMessage;
+import com.adaptris.core.CoreException;
+import com.adaptris.core.DefaultMessageFactory;
+import com.adaptris.core.util.LifecycleHelper;
+import com.adaptris.util.TimeInterval;
+
+public class TokenBucketThrottlingInterceptorTest {
+
+  private static final String CACHE_NAME = "TokenBucketThrottlingInterceptorTest";
+
+  @After
+  public void tearDown() throws Exception {
+    TimeSlicePersistence.getInstance().clear();
+  }
+
+  @Test
+  public void testSettings() throws Exception {
+    TokenBucketThrottlingInterceptor interceptor = new TokenBucketThrottlingInterceptor();
+    assertNull(interceptor.getMaximumMessages());
+    assertEquals(Integer.MAX_VALUE, interceptor.maximumMessages());
+    assertNull(interceptor.getBurstSize());
+    assertEquals(1, interceptor.burstSize());
+    assertEquals(1000L, interceptor.timeSliceIntervalMs());
+    interceptor.setMaximumMessages(10);
+    interceptor.setBurstSize(5);
+    interceptor.setTimeSliceInterval(new TimeInterval(10L, TimeUnit.SECONDS));
+    assertEquals(10, interceptor.maximumMessages());
+    assertEquals(5, interceptor.burstSize());
+    assertEquals(10000L, interceptor.timeSliceIntervalMs());
+  }
+
+  @Test
+  public void testBurst_NoDelay() throws Exception {
+    TokenBucketThrottlingInterceptor interceptor = create(2, 5);
+    try {
+      LifecycleHelper.initAndStart(interceptor);
+      AdaptrisMessage msg = DefaultMessageFactory.getDefaultInstance().newMessage();
+      long start = System.currentTimeMillis();
+      for (int i = 0; i < 5; i++) {
+        interceptor.workflowStart(msg);
+      }
+      assertTrue(System.currentTimeMillis() - start < 500);
+    } finally {
+      LifecycleHelper.stopAndClose(interceptor);
+    }
+  }
+
+  @Test
+  public void testThrottleDelay() throws Exception {
+    // 1 message every 250ms.
+    TokenBucketThrottlingInterceptor interceptor = create(4, 1);
+    try {
+      LifecycleHelper.initAndStart(interceptor);
+      AdaptrisMessage msg = DefaultMessageFactory.getDefaultInstance().newMessage();
+      long start = System.currentTimeMillis();
+      for (int i = 0; i < 3; i++) {
+        interceptor.workflowStart(msg);
+      }
+      assertTrue(System.currentTimeMillis() - start >= 450);
+    } finally {
+      LifecycleHelper.stopAndClose(interceptor);
+    }
+  }
+
+  @Test
+  public void testSharedBucket() throws Exception {
+    TokenBucketThrottlingInterceptor i1 = create(2, 1);
+    i1.setCacheName(CACHE_NAME);
+    TokenBucketThrottlingInterceptor i2 = create(100, 100);
+    i2.setCacheName(CACHE_NAME);
+    try {
+      LifecycleHelper.initAndStart(i1);
+      LifecycleHelper.initAndStart(i2);
+      TimeSlice slice = i1.getCacheProvider().get(CACHE_NAME);
+      assertTrue(slice instanceof TokenBucket);
+      assertSame(slice, i2.getCacheProvider().get(CACHE_NAME));
+      AdaptrisMessage msg = DefaultMessageFactory.getDefaultInstance().newMessage();
+      i1.workflowStart(msg);
+      i2.workflowStart(msg);
+      assertEquals(2, slice.getTotalMessageCount());
+    } finally {
+      LifecycleHelper.stopAndClose(i1);
+      LifecycleHelper.stopAndClose(i2);
+    }
+  }
+
+  @Test
+  public void testSharedBucket_InUse() throws Exception {
+    TimeSlicePersistence.getInstance().updateCurrentTimeSlice(CACHE_NAME,
+        new TimeSlice(System.currentTimeMillis() + 60000L, 10));
+    TokenBucketThrottlingInterceptor interceptor = create(2, 1);
+    interceptor.setCacheName(CACHE_NAME);
+    try {
+      LifecycleHelper.initAndStart(interceptor);
+      fail();
+    } catch (CoreException expected) {
+
+    } finally {
+      LifecycleHelper.stopAndClose(interceptor);
+    }
+  }
+
+  @Test
+  public void testSharedBucket_DifferentRate() throws Exception {
+    TokenBucketThrottlingInterceptor i1 = create(2, 1);
+    i1.setCacheName(CACHE_NAME);
+    TokenBucketThrottlingInterceptor i2 = create(2, 1);
+    i2.setCacheName(CACHE_NAME);
+    i2.setTimeSliceInterval(new TimeInterval(10L, TimeUnit.SECONDS));
+    try {
+      LifecycleHelper.initAndStart(i1);
+      TimeSlice slice = i1.getCacheProvider().get(CACHE_NAME);
+      // Only a warning; the first interceptor to start decides the rate.
+      LifecycleHelper.initAndStart(i2);
+      assertSame(slice, i2.getCacheProvider().get(CACHE_NAME));
+    } finally {
+      LifecycleHelper.stopAndClose(i1);
+      LifecycleHelper.stopAndClose(i2);
+    }
+  }
+
+  @Test
+  public void testSharedBucket_UnsupportedCacheProvider() throws Exception {
+    TokenBucketThrottlingInterceptor interceptor = create(2, 1);
+    interceptor.setCacheProvider(new PersistentCacheProvider());
+    try {
+      LifecycleHelper.initAndStart(interceptor);
+      LifecycleHelper.stopAndClose(interceptor);
+      interceptor.setCacheName(CACHE_NAME);
+      LifecycleHelper.initAndStart(interceptor);
+      fail();
+    } catch (CoreException expected) {
+
+    } finally {
+      LifecycleHelper.stopAndClose(interceptor);
+    }
+  }
+
+  @Test
+  public void testConcurrentThreads() throws Exception {
+    // 1 message every 50ms, 20 messages should take at least 950ms.
+    final TokenBucketThrottlingInterceptor interceptor = create(20, 1);
+    try {
+      LifecycleHelper.initAndStart(interceptor);
+      Thread[] threads = new Thread[4];
+      for (int i = 0; i < threads.length; i++) {
+        threads[i] = new Thread(new Runnable() {
+          @Override
+          public void run() {
+            AdaptrisMessage msg = DefaultMessageFactory.getDefaultInstance().newMessage();
+            for (int j = 0; j < 5; j++) {
+              interceptor.workflowStart(msg);
+            }
+          }
+        });
+      }
+      long start = System.currentTimeMillis();
+      for (Thread t : threads) {
+        t.start();
+      }
+      for (Thread t : threads) {
+        t.join();
+      }
+      assertTrue(System.currentTimeMillis() - start >= 900);
+    } finally {
+      LifecycleHelper.stopAndClose(interceptor);
+    }
+  }
+
+  @Test
+  public void testTokenBucket_TryAcquire() throws Exception {
+    TokenBucket bucket = new TokenBucket(1, 1, TimeUnit.HOURS, 2);
+    assertTrue(bucket.tryAcquire());
+    assertTrue(bucket.tryAcquire());
+    assertFalse(bucket.tryAcquire());
+    assertEquals(2, bucket.getTotalMessageCount());
+    assertTrue(bucket.reserve() > 0);
+    assertEquals(Long.MAX_VALUE, bucket.getEndMillis());
+  }
+
+  @Test
+  public void testTokenBucket_HasSameRate() throws Exception {
+    TokenBucket bucket = new TokenBucket(10, 1, TimeUnit.SECONDS, 2);
+    assertTrue(bucket.hasSameRate(new TokenBucket(10, 1000, TimeUnit.MILLISECONDS, 2)));
+    assertFalse(bucket.hasSameRate(new TokenBucket(10, 1, TimeUnit.SECONDS, 1)));
+    assertFalse(bucket.hasSameRate(new TokenBucket(5, 1, TimeUnit.SECONDS, 2)));
+  }
+
+  private TokenBucketThrottlingInterceptor create(int perSecond, int burst) {
+    TokenBucketThrottlingInterceptor interceptor = new TokenBucketThrottlingInterceptor();
+    interceptor.setMaximumMessages(perSecond);
+    interceptor.setBurstSize(burst);
+    interceptor.setTimeSliceInterval(new TimeInterval(1L, TimeUnit.SECONDS));
+    return interceptor;
+  }
+
+  // Only persists the end time + message count, like a database backed cache provider would.
+  private static class PersistentCacheProvider extends TimeSliceAbstractCacheProvider {
+
+    @Override
+    public void start() throws CoreException {
+    }
+
+    @Override
+    public void init() throws CoreException {
+    }
+
+    @Override
+    public void stop() {
+    }
+
+    @Override
+    public void update(String cacheName, TimeSlice timeslice) {
+    }
+
+    @Override
+    public TimeSlice get(String cacheName) {
+      return new TimeSlice(System.currentTimeMillis() + timeSliceDurationMilliseconds(), 0);
+    }
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core.jms;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class AcknowledgementBatchTest {
+
+  @Test
+  public void testDefault() throws Exception {
+    AcknowledgementBatch batch = new AcknowledgementBatch();
+    assertEquals(1, batch.size());
+    assertEquals(0, batch.windowMs());
+    assertFalse(batch.isBatched());
+    assertTrue(batch.isDue(1, System.currentTimeMillis(), System.currentTimeMillis()));
+  }
+
+  @Test
+  public void testIsDue() throws Exception {
+    AcknowledgementBatch batch = new AcknowledgementBatch(10, 1000);
+    assertTrue(batch.isBatched());
+    long now = System.currentTimeMillis();
+    assertFalse(batch.isDue(1, now, now));
+    assertFalse(batch.isDue(9, now - 999, now));
+    assertTrue(batch.isDue(10, now, now));
+    assertTrue(batch.isDue(1, now - 1000, now));
+  }
+
+  @Test
+  public void testIsDue_NoWindow() throws Exception {
+    AcknowledgementBatch batch = new AcknowledgementBatch(10, -1);
+    long now = System.currentTimeMillis();
+    assertEquals(0, batch.windowMs());
+    assertFalse(batch.isDue(1, now - TimeUnit.DAYS.toMillis(1), now));
+    assertTrue(batch.isDue(10, now, now));
+  }
+
+  @Test
+  public void testStatistics() throws Exception {
+    AcknowledgementBatch batch = new AcknowledgementBatch(0, 0);
+    assertEquals(1, batch.size());
+    assertEquals(0, batch.averageBatchSize(), 0.001);
+    assertEquals(0, batch.averageCommitLatencyMs(), 0.001);
+    batch.committed(4, TimeUnit.MILLISECONDS.toNanos(10));
+    batch.committed(2, TimeUnit.MILLISECONDS.toNanos(30));
+    batch.rolledBack();
+    assertEquals(2, batch.batchCount());
+    assertEquals(6, batch.messageCount());
+    assertEquals(2, batch.lastBatchSize());
+    assertEquals(3, batch.averageBatchSize(), 0.001);
+    assertEquals(20, batch.averageCommitLatencyMs(), 0.001);
+    assertEquals(30, batch.maxCommitLatencyMs());
+    assertEquals(1, batch.rollbackCount());
+  }
+}
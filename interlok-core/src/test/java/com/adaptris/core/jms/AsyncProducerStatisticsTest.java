@@ -0,0 +1,58 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core.jms;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class AsyncProducerStatisticsTest {
+
+  @Test
+  public void testHistogramBuckets() throws Exception {
+    String[] buckets = AsyncProducerStatistics.histogramBuckets();
+    assertEquals(AsyncProducerStatistics.HISTOGRAM_BOUNDS_MS.length + 1, buckets.length);
+    assertEquals("<=1ms", buckets[0]);
+    assertEquals(">5000ms", buckets[buckets.length - 1]);
+  }
+
+  @Test
+  public void testCompleted() throws Exception {
+    AsyncProducerStatistics stats = new AsyncProducerStatistics();
+    assertEquals(0, stats.averageLatencyMs(), 0.001);
+    stats.completed(TimeUnit.MICROSECONDS.toNanos(500));
+    stats.completed(TimeUnit.MILLISECONDS.toNanos(20));
+    stats.completed(TimeUnit.SECONDS.toNanos(10));
+    assertEquals(3, stats.completedCount());
+    assertEquals(10000, stats.maxLatencyMs());
+    assertArrayEquals(new long[] {1, 0, 0, 1, 0, 0, 0, 0, 1}, stats.histogram());
+  }
+
+  @Test
+  public void testFailedAndRejected() throws Exception {
+    AsyncProducerStatistics stats = new AsyncProducerStatistics();
+    stats.failed();
+    stats.rejected();
+    stats.rejected();
+    assertEquals(0, stats.completedCount());
+    assertEquals(1, stats.failedCount());
+    assertEquals(2, stats.rejectedCount());
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core.jms;
+
+import static com.adaptris.core.jms.JmsProducerCase.assertMessages;
+import static com.adaptris.core.jms.activemq.EmbeddedActiveMq.createMessage;
+
+import com.adaptris.core.ConfiguredConsumeDestination;
+import com.adaptris.core.ConfiguredProduceDestination;
+import com.adaptris.core.StandaloneConsumer;
+import com.adaptris.core.StandaloneProducer;
+import com.adaptris.core.jms.activemq.BasicActiveMqImplementation;
+import com.adaptris.core.jms.activemq.EmbeddedActiveMq;
+import com.adaptris.core.stubs.MockMessageListener;
+import com.adaptris.core.util.LifecycleHelper;
+
+public class ConcurrentPtpConsumerTest extends JmsConsumerCase {
+
+  public ConcurrentPtpConsumerTest(String name) {
+    super(name);
+  }
+
+  @Override
+  protected String createBaseFileName(Object object) {
+    return super.createBaseFileName(object) + "-ConcurrentPtpConsumer";
+  }
+
+  @Override
+  protected Object retrieveObjectForSampleConfig() {
+    ConcurrentPtpConsumer consumer = new ConcurrentPtpConsumer(new ConfiguredConsumeDestination("SampleQueue"));
+    consumer.setSessionCount(5);
+    JmsConnection c = new JmsConnection(new BasicActiveMqImplementation("tcp://localhost:61616"));
+    c.setConnectionErrorHandler(new JmsConnectionErrorHandler());
+    return new StandaloneConsumer(c, consumer);
+  }
+
+  public void testSessionCount() throws Exception {
+    ConcurrentPtpConsumer consumer = new ConcurrentPtpConsumer();
+    assertNull(consumer.getSessionCount());
+    assertEquals(5, consumer.sessionCount());
+    consumer.setSessionCount(0);
+    assertEquals(1, consumer.sessionCount());
+    consumer.setSessionCount(10);
+    assertEquals(10, consumer.sessionCount());
+  }
+
+  public void testLifecycle() throws Exception {
+    if (!JmsConfig.jmsTestsEnabled()) {
+      return;
+    }
+    EmbeddedActiveMq activeMqBroker = new EmbeddedActiveMq();
+    ConcurrentPtpConsumer consumer = new ConcurrentPtpConsumer(new ConfiguredConsumeDestination(getName()));
+    consumer.setSessionCount(3);
+    StandaloneConsumer standaloneConsumer = new StandaloneConsumer(activeMqBroker.getJmsConnection(createVendorImpl()), consumer);
+    try {
+      activeMqBroker.start();
+      assertEquals(0, consumer.openSessions());
+      LifecycleHelper.initAndStart(standaloneConsumer);
+      assertEquals(3, consumer.openSessions());
+      LifecycleHelper.stop(standaloneConsumer);
+      LifecycleHelper.start(standaloneConsumer);
+      assertEquals(3, consumer.openSessions());
+      LifecycleHelper.stopAndClose(standaloneConsumer);
+      assertEquals(0, consumer.openSessions());
+    }
+    finally {
+      LifecycleHelper.stopAndClose(standaloneConsumer);
+      activeMqBroker.destroy();
+    }
+  }
+
+  public void testProduceAndConsume_AutoAcknowledge() throws Exception {
+    if (!JmsConfig.jmsTestsEnabled()) {
+      return;
+    }
+    produceAndConsume("AUTO_ACKNOWLEDGE");
+  }
+
+  public void testProduceAndConsume_ClientAcknowledge() throws Exception {
+    if (!JmsConfig.jmsTestsEnabled()) {
+      return;
+    }
+    produceAndConsume("CLIENT_ACKNOWLEDGE");
+  }
+
+  private void produceAndConsume(String ackMode) throws Exception {
+    int count = 50;
+    EmbeddedActiveMq activeMqBroker = new EmbeddedActiveMq();
+    try {
+      activeMqBroker.start();
+      ConcurrentPtpConsumer consumer = new ConcurrentPtpConsumer(new ConfiguredConsumeDestination(getName()));
+      consumer.setAcknowledgeMode(ackMode);
+      consumer.setSessionCount(4);
+      StandaloneConsumer standaloneConsumer = new StandaloneConsumer(activeMqBroker.getJmsConnection(createVendorImpl()), consumer);
+      MockMessageListener jms = new MockMessageListener(10);
+      standaloneConsumer.registerAdaptrisMessageListener(jms);
+
+      StandaloneProducer standaloneProducer = new StandaloneProducer(activeMqBroker.getJmsConnection(createVendorImpl()),
+          new PtpProducer(new ConfiguredProduceDestination(getName())));
+      execute(standaloneConsumer, standaloneProducer, createMessage(null), count, 100L, jms);
+      assertMessages(jms, count);
+      // Each session has acknowledged its own messages, so nothing is redelivered.
+      assertEquals(0, activeMqBroker.messagesOnQueue(getName()));
+    }
+    finally {
+      activeMqBroker.destroy();
+    }
+  }
+
+  private BasicActiveMqImplementation createVendorImpl() {
+    return new BasicActiveMqImplementation();
+  }
+}
@@ -2,14 +2,18 @@ package com.adaptris.core.jms;
 
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import java.util.concurrent.TimeUnit;
 import javax.jms.CompletionListener;
 import javax.jms.Destination;
 import javax.jms.JMSException;
 import javax.jms.Message;
 import javax.jms.MessageProducer;
+import javax.jms.Session;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import com.adaptris.core.AdaptrisMessage;
@@ -17,6 +21,7 @@ import com.adaptris.core.ConfiguredProduceDestination;
 import com.adaptris.core.CoreException;
 import com.adaptris.core.DefaultMessageFactory;
 import com.adaptris.core.NullConnection;
+import com.adaptris.core.ProduceException;
 import com.adaptris.core.StandaloneProducer;
 import com.adaptris.core.StandardProcessingExceptionHandler;
 import com.adaptris.core.fs.FsProducer;
@@ -24,6 +29,7 @@ import com.adaptris.core.jms.activemq.EmbeddedArtemis;
 import com.adaptris.core.jms.jndi.StandardJndiImplementation;
 import com.adaptris.core.util.LifecycleHelper;
 import com.adaptris.util.KeyValuePair;
+import com.adaptris.util.TimeInterval;
 
 public class JmsAsyncProducerTest extends JmsProducerExample {
   
@@ -148,6 +154,130 @@ public class JmsAsyncProducerTest extends JmsProducerExample {
     verify(mockExceptionHandler, times(0)).handleProcessingException(any(AdaptrisMessage.class));
   }
   
+  public void testInFlight_ReleasedOnCompletion() throws Exception {
+    producer.setPerMessageProperties(false);
+    producer.produce(adaptrisMessage, mockJmsDestination);
+    assertEquals(1, producer.inFlightCount());
+    ArgumentCaptor<CompletionListener> listener = ArgumentCaptor.forClass(CompletionListener.class);
+    verify(mockMessageProducer).send(any(Destination.class), any(Message.class), listener.capture());
+    listener.getValue().onCompletion(mockMessage);
+    // a duplicate callback shouldn't release the window twice.
+    listener.getValue().onCompletion(mockMessage);
+    assertEquals(0, producer.inFlightCount());
+    assertEquals(1, producer.statistics().completedCount());
+    assertEquals(1, producer.statistics().histogram()[0]);
+    verify(mockExceptionHandler, times(0)).handleProcessingException(any(AdaptrisMessage.class));
+  }
+
+  public void testInFlight_ReleasedOnException() throws Exception {
+    producer.setPerMessageProperties(false);
+    producer.produce(adaptrisMessage, mockJmsDestination);
+    ArgumentCaptor<CompletionListener> listener = ArgumentCaptor.forClass(CompletionListener.class);
+    verify(mockMessageProducer).send(any(Destination.class), any(Message.class), listener.capture());
+    listener.getValue().onException(mockMessage, new Exception());
+    assertEquals(0, producer.inFlightCount());
+    assertEquals(1, producer.statistics().failedCount());
+    verify(mockExceptionHandler).handleProcessingException(any(AdaptrisMessage.class));
+  }
+
+  public void testInFlight_ReleasedOnSendFailure() throws Exception {
+    doThrow(new JMSException("expected")).when(mockMessageProducer).send(any(Destination.class), any(Message.class),
+        any(CompletionListener.class));
+    producer.setPerMessageProperties(false);
+    try {
+      producer.produce(adaptrisMessage, mockJmsDestination);
+      fail();
+    } catch (CoreException expected) {
+
+    }
+    assertEquals(0, producer.inFlightCount());
+    assertEquals(1, producer.statistics().failedCount());
+  }
+
+  public void testInFlight_FailFast() throws Exception {
+    producer.setMaxInFlight(1);
+    producer.setFailFast(true);
+    producer.produce(adaptrisMessage, mockJmsDestination);
+    try {
+      producer.produce(adaptrisMessage, mockJmsDestination);
+      fail("Should fail, the in-flight window is full");
+    } catch (CoreException expected) {
+
+    }
+    assertEquals(1, producer.inFlightCount());
+    assertEquals(1, producer.statistics().rejectedCount());
+  }
+
+  public void testInFlight_Wait() throws Exception {
+    producer.setMaxInFlight(1);
+    producer.setMaxInFlightWait(new TimeInterval(100L, TimeUnit.MILLISECONDS));
+    producer.produce(adaptrisMessage, mockJmsDestination);
+    long start = System.currentTimeMillis();
+    try {
+      producer.produce(adaptrisMessage, mockJmsDestination);
+      fail("Should fail, the in-flight window is full");
+    } catch (CoreException expected) {
+
+    }
+    assertTrue(System.currentTimeMillis() - start >= 100);
+    assertEquals(1, producer.statistics().rejectedCount());
+  }
+
+  public void testInFlight_Interrupted() throws Exception {
+    producer.setMaxInFlight(1);
+    producer.setMaxInFlightWait(new TimeInterval(10L, TimeUnit.SECONDS));
+    producer.produce(adaptrisMessage, mockJmsDestination);
+    Thread.currentThread().interrupt();
+    try {
+      producer.produce(adaptrisMessage, mockJmsDestination);
+      fail("Should fail, the thread was interrupted");
+    } catch (ProduceException expected) {
+
+    } finally {
+      // Clears the interrupt as well.
+      assertTrue(Thread.interrupted());
+    }
+    assertEquals(1, producer.inFlightCount());
+  }
+
+  public void testStop_WaitsForInFlight() throws Exception {
+    producer.setPerMessageProperties(false);
+    producer.produce(adaptrisMessage, mockJmsDestination);
+    ArgumentCaptor<CompletionListener> listener = ArgumentCaptor.forClass(CompletionListener.class);
+    verify(mockMessageProducer).send(any(Destination.class), any(Message.class), listener.capture());
+    Thread completer = new Thread(() -> {
+      try {
+        Thread.sleep(100L);
+      } catch (InterruptedException e) {
+      }
+      listener.getValue().onCompletion(mockMessage);
+    });
+    completer.start();
+    producer.stop();
+    assertEquals(0, producer.inFlightCount());
+    assertEquals(1, producer.statistics().completedCount());
+  }
+
+  public void testCacheDestinationProducers() throws Exception {
+    Session mockJmsSession = mock(Session.class);
+    Destination mockDestination = mock(Destination.class);
+    MessageProducer cached = mock(MessageProducer.class);
+    when(mockSession.getSession()).thenReturn(mockJmsSession);
+    when(mockJmsSession.createProducer(mockDestination)).thenReturn(cached);
+    when(mockJmsDestination.getDestination()).thenReturn(mockDestination);
+
+    producer.setCacheDestinationProducers(true);
+    producer.setPerMessageProperties(false);
+    producer.setMaxInFlightWait(new TimeInterval(10L, TimeUnit.MILLISECONDS));
+    producer.produce(adaptrisMessage, mockJmsDestination);
+    producer.produce(adaptrisMessage, mockJmsDestination);
+    verify(mockJmsSession, times(1)).createProducer(mockDestination);
+    verify(cached, times(2)).send(any(Message.class), any(CompletionListener.class));
+    verify(mockMessageProducer, times(0)).send(any(Destination.class), any(Message.class), any(CompletionListener.class));
+    producer.stop();
+    verify(cached).close();
+  }
+
   public void testEmbeddedSuccessHandler() throws Exception {
     // This would be best, but we can't mix Junit3 with Junit4 assumptions.
     // Assume.assumeTrue(JmsConfig.jmsTestsEnabled());
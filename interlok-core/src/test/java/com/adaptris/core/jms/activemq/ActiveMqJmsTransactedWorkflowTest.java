@@ -22,6 +22,7 @@ import static com.adaptris.core.BaseCase.waitForMessages;
 import static com.adaptris.core.jms.JmsConfig.DEFAULT_PAYLOAD;
 import static com.adaptris.core.jms.activemq.EmbeddedActiveMq.createSafeUniqueId;
 import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertTrue;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -566,6 +567,184 @@ public class ActiveMqJmsTransactedWorkflowTest {
     activeMqBroker.destroy();
   }
 
+  @Test
+  public void testMessagesCommittedInBatchesUsingQueue() throws Exception {
+
+    int msgCount = 10;
+    EmbeddedActiveMq activeMqBroker = new EmbeddedActiveMq();
+    String destination = createSafeUniqueId(new Object());
+
+    Channel channel = createStartableChannel(activeMqBroker, true, "testMessagesCommittedInBatchesUsingQueue", destination);
+    JmsTransactedWorkflow workflow = (JmsTransactedWorkflow) channel.getWorkflowList().get(0);
+    workflow.setCommitBatchSize(4);
+    workflow.setCommitBatchWindow(new TimeInterval(100L, TimeUnit.MILLISECONDS));
+    JmsConsumerImpl consumer = (JmsConsumerImpl) workflow.getConsumer();
+    try {
+      activeMqBroker.start();
+      channel.requestStart();
+      StandaloneProducer sender = new StandaloneProducer(activeMqBroker.getJmsConnection(), new PtpProducer(
+          new ConfiguredProduceDestination(destination)));
+      send(sender, msgCount);
+      waitForMessages((MockMessageProducer) workflow.getProducer(), msgCount);
+      assertEquals(msgCount, ((MockMessageProducer) workflow.getProducer()).getMessages().size());
+    }
+    finally {
+      channel.requestClose();
+    }
+    // The last partial batch is committed when the consumer is stopped.
+    assertEquals(msgCount, consumer.acknowledgementBatch().messageCount());
+    assertTrue(consumer.acknowledgementBatch().batchCount() < msgCount);
+    assertEquals(0, activeMqBroker.messagesOnQueue(destination));
+    activeMqBroker.destroy();
+  }
+
+  @Test
+  public void testBatchWindowExpired_CommittedByNextMessage() throws Exception {
+    EmbeddedActiveMq activeMqBroker = new EmbeddedActiveMq();
+    String destination = createSafeUniqueId(new Object());
+
+    Channel channel = createStartableChannel(activeMqBroker, true, "testBatchWindowExpired_CommittedByNextMessage", destination);
+    JmsTransactedWorkflow workflow = (JmsTransactedWorkflow) channel.getWorkflowList().get(0);
+    workflow.setCommitBatchSize(10);
+    workflow.setCommitBatchWindow(new TimeInterval(100L, TimeUnit.MILLISECONDS));
+    JmsConsumerImpl consumer = (JmsConsumerImpl) workflow.getConsumer();
+    try {
+      activeMqBroker.start();
+      channel.requestStart();
+      StandaloneProducer sender = new StandaloneProducer(activeMqBroker.getJmsConnection(), new PtpProducer(
+          new ConfiguredProduceDestination(destination)));
+      send(sender, 1);
+      waitForMessages((MockMessageProducer) workflow.getProducer(), 1);
+      Thread.sleep(300);
+      // Nothing is committed while waiting for the next message, however long the window has expired for.
+      assertEquals(0, consumer.acknowledgementBatch().messageCount());
+      send(sender, 1);
+      waitForMessages((MockMessageProducer) workflow.getProducer(), 2);
+      assertEquals(2, consumer.acknowledgementBatch().messageCount());
+      assertEquals(1, consumer.acknowledgementBatch().batchCount());
+    }
+    finally {
+      channel.requestClose();
+    }
+    assertEquals(0, activeMqBroker.messagesOnQueue(destination));
+    activeMqBroker.destroy();
+  }
+
+  @Test
+  public void testBatchWindowExpiresWhileProcessing_MessageFails() throws Exception {
+    EmbeddedActiveMq activeMqBroker = new EmbeddedActiveMq();
+    String destination = createSafeUniqueId(new Object());
+
+    Channel channel = createStartableChannel(activeMqBroker, true, "testBatchWindowExpiresWhileProcessing_MessageFails",
+        destination);
+    JmsTransactedWorkflow workflow = (JmsTransactedWorkflow) channel.getWorkflowList().get(0);
+    workflow.setCommitBatchSize(10);
+    workflow.setCommitBatchWindow(new TimeInterval(100L, TimeUnit.MILLISECONDS));
+    workflow.getServiceCollection().addService(new SlowlyFail("fail", 300L));
+    JmsConsumerImpl consumer = (JmsConsumerImpl) workflow.getConsumer();
+    try {
+      activeMqBroker.start();
+      channel.requestStart();
+      StandaloneProducer sender = new StandaloneProducer(activeMqBroker.getJmsConnection(), new PtpProducer(
+          new ConfiguredProduceDestination(destination)));
+      start(sender);
+      sender.doService(new DefaultMessageFactory().newMessage(DEFAULT_PAYLOAD));
+      waitForMessages((MockMessageProducer) workflow.getProducer(), 1);
+      // The window expires while the 2nd message is being processed; the first message must not be committed
+      // without it, and it must not be committed at all.
+      sender.doService(new DefaultMessageFactory().newMessage("fail"));
+      Thread.sleep(500);
+      stop(sender);
+    }
+    finally {
+      channel.requestClose();
+    }
+    assertEquals(0, consumer.acknowledgementBatch().messageCount());
+    assertTrue(consumer.acknowledgementBatch().rollbackCount() > 0);
+    assertEquals(2, activeMqBroker.messagesOnQueue(destination));
+    activeMqBroker.destroy();
+  }
+
+  @Test
+  public void testMessagesRolledBackInBatchesUsingQueue() throws Exception {
+
+    int msgCount = 10;
+    EmbeddedActiveMq activeMqBroker = new EmbeddedActiveMq();
+    String destination = createSafeUniqueId(new Object());
+
+    Channel channel = createStartableChannel(activeMqBroker, true, "testMessagesRolledBackInBatchesUsingQueue", destination);
+    JmsTransactedWorkflow workflow = (JmsTransactedWorkflow) channel.getWorkflowList().get(0);
+    workflow.setCommitBatchSize(5);
+    workflow.getServiceCollection().addService(new ThrowExceptionService(new ConfiguredException("Fail")));
+    JmsConsumerImpl consumer = (JmsConsumerImpl) workflow.getConsumer();
+    try {
+      activeMqBroker.start();
+      channel.requestStart();
+      StandaloneProducer sender = new StandaloneProducer(activeMqBroker.getJmsConnection(), new PtpProducer(
+          new ConfiguredProduceDestination(destination)));
+      send(sender, msgCount);
+    }
+    finally {
+      channel.requestClose();
+    }
+    assertEquals(0, consumer.acknowledgementBatch().messageCount());
+    assertEquals(msgCount, activeMqBroker.messagesOnQueue(destination));
+    activeMqBroker.destroy();
+  }
+
+  @Test
+  public void testMessagesCommittedInBatchesUsingQueuePollingConsumer() throws Exception {
+
+    int msgCount = 10;
+    EmbeddedActiveMq activeMqBroker = new EmbeddedActiveMq();
+    String destination = createSafeUniqueId(new Object());
+
+    JmsTransactedWorkflow workflow = createPollingWorkflow(activeMqBroker, "testMessagesCommittedInBatchesUsingQueuePollingConsumer",
+        destination);
+    workflow.setCommitBatchSize(3);
+    Channel channel = createStartableChannel(workflow);
+    JmsPollingConsumerImpl consumer = (JmsPollingConsumerImpl) workflow.getConsumer();
+    try {
+      activeMqBroker.start();
+      channel.requestStart();
+      StandaloneProducer sender = new StandaloneProducer(activeMqBroker.getJmsConnection(new BasicActiveMqImplementation(), true),
+          new PtpProducer(new ConfiguredProduceDestination(destination)));
+      send(sender, msgCount);
+      waitForMessages((MockMessageProducer) workflow.getProducer(), msgCount);
+      assertEquals(msgCount, ((MockMessageProducer) workflow.getProducer()).getMessages().size());
+    }
+    finally {
+      channel.requestClose();
+    }
+    // Any partial batch is committed before the connection is closed.
+    assertEquals(msgCount, consumer.acknowledgementBatch().messageCount());
+    assertEquals(0, activeMqBroker.messagesOnQueue(destination));
+    activeMqBroker.destroy();
+  }
+
+  @Test
+  public void testPollingConsumerBatchUsedIfNoCommitBatchSize() throws Exception {
+
+    int msgCount = 10;
+    EmbeddedActiveMq activeMqBroker = new EmbeddedActiveMq();
+    String destination = createSafeUniqueId(new Object());
+
+    JmsTransactedWorkflow workflow = createPollingWorkflow(activeMqBroker, "testPollingConsumerBatchUsedIfNoCommitBatchSize",
+        destination);
+    JmsPollingConsumerImpl consumer = (JmsPollingConsumerImpl) workflow.getConsumer();
+    consumer.setAcknowledgeBatchSize(5);
+    Channel channel = createStartableChannel(workflow);
+    try {
+      activeMqBroker.start();
+      channel.requestStart();
+      assertEquals(5, consumer.acknowledgementBatch().size());
+    }
+    finally {
+      channel.requestClose();
+    }
+    activeMqBroker.destroy();
+  }
+
   private Channel createStartableChannel(Workflow w) throws Exception {
     Channel channel = new MockChannel();
     channel.getWorkflowList().add(w);
@@ -617,6 +796,43 @@ public class ActiveMqJmsTransactedWorkflowTest {
     return workflow;
   }
 
+  private class SlowlyFail extends ServiceImp {
+    private String failOn;
+    private long sleepMs;
+
+    SlowlyFail(String failOn, long sleepMs) {
+      this.failOn = failOn;
+      this.sleepMs = sleepMs;
+    }
+
+    @Override
+    public void doService(AdaptrisMessage msg) throws ServiceException {
+      if (failOn.equals(msg.getContent())) {
+        try {
+          Thread.sleep(sleepMs);
+        }
+        catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        throw new ServiceException(this.getClass().getSimpleName() + " failure for " + failOn);
+      }
+    }
+
+    @Override
+    protected void initService() throws CoreException {
+
+    }
+
+    @Override
+    protected void closeService() {
+
+    }
+
+    @Override
+    public void prepare() throws CoreException {}
+
+  }
+
   private void send(StandaloneProducer sender, int count) throws Exception {
     start(sender);
     for (int i = 0; i < count; i++) {
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.adaptris.core.AdaptrisMessage;
+import com.adaptris.core.AdaptrisMessageFactory;
+import com.adaptris.core.util.LifecycleHelper;
+
+public class LruBoundedMessageCacheTest {
+
+  @Test
+  public void testPutContainsRemove() throws Exception {
+    LruBoundedMessageCache cache = new LruBoundedMessageCache();
+    try {
+      LifecycleHelper.initAndStart(cache);
+      CacheableAdaptrisMessageWrapper w = wrap("hello");
+      cache.put(w);
+      assertTrue(cache.contains(w.getMessageId()));
+      assertEquals(5, cache.sizeBytes());
+      assertSame(w, cache.remove(w.getMessageId()));
+      assertFalse(cache.contains(w.getMessageId()));
+      assertNull(cache.remove(w.getMessageId()));
+      assertEquals(0, cache.size());
+      assertEquals(0, cache.sizeBytes());
+    } finally {
+      LifecycleHelper.stopAndClose(cache);
+    }
+  }
+
+  @Test
+  public void testMaxMessages() throws Exception {
+    LruBoundedMessageCache cache = new LruBoundedMessageCache();
+    cache.setMaxMessages(2);
+    try {
+      LifecycleHelper.initAndStart(cache);
+      CacheableAdaptrisMessageWrapper w1 = wrap("1");
+      CacheableAdaptrisMessageWrapper w2 = wrap("2");
+      CacheableAdaptrisMessageWrapper w3 = wrap("3");
+      cache.put(w1);
+      cache.put(w2);
+      cache.put(w3);
+      assertEquals(2, cache.size());
+      assertFalse(cache.contains(w1.getMessageId()));
+      assertTrue(cache.contains(w2.getMessageId()));
+      assertTrue(cache.contains(w3.getMessageId()));
+    } finally {
+      LifecycleHelper.stopAndClose(cache);
+    }
+  }
+
+  @Test
+  public void testMaxMessages_AccessOrder() throws Exception {
+    LruBoundedMessageCache cache = new LruBoundedMessageCache();
+    cache.setMaxMessages(2);
+    try {
+      LifecycleHelper.initAndStart(cache);
+      CacheableAdaptrisMessageWrapper w1 = wrap("1");
+      CacheableAdaptrisMessageWrapper w2 = wrap("2");
+      cache.put(w1);
+      cache.put(w2);
+      // Re-adding w1 makes it the most recently used.
+      cache.put(w1);
+      cache.put(wrap("3"));
+      assertTrue(cache.contains(w1.getMessageId()));
+      assertFalse(cache.contains(w2.getMessageId()));
+      assertEquals(2, cache.sizeBytes());
+    } finally {
+      LifecycleHelper.stopAndClose(cache);
+    }
+  }
+
+  @Test
+  public void testMaxSizeBytes() throws Exception {
+    LruBoundedMessageCache cache = new LruBoundedMessageCache();
+    cache.setMaxSizeBytes(10L);
+    try {
+      LifecycleHelper.initAndStart(cache);
+      CacheableAdaptrisMessageWrapper w1 = wrap("12345");
+      CacheableAdaptrisMessageWrapper w2 = wrap("12345");
+      CacheableAdaptrisMessageWrapper w3 = wrap("12345");
+      cache.put(w1);
+      cache.put(w2);
+      assertEquals(2, cache.size());
+      cache.put(w3);
+      assertEquals(2, cache.size());
+      assertEquals(10, cache.sizeBytes());
+      assertFalse(cache.contains(w1.getMessageId()));
+      // Always keep the latest message.
+      CacheableAdaptrisMessageWrapper big = wrap("12345678901234567890");
+      cache.put(big);
+      assertEquals(1, cache.size());
+      assertTrue(cache.contains(big.getMessageId()));
+    } finally {
+      LifecycleHelper.stopAndClose(cache);
+    }
+  }
+
+  @Test
+  public void testStop_Clears() throws Exception {
+    LruBoundedMessageCache cache = new LruBoundedMessageCache();
+    LifecycleHelper.initAndStart(cache);
+    cache.put(wrap("hello"));
+    LifecycleHelper.stop(cache);
+    assertEquals(0, cache.size());
+    assertEquals(0, cache.sizeBytes());
+    LifecycleHelper.close(cache);
+  }
+
+  private static CacheableAdaptrisMessageWrapper wrap(String payload) {
+    AdaptrisMessage msg = AdaptrisMessageFactory.getDefaultInstance().newMessage(payload);
+    return new CacheableAdaptrisMessageWrapper(msg.getUniqueId(), msg);
+  }
+}
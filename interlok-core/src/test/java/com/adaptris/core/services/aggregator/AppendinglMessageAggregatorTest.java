@@ -43,6 +43,33 @@ public class AppendinglMessageAggregatorTest extends AggregatingServiceExample {
     assertEquals("newValue", original.getMetadataValue("originalKey"));
   }
 
+  public void testIncrementalJoin() throws Exception {
+    AppendingMessageAggregator aggr = createAggregatorForTests().withOverwriteMetadata(true);
+    AdaptrisMessage original = AdaptrisMessageFactory.getDefaultInstance().newMessage("Goodbye");
+    AdaptrisMessage splitMsg1 = AdaptrisMessageFactory.getDefaultInstance().newMessage(" Cruel ");
+    AdaptrisMessage splitMsg2 = AdaptrisMessageFactory.getDefaultInstance().newMessage("World");
+    splitMsg2.addMetadata("originalKey", "newValue");
+    try (IncrementalMessageAggregator.Aggregation aggregation = aggr.open(original)) {
+      aggregation.append(splitMsg1);
+      aggregation.append(splitMsg2);
+    }
+    assertEquals("Goodbye Cruel World", original.getContent());
+    assertEquals("newValue", original.getMetadataValue("originalKey"));
+  }
+
+  public void testIncrementalJoin_Abort() throws Exception {
+    AppendingMessageAggregator aggr = createAggregatorForTests().withOverwriteMetadata(true);
+    AdaptrisMessage original = AdaptrisMessageFactory.getDefaultInstance().newMessage("Goodbye");
+    original.addMetadata("originalKey", "originalValue");
+    AdaptrisMessage splitMsg1 = AdaptrisMessageFactory.getDefaultInstance().newMessage(" Cruel ");
+    splitMsg1.addMetadata("originalKey", "newValue");
+    IncrementalMessageAggregator.Aggregation aggregation = aggr.open(original);
+    aggregation.append(splitMsg1);
+    aggregation.abort();
+    assertEquals("Goodbye", original.getContent());
+    assertEquals("originalValue", original.getMetadataValue("originalKey"));
+  }
+
   public void testJoin_WithException() {
     AppendingMessageAggregator aggr = createAggregatorForTests();
     AdaptrisMessage original = new DefectiveMessageFactory(EnumSet.of(WhenToBreak.INPUT, WhenToBreak.OUTPUT)).newMessage("Goodbye");
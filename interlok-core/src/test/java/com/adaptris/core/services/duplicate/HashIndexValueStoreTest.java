@@ -0,0 +1,249 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core.services.duplicate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.adaptris.core.AdaptrisMessage;
+import com.adaptris.core.AdaptrisMessageFactory;
+import com.adaptris.core.CoreException;
+import com.adaptris.core.util.LifecycleHelper;
+import com.adaptris.util.TimeInterval;
+
+public class HashIndexValueStoreTest {
+
+  private File storeFile;
+
+  @Before
+  public void setUp() throws Exception {
+    storeFile = File.createTempFile(getClass().getSimpleName(), ".idx");
+    storeFile.delete();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    FileUtils.deleteQuietly(storeFile);
+  }
+
+  @Test
+  public void testAddContains() throws Exception {
+    HashIndexValueStore store = create();
+    try {
+      LifecycleHelper.initAndStart(store);
+      assertFalse(store.contains("hello"));
+      store.add("hello");
+      assertTrue(store.contains("hello"));
+      assertFalse(store.contains("world"));
+      store.add("hello");
+      assertEquals(1, store.size());
+    }
+    finally {
+      LifecycleHelper.stopAndClose(store);
+    }
+  }
+
+  @Test
+  public void testNotInitialised() throws Exception {
+    try {
+      create().contains("hello");
+      fail();
+    }
+    catch (CoreException expected) {
+
+    }
+  }
+
+  @Test
+  public void testPersistence() throws Exception {
+    HashIndexValueStore store = create();
+    try {
+      LifecycleHelper.initAndStart(store);
+      for (int i = 0; i < 1000; i++) {
+        store.add("value-" + i);
+      }
+    }
+    finally {
+      LifecycleHelper.stopAndClose(store);
+    }
+    try {
+      LifecycleHelper.initAndStart(store);
+      assertEquals(1000, store.size());
+      for (int i = 0; i < 1000; i++) {
+        assertTrue(store.contains("value-" + i));
+      }
+      assertFalse(store.contains("value-1000"));
+    }
+    finally {
+      LifecycleHelper.stopAndClose(store);
+    }
+  }
+
+  @Test
+  public void testSharedIndex() throws Exception {
+    HashIndexValueStore s1 = create();
+    HashIndexValueStore s2 = create();
+    s2.setUseBloomFilter(true);
+    try {
+      LifecycleHelper.initAndStart(s1);
+      s1.add("before");
+      LifecycleHelper.initAndStart(s2);
+      assertTrue(s2.contains("before"));
+      s1.add("after");
+      assertTrue(s2.contains("after"));
+      LifecycleHelper.stopAndClose(s1);
+      // s2 still has the index open.
+      assertTrue(s2.contains("after"));
+    }
+    finally {
+      LifecycleHelper.stopAndClose(s1);
+      LifecycleHelper.stopAndClose(s2);
+    }
+  }
+
+  @Test
+  public void testTimeToLive() throws Exception {
+    HashIndexValueStore store = create();
+    store.setTimeToLive(new TimeInterval(100L, TimeUnit.MILLISECONDS));
+    try {
+      LifecycleHelper.initAndStart(store);
+      store.add("hello");
+      assertTrue(store.contains("hello"));
+      Thread.sleep(200);
+      assertFalse(store.contains("hello"));
+      assertEquals(0, store.size());
+      store.add("hello");
+      assertTrue(store.contains("hello"));
+    }
+    finally {
+      LifecycleHelper.stopAndClose(store);
+    }
+  }
+
+  @Test
+  public void testFull_OverwritesSoonestExpiry() throws Exception {
+    HashIndexValueStore store = create();
+    store.setMaxEntries(1);
+    store.setUseBloomFilter(true);
+    try {
+      LifecycleHelper.initAndStart(store);
+      int count = HashIndex.MAX_PROBE * 10;
+      for (int i = 0; i < count; i++) {
+        store.add("value-" + i);
+      }
+      assertTrue(store.size() < count);
+      assertTrue(store.contains("value-" + (count - 1)));
+    }
+    finally {
+      LifecycleHelper.stopAndClose(store);
+    }
+  }
+
+  @Test
+  public void testBadStore() throws Exception {
+    FileUtils.write(storeFile, "This is not an index file", "UTF-8");
+    HashIndexValueStore store = create();
+    try {
+      LifecycleHelper.initAndStart(store);
+      fail();
+    }
+    catch (CoreException expected) {
+
+    }
+    finally {
+      LifecycleHelper.stopAndClose(store);
+    }
+  }
+
+  @Test
+  public void testWithServices() throws Exception {
+    StoreMetadataValueService storer = new StoreMetadataValueService();
+    storer.setMetadataKey("key");
+    storer.setValueStore(create());
+    CheckMetadataValueService checker = new CheckMetadataValueService();
+    checker.setMetadataKey("key");
+    checker.setNextServiceIdIfDuplicate("duplicate");
+    checker.setNextServiceIdIfUnique("unique");
+    checker.setValueStore(create());
+    try {
+      LifecycleHelper.initAndStart(storer);
+      LifecycleHelper.initAndStart(checker);
+      AdaptrisMessage msg = AdaptrisMessageFactory.getDefaultInstance().newMessage();
+      msg.addMetadata("key", "123");
+      checker.doService(msg);
+      assertEquals("unique", msg.getNextServiceId());
+      storer.doService(msg);
+      checker.doService(msg);
+      assertEquals("duplicate", msg.getNextServiceId());
+      assertEquals(1, checker.storeSize());
+    }
+    finally {
+      LifecycleHelper.stopAndClose(storer);
+      LifecycleHelper.stopAndClose(checker);
+    }
+  }
+
+  @Test
+  public void testWithServices_StoreFileUrlAndValueStore() throws Exception {
+    StoreMetadataValueService storer = new StoreMetadataValueService();
+    storer.setMetadataKey("key");
+    storer.setValueStore(create());
+    storer.setStoreFileUrl(storeFile.toURI().toURL().toString());
+    try {
+      LifecycleHelper.initAndStart(storer);
+      fail();
+    }
+    catch (CoreException expected) {
+
+    }
+    finally {
+      LifecycleHelper.stopAndClose(storer);
+    }
+  }
+
+  @Test
+  public void testWithServices_NoStore() throws Exception {
+    StoreMetadataValueService storer = new StoreMetadataValueService();
+    storer.setMetadataKey("key");
+    try {
+      LifecycleHelper.initAndStart(storer);
+      fail();
+    }
+    catch (CoreException expected) {
+
+    }
+    finally {
+      LifecycleHelper.stopAndClose(storer);
+    }
+  }
+
+  private HashIndexValueStore create() throws Exception {
+    HashIndexValueStore store = new HashIndexValueStore(storeFile.toURI().toURL().toString());
+    store.setMaxEntries(10000);
+    return store;
+  }
+}
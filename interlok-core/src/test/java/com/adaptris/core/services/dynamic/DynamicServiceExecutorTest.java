@@ -23,13 +23,16 @@ import static com.adaptris.util.text.mime.MimeConstants.ENCODING_BASE64;
 import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.adaptris.core.AdaptrisMessage;
 import com.adaptris.core.AdaptrisMessageFactory;
+import com.adaptris.core.CoreException;
 import com.adaptris.core.DefaultMarshaller;
 import com.adaptris.core.MetadataElement;
 import com.adaptris.core.Service;
 import com.adaptris.core.ServiceException;
+import com.adaptris.core.ServiceImp;
 import com.adaptris.core.ServiceList;
 import com.adaptris.core.XStreamMarshaller;
 import com.adaptris.core.cache.ExpiringMapCache;
@@ -37,6 +40,8 @@ import com.adaptris.core.common.MetadataDataInputParameter;
 import com.adaptris.core.jdbc.JdbcConnection;
 import com.adaptris.core.services.LogMessageService;
 import com.adaptris.core.services.cache.CacheConnection;
+import com.adaptris.core.services.exception.ConfiguredException;
+import com.adaptris.core.services.exception.ThrowExceptionService;
 import com.adaptris.core.services.metadata.AddMetadataService;
 import com.adaptris.util.GuidGenerator;
 import com.adaptris.util.text.mime.MultiPartOutput;
@@ -360,12 +365,126 @@ public class DynamicServiceExecutorTest extends DynamicServiceExample {
     assertEquals(getName(), msg.getMetadataValue(getName()));
   }
 
+  public void testDoService_WithServiceCache() throws Exception {
+    AddMetadataService metadataService = new AddMetadataService();
+    metadataService.addMetadataElement(new MetadataElement(getName(), getName()));
+    DynamicServiceExecutor dynamicService = createService();
+    ServiceInstanceCache cache = new ServiceInstanceCache();
+    dynamicService.setServiceCache(cache);
+    String xml = DefaultMarshaller.getDefaultMarshaller().marshal(metadataService);
+    String key = dynamicService.cacheKey((Service) DefaultMarshaller.getDefaultMarshaller().unmarshal(xml));
+    try {
+      start(dynamicService);
+      for (int i = 0; i < 3; i++) {
+        AdaptrisMessage msg = AdaptrisMessageFactory.getDefaultInstance().newMessage(xml);
+        dynamicService.doService(msg);
+        assertEquals(getName(), msg.getMetadataValue(getName()));
+      }
+      assertEquals(1, cache.size());
+      assertEquals(1, cache.idleCount(key));
+      dynamicService.doService(createMessage(new ServiceList()));
+      assertEquals(2, cache.size());
+    }
+    finally {
+      stop(dynamicService);
+    }
+    assertEquals(0, cache.size());
+  }
+
+  public void testDoService_WithServiceCache_ServiceFails() throws Exception {
+    ThrowExceptionService failing = new ThrowExceptionService(new ConfiguredException(getName()));
+    DynamicServiceExecutor dynamicService = createService();
+    ServiceInstanceCache cache = new ServiceInstanceCache();
+    dynamicService.setServiceCache(cache);
+    String xml = DefaultMarshaller.getDefaultMarshaller().marshal(failing);
+    String key = dynamicService.cacheKey((Service) DefaultMarshaller.getDefaultMarshaller().unmarshal(xml));
+    try {
+      start(dynamicService);
+      for (int i = 0; i < 2; i++) {
+        try {
+          dynamicService.doService(AdaptrisMessageFactory.getDefaultInstance().newMessage(xml));
+          fail();
+        }
+        catch (ServiceException expected) {
+
+        }
+        assertEquals(0, cache.idleCount(key));
+      }
+    }
+    finally {
+      stop(dynamicService);
+    }
+  }
+
+  public void testDoService_WithServiceCache_FailsToStart() throws Exception {
+    DynamicServiceExecutor dynamicService = createService();
+    ServiceInstanceCache cache = new ServiceInstanceCache();
+    dynamicService.setServiceCache(cache);
+    FailToStart.closeCount.set(0);
+    try {
+      start(dynamicService);
+      try {
+        dynamicService.doService(createMessage(new FailToStart()));
+        fail();
+      }
+      catch (ServiceException expected) {
+
+      }
+      assertEquals(1, FailToStart.closeCount.get());
+      assertEquals(0, cache.size());
+    }
+    finally {
+      stop(dynamicService);
+    }
+  }
+
+  public void testDoService_WithServiceCache_NotService() throws Exception {
+    DynamicServiceExecutor dynamicService = createService();
+    dynamicService.setServiceCache(new ServiceInstanceCache());
+    AdaptrisMessage msg = AdaptrisMessageFactory.getDefaultInstance().newMessage(getName());
+    try {
+      execute(dynamicService, msg);
+      fail();
+    }
+    catch (ServiceException expected) {
+
+    }
+    dynamicService.setTreatNotFoundAsError(false);
+    execute(dynamicService, msg);
+  }
+
   private DynamicServiceExecutor createService() {
     DynamicServiceExecutor service = new DynamicServiceExecutor();
     service.registerEventHandler(null);
     return service;
   }
 
+  public static class FailToStart extends ServiceImp {
+    static final AtomicInteger closeCount = new AtomicInteger();
+
+    @Override
+    public void doService(AdaptrisMessage msg) throws ServiceException {
+    }
+
+    @Override
+    protected void initService() throws CoreException {
+    }
+
+    @Override
+    public void start() throws CoreException {
+      throw new CoreException("FailToStart");
+    }
+
+    @Override
+    protected void closeService() {
+      closeCount.incrementAndGet();
+    }
+
+    @Override
+    public void prepare() throws CoreException {
+    }
+  }
+
   public static AdaptrisMessage createMessage(Service s) throws Exception {
     String xml = DefaultMarshaller.getDefaultMarshaller().marshal(s);
     return AdaptrisMessageFactory.getDefaultInstance().newMessage(xml);
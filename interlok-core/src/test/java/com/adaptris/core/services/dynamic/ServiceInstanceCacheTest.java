@@ -0,0 +1,111 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core.services.dynamic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.adaptris.core.ClosedState;
+import com.adaptris.core.NullService;
+import com.adaptris.core.Service;
+import com.adaptris.core.StartedState;
+import com.adaptris.core.util.LifecycleHelper;
+import com.adaptris.util.TimeInterval;
+
+public class ServiceInstanceCacheTest {
+
+  @Test
+  public void testBorrowRelease() throws Exception {
+    ServiceInstanceCache cache = new ServiceInstanceCache();
+    assertNull(cache.borrow("key"));
+    Service s1 = started();
+    Service s2 = started();
+    cache.release("key", s1);
+    cache.release("key", s2);
+    assertEquals(2, cache.idleCount("key"));
+    // Concurrent users get different instances.
+    Service b1 = cache.borrow("key");
+    Service b2 = cache.borrow("key");
+    assertSame(s2, b1);
+    assertSame(s1, b2);
+    assertNull(cache.borrow("key"));
+  }
+
+  @Test
+  public void testMaxIdle() throws Exception {
+    ServiceInstanceCache cache = new ServiceInstanceCache();
+    cache.setMaxIdlePerEntry(1);
+    cache.borrow("key");
+    Service s1 = started();
+    Service s2 = started();
+    cache.release("key", s1);
+    cache.release("key", s2);
+    assertEquals(1, cache.idleCount("key"));
+    assertEquals(ClosedState.getInstance(), s2.retrieveComponentState());
+    assertEquals(StartedState.getInstance(), s1.retrieveComponentState());
+  }
+
+  @Test
+  public void testMaxEntries() throws Exception {
+    ServiceInstanceCache cache = new ServiceInstanceCache();
+    cache.setMaxEntries(2);
+    Service s1 = started();
+    cache.borrow("key1");
+    cache.release("key1", s1);
+    cache.borrow("key2");
+    cache.borrow("key3");
+    assertEquals(2, cache.size());
+    assertEquals(0, cache.idleCount("key1"));
+    assertEquals(ClosedState.getInstance(), s1.retrieveComponentState());
+  }
+
+  @Test
+  public void testTimeToLive() throws Exception {
+    ServiceInstanceCache cache = new ServiceInstanceCache();
+    cache.setTimeToLive(new TimeInterval(100L, TimeUnit.MILLISECONDS));
+    Service s1 = started();
+    cache.borrow("key1");
+    cache.release("key1", s1);
+    Thread.sleep(200);
+    assertNull(cache.borrow("key2"));
+    assertEquals(1, cache.size());
+    assertEquals(ClosedState.getInstance(), s1.retrieveComponentState());
+  }
+
+  @Test
+  public void testReleaseAfterClear() throws Exception {
+    ServiceInstanceCache cache = new ServiceInstanceCache();
+    Service s1 = started();
+    Service s2 = started();
+    cache.borrow("key");
+    cache.release("key", s1);
+    cache.clear();
+    assertEquals(0, cache.size());
+    assertEquals(ClosedState.getInstance(), s1.retrieveComponentState());
+    cache.release("key", s2);
+    assertEquals(ClosedState.getInstance(), s2.retrieveComponentState());
+  }
+
+  private static Service started() throws Exception {
+    return LifecycleHelper.initAndStart(new NullService());
+  }
+}
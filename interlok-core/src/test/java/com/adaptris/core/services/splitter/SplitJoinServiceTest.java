@@ -28,6 +28,7 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 import org.junit.After;
@@ -39,14 +40,18 @@ import com.adaptris.core.AdaptrisMessage;
 import com.adaptris.core.AdaptrisMessageFactory;
 import com.adaptris.core.CoreException;
 import com.adaptris.core.DefaultEventHandler;
+import com.adaptris.core.MetadataElement;
 import com.adaptris.core.NullService;
 import com.adaptris.core.ServiceException;
 import com.adaptris.core.services.WaitService;
+import com.adaptris.core.services.aggregator.AppendingMessageAggregator;
 import com.adaptris.core.services.aggregator.MessageAggregator;
 import com.adaptris.core.services.aggregator.MimeAggregator;
 import com.adaptris.core.services.aggregator.XmlDocumentAggregator;
 import com.adaptris.core.services.exception.ConfiguredException;
+import com.adaptris.core.services.exception.PossibleExceptionFromMetadata;
 import com.adaptris.core.services.exception.ThrowExceptionService;
+import com.adaptris.core.services.metadata.AddMetadataService;
 import com.adaptris.core.stubs.MockMessageProducer;
 import com.adaptris.core.util.LifecycleHelper;
 import com.adaptris.core.util.MimeHelper;
@@ -266,6 +271,156 @@ public class SplitJoinServiceTest {
     }
   }
 
+  @Test
+  public void testService_StreamsSplitMessages() throws Exception {
+    AdaptrisMessage msg = AdaptrisMessageFactory.getDefaultInstance().newMessage();
+    final AdaptrisMessage first = AdaptrisMessageFactory.getDefaultInstance().newMessage("first");
+    final AdaptrisMessage second = AdaptrisMessageFactory.getDefaultInstance().newMessage("second");
+    final List<Boolean> firstDoneBeforeSecondSplit = new ArrayList<>();
+    SplitJoinService service = createServiceForTests();
+    service.setService(asCollection(new AddMetadataService(new MetadataElement("processed", "true"))));
+    service.setTimeout(new TimeInterval(10L, TimeUnit.SECONDS));
+    service.setSplitter(m -> () -> new Iterator<AdaptrisMessage>() {
+      private int count = 0;
+
+      @Override
+      public boolean hasNext() {
+        return count < 2;
+      }
+
+      @Override
+      public AdaptrisMessage next() {
+        if (count++ == 0) {
+          return first;
+        }
+        long end = System.currentTimeMillis() + 5000L;
+        while (!first.headersContainsKey("processed") && System.currentTimeMillis() < end) {
+          LifecycleHelper.waitQuietly(10);
+        }
+        firstDoneBeforeSecondSplit.add(first.headersContainsKey("processed"));
+        return second;
+      }
+    });
+    service.setAggregator(new MimeAggregator());
+    execute(service, msg);
+    assertEquals("2", msg.getMetadataValue(MessageSplitterServiceImp.KEY_SPLIT_MESSAGE_COUNT));
+    assertTrue(firstDoneBeforeSecondSplit.get(0));
+    assertTrue(second.headersContainsKey("processed"));
+  }
+
+  @Test
+  public void testService_IncrementalJoin_WithXmlJoiner() throws Exception {
+    AdaptrisMessage msg = AdaptrisMessageFactory.getDefaultInstance().newMessage(SplitterCase.XML_MESSAGE);
+    SplitJoinService service = createServiceForTests();
+    service.setService(asCollection(new NullService()));
+    service.setTimeout(new TimeInterval(10L, TimeUnit.SECONDS));
+    service.setSplitter(new XpathMessageSplitter(ENVELOPE_DOCUMENT, ENCODING_UTF8));
+    service.setAggregator(new XmlDocumentAggregator(new InsertNode(XPATH_ENVELOPE)));
+    service.setIncrementalJoin(true);
+    service.setMaxInFlight(1);
+    execute(service, msg);
+    XPath xpath = new XPath();
+    assertEquals(6, xpath.selectNodeList(XmlHelper.createDocument(msg), ENVELOPE_DOCUMENT).getLength());
+    assertEquals("3", msg.getMetadataValue(MessageSplitterServiceImp.KEY_SPLIT_MESSAGE_COUNT));
+  }
+
+  @Test
+  public void testService_IncrementalJoin_PreservesOrder() throws Exception {
+    AdaptrisMessage msg = AdaptrisMessageFactory.getDefaultInstance().newMessage();
+    List<AdaptrisMessage> splits = createSplits("1", "2", "3", "4", "5");
+    SplitJoinService service = createServiceForTests();
+    // Random waits, so the results complete out of order.
+    service.setService(asCollection(new WaitService(new TimeInterval(100L, TimeUnit.MILLISECONDS), true)));
+    service.setTimeout(new TimeInterval(10L, TimeUnit.SECONDS));
+    service.setSplitter(m -> splits);
+    service.setAggregator(new AppendingMessageAggregator());
+    service.setIncrementalJoin(true);
+    service.setMaxInFlight(2);
+    execute(service, msg);
+    assertEquals("12345", msg.getContent());
+    for (AdaptrisMessage split : splits) {
+      // Joined messages don't hang on to their payload.
+      assertEquals(0, split.getSize());
+    }
+  }
+
+  @Test
+  public void testService_IncrementalJoin_Unordered() throws Exception {
+    AdaptrisMessage msg = AdaptrisMessageFactory.getDefaultInstance().newMessage();
+    SplitJoinService service = createServiceForTests();
+    service.setService(asCollection(new WaitService(new TimeInterval(100L, TimeUnit.MILLISECONDS), true)));
+    service.setTimeout(new TimeInterval(10L, TimeUnit.SECONDS));
+    service.setSplitter(m -> createSplits("1", "2", "3", "4", "5"));
+    service.setAggregator(new AppendingMessageAggregator());
+    service.setIncrementalJoin(true);
+    service.setPreserveOrder(false);
+    execute(service, msg);
+    assertEquals(5, msg.getContent().length());
+    for (String s : new String[] {"1", "2", "3", "4", "5"}) {
+      assertTrue(msg.getContent().contains(s));
+    }
+    assertEquals("5", msg.getMetadataValue(MessageSplitterServiceImp.KEY_SPLIT_MESSAGE_COUNT));
+  }
+
+  @Test
+  public void testService_IncrementalJoin_Timeout() throws Exception {
+    AdaptrisMessage msg = AdaptrisMessageFactory.getDefaultInstance().newMessage();
+    SplitJoinService service = createServiceForTests();
+    service.setService(asCollection(new WaitService(new TimeInterval(10L, TimeUnit.SECONDS))));
+    service.setTimeout(new TimeInterval(1L, TimeUnit.SECONDS));
+    service.setSplitter(m -> createSplits("1", "2", "3"));
+    service.setAggregator(new AppendingMessageAggregator());
+    service.setIncrementalJoin(true);
+    service.setPreserveOrder(false);
+    try {
+      execute(service, msg);
+      fail();
+    } catch (ServiceException expected) {
+      assertEquals(DefaultPoolingFutureExceptionStrategy.EXCEPTION_MSG, expected.getMessage());
+    }
+  }
+
+  @Test
+  public void testService_IncrementalJoin_ServiceFails() throws Exception {
+    AdaptrisMessage msg = AdaptrisMessageFactory.getDefaultInstance().newMessage("original");
+    msg.addMetadata("key", "original");
+    List<AdaptrisMessage> splits = createSplits("1", "2", "3");
+    for (AdaptrisMessage split : splits) {
+      split.addMetadata("key", split.getContent());
+    }
+    splits.get(1).addMetadata("fail", "failed");
+    SplitJoinService service = createServiceForTests();
+    service.setService(asCollection(new ThrowExceptionService(new PossibleExceptionFromMetadata("fail"))));
+    service.setTimeout(new TimeInterval(10L, TimeUnit.SECONDS));
+    service.setSplitter(m -> splits);
+    service.setAggregator(new AppendingMessageAggregator().withOverwriteMetadata(true));
+    service.setIncrementalJoin(true);
+    service.setMaxInFlight(1);
+    try {
+      execute(service, msg);
+      fail();
+    } catch (ServiceException expected) {
+
+    }
+    // "1" and "3" were aggregated, but none of it should have made it into the original.
+    assertEquals("original", msg.getContent());
+    assertEquals("original", msg.getMetadataValue("key"));
+    assertFalse(msg.headersContainsKey(MessageSplitterServiceImp.KEY_SPLIT_MESSAGE_COUNT));
+  }
+
+  @Test
+  public void testIncrementalJoin() throws Exception {
+    SplitJoinService service = new SplitJoinService();
+    assertNull(service.getIncrementalJoin());
+    assertFalse(service.incrementalJoin());
+    assertNull(service.getPreserveOrder());
+    assertTrue(service.preserveOrder());
+    assertNull(service.getMaxInFlight());
+    assertEquals(100, service.maxInFlight());
+    service.setMaxInFlight(0);
+    assertEquals(1, service.maxInFlight());
+  }
+
   @Test
   public void testSendEvents() throws Exception {
     SplitJoinService service = new SplitJoinService();
@@ -295,6 +450,14 @@ public class SplitJoinServiceTest {
     assertTrue(eventProducer.getMessages().size() > 0);
   }
 
+  private static List<AdaptrisMessage> createSplits(String... payloads) {
+    List<AdaptrisMessage> result = new ArrayList<>();
+    for (String s : payloads) {
+      result.add(AdaptrisMessageFactory.getDefaultInstance().newMessage(s));
+    }
+    return result;
+  }
+
   protected SplitJoinService createServiceForTests() {
     return new SplitJoinService();
   }
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.core.services.splitter;
+
+import static com.adaptris.core.services.splitter.XpathSplitterTest.ENVELOPE_DOCUMENT;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.namespace.NamespaceContext;
+
+import com.adaptris.core.AdaptrisMessage;
+import com.adaptris.core.AdaptrisMessageFactory;
+import com.adaptris.core.CoreException;
+import com.adaptris.core.lms.FileBackedMessage;
+import com.adaptris.core.lms.FileBackedMessageFactory;
+import com.adaptris.core.services.metadata.XpathMetadataServiceTest;
+import com.adaptris.core.util.CloseableIterable;
+import com.adaptris.core.util.DocumentBuilderFactoryBuilder;
+import com.adaptris.core.util.XmlHelper;
+import com.adaptris.util.text.xml.SimpleNamespaceContext;
+import com.adaptris.util.text.xml.XPath;
+
+public class StaxPathSplitterTest extends SplitterCase {
+
+  private static final String NESTED_NAMESPACES = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+      + "<a:root xmlns:a=\"urn:a\" xmlns:b=\"urn:b\"><a:batch><b:record id=\"1\"><a:value>one</a:value></b:record>"
+      + "<other/><b:record id=\"2\"><a:value>two</a:value></b:record></a:batch></a:root>";
+
+  public StaxPathSplitterTest(String name) {
+    super(name);
+  }
+
+  @Override
+  protected String createBaseFileName(Object object) {
+    return super.createBaseFileName(object) + "-StaxPathSplitter";
+  }
+
+  @Override
+  protected Object retrieveObjectForSampleConfig() {
+    return null;
+  }
+
+  @Override
+  protected List retrieveObjectsForSampleConfig() {
+    return createExamples(new StaxPathSplitter(ENVELOPE_DOCUMENT));
+  }
+
+  @Override
+  protected StaxPathSplitter createSplitterForTests() {
+    return new StaxPathSplitter();
+  }
+
+  public void testSplit() throws Exception {
+    AdaptrisMessage msg = AdaptrisMessageFactory.getDefaultInstance().newMessage(XML_MESSAGE);
+    msg.addMetadata("key", "value");
+    List<AdaptrisMessage> splits = split(new StaxPathSplitter(ENVELOPE_DOCUMENT), msg);
+    assertEquals(3, splits.size());
+    XPath xpath = new XPath();
+    assertEquals("one", xpath.selectSingleTextItem(XmlHelper.createDocument(splits.get(0)), "/document"));
+    assertEquals("three", xpath.selectSingleTextItem(XmlHelper.createDocument(splits.get(2)), "/document"));
+    assertEquals("value", splits.get(0).getMetadataValue("key"));
+    assertEquals("UTF-8", splits.get(0).getContentEncoding());
+  }
+
+  public void testSplit_AnyDepth() throws Exception {
+    AdaptrisMessage msg = AdaptrisMessageFactory.getDefaultInstance().newMessage(XML_MESSAGE);
+    assertEquals(3, split(new StaxPathSplitter("//document"), msg).size());
+    assertEquals(1, split(new StaxPathSplitter("//envelope"), msg).size());
+    assertEquals(3, split(new StaxPathSplitter("/*/document"), msg).size());
+    assertEquals(0, split(new StaxPathSplitter("/document"), msg).size());
+  }
+
+  public void testSplit_InheritsNamespaces() throws Exception {
+    AdaptrisMessage msg = AdaptrisMessageFactory.getDefaultInstance().newMessage(NESTED_NAMESPACES);
+    List<AdaptrisMessage> splits = split(new StaxPathSplitter("/root/batch/record"), msg);
+    assertEquals(2, splits.size());
+    DocumentBuilderFactoryBuilder builder = DocumentBuilderFactoryBuilder.newInstance().withNamespaceAware(true);
+    for (AdaptrisMessage m : splits) {
+      // Would fail to parse if the prefixes weren't declared.
+      assertNotNull(XmlHelper.createDocument(m, builder));
+      assertTrue(m.getContent().contains("xmlns:a=\"urn:a\""));
+    }
+    assertTrue(splits.get(1).getContent().contains("two"));
+  }
+
+  public void testSplit_Namespace() throws Exception {
+    AdaptrisMessage msg = AdaptrisMessageFactory.getDefaultInstance().newMessage(XpathMetadataServiceTest.XML_WITH_NAMESPACE);
+    StaxPathSplitter splitter = new StaxPathSplitter("/svrl:schematron-output/svrl:failed-assert");
+    splitter.setNamespaceContext(XpathMetadataServiceTest.createContextEntries());
+    NamespaceContext namespaceCtx = SimpleNamespaceContext.create(XpathMetadataServiceTest.createContextEntries());
+    DocumentBuilderFactoryBuilder builder = DocumentBuilderFactoryBuilder.newInstance().withNamespaceAware(namespaceCtx);
+    XPath xpath = XPath.newXPathInstance(builder, namespaceCtx);
+    List<AdaptrisMessage> splits = split(splitter, msg);
+    assertEquals(2, splits.size());
+    for (AdaptrisMessage m : splits) {
+      assertNotNull(xpath.selectSingleNode(XmlHelper.createDocument(m, builder), "/svrl:failed-assert"));
+    }
+  }
+
+  public void testSplit_UnknownPrefix() throws Exception {
+    AdaptrisMessage msg = AdaptrisMessageFactory.getDefaultInstance().newMessage(XpathMetadataServiceTest.XML_WITH_NAMESPACE);
+    try {
+      new StaxPathSplitter("/svrl:schematron-output/svrl:failed-assert").splitMessage(msg);
+      fail();
+    } catch (CoreException expected) {
+
+    }
+  }
+
+  public void testSplit_BadPath() throws Exception {
+    AdaptrisMessage msg = AdaptrisMessageFactory.getDefaultInstance().newMessage(XML_MESSAGE);
+    for (String path : new String[] {"envelope/document", "/envelope//document", "/"}) {
+      try {
+        new StaxPathSplitter(path).splitMessage(msg);
+        fail(path);
+      } catch (CoreException expected) {
+
+      }
+    }
+  }
+
+  public void testSplit_FileBacked() throws Exception {
+    FileBackedMessageFactory factory = new FileBackedMessageFactory();
+    AdaptrisMessage msg = factory.newMessage(XML_MESSAGE);
+    List<AdaptrisMessage> splits = split(new StaxPathSplitter(ENVELOPE_DOCUMENT), msg);
+    assertEquals(3, splits.size());
+    for (AdaptrisMessage m : splits) {
+      assertTrue(m instanceof FileBackedMessage);
+    }
+    assertEquals("two", new XPath().selectSingleTextItem(XmlHelper.createDocument(splits.get(1)), "/document"));
+  }
+
+  public void testSplit_NotXml() throws Exception {
+    AdaptrisMessage msg = AdaptrisMessageFactory.getDefaultInstance().newMessage("<envelope><document>");
+    try {
+      split(new StaxPathSplitter(ENVELOPE_DOCUMENT), msg);
+      fail();
+    } catch (RuntimeException expected) {
+
+    }
+  }
+
+  private static List<AdaptrisMessage> split(StaxPathSplitter splitter, AdaptrisMessage msg) throws Exception {
+    List<AdaptrisMessage> result = new ArrayList<>();
+    try (CloseableIterable<AdaptrisMessage> closeable = splitter.splitMessage(msg)) {
+      for (AdaptrisMessage m : closeable) {
+        result.add(m);
+      }
+    }
+    return result;
+  }
+}
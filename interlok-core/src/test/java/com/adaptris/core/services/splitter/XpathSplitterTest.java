@@ -17,6 +17,8 @@
 package com.adaptris.core.services.splitter;
 
 import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import javax.xml.namespace.NamespaceContext;
@@ -31,12 +33,16 @@ import org.xml.sax.InputSource;
 import com.adaptris.core.AdaptrisMessage;
 import com.adaptris.core.AdaptrisMessageFactory;
 import com.adaptris.core.CoreException;
+import com.adaptris.core.services.metadata.XpathMetadataService;
 import com.adaptris.core.services.metadata.XpathMetadataServiceTest;
+import com.adaptris.core.services.metadata.xpath.ConfiguredXpathQuery;
+import com.adaptris.core.services.metadata.xpath.XpathQuery;
 import com.adaptris.core.stubs.DefectiveMessageFactory;
 import com.adaptris.core.stubs.MessageHelper;
 import com.adaptris.core.stubs.MockMessageProducer;
 import com.adaptris.core.stubs.StubMessageFactory;
 import com.adaptris.core.util.DocumentBuilderFactoryBuilder;
+import com.adaptris.core.util.ParsedDocumentCache;
 import com.adaptris.core.util.XmlHelper;
 import com.adaptris.util.KeyValuePair;
 import com.adaptris.util.KeyValuePairSet;
@@ -192,6 +198,29 @@ public class XpathSplitterTest extends SplitterCase {
     assertEquals("Number of messages", 3, count);
   }
 
+  public void testSplitWithObjectMetadata_ParsedDocument() throws Exception {
+    AdaptrisMessage msg = AdaptrisMessageFactory.getDefaultInstance().newMessage(XML_MESSAGE);
+    XpathMetadataService parentService = new XpathMetadataService();
+    parentService.setXpathQueries(new ArrayList<XpathQuery>(Arrays.asList(new ConfiguredXpathQuery("first",
+        "/envelope/document[1]"))));
+    execute(parentService, msg);
+    // The parent now has its parsed payload in object metadata.
+    assertTrue(msg.getObjectHeaders().containsKey(ParsedDocumentCache.OBJECT_METADATA_KEY));
+    XpathMessageSplitter splitter = new XpathMessageSplitter(ENVELOPE_DOCUMENT, ENCODING_UTF8);
+    splitter.setCopyObjectMetadata(true);
+    List<String> values = new ArrayList<>();
+    try (com.adaptris.core.util.CloseableIterable<AdaptrisMessage> closeable = splitter.splitMessage(msg)) {
+      for (AdaptrisMessage m : closeable) {
+        XpathMetadataService childService = new XpathMetadataService();
+        childService.setXpathQueries(new ArrayList<XpathQuery>(Arrays.asList(new ConfiguredXpathQuery("value", "/document"))));
+        execute(childService, m);
+        values.add(m.getMetadataValue("value"));
+      }
+    }
+    assertEquals(Arrays.asList("one", "two", "three"), values);
+    assertEquals("one", msg.getMetadataValue("first"));
+  }
+
   public void testSplitThrowsException() throws Exception {
     AdaptrisMessage msg = AdaptrisMessageFactory.getDefaultInstance().newMessage(XML_MESSAGE);
     msg.setContent(XML_MESSAGE, msg.getContentEncoding());
@@ -17,13 +17,22 @@
 package com.adaptris.core.transform;
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import javax.xml.XMLConstants;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
+import org.apache.commons.io.FileUtils;
 import org.w3c.dom.Document;
 import org.xml.sax.InputSource;
 import com.adaptris.core.AdaptrisMessage;
@@ -33,10 +42,12 @@ import com.adaptris.core.DefaultMessageFactory;
 import com.adaptris.core.Service;
 import com.adaptris.core.ServiceException;
 import com.adaptris.core.stubs.MessageHelper;
+import com.adaptris.core.stubs.TempFileUtils;
 import com.adaptris.core.util.DocumentBuilderFactoryBuilder;
 import com.adaptris.core.util.LifecycleHelper;
 import com.adaptris.core.util.XmlHelper;
 import com.adaptris.util.KeyValuePair;
+import com.adaptris.util.TimeInterval;
 import com.adaptris.util.text.xml.StxTransformerFactory;
 import com.adaptris.util.text.xml.XPath;
 import com.adaptris.util.text.xml.XmlTransformerFactory;
@@ -395,6 +406,137 @@ public class XmlTransformServiceTest extends TransformServiceExample {
     }
   }
 
+  public void testCache_Statistics() throws Exception {
+    XmlTransformService service = new XmlTransformService();
+    service.setUrl(PROPERTIES.getProperty(KEY_XML_TEST_TRANSFORM_URL));
+    assertNull(service.getMaxCachedTransforms());
+    assertEquals(64, service.maxCachedTransforms());
+    assertNull(service.getCacheCheckInterval());
+    assertEquals(TimeUnit.MINUTES.toMillis(1), service.cacheCheckIntervalMs());
+    try {
+      start(service);
+      for (int i = 0; i < 3; i++) {
+        AdaptrisMessage msg = MessageHelper.createMessage(PROPERTIES.getProperty(KEY_XML_TEST_INPUT));
+        service.doService(msg);
+        assertEquals(PROPERTIES.getProperty(KEY_XML_TEST_OUTPUT), msg.getContent());
+      }
+      TemplatesCache cache = service.templatesCache();
+      assertEquals(1, cache.size());
+      assertEquals(1, cache.misses());
+      assertEquals(2, cache.hits());
+    }
+    finally {
+      stop(service);
+    }
+  }
+
+  public void testCache_Statistics_Evictions() throws Exception {
+    XmlTransformService service = new XmlTransformService();
+    service.setMaxCachedTransforms(1);
+    assertNull(service.templatesCache());
+    try {
+      start(service);
+      TemplatesCache cache = service.templatesCache();
+      String[] urls = {
+          PROPERTIES.getProperty(KEY_XML_TEST_TRANSFORM_URL), PROPERTIES.getProperty(KEY_XML_TEST_TRANSFORM_URL),
+          PROPERTIES.getProperty(KEY_XML_REMOVE_NAMESPACE_MAPPING), PROPERTIES.getProperty(KEY_XML_TEST_TRANSFORM_URL)
+      };
+      long[][] expected = {
+          // hits, misses, evictions
+          {0, 1, 0}, {1, 1, 0}, {1, 2, 1}, {1, 3, 2}
+      };
+      for (int i = 0; i < urls.length; i++) {
+        AdaptrisMessage msg = MessageHelper.createMessage(PROPERTIES.getProperty(KEY_XML_TEST_INPUT));
+        msg.addMetadata(service.getMetadataKey(), urls[i]);
+        service.doService(msg);
+        assertEquals(expected[i][0], cache.hits());
+        assertEquals(expected[i][1], cache.misses());
+        assertEquals(expected[i][2], cache.evictions());
+        assertEquals(1, cache.size());
+      }
+      assertEquals(0, cache.refreshes());
+    }
+    finally {
+      stop(service);
+    }
+    // Still available after the service is closed.
+    assertEquals(3, service.templatesCache().misses());
+    assertEquals(0, service.templatesCache().size());
+  }
+
+  public void testCache_MultipleThreads() throws Exception {
+    final XmlTransformService service = new XmlTransformService();
+    service.setUrl(PROPERTIES.getProperty(KEY_XML_TEST_TRANSFORM_URL));
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      start(service);
+      List<Future<String>> results = new ArrayList<>();
+      for (int i = 0; i < 40; i++) {
+        results.add(executor.submit(new Callable<String>() {
+          @Override
+          public String call() throws Exception {
+            AdaptrisMessage msg = MessageHelper.createMessage(PROPERTIES.getProperty(KEY_XML_TEST_INPUT));
+            service.doService(msg);
+            return msg.getContent();
+          }
+        }));
+      }
+      for (Future<String> f : results) {
+        assertEquals(PROPERTIES.getProperty(KEY_XML_TEST_OUTPUT), f.get());
+      }
+      TemplatesCache cache = service.templatesCache();
+      assertEquals(1, cache.size());
+      assertEquals(40, cache.hits() + cache.misses());
+    }
+    finally {
+      executor.shutdownNow();
+      stop(service);
+    }
+  }
+
+  public void testCache_MaxEntries() throws Exception {
+    TemplatesCache cache = new TemplatesCache(1, 0);
+    XmlTransformerFactory factory = new XsltTransformerFactory();
+    Transformer t1 = cache.transformer(PROPERTIES.getProperty(KEY_XML_TEST_TRANSFORM_URL), factory, false);
+    assertSame(t1, cache.transformer(PROPERTIES.getProperty(KEY_XML_TEST_TRANSFORM_URL), factory, false));
+    cache.transformer(PROPERTIES.getProperty(KEY_XML_REMOVE_NAMESPACE_MAPPING), factory, false);
+    assertEquals(1, cache.size());
+    assertEquals(1, cache.evictions());
+    assertNotSame(t1, cache.transformer(PROPERTIES.getProperty(KEY_XML_TEST_TRANSFORM_URL), factory, false));
+    assertEquals(3, cache.misses());
+    assertEquals(1, cache.hits());
+  }
+
+  public void testCache_RefreshOnChange() throws Exception {
+    File xsl = TempFileUtils.createTrackedFile(getName(), ".xsl", this);
+    FileUtils.copyFile(new File(new URL(PROPERTIES.getProperty(KEY_XML_TEST_TRANSFORM_URL)).toURI()), xsl);
+    XmlTransformService service = new XmlTransformService();
+    service.setCacheCheckInterval(new TimeInterval(0L, TimeUnit.MILLISECONDS));
+    try {
+      start(service);
+      AdaptrisMessage m1 = MessageHelper.createMessage(PROPERTIES.getProperty(KEY_XML_TEST_INPUT));
+      m1.addMetadata(service.getMetadataKey(), xsl.toURI().toString());
+      service.doService(m1);
+      assertEquals(PROPERTIES.getProperty(KEY_XML_TEST_OUTPUT), m1.getContent());
+      // unchanged, so it's a hit.
+      AdaptrisMessage m2 = MessageHelper.createMessage(PROPERTIES.getProperty(KEY_XML_TEST_INPUT));
+      m2.addMetadata(service.getMetadataKey(), xsl.toURI().toString());
+      service.doService(m2);
+      assertEquals(1, service.templatesCache().hits());
+
+      xsl.setLastModified(xsl.lastModified() + TimeUnit.MINUTES.toMillis(1));
+      AdaptrisMessage m3 = MessageHelper.createMessage(PROPERTIES.getProperty(KEY_XML_TEST_INPUT));
+      m3.addMetadata(service.getMetadataKey(), xsl.toURI().toString());
+      service.doService(m3);
+      assertEquals(PROPERTIES.getProperty(KEY_XML_TEST_OUTPUT), m3.getContent());
+      assertEquals(1, service.templatesCache().refreshes());
+      assertEquals(2, service.templatesCache().misses());
+    }
+    finally {
+      stop(service);
+    }
+  }
+
   public void testOutputWithNoCache() throws Exception {
     AdaptrisMessage m1 = MessageHelper.createMessage(PROPERTIES.getProperty(KEY_XML_TEST_INPUT));
     AdaptrisMessage m2 = MessageHelper.createMessage(PROPERTIES.getProperty(KEY_XML_TEST_INPUT));
@@ -17,16 +17,27 @@
 package com.adaptris.core.util;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import javax.xml.namespace.NamespaceContext;
+import org.apache.commons.io.FileUtils;
 import org.junit.Test;
 import org.w3c.dom.Document;
 import com.adaptris.core.AdaptrisMessage;
 import com.adaptris.core.AdaptrisMessageFactory;
 import com.adaptris.core.CoreException;
+import com.adaptris.core.DefaultMessageFactory;
+import com.adaptris.core.lms.FileBackedMessage;
+import com.adaptris.core.lms.FileBackedMessageFactory;
+import com.adaptris.core.stubs.TempFileUtils;
 import com.adaptris.util.XmlUtils;
 
 @SuppressWarnings("deprecation")
@@ -54,6 +65,80 @@ public class XmlHelperTest extends XmlHelper {
     assertNotNull(createDocument(EXAMPLE_XML, (NamespaceContext) null));
   }
 
+  @Test
+  public void testCreateReadOnlyDocument() throws Exception {
+    AdaptrisMessage msg = AdaptrisMessageFactory.getDefaultInstance().newMessage(EXAMPLE_XML);
+    Document d = createReadOnlyDocument(msg, DocumentBuilderFactoryBuilder.newInstance());
+    assertEquals("document", d.getDocumentElement().getNodeName());
+    assertSame(d, createReadOnlyDocument(msg, DocumentBuilderFactoryBuilder.newInstance()));
+    assertSame(d, createReadOnlyDocument(msg, null));
+    // Different settings mean that we parse again.
+    Document d2 = createReadOnlyDocument(msg, DocumentBuilderFactoryBuilder.newInstance().withIgnoreWhitespace(true));
+    assertNotSame(d, d2);
+    assertSame(d2, createReadOnlyDocument(msg, DocumentBuilderFactoryBuilder.newInstance().withIgnoreWhitespace(true)));
+  }
+
+  @Test
+  public void testCreateReadOnlyDocument_PayloadModified() throws Exception {
+    assertPayloadModified(AdaptrisMessageFactory.getDefaultInstance().newMessage(EXAMPLE_XML));
+    assertPayloadModified(new FileBackedMessageFactory().newMessage(EXAMPLE_XML));
+  }
+
+  @Test
+  public void testCreateReadOnlyDocument_InitialiseFromFile() throws Exception {
+    FileBackedMessage msg = (FileBackedMessage) new FileBackedMessageFactory().newMessage(EXAMPLE_XML);
+    Document d = createReadOnlyDocument(msg, null);
+    assertSame(d, createReadOnlyDocument(msg, null));
+    File file = TempFileUtils.createTrackedFile(this);
+    FileUtils.write(file, "<file/>", StandardCharsets.UTF_8);
+    msg.initialiseFrom(file);
+    assertFalse(msg.getObjectHeaders().containsKey(ParsedDocumentCache.OBJECT_METADATA_KEY));
+    assertEquals("file", createReadOnlyDocument(msg, null).getDocumentElement().getNodeName());
+  }
+
+  @Test
+  public void testCreateReadOnlyDocument_Clone() throws Exception {
+    DefaultMessageFactory copyOnWrite = new DefaultMessageFactory();
+    copyOnWrite.setCopyOnWriteClone(true);
+    for (AdaptrisMessageFactory f : new AdaptrisMessageFactory[] {AdaptrisMessageFactory.getDefaultInstance(), copyOnWrite}) {
+      AdaptrisMessage msg = f.newMessage(EXAMPLE_XML);
+      Document d = createReadOnlyDocument(msg, null);
+      AdaptrisMessage clone = (AdaptrisMessage) msg.clone();
+      assertFalse(clone.getObjectHeaders().containsKey(ParsedDocumentCache.OBJECT_METADATA_KEY));
+      assertNotSame(d, createReadOnlyDocument(clone, null));
+      assertSame(d, createReadOnlyDocument(msg, null));
+    }
+  }
+
+  @Test
+  public void testCreateReadOnlyDocument_CopiedObjectMetadata() throws Exception {
+    AdaptrisMessage msg = AdaptrisMessageFactory.getDefaultInstance().newMessage(EXAMPLE_XML);
+    Document d = createReadOnlyDocument(msg, null);
+    AdaptrisMessage other = AdaptrisMessageFactory.getDefaultInstance().newMessage("<other/>");
+    other.getObjectHeaders().putAll(msg.getObjectHeaders());
+    Document otherDoc = createReadOnlyDocument(other, null);
+    assertNotSame(d, otherDoc);
+    assertEquals("other", otherDoc.getDocumentElement().getNodeName());
+    assertSame(otherDoc, createReadOnlyDocument(other, null));
+    assertSame(d, createReadOnlyDocument(msg, null));
+  }
+
+  private void assertPayloadModified(AdaptrisMessage msg) throws Exception {
+    Document d = createReadOnlyDocument(msg, null);
+    assertSame(d, createReadOnlyDocument(msg, null));
+    msg.setContent("<root/>", null);
+    assertFalse(msg.getObjectHeaders().containsKey(ParsedDocumentCache.OBJECT_METADATA_KEY));
+    d = createReadOnlyDocument(msg, null);
+    assertEquals("root", d.getDocumentElement().getNodeName());
+    msg.setPayload("<payload/>".getBytes(StandardCharsets.UTF_8));
+    d = createReadOnlyDocument(msg, null);
+    assertEquals("payload", d.getDocumentElement().getNodeName());
+    try (OutputStream out = msg.getOutputStream()) {
+      out.write("<stream/>".getBytes(StandardCharsets.UTF_8));
+    }
+    assertEquals("stream", createReadOnlyDocument(msg, null).getDocumentElement().getNodeName());
+  }
+
   @Test
   public void testCreateDocumentFromMessage() throws Exception {
     Document d = XmlHelper.createDocument(AdaptrisMessageFactory.getDefaultInstance().newMessage(EXAMPLE_XML));
@@ -19,6 +19,7 @@ package com.adaptris.fs;
 import static org.junit.Assert.assertEquals;
 
 import java.io.File;
+import java.io.OutputStream;
 
 import org.junit.Test;
 
@@ -44,4 +45,16 @@ public class AppendingFsWorkerTest extends StandardWorkerTest {
 
     assertEquals(DATA + DATA, new String(readBytes));
   }
+
+  @Override
+  @Test
+  public void testOpenOutputStream_FileExists() throws Exception {
+    FsWorker worker = createWorker();
+    String[] testFiles = createTestFiles();
+    try (OutputStream out = worker.openOutputStream(new File(baseDir, testFiles[0]))) {
+      out.write(DATA.getBytes());
+    }
+    byte[] readBytes = worker.get(new File(baseDir, testFiles[0]));
+    assertEquals(DATA + DATA, new String(readBytes));
+  }
 }
@@ -19,6 +19,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
 
 import java.io.File;
+import java.io.OutputStream;
 
 import org.junit.Test;
 import org.mockito.Mockito;
@@ -45,6 +46,18 @@ public class OverwriteIfExistsWorkerTest extends StandardWorkerTest {
     assertEquals(DATA, new String(readBytes));
   }
 
+  @Override
+  @Test
+  public void testOpenOutputStream_FileExists() throws Exception {
+    FsWorker worker = createWorker();
+    String[] testFiles = createTestFiles();
+    try (OutputStream out = worker.openOutputStream(new File(baseDir, testFiles[0]))) {
+      out.write("hello".getBytes());
+    }
+    byte[] readBytes = worker.get(new File(baseDir, testFiles[0]));
+    assertEquals("hello", new String(readBytes));
+  }
+
   @Test
   public void testPutFile_Does_Not_Exist() throws Exception {
     OverwriteIfExistsWorker worker = createWorker();
@@ -26,6 +26,8 @@ import java.io.File;
 import java.io.FileFilter;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.net.URL;
 import java.util.ArrayList;
@@ -35,6 +37,7 @@ import java.util.List;
 import java.util.Set;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -183,6 +186,89 @@ public class StandardWorkerTest extends FsCase {
     }
   }
 
+  @Test
+  public void testOpenInputStream() throws Exception {
+    FsWorker worker = createWorker();
+    String[] testFiles = createTestFiles();
+    try (InputStream in = worker.openInputStream(new File(baseDir, testFiles[0]))) {
+      assertEquals(DATA, IOUtils.toString(in));
+    }
+    try {
+      worker.openInputStream(new File(baseDir, "whatever.txt"));
+      fail("non-existent file didn't throw Exception");
+    }
+    catch (FsException e) {
+    }
+  }
+
+  @Test
+  public void testOpenOutputStream() throws Exception {
+    FsWorker worker = createWorker();
+    File newFile = new File(baseDir, new GuidGenerator().safeUUID());
+    try (OutputStream out = worker.openOutputStream(newFile)) {
+      out.write(DATA.getBytes());
+    }
+    assertEquals(DATA, new String(worker.get(newFile)));
+  }
+
+  @Test
+  public void testOpenOutputStream_FileExists() throws Exception {
+    FsWorker worker = createWorker();
+    String[] testFiles = createTestFiles();
+    try {
+      worker.openOutputStream(new File(baseDir, testFiles[0])).close();
+      fail();
+    }
+    catch (FsException e) {
+
+    }
+  }
+
+  @Test
+  public void testPutFromFile() throws Exception {
+    FsWorker worker = createWorker();
+    String[] testFiles = createTestFiles();
+    File newFile = new File(baseDir, new GuidGenerator().safeUUID());
+    worker.put(new File(baseDir, testFiles[0]), newFile);
+    assertEquals(DATA, new String(worker.get(newFile)));
+  }
+
+  @Test
+  public void testGetToFile() throws Exception {
+    FsWorker worker = createWorker();
+    String[] testFiles = createTestFiles();
+    File target = new File(baseDir, new GuidGenerator().safeUUID());
+    worker.get(new File(baseDir, testFiles[0]), target);
+    assertEquals(DATA, FileUtils.readFileToString(target));
+  }
+
+  @Test
+  public void testDefaultStreams() throws Exception {
+    final FsWorker delegate = createWorker();
+    // Only implements the mandatory methods, so uses the default streaming behaviour.
+    FsWorker worker = new FsWorker() {
+      @Override
+      public byte[] get(File file) throws FsException {
+        return delegate.get(file);
+      }
+
+      @Override
+      public void put(byte[] data, File file) throws FsException {
+        delegate.put(data, file);
+      }
+    };
+    String[] testFiles = createTestFiles();
+    try (InputStream in = worker.openInputStream(new File(baseDir, testFiles[0]))) {
+      assertEquals(DATA, IOUtils.toString(in));
+    }
+    File newFile = new File(baseDir, new GuidGenerator().safeUUID());
+    try (OutputStream out = worker.openOutputStream(newFile)) {
+      out.write(DATA.getBytes());
+      assertFalse(newFile.exists());
+    }
+    assertEquals(DATA, new String(worker.get(newFile)));
+  }
+
   @Test
   public void testPutFileExists() throws Exception {
     FsWorker worker = createWorker();
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+public class TimeOrderedIdGeneratorTest {
+
+  @Test
+  public void testCreateId() throws Exception {
+    TimeOrderedIdGenerator guid = new TimeOrderedIdGenerator();
+    assertNotNull(guid.create(new Object()));
+  }
+
+  @Test
+  public void testCreateIdWithNull() throws Exception {
+    TimeOrderedIdGenerator guid = new TimeOrderedIdGenerator();
+    assertNotNull(guid.create(null));
+  }
+
+  @Test
+  public void testCreateId_IsUUID() throws Exception {
+    TimeOrderedIdGenerator guid = new TimeOrderedIdGenerator();
+    long before = System.currentTimeMillis();
+    UUID uuid = UUID.fromString(guid.create(null));
+    assertEquals(7, uuid.version());
+    assertEquals(2, uuid.variant());
+    long timestamp = uuid.getMostSignificantBits() >>> 16;
+    assertTrue(timestamp >= before);
+  }
+
+  @Test
+  public void testCreateId_Ordered() throws Exception {
+    TimeOrderedIdGenerator guid = new TimeOrderedIdGenerator();
+    String previous = guid.create(null);
+    for (int i = 0; i < 100000; i++) {
+      String next = guid.create(null);
+      assertTrue(previous + " < " + next, previous.compareTo(next) < 0);
+      previous = next;
+    }
+  }
+
+  @Test
+  public void testCreateId_Unique_MultipleThreads() throws Exception {
+    final TimeOrderedIdGenerator guid = new TimeOrderedIdGenerator();
+    final Set<String> ids = ConcurrentHashMap.newKeySet();
+    final int threads = 4;
+    final int count = 50000;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<Void>> results = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        results.add(executor.submit(new Callable<Void>() {
+          @Override
+          public Void call() throws Exception {
+            for (int j = 0; j < count; j++) {
+              ids.add(guid.create(null));
+            }
+            return null;
+          }
+        }));
+      }
+      for (Future<Void> f : results) {
+        f.get();
+      }
+    }
+    finally {
+      executor.shutdownNow();
+    }
+    assertEquals(threads * count, ids.size());
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2019 Adaptris Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package com.adaptris.util.text.xml;
+
+import static com.adaptris.util.text.xml.SimpleNamespaceContextTest.createNamespaceEntries;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathFactory;
+
+import org.junit.Test;
+import org.w3c.dom.Document;
+
+import com.adaptris.core.util.DocumentBuilderFactoryBuilder;
+import com.adaptris.core.util.XmlHelper;
+
+public class XPathExpressionCacheTest {
+
+  private static final String XML = "<root><test att='1'>one</test><test att='2'>two</test></root>";
+
+  @Test
+  public void testBorrowRelease() throws Exception {
+    XPathExpressionCache cache = new XPathExpressionCache(10);
+    javax.xml.xpath.XPath xpath = XPathFactory.newInstance().newXPath();
+    XPathExpressionCache.Key key = new XPathExpressionCache.Key("/root/test[1]", null, XPathFactory.class);
+    XPathExpression e1 = cache.borrow(key, xpath);
+    // e1 is in use, so we get another one.
+    XPathExpression e2 = cache.borrow(key, xpath);
+    assertNotSame(e1, e2);
+    cache.release(key, e1);
+    assertSame(e1, cache.borrow(key, xpath));
+    assertEquals(2, cache.misses());
+    assertEquals(1, cache.hits());
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void testMaxEntries() throws Exception {
+    XPathExpressionCache cache = new XPathExpressionCache(2);
+    javax.xml.xpath.XPath xpath = XPathFactory.newInstance().newXPath();
+    for (int i = 1; i <= 3; i++) {
+      XPathExpressionCache.Key key = new XPathExpressionCache.Key("/root/test[" + i + "]", null, XPathFactory.class);
+      cache.release(key, cache.borrow(key, xpath));
+    }
+    assertEquals(2, cache.size());
+    assertEquals(1, cache.evictions());
+    cache.clear();
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testKey() throws Exception {
+    XPathExpressionCache.Key k1 = new XPathExpressionCache.Key("/root", SimpleNamespaceContext.create(createNamespaceEntries()),
+        XPathFactory.class);
+    XPathExpressionCache.Key k2 = new XPathExpressionCache.Key("/root", SimpleNamespaceContext.create(createNamespaceEntries()),
+        XPathFactory.class);
+    assertEquals(k1, k2);
+    assertEquals(k1.hashCode(), k2.hashCode());
+    assertNotEquals(k1, new XPathExpressionCache.Key("/root", null, XPathFactory.class));
+    assertNotEquals(k1, new XPathExpressionCache.Key("/root", SimpleNamespaceContext.create(createNamespaceEntries()),
+        Object.class));
+    assertNotEquals(k1, new XPathExpressionCache.Key("/root/test", SimpleNamespaceContext.create(createNamespaceEntries()),
+        XPathFactory.class));
+  }
+
+  @Test
+  public void testMultipleThreads() throws Exception {
+    final XPathExpressionCache cache = new XPathExpressionCache(10);
+    final XPathExpressionCache.Key key = new XPathExpressionCache.Key("/root/test[@att='2']", null, XPathFactory.class);
+    final Document doc = XmlHelper.createDocument(XML, DocumentBuilderFactoryBuilder.newInstance());
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<String>> results = new ArrayList<>();
+      for (int i = 0; i < 100; i++) {
+        results.add(executor.submit(new Callable<String>() {
+          @Override
+          public String call() throws Exception {
+            XPathExpression expr = cache.borrow(key, XPathFactory.newInstance().newXPath());
+            try {
+              synchronized (doc) {
+                return (String) expr.evaluate(doc, XPathConstants.STRING);
+              }
+            }
+            finally {
+              cache.release(key, expr);
+            }
+          }
+        }));
+      }
+      for (Future<String> f : results) {
+        assertEquals("two", f.get());
+      }
+      assertEquals(100, cache.hits() + cache.misses());
+    }
+    finally {
+      executor.shutdownNow();
+    }
+  }
+}
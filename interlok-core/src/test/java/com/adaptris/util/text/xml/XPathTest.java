@@ -20,6 +20,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathFactory;
@@ -162,6 +163,37 @@ public class XPathTest {
     assertNotNull(xpath.selectSingleNode(d, "/root/test"));
   }
 
+  @Test
+  public void testExpressionCache() throws Exception {
+    XPathExpressionCache cache = XPath.expressionCache();
+    Document d = XmlHelper.createDocument(XML, DocumentBuilderFactoryBuilder.newInstance());
+    String expr = "/root/test[@att='2']";
+    long misses = cache.misses();
+    long hits = cache.hits();
+    // A new instance per document is how the services use it.
+    for (int i = 0; i < 5; i++) {
+      assertEquals("two", new XPath().selectSingleTextItem(d, expr));
+    }
+    assertEquals(misses + 1, cache.misses());
+    assertTrue(cache.hits() >= hits + 4);
+  }
+
+  @Test
+  public void testExpressionCache_NamespaceContext() throws Exception {
+    XPathExpressionCache cache = XPath.expressionCache();
+    Document d = XmlHelper.createDocument(XML, DocumentBuilderFactoryBuilder.newInstance());
+    String expr = "count(/root/node/child)";
+    long misses = cache.misses();
+    assertEquals("1", new XPath().selectSingleTextItem(d, expr));
+    // Equivalent namespace contexts share the same compiled expression.
+    assertEquals("1", new XPath(SimpleNamespaceContext.create(createNamespaceEntries())).selectSingleTextItem(d, expr));
+    assertEquals("1", new XPath(SimpleNamespaceContext.create(createNamespaceEntries())).selectSingleTextItem(d, expr));
+    assertEquals(misses + 2, cache.misses());
+    // A different factory is a different compiled expression.
+    assertEquals("1", new XPath(null, XPath.build(false)).selectSingleTextItem(d, expr));
+    assertEquals(misses + 3, cache.misses());
+  }
+
   @Test
   public void testBuild() {
     assertEquals(XPathFactoryImpl.class, XPath.build(true).getClass());